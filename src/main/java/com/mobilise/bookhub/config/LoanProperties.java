@@ -0,0 +1,18 @@
+package com.mobilise.bookhub.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Loan configuration bound from the {@code loan.*} properties.
+ *
+ * @param period how long a borrowed copy may be kept before it is overdue
+ * @author codecharlan
+ */
+@ConfigurationProperties(prefix = "loan")
+public record LoanProperties(
+        @DefaultValue("14d") Duration period
+) {
+}
@@ -13,6 +13,7 @@ import org.springframework.http.HttpStatus;
 public class Constants {
     public static final int NETWORK_AUTHENTICATION_REQUIRED = HttpStatus.NETWORK_AUTHENTICATION_REQUIRED.value();
     public static final String AUTHORIZATION_HEADER = "Authorization";
+    public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
     public static final String ID_URL = "/{id}";
     public static final String BASE_BOOK_API_URL = "/api/books";
     public static final String CREATE_URL = "/create";
@@ -22,12 +23,23 @@ public class Constants {
     public static final String BORROW_BOOK_URL = "/borrow/{bookId}";
     public static final String RETURN_BOOK_URL = "/return/{bookId}";
     public static final String PURCHASE_BOOK_URL = "/purchase/{bookId}";
+    public static final String CHECKOUT_URL = "/checkout";
+    public static final String BULK_BORROW_URL = "/borrow/bulk";
+    public static final String BULK_RETURN_URL = "/return/bulk";
+    public static final String RESERVE_BOOK_URL = "/reserve/{bookId}";
+    public static final String CANCEL_RESERVATION_URL = "/reservations/{reservationId}";
     public static final String BASE_USER_API_URL = "/api/users";
     public static final String REGISTER_URL = "/register";
     public static final String LOGIN_URL = "/login";
     public static final String LOGOUT_URL = "/logout";
     public static final String SEARCH_URL = "/search";
+    public static final String SUGGEST_URL = "/suggest";
+    public static final String ISBN_URL = "/isbn/{isbn}";
+    public static final String ISBN_BATCH_URL = "/isbn/batch";
     public static final String BASE_REVIEW_API_URL = "/api/reviews";
     public static final String INVALID_ENUM_ENTRY =  "Invalid entry: make your entry again";
+    public static final String JWT_PARSE_COUNT_ATTRIBUTE = "bookhub.jwt.parseCount";
+    public static final String VERIFIED_CLAIMS_ATTRIBUTE = "bookhub.jwt.verifiedClaims";
+    public static final String RESOLVED_USER_ATTRIBUTE = "bookhub.resolvedUser";
 
 }
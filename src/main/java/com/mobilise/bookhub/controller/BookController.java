@@ -1,25 +1,39 @@
 package com.mobilise.bookhub.controller;
 
+import com.mobilise.bookhub.dto.request.BookFilterDto;
 import com.mobilise.bookhub.dto.request.BookRequestDto;
+import com.mobilise.bookhub.dto.request.BulkBookRequestDto;
+import com.mobilise.bookhub.dto.request.CheckoutRequestDto;
+import com.mobilise.bookhub.dto.request.IsbnBatchRequestDto;
 import com.mobilise.bookhub.dto.response.ApiResponse;
 import com.mobilise.bookhub.dto.response.BookResponseDto;
+import com.mobilise.bookhub.dto.response.BulkBookResponseDto;
+import com.mobilise.bookhub.dto.response.CheckoutResponseDto;
+import com.mobilise.bookhub.dto.response.IsbnLookupResponseDto;
+import com.mobilise.bookhub.dto.response.ReservationResponseDto;
+import com.mobilise.bookhub.dto.response.SuggestionResponseDto;
+import com.mobilise.bookhub.enums.CountMode;
+import com.mobilise.bookhub.enums.MatchMode;
 import com.mobilise.bookhub.exception.BookOperationException;
 import com.mobilise.bookhub.exception.InvalidArgumentException;
 import com.mobilise.bookhub.exception.ResourceNotFoundException;
-import com.mobilise.bookhub.security.JwtService;
+import com.mobilise.bookhub.security.implementation.UserDetailsImpl;
 import com.mobilise.bookhub.services.BookService;
+import com.mobilise.bookhub.services.serviceImpl.IdempotencyService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.access.annotation.Secured;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
-import java.util.Map;
+import java.util.stream.Collectors;
 
 import static com.mobilise.bookhub.constants.Constants.*;
 import static org.springframework.http.HttpStatus.BAD_REQUEST;
@@ -41,25 +55,24 @@ public class BookController {
      */
     private final BookService bookService;
     /**
-     * Service for managing JWT tokens.
+     * Runs borrow, return and purchase requests once per {@code Idempotency-Key}.
      */
-    private final JwtService jwtService;
+    private final IdempotencyService idempotencyService;
     private final static Logger logger = LoggerFactory.getLogger(BookController.class);
 
     /**
      * Secured method for creating a new book.
      *
-     * @param authorizationHeader The authorization header containing the JWT token.
+     * @param currentUser         The authenticated user making the request.
      * @param newBook             The new book details.
      * @return A response containing the created book.
      * @throws AccessDeniedException if User does not have Admin permission to access the method.
      */
     @Secured("ADMINISTRATOR")
     @PostMapping(CREATE_URL)
-    public ResponseEntity<ApiResponse<BookResponseDto>> createBook(@RequestHeader(name = AUTHORIZATION_HEADER) String authorizationHeader, @Valid @RequestBody BookRequestDto newBook) {
+    public ResponseEntity<ApiResponse<BookResponseDto>> createBook(@AuthenticationPrincipal UserDetailsImpl currentUser, @Valid @RequestBody BookRequestDto newBook) {
         try {
-            Map<String, String> userDetails = jwtService.parseTokenClaims(authorizationHeader.substring(7));
-            String administrator = userDetails.get("email");
+            String administrator = currentUser.getEmail();
             ApiResponse<BookResponseDto> response = bookService.createBook(administrator, newBook);
             HttpStatus httpStatus = HttpStatus.valueOf(response.status());
             return new ResponseEntity<>(response, httpStatus);
@@ -71,62 +84,155 @@ public class BookController {
 
     /**
      * Secured method for editing an existing book.
+     * Clients may send the book's ETag as {@code If-Match}; the edit is then rejected with 412 if the book has
+     * changed since. The response carries the new ETag.
      *
-     * @param authorizationHeader The authorization header containing the JWT token.
+     * @param currentUser         The authenticated user making the request.
      * @param id                  The id of the book to be edited.
+     * @param ifMatch             The optional ETag the edit is based on.
      * @param updatedBook         The updated book details.
      * @return A response containing the updated book.
      */
     @Secured("ADMINISTRATOR")
     @PutMapping(EDIT_URL)
-    public ResponseEntity<ApiResponse<BookResponseDto>> editBook(@RequestHeader(AUTHORIZATION_HEADER) String authorizationHeader,
+    public ResponseEntity<ApiResponse<BookResponseDto>> editBook(@AuthenticationPrincipal UserDetailsImpl currentUser,
                                                                  @PathVariable Long id,
+                                                                 @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
                                                                  @RequestBody BookRequestDto updatedBook) {
         try {
-            String token = authorizationHeader.substring(7);
-            String userEmail = jwtService.parseTokenClaims(token).get("email");
-            ApiResponse<BookResponseDto> response = bookService.editBook(userEmail, id, updatedBook);
+            String userEmail = currentUser.getEmail();
+            ApiResponse<BookResponseDto> response = bookService.editBook(userEmail, id, updatedBook, parseETag(ifMatch));
             HttpStatus httpStatus = HttpStatus.valueOf(response.status());
-            return new ResponseEntity<>(response, httpStatus);
+            return withETag(ResponseEntity.status(httpStatus), response.data()).body(response);
         } catch (AccessDeniedException e) {
             logger.error("Error creating book: {}", e.getMessage());
             return new ResponseEntity<>(null, BAD_REQUEST);
         }
     }
+
+    /**
+     * Parses a book version from an {@code If-Match} header value such as {@code "3"} or {@code W/"3"}.
+     *
+     * @param ifMatch the header value, or {@code null}
+     * @return the version, or {@code null} if the header is absent or {@code *}
+     * @throws InvalidArgumentException if the value is not a book version
+     */
+    private static Long parseETag(String ifMatch) throws InvalidArgumentException {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String tag = ifMatch.trim();
+        if (tag.startsWith("W/")) {
+            tag = tag.substring(2);
+        }
+        tag = tag.replace("\"", "");
+        try {
+            return Long.valueOf(tag);
+        } catch (NumberFormatException e) {
+            throw new InvalidArgumentException("Invalid If-Match header: " + ifMatch);
+        }
+    }
+
+    private static ResponseEntity.BodyBuilder withETag(ResponseEntity.BodyBuilder builder, BookResponseDto book) {
+        return book != null && book.version() != null ? builder.eTag(String.valueOf(book.version())) : builder;
+    }
+
     /**
      * Method for retrieving a specific book by its id.
+     * The response carries the book's version as ETag, to be sent back as {@code If-Match} when editing.
      *
-     * @param authorizationHeader The authorization header containing the JWT token.
+     * @param currentUser         The authenticated user making the request.
      * @param id                  The id of the book to be retrieved.
      * @return A response containing the requested book.
      */
     @GetMapping(ID_URL)
-    public ResponseEntity<ApiResponse<BookResponseDto>> getBookById(@RequestHeader(AUTHORIZATION_HEADER) String authorizationHeader, @PathVariable Long id) {
-        String token = authorizationHeader.substring(7);
-        String userEmail = jwtService.parseTokenClaims(token).get("email");
+    public ResponseEntity<ApiResponse<BookResponseDto>> getBookById(@AuthenticationPrincipal UserDetailsImpl currentUser, @PathVariable Long id) {
+        String userEmail = currentUser.getEmail();
         ApiResponse<BookResponseDto> response = bookService.getBookById(userEmail, id);
         HttpStatus httpStatus = HttpStatus.valueOf(response.status());
+        return withETag(ResponseEntity.status(httpStatus), response.data()).body(response);
+    }
+
+    /**
+     * Method for retrieving a book by its scanned ISBN.
+     *
+     * @param currentUser         The authenticated user making the request.
+     * @param isbn                The ISBN-10 or ISBN-13 of the book, with or without hyphens.
+     * @return A response containing the requested book.
+     * @throws InvalidArgumentException if the ISBN is not valid.
+     * @throws ResourceNotFoundException if no book has the ISBN.
+     */
+    @GetMapping(ISBN_URL)
+    public ResponseEntity<ApiResponse<BookResponseDto>> getBookByIsbn(@AuthenticationPrincipal UserDetailsImpl currentUser,
+                                                                      @PathVariable String isbn)
+            throws InvalidArgumentException, ResourceNotFoundException {
+        ApiResponse<BookResponseDto> response = bookService.getBookByIsbn(currentUser.getEmail(), isbn);
+        HttpStatus httpStatus = HttpStatus.valueOf(response.status());
+        return withETag(ResponseEntity.status(httpStatus), response.data()).body(response);
+    }
+
+    /**
+     * Method for retrieving the books of a batch of scanned ISBNs in one request.
+     *
+     * @param currentUser         The authenticated user making the request.
+     * @param request             The ISBNs, at most 500.
+     * @return A response containing the book of every ISBN, in the order of the ISBNs.
+     */
+    @PostMapping(ISBN_BATCH_URL)
+    public ResponseEntity<ApiResponse<List<IsbnLookupResponseDto>>> getBooksByIsbn(@AuthenticationPrincipal UserDetailsImpl currentUser,
+                                                                                   @Valid @RequestBody IsbnBatchRequestDto request) {
+        ApiResponse<List<IsbnLookupResponseDto>> response = bookService.getBooksByIsbn(currentUser.getEmail(), request.isbns());
+        HttpStatus httpStatus = HttpStatus.valueOf(response.status());
         return new ResponseEntity<>(response, httpStatus);
     }
+
     /**
      * Method for searching books by title or author.
      *
-     * @param authorizationHeader The authorization header containing the JWT token.
+     * @param currentUser         The authenticated user making the request.
      * @param pageNumber          The page number of the results.
      * @param pageSize            The number of results per page.
      * @param searchTerm          The search term for filtering the results.
+     * @param cursor              The cursor of the page to read; when present, even empty for the first page,
+     *                            pages are read with cursors instead of page numbers.
+     * @param count               How to count the matching books: NONE (the default), APPROXIMATE or EXACT.
+     * @param match               How to match the search term: EXACT (the default) or FUZZY, which tolerates typing
+     *                            errors, ranks by relevance and is paged by page number only.
      * @return A response containing the list of books and pagination information.
+     * @throws InvalidArgumentException if a fuzzy search is asked for with a cursor.
      */
     @GetMapping(SEARCH_URL)
     public ResponseEntity<ApiResponse<ApiResponse.Wrapper<List<BookResponseDto>>>> searchBooksByTitleOrAuthor(
-            @RequestHeader(AUTHORIZATION_HEADER) String authorizationHeader,
+            @AuthenticationPrincipal UserDetailsImpl currentUser,
             @RequestParam(value = "pageNumber", defaultValue = "0") int pageNumber,
             @RequestParam(value = "pageSize", defaultValue = "10") int pageSize,
-            @RequestParam(value = "searchTerm", required = false) String searchTerm) {
-        String token = authorizationHeader.substring(7);
-        String userEmail = jwtService.parseTokenClaims(token).get("email");
-        ApiResponse<ApiResponse.Wrapper<List<BookResponseDto>>> response =
-                bookService.searchBooksByTitleOrAuthor(userEmail, pageNumber, pageSize, searchTerm);
+            @RequestParam(value = "searchTerm", required = false) String searchTerm,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "count", defaultValue = "NONE") CountMode count,
+            @RequestParam(value = "match", defaultValue = "EXACT") MatchMode match) throws InvalidArgumentException {
+        if (cursor != null && match == MatchMode.FUZZY) {
+            throw new InvalidArgumentException("Fuzzy searches are paged by page number, not by cursor");
+        }
+        String userEmail = currentUser.getEmail();
+        ApiResponse<ApiResponse.Wrapper<List<BookResponseDto>>> response = cursor != null
+                ? bookService.searchBooksByTitleOrAuthorAfter(userEmail, cursor, pageSize, searchTerm, count)
+                : bookService.searchBooksByTitleOrAuthor(userEmail, pageNumber, pageSize, searchTerm, count, match);
+        HttpStatus httpStatus = HttpStatus.valueOf(response.status());
+        return new ResponseEntity<>(response, httpStatus);
+    }
+
+    /**
+     * Method for suggesting titles and author names while a user types.
+     *
+     * @param prefix              What the user typed so far.
+     * @param limit               The maximum number of suggestions.
+     * @return A response containing the most popular titles and author names starting with the prefix.
+     */
+    @GetMapping(SUGGEST_URL)
+    public ResponseEntity<ApiResponse<List<SuggestionResponseDto>>> suggestBooks(
+            @RequestParam(value = "prefix") String prefix,
+            @RequestParam(value = "limit", defaultValue = "10") int limit) throws InvalidArgumentException {
+        ApiResponse<List<SuggestionResponseDto>> response = bookService.suggestBooks(prefix, limit);
         HttpStatus httpStatus = HttpStatus.valueOf(response.status());
         return new ResponseEntity<>(response, httpStatus);
     }
@@ -134,27 +240,36 @@ public class BookController {
     /**
      * Method for retrieving all books.
      *
-     * @param authorizationHeader The authorization header containing the JWT token.
+     * @param currentUser         The authenticated user making the request.
      * @param pageNumber          The page number of the results.
      * @param pageSize            The number of results per page.
      * @param sortBy              The field to sort by.
      * @param sortOrder           The order of sorting (ascending or descending).
      * @param searchTerm          The search term for filtering the results.
+     * @param cursor              The cursor of the page to read; when present, even empty for the first page,
+     *                            pages are read with cursors instead of page numbers.
+     * @param count               How to count the matching books: NONE (the default), APPROXIMATE or EXACT.
+     * @param filter              The facet filters: genre, status and publisherId, each repeatable, yearFrom, yearTo,
+     *                            minPrice and maxPrice, and facets=true for the number of books per facet value.
+     *                            Facet counts are left out while a search term is given.
      * @return A response containing the list of books and pagination information.
      */
     @GetMapping(GET_ALL_URL)
     public ResponseEntity<ApiResponse<ApiResponse.Wrapper<List<BookResponseDto>>>> retrieveAllBooks(
-            @RequestHeader(AUTHORIZATION_HEADER) String authorizationHeader,
+            @AuthenticationPrincipal UserDetailsImpl currentUser,
             @RequestParam(defaultValue = "0") int pageNumber,
             @RequestParam(defaultValue = "10") int pageSize,
             @RequestParam(defaultValue = "title") String sortBy,
             @RequestParam(defaultValue = "asc") String sortOrder,
-            @RequestParam(required = false) String searchTerm) {
-        String token = authorizationHeader.substring(7);
-        String userEmail = jwtService.parseTokenClaims(token).get("email");
+            @RequestParam(required = false) String searchTerm,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "NONE") CountMode count,
+            @ModelAttribute BookFilterDto filter) {
+        String userEmail = currentUser.getEmail();
 
-        ApiResponse<ApiResponse.Wrapper<List<BookResponseDto>>> response =
-                bookService.getAllBooks(userEmail, pageNumber, pageSize, sortBy, sortOrder, searchTerm);
+        ApiResponse<ApiResponse.Wrapper<List<BookResponseDto>>> response = cursor != null
+                ? bookService.getAllBooksAfter(userEmail, cursor, pageSize, sortBy, sortOrder, searchTerm, count, filter)
+                : bookService.getAllBooks(userEmail, pageNumber, pageSize, sortBy, sortOrder, searchTerm, count, filter);
         HttpStatus httpStatus = HttpStatus.valueOf(response.status());
         return new ResponseEntity<>(response, httpStatus);
     }
@@ -162,16 +277,15 @@ public class BookController {
     /**
      * Secured method for deleting a book.
      *
-     * @param authorizationHeader The authorization header containing the JWT token.
+     * @param currentUser         The authenticated user making the request.
      * @param id                  The id of the book to be deleted.
      * @return A response containing a message indicating the success or failure of the operation.
      */
     @Secured("ADMINISTRATOR")
     @DeleteMapping(DELETE_URL)
-    public ResponseEntity<ApiResponse<String>> deleteBook(@RequestHeader(AUTHORIZATION_HEADER) String authorizationHeader, @PathVariable Long id) {
+    public ResponseEntity<ApiResponse<String>> deleteBook(@AuthenticationPrincipal UserDetailsImpl currentUser, @PathVariable Long id) {
         try {
-            String token = authorizationHeader.substring(7);
-            String userEmail = jwtService.parseTokenClaims(token).get("email");
+            String userEmail = currentUser.getEmail();
             ApiResponse<String> response = bookService.deleteBook(userEmail, id);
             HttpStatus httpStatus = HttpStatus.valueOf(response.status());
             return new ResponseEntity<>(response, httpStatus);
@@ -184,19 +298,22 @@ public class BookController {
     /**
      * Method for borrowing a book.
      *
-     * @param authorizationHeader The authorization header containing the JWT token.
+     * @param currentUser         The authenticated user making the request.
      * @param borrowCount         The number of books to be borrowed.
      * @param bookId              The id of the book to be borrowed.
+     * @param idempotencyKey      Optional key that makes retries of this request return the first response.
      * @return A response containing the borrowed book.
      */
     @PostMapping(BORROW_BOOK_URL)
-    public ResponseEntity<ApiResponse<BookResponseDto>> borrowBook(@RequestHeader(AUTHORIZATION_HEADER) String authorizationHeader,
+    public ResponseEntity<ApiResponse<BookResponseDto>> borrowBook(@AuthenticationPrincipal UserDetailsImpl currentUser,
                                                                    @RequestParam Integer borrowCount,
-                                                                   @PathVariable Long bookId)
+                                                                   @PathVariable Long bookId,
+                                                                   @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey)
             throws InvalidArgumentException, BookOperationException, ResourceNotFoundException {
-        String token = authorizationHeader.substring(7);
-        String userEmail = jwtService.parseTokenClaims(token).get("email");
-        ApiResponse<BookResponseDto> response = bookService.borrowBook(bookId, userEmail, borrowCount);
+        String userEmail = currentUser.getEmail();
+        ApiResponse<BookResponseDto> response = idempotencyService.execute(idempotencyKey, userEmail,
+                "BORROW:" + bookId + ":" + borrowCount, BookResponseDto.class,
+                () -> bookService.borrowBook(bookId, userEmail, borrowCount));
         HttpStatus httpStatus = HttpStatus.valueOf(response.status());
         return new ResponseEntity<>(response, httpStatus);
     }
@@ -204,19 +321,22 @@ public class BookController {
     /**
      * Method for returning a book.
      *
-     * @param authorizationHeader The authorization header containing the JWT token.
+     * @param currentUser         The authenticated user making the request.
      * @param returnCount         The number of books to be returned.
      * @param bookId              The id of the book to be returned.
+     * @param idempotencyKey      Optional key that makes retries of this request return the first response.
      * @return A response containing the returned book.
      */
     @PostMapping(RETURN_BOOK_URL)
-    public ResponseEntity<ApiResponse<BookResponseDto>> returnBook(@RequestHeader(AUTHORIZATION_HEADER) String authorizationHeader,
+    public ResponseEntity<ApiResponse<BookResponseDto>> returnBook(@AuthenticationPrincipal UserDetailsImpl currentUser,
                                                                    @RequestParam Integer returnCount,
-                                                                   @PathVariable Long bookId)
+                                                                   @PathVariable Long bookId,
+                                                                   @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey)
             throws InvalidArgumentException, BookOperationException, ResourceNotFoundException {
-        String token = authorizationHeader.substring(7);
-        String userEmail = jwtService.parseTokenClaims(token).get("email");
-        ApiResponse<BookResponseDto> response = bookService.returnBook(userEmail, bookId, returnCount);
+        String userEmail = currentUser.getEmail();
+        ApiResponse<BookResponseDto> response = idempotencyService.execute(idempotencyKey, userEmail,
+                "RETURN:" + bookId + ":" + returnCount, BookResponseDto.class,
+                () -> bookService.returnBook(userEmail, bookId, returnCount));
         HttpStatus httpStatus = HttpStatus.valueOf(response.status());
         return new ResponseEntity<>(response, httpStatus);
     }
@@ -224,20 +344,142 @@ public class BookController {
     /**
      * Method for purchasing a book.
      *
-     * @param authorizationHeader The authorization header containing the JWT token.
+     * @param currentUser         The authenticated user making the request.
      * @param purchaseCount       The number of books to be purchased.
      * @param bookId              The id of the book to be purchased.
+     * @param idempotencyKey      Optional key that makes retries of this request return the first response.
      * @return A response containing the purchased book.
      */
     @PostMapping(PURCHASE_BOOK_URL)
-    public ResponseEntity<ApiResponse<BookResponseDto>> purchaseBook(@RequestHeader(AUTHORIZATION_HEADER) String authorizationHeader,
+    public ResponseEntity<ApiResponse<BookResponseDto>> purchaseBook(@AuthenticationPrincipal UserDetailsImpl currentUser,
                                                                      @RequestParam Integer purchaseCount,
-                                                                     @PathVariable Long bookId)
+                                                                     @PathVariable Long bookId,
+                                                                     @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey)
             throws InvalidArgumentException, BookOperationException, ResourceNotFoundException {
-        String token = authorizationHeader.substring(7);
-        String userEmail = jwtService.parseTokenClaims(token).get("email");
-        ApiResponse<BookResponseDto> response = bookService.purchaseBook(bookId, userEmail, purchaseCount);
+        String userEmail = currentUser.getEmail();
+        ApiResponse<BookResponseDto> response = idempotencyService.execute(idempotencyKey, userEmail,
+                "PURCHASE:" + bookId + ":" + purchaseCount, BookResponseDto.class,
+                () -> bookService.purchaseBook(bookId, userEmail, purchaseCount));
         HttpStatus httpStatus = HttpStatus.valueOf(response.status());
         return new ResponseEntity<>(response, httpStatus);
     }
-}
\ No newline at end of file
+
+    /**
+     * Method for purchasing several books in one checkout.
+     *
+     * @param currentUser         The authenticated user making the request.
+     * @param cart                The books and number of copies to be purchased.
+     * @param idempotencyKey      Optional key that makes retries of this request return the first response.
+     * @return A response containing the purchased books, the total amount and the remaining balance.
+     */
+    @PostMapping(CHECKOUT_URL)
+    public ResponseEntity<ApiResponse<CheckoutResponseDto>> checkout(@AuthenticationPrincipal UserDetailsImpl currentUser,
+                                                                     @Valid @RequestBody CheckoutRequestDto cart,
+                                                                     @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey)
+            throws InvalidArgumentException, BookOperationException, ResourceNotFoundException {
+        String userEmail = currentUser.getEmail();
+        String fingerprint = "CHECKOUT:" + cart.lines().stream()
+                .map(line -> line.bookId() + "x" + line.count())
+                .collect(Collectors.joining(","));
+        ApiResponse<CheckoutResponseDto> response = idempotencyService.execute(idempotencyKey, userEmail, fingerprint,
+                CheckoutResponseDto.class, () -> bookService.checkout(userEmail, cart));
+        HttpStatus httpStatus = HttpStatus.valueOf(response.status());
+        return new ResponseEntity<>(response, httpStatus);
+    }
+
+    /**
+     * Method for borrowing several books in one request, e.g. a stack scanned at the desk.
+     * Each book succeeds or fails on its own and the response reports every line.
+     *
+     * @param currentUser         The authenticated user making the request.
+     * @param request             The books and number of copies to be borrowed, and optionally the patron.
+     * @param idempotencyKey      Optional key that makes retries of this request return the first response.
+     * @return A response containing the result of every line.
+     * @throws AccessDeniedException if a User who is not an Admin borrows for another patron.
+     */
+    @PostMapping(BULK_BORROW_URL)
+    public ResponseEntity<ApiResponse<BulkBookResponseDto>> borrowBooks(@AuthenticationPrincipal UserDetailsImpl currentUser,
+                                                                        @Valid @RequestBody BulkBookRequestDto request,
+                                                                        @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey)
+            throws InvalidArgumentException, BookOperationException, ResourceNotFoundException {
+        String patronEmail = resolvePatron(currentUser, request.patronEmail());
+        ApiResponse<BulkBookResponseDto> response = idempotencyService.execute(idempotencyKey, currentUser.getEmail(),
+                bulkFingerprint("BULK_BORROW:", patronEmail, request), BulkBookResponseDto.class,
+                () -> bookService.borrowBooks(patronEmail, request.lines()));
+        HttpStatus httpStatus = HttpStatus.valueOf(response.status());
+        return new ResponseEntity<>(response, httpStatus);
+    }
+
+    /**
+     * Method for returning several books in one request.
+     * Each book succeeds or fails on its own and the response reports every line.
+     *
+     * @param currentUser         The authenticated user making the request.
+     * @param request             The books and number of copies to be returned, and optionally the patron.
+     * @param idempotencyKey      Optional key that makes retries of this request return the first response.
+     * @return A response containing the result of every line.
+     * @throws AccessDeniedException if a User who is not an Admin returns for another patron.
+     */
+    @PostMapping(BULK_RETURN_URL)
+    public ResponseEntity<ApiResponse<BulkBookResponseDto>> returnBooks(@AuthenticationPrincipal UserDetailsImpl currentUser,
+                                                                        @Valid @RequestBody BulkBookRequestDto request,
+                                                                        @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey)
+            throws InvalidArgumentException, BookOperationException, ResourceNotFoundException {
+        String patronEmail = resolvePatron(currentUser, request.patronEmail());
+        ApiResponse<BulkBookResponseDto> response = idempotencyService.execute(idempotencyKey, currentUser.getEmail(),
+                bulkFingerprint("BULK_RETURN:", patronEmail, request), BulkBookResponseDto.class,
+                () -> bookService.returnBooks(patronEmail, request.lines()));
+        HttpStatus httpStatus = HttpStatus.valueOf(response.status());
+        return new ResponseEntity<>(response, httpStatus);
+    }
+
+    /**
+     * Method for reserving an out-of-stock book.
+     *
+     * @param currentUser         The authenticated user making the request.
+     * @param bookId              The id of the book to be reserved.
+     * @return A response containing the reservation and its position in the queue.
+     */
+    @PostMapping(RESERVE_BOOK_URL)
+    public ResponseEntity<ApiResponse<ReservationResponseDto>> reserveBook(@AuthenticationPrincipal UserDetailsImpl currentUser,
+                                                                           @PathVariable Long bookId)
+            throws BookOperationException, ResourceNotFoundException {
+        ApiResponse<ReservationResponseDto> response = bookService.reserveBook(currentUser.getEmail(), bookId);
+        HttpStatus httpStatus = HttpStatus.valueOf(response.status());
+        return new ResponseEntity<>(response, httpStatus);
+    }
+
+    /**
+     * Method for cancelling a reservation.
+     *
+     * @param currentUser         The authenticated user making the request.
+     * @param reservationId       The id of the reservation to be cancelled.
+     * @return A response containing the cancelled reservation.
+     */
+    @DeleteMapping(CANCEL_RESERVATION_URL)
+    public ResponseEntity<ApiResponse<ReservationResponseDto>> cancelReservation(@AuthenticationPrincipal UserDetailsImpl currentUser,
+                                                                                 @PathVariable Long reservationId)
+            throws BookOperationException, ResourceNotFoundException {
+        ApiResponse<ReservationResponseDto> response = bookService.cancelReservation(currentUser.getEmail(), reservationId);
+        HttpStatus httpStatus = HttpStatus.valueOf(response.status());
+        return new ResponseEntity<>(response, httpStatus);
+    }
+
+    private static String resolvePatron(UserDetailsImpl currentUser, String patronEmail) {
+        if (patronEmail == null || patronEmail.equalsIgnoreCase(currentUser.getEmail())) {
+            return currentUser.getEmail();
+        }
+        boolean administrator = currentUser.getAuthorities().stream()
+                .anyMatch(authority -> "ADMINISTRATOR".equals(authority.getAuthority()));
+        if (!administrator) {
+            throw new AccessDeniedException("Only an administrator can act for another patron");
+        }
+        return patronEmail;
+    }
+
+    private static String bulkFingerprint(String operation, String patronEmail, BulkBookRequestDto request) {
+        return operation + patronEmail + ":" + request.lines().stream()
+                .map(line -> line.bookId() + "x" + line.count())
+                .collect(Collectors.joining(","));
+    }
+}
@@ -5,15 +5,15 @@ import com.mobilise.bookhub.dto.response.ApiResponse;
 import com.mobilise.bookhub.dto.response.ReviewResponseDto;
 import com.mobilise.bookhub.exception.ResourceNotFoundException;
 import com.mobilise.bookhub.exception.UserNotFoundException;
-import com.mobilise.bookhub.security.JwtService;
+import com.mobilise.bookhub.security.implementation.UserDetailsImpl;
 import com.mobilise.bookhub.services.ReviewService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatusCode;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
-import java.util.Map;
 
 import static com.mobilise.bookhub.constants.Constants.*;
 import static java.net.HttpURLConnection.HTTP_NOT_FOUND;
@@ -34,7 +34,6 @@ public class ReviewController {
      * Service for managing reviews.
      */
     private final ReviewService reviewService;
-    private final JwtService jwtService;
 
     /**
      * Retrieves all reviews.
@@ -50,13 +49,14 @@ public class ReviewController {
     /**
      * Retrieves a review by its ID.
      *
-     * @param id The ID of the review to retrieve.
+     * @param id          The ID of the review to retrieve.
+     * @param currentUser The authenticated user making the request.
      * @return A ResponseEntity containing an ApiResponse with a single ReviewResponseDto object.
      */
 
     @GetMapping(ID_URL)
-    public ResponseEntity<ApiResponse<ReviewResponseDto>> getReviewById(@PathVariable Long id, String email) {
-        ApiResponse<ReviewResponseDto> response = reviewService.getReviewById(id, email);
+    public ResponseEntity<ApiResponse<ReviewResponseDto>> getReviewById(@PathVariable Long id, @AuthenticationPrincipal UserDetailsImpl currentUser) {
+        ApiResponse<ReviewResponseDto> response = reviewService.getReviewById(id, currentUser.getEmail());
         return new ResponseEntity<>(response, HttpStatusCode.valueOf(response.status()));
     }
 
@@ -64,7 +64,7 @@ public class ReviewController {
      * Creates a new review.
      *
      * @param requestDto          The data for the new review.
-     * @param authorizationHeader The bearer token of the user creating the review.
+     * @param currentUser         The authenticated user making the request.
      * @param bookId              The ID of the book being reviewed.
      * @return A ResponseEntity containing an ApiResponse with a single ReviewResponseDto object.
      * @throws UserNotFoundException     If the user with the given email does not exist.
@@ -72,11 +72,10 @@ public class ReviewController {
      */
     @PostMapping(CREATE_URL)
     public ResponseEntity<ApiResponse<ReviewResponseDto>> createReview(@RequestBody ReviewRequestDto requestDto,
-                                                                       @RequestHeader(name = AUTHORIZATION_HEADER) String authorizationHeader,
+                                                                       @AuthenticationPrincipal UserDetailsImpl currentUser,
                                                                        @RequestParam Long bookId) {
         try {
-            Map<String, String> userDetails = jwtService.parseTokenClaims(authorizationHeader.substring(7));
-            String email = userDetails.get("email");
+            String email = currentUser.getEmail();
             ApiResponse<ReviewResponseDto> response = reviewService.createReview(requestDto, email, bookId);
             return new ResponseEntity<>(response, HttpStatusCode.valueOf(response.status()));
         } catch (UserNotFoundException | ResourceNotFoundException e) {
@@ -88,16 +87,15 @@ public class ReviewController {
      * Edits a review by its ID.
      *
      * @param id                  The ID of the review to delete.
-     * @param authorizationHeader The bearer token of the user creating the review.
+     * @param currentUser         The authenticated user making the request.
      * @param requestDto          The data for the new review.
      * @return A ResponseEntity with no content.
      */
     @PutMapping(EDIT_URL)
     public ResponseEntity<ApiResponse<ReviewResponseDto>> updateReview(@PathVariable Long id,
-                                                                       @RequestHeader(name = AUTHORIZATION_HEADER) String authorizationHeader,
+                                                                       @AuthenticationPrincipal UserDetailsImpl currentUser,
                                                                        @RequestBody ReviewRequestDto requestDto) {
-        Map<String, String> userDetails = jwtService.parseTokenClaims(authorizationHeader.substring(7));
-        String email = userDetails.get("email");
+        String email = currentUser.getEmail();
         ApiResponse<ReviewResponseDto> response = reviewService.updateReview(id, email, requestDto);
         return new ResponseEntity<>(response, HttpStatusCode.valueOf(response.status()));
     }
@@ -106,13 +104,12 @@ public class ReviewController {
      * Deletes a review by its ID.
      *
      * @param id                  The ID of the review to delete.
-     * @param authorizationHeader The bearer token of the user creating the review.
+     * @param currentUser         The authenticated user making the request.
      * @return A ResponseEntity with no content.
      */
     @DeleteMapping(DELETE_URL)
-    public ResponseEntity<Void> deleteReview(@PathVariable Long id, @RequestHeader(name = AUTHORIZATION_HEADER) String authorizationHeader) {
-        Map<String, String> userDetails = jwtService.parseTokenClaims(authorizationHeader.substring(7));
-        String email = userDetails.get("email");
+    public ResponseEntity<Void> deleteReview(@PathVariable Long id, @AuthenticationPrincipal UserDetailsImpl currentUser) {
+        String email = currentUser.getEmail();
         reviewService.deleteReview(id, email);
         return ResponseEntity.noContent().build();
     }
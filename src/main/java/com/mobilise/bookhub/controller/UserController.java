@@ -13,6 +13,8 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.Map;
+
 import static com.mobilise.bookhub.constants.Constants.*;
 /**
  * UserController class handles user-related API endpoints.
@@ -54,12 +56,13 @@ public class UserController {
     /**
      * Logs out a user.
      *
-     * @param authorizationHeader the user's authorization header
+     * @param tokenClaims the claims of the user's token, verified by the security filter
      * @return a response containing a success message upon successful logout
      */
     @PostMapping(LOGOUT_URL)
-    public ResponseEntity<ApiResponse<String>> logout(@RequestHeader(name = AUTHORIZATION_HEADER) String authorizationHeader) {
-        ApiResponse<String> response = userService.logout(authorizationHeader);
+    public ResponseEntity<ApiResponse<String>> logout(
+            @RequestAttribute(name = VERIFIED_CLAIMS_ATTRIBUTE, required = false) Map<String, String> tokenClaims) {
+        ApiResponse<String> response = userService.logout(tokenClaims);
         HttpStatus httpStatus = HttpStatus.valueOf(response.status());
         return new ResponseEntity<>(response, httpStatus);
     }
@@ -0,0 +1,70 @@
+package com.mobilise.bookhub.dto.request;
+
+import com.mobilise.bookhub.enums.BookStatus;
+import com.mobilise.bookhub.enums.Genre;
+
+import java.math.BigDecimal;
+import java.util.Set;
+
+/**
+ * Represents the facet filters of a book listing. Books match when they have one of the selected values of every
+ * facet with a selection; ranges are inclusive and may be open on either side.
+ *
+ * @param genre         the genres to match, all when empty
+ * @param status        the statuses to match, all when empty
+ * @param publisherId   the IDs of the publishers to match, all when empty
+ * @param yearFrom      the earliest publication year, or {@code null}
+ * @param yearTo        the latest publication year, or {@code null}
+ * @param minPrice      the lowest unit price, or {@code null}
+ * @param maxPrice      the highest unit price, or {@code null}
+ * @param facets        whether to count the matching books per facet value
+ * @author codecharlan
+ */
+public record BookFilterDto(
+        Set<Genre> genre,
+        Set<BookStatus> status,
+        Set<Long> publisherId,
+        Integer yearFrom,
+        Integer yearTo,
+        BigDecimal minPrice,
+        BigDecimal maxPrice,
+        boolean facets
+) {
+    /**
+     * The filter matching every book, without facet counts.
+     */
+    public static final BookFilterDto NONE = new BookFilterDto(null, null, null, null, null, null, null, false);
+
+    public BookFilterDto {
+        genre = genre == null ? Set.of() : Set.copyOf(genre);
+        status = status == null ? Set.of() : Set.copyOf(status);
+        publisherId = publisherId == null ? Set.of() : Set.copyOf(publisherId);
+    }
+
+    /**
+     * Returns whether the filter leaves out any book.
+     *
+     * @return {@code true} if a facet has a selection
+     */
+    public boolean isFiltered() {
+        return !genre.isEmpty() || !status.isEmpty() || !publisherId.isEmpty() || isYearFiltered() || isPriceFiltered();
+    }
+
+    /**
+     * Returns whether the publication year is bounded.
+     *
+     * @return {@code true} if either year bound is set
+     */
+    public boolean isYearFiltered() {
+        return yearFrom != null || yearTo != null;
+    }
+
+    /**
+     * Returns whether the unit price is bounded.
+     *
+     * @return {@code true} if either price bound is set
+     */
+    public boolean isPriceFiltered() {
+        return minPrice != null || maxPrice != null;
+    }
+}
@@ -0,0 +1,21 @@
+package com.mobilise.bookhub.dto.request;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.Builder;
+
+/**
+ * Represents one book of a request that covers several books, e.g. a checkout or a bulk borrow.
+ *
+ * @author charlancodes
+ */
+@Builder
+public record BookLineDto(
+        @NotNull(message = "Book ID is required")
+        Long bookId,
+
+        @NotNull(message = "Count is required")
+        @Min(1)
+        Integer count
+) {
+}
@@ -0,0 +1,28 @@
+package com.mobilise.bookhub.dto.request;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Email;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.Builder;
+
+import java.util.List;
+
+/**
+ * Represents a stack of books borrowed or returned in one request.
+ *
+ * @param lines       the books and number of copies
+ * @param patronEmail the user the books are borrowed or returned for, defaulting to the authenticated user;
+ *                    only administrators may act for another user
+ * @author charlancodes
+ */
+@Builder
+public record BulkBookRequestDto(
+        @NotEmpty(message = "At least one book is required")
+        @Size(max = 100)
+        List<@Valid BookLineDto> lines,
+
+        @Email
+        String patronEmail
+) {
+}
@@ -0,0 +1,21 @@
+package com.mobilise.bookhub.dto.request;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.Builder;
+
+import java.util.List;
+
+/**
+ * Represents a cart of books to purchase in one checkout.
+ *
+ * @author charlancodes
+ */
+@Builder
+public record CheckoutRequestDto(
+        @NotEmpty(message = "At least one book is required")
+        @Size(max = 100)
+        List<@Valid BookLineDto> lines
+) {
+}
@@ -0,0 +1,22 @@
+package com.mobilise.bookhub.dto.request;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.Builder;
+
+import java.util.List;
+
+/**
+ * Represents a batch of scanned ISBNs to look up in one request.
+ *
+ * @param isbns the ISBN-10s or ISBN-13s, with or without hyphens
+ * @author charlancodes
+ */
+@Builder
+public record IsbnBatchRequestDto(
+        @NotEmpty(message = "At least one ISBN is required")
+        @Size(max = 500)
+        List<@NotBlank String> isbns
+) {
+}
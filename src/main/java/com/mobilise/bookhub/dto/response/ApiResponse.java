@@ -3,6 +3,9 @@ package com.mobilise.bookhub.dto.response;
 import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.Getter;
 import lombok.Setter;
+
+import java.util.Map;
+
 /**
  * Represents a response from all endpoint.
  *
@@ -18,12 +21,19 @@ public record ApiResponse<T>(String message, T data, int status) {
      */
     @Getter
     @Setter
+    @JsonInclude(JsonInclude.Include.NON_NULL)
     public static class Wrapper<T> {
         private T data;
-        private int pageNumber;
+        private Integer pageNumber;
         private int pageSize;
-        private int totalPages;
-        private long totalElements;
+        private Integer totalPages;
+        private Long totalElements;
+        private String nextCursor;
+        private Boolean hasNext;
+        /**
+         * The number of matching books per value of each facet, keyed by facet name, when they were asked for.
+         */
+        private Map<String, Map<String, Long>> facets;
         /**
          * Constructs a new instance of the Wrapper class.
          *
@@ -39,6 +49,46 @@ public record ApiResponse<T>(String message, T data, int status) {
             this.pageSize = pageSize;
             this.totalPages = totalPages;
             this.totalElements = totalElements;
+            this.hasNext = pageNumber + 1 < totalPages;
+        }
+
+        /**
+         * Constructs a new instance of the Wrapper class for a page read without counting all elements.
+         *
+         * @param data The data to be wrapped.
+         * @param pageNumber The current page number.
+         * @param pageSize The number of elements per page.
+         * @param hasNext Whether another page follows.
+         * @param totalElements The total number of elements, or {@code null} if they were not counted.
+         */
+        public Wrapper(T data, int pageNumber, int pageSize, boolean hasNext, Long totalElements) {
+            this.data = data;
+            this.pageNumber = pageNumber;
+            this.pageSize = pageSize;
+            this.hasNext = hasNext;
+            this.totalElements = totalElements;
+            if (totalElements != null && pageSize > 0) {
+                this.totalPages = (int) ((totalElements + pageSize - 1) / pageSize);
+            }
+        }
+
+        /**
+         * Constructs a new instance of the Wrapper class for a page read with a cursor.
+         *
+         * @param data The data to be wrapped.
+         * @param pageSize The number of elements per page.
+         * @param nextCursor The cursor of the next page, or {@code null} if this is the last page.
+         * @param totalElements The total number of elements, or {@code null} if they were not counted.
+         */
+        public Wrapper(T data, int pageSize, String nextCursor, Long totalElements) {
+            this.data = data;
+            this.pageSize = pageSize;
+            this.nextCursor = nextCursor;
+            this.hasNext = nextCursor != null;
+            this.totalElements = totalElements;
+            if (totalElements != null && pageSize > 0) {
+                this.totalPages = (int) ((totalElements + pageSize - 1) / pageSize);
+            }
         }
     }
 
@@ -13,7 +13,7 @@ import java.math.BigDecimal;
  *
  * @author codecharlan
  */
-@Builder
+@Builder(toBuilder = true)
 @JsonInclude(JsonInclude.Include.NON_NULL)
 public record BookResponseDto(
         Long id,
@@ -28,6 +28,7 @@ public record BookResponseDto(
         Long borrowedCopies,
         BigDecimal unitPriceOfBook,
         Author author,
-        Publisher publisher
+        Publisher publisher,
+        Long version
 ) {
 }
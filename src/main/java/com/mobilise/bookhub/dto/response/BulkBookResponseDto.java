@@ -0,0 +1,41 @@
+package com.mobilise.bookhub.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Builder;
+
+import java.util.List;
+
+/**
+ * Represents the result of a bulk borrow or return, line by line.
+ *
+ * @param lines     the result of every book in the request
+ * @param succeeded the number of books borrowed or returned
+ * @param failed    the number of books that could not be borrowed or returned
+ * @author charlancodes
+ */
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record BulkBookResponseDto(
+        List<LineResult> lines,
+        int succeeded,
+        int failed
+) {
+    /**
+     * The result of one book.
+     *
+     * @param bookId  the ID of the book
+     * @param count   the number of copies requested
+     * @param success whether the copies were borrowed or returned
+     * @param message why the line failed; absent on success
+     * @param book    the book after the change; absent on failure
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public record LineResult(
+            Long bookId,
+            Integer count,
+            boolean success,
+            String message,
+            BookResponseDto book
+    ) {
+    }
+}
@@ -0,0 +1,22 @@
+package com.mobilise.bookhub.dto.response;
+
+import lombok.Builder;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Represents the result of a checkout.
+ *
+ * @param books            the purchased books, with their remaining copies
+ * @param totalAmount      the amount debited from the user's balance
+ * @param remainingBalance the user's balance after the checkout
+ * @author charlancodes
+ */
+@Builder
+public record CheckoutResponseDto(
+        List<BookResponseDto> books,
+        BigDecimal totalAmount,
+        BigDecimal remainingBalance
+) {
+}
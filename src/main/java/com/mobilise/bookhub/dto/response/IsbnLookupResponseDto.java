@@ -0,0 +1,14 @@
+package com.mobilise.bookhub.dto.response;
+
+/**
+ * Represents the book a scanned ISBN was resolved to.
+ *
+ * @param isbn the ISBN as it was scanned
+ * @param book the book, or {@code null} if the ISBN is not valid or no book has it
+ * @author charlancodes
+ */
+public record IsbnLookupResponseDto(
+        String isbn,
+        BookResponseDto book
+) {
+}
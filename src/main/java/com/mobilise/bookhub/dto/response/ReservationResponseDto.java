@@ -0,0 +1,28 @@
+package com.mobilise.bookhub.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.mobilise.bookhub.enums.ReservationStatus;
+import lombok.Builder;
+
+import java.time.Instant;
+
+/**
+ * Represents a reservation of an out-of-stock book.
+ *
+ * @param id        the ID of the reservation
+ * @param bookId    the ID of the reserved book
+ * @param status    the status of the reservation
+ * @param position  the number of reservations ahead in the queue, while waiting
+ * @param heldUntil until when a copy is held, once the reservation reached the head of the queue
+ * @author charlancodes
+ */
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record ReservationResponseDto(
+        Long id,
+        Long bookId,
+        ReservationStatus status,
+        Long position,
+        Instant heldUntil
+) {
+}
@@ -0,0 +1,18 @@
+package com.mobilise.bookhub.dto.response;
+
+import com.mobilise.bookhub.enums.SuggestionType;
+
+/**
+ * Represents a type-ahead suggestion: a book title or an author name starting with what was typed.
+ *
+ * @param text the title or name
+ * @param type whether the suggestion is a title or an author name
+ * @param id   the ID of the book or author
+ * @author charlancodes
+ */
+public record SuggestionResponseDto(
+        String text,
+        SuggestionType type,
+        Long id
+) {
+}
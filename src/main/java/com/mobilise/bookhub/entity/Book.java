@@ -10,6 +10,7 @@ import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import lombok.*;
+import org.hibernate.annotations.BatchSize;
 import org.hibernate.annotations.DynamicUpdate;
 
 import java.math.BigDecimal;
@@ -31,6 +32,13 @@ import java.util.Set;
 @DynamicUpdate
 @Builder
 @Entity
+@Table(indexes = {
+        @Index(name = "idx_book_title_id", columnList = "title, id"),
+        @Index(name = "idx_book_publication_year_id", columnList = "publicationYear, id"),
+        @Index(name = "idx_book_unit_price_id", columnList = "unitPriceOfBook, id"),
+        @Index(name = "idx_book_genre_id", columnList = "genre, id"),
+        @Index(name = "idx_book_normalized_isbn", columnList = "normalizedIsbn", unique = true)
+})
 public class Book {
     /**
      * The unique identifier for the book.
@@ -40,6 +48,13 @@ public class Book {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
+    /**
+     * The version of the book, incremented on every change and used for optimistic locking.
+     * Also exposed to clients as the book's ETag.
+     */
+    @Version
+    private Long version;
+
     /**
      * The unique identifier for the book.
      * Required field.
@@ -47,6 +62,12 @@ public class Book {
      */
     private String isbn;
 
+    /**
+     * The ISBN as 13 digits, without separators, an ISBN-10 converted to its ISBN-13.
+     * Unique among books; {@code null} when the ISBN is not valid, so books with invalid ISBNs never collide.
+     */
+    private String normalizedIsbn;
+
     /**
      * The title of the book.
      *
@@ -114,6 +135,7 @@ public class Book {
      */
     @ManyToMany
     @Nullable
+    @BatchSize(size = 100)
     @JoinTable(
             name = "book_authors",
             joinColumns = @JoinColumn(name = "book_id"),
@@ -0,0 +1,56 @@
+package com.mobilise.bookhub.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.springframework.data.domain.Persistable;
+
+import java.time.Instant;
+
+/**
+ * The completed response of a request sent with an {@code Idempotency-Key} header.
+ * A retry with the same key gets this response back instead of running the request again.
+ * Rows are removed once they have expired. Records are only ever inserted, so they are always new to JPA and
+ * saved without a prior select.
+ *
+ * @author codecharlan
+ */
+@Setter
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Table(name = "idempotency_record", indexes = @Index(name = "idx_idempotency_record_expires_at", columnList = "expiresAt"))
+@Entity
+public class IdempotencyRecord implements Persistable<String> {
+    /**
+     * SHA-256 of the user's email and the idempotency key, so keys of different users never collide.
+     */
+    @Id
+    @Column(length = 64)
+    private String id;
+
+    /**
+     * SHA-256 of the operation and arguments of the original request, e.g. {@code PURCHASE:42:2}, so the
+     * fingerprint of a request with many lines fits the column.
+     */
+    @Column(nullable = false, length = 64)
+    private String fingerprint;
+
+    /**
+     * The original {@code ApiResponse}, as JSON.
+     */
+    @Lob
+    @Column(nullable = false)
+    private String response;
+
+    /**
+     * When the key can be reused for a new request.
+     */
+    @Column(nullable = false)
+    private Instant expiresAt;
+
+    @Override
+    public boolean isNew() {
+        return true;
+    }
+}
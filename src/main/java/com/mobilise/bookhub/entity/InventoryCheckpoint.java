@@ -0,0 +1,37 @@
+package com.mobilise.bookhub.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * The last inventory journal segment whose changes are stored in the {@code book} table.
+ * Written in the same transaction as the changes, so a segment is never applied twice, even when the
+ * application stops before the segment file is deleted.
+ *
+ * @author codecharlan
+ */
+@Setter
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Table(name = "inventory_checkpoint")
+@Entity
+public class InventoryCheckpoint {
+    /**
+     * The single checkpoint row.
+     */
+    public static final long ID = 1L;
+
+    /**
+     * Always {@link #ID}.
+     */
+    @Id
+    private Long id;
+
+    /**
+     * The number of the last applied journal segment.
+     */
+    @Column(nullable = false)
+    private Long lastAppliedSegment;
+}
@@ -0,0 +1,44 @@
+package com.mobilise.bookhub.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * The last loan the overdue scanner has seen, in (due date, ID) order.
+ * Written in the same transaction as the loans it marks, so each run continues where the last one stopped.
+ *
+ * @author codecharlan
+ */
+@Setter
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Table(name = "overdue_scan_checkpoint")
+@Entity
+public class OverdueScanCheckpoint {
+    /**
+     * The single checkpoint row.
+     */
+    public static final long ID = 1L;
+
+    /**
+     * Always {@link #ID}.
+     */
+    @Id
+    private Long id;
+
+    /**
+     * The due date of the last loan seen.
+     */
+    @Column(nullable = false)
+    private LocalDateTime lastDueDate;
+
+    /**
+     * The ID of the last loan seen.
+     */
+    @Column(nullable = false)
+    private Long lastTransactionId;
+}
@@ -0,0 +1,66 @@
+package com.mobilise.bookhub.entity;
+
+import com.mobilise.bookhub.enums.ReservationStatus;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+
+/**
+ * A user's place in the queue for a copy of an out-of-stock book.
+ * Reservations of a book are served in ID order. When a copy is returned it is held for the reservation at the
+ * head of the queue until {@link #heldUntil}; a held copy is counted as borrowed, so nobody else can take it.
+ *
+ * @author codecharlan
+ */
+@Setter
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Table(name = "reservation", indexes = {
+        @Index(name = "idx_reservation_book_status", columnList = "book_id, status, id"),
+        @Index(name = "idx_reservation_user_book", columnList = "user_id, book_id")
+})
+@Entity
+public class Reservation {
+    /**
+     * The unique identifier for the reservation, which is also its place in the queue.
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "reservation_seq")
+    @SequenceGenerator(name = "reservation_seq", sequenceName = "reservation_seq", allocationSize = 50)
+    private Long id;
+
+    /**
+     * The user waiting for the book.
+     */
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "user_id")
+    private User user;
+
+    /**
+     * The reserved book.
+     */
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "book_id")
+    private Book book;
+
+    /**
+     * The status of the reservation.
+     */
+    @Column(nullable = false)
+    @Enumerated(EnumType.STRING)
+    private ReservationStatus status;
+
+    /**
+     * When the reservation was made.
+     */
+    @Column(nullable = false)
+    private Instant createdAt;
+
+    /**
+     * Until when a copy is held for the user, once the reservation reaches the head of the queue.
+     */
+    private Instant heldUntil;
+}
@@ -0,0 +1,34 @@
+package com.mobilise.bookhub.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+
+/**
+ * A JWT token that was revoked before its expiry, identified by its {@code jti} claim.
+ * Rows are removed once the token has expired, since the token is rejected from then on anyway.
+ *
+ * @author codecharlan
+ */
+@Setter
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Table(name = "revoked_token", indexes = @Index(name = "idx_revoked_token_expires_at", columnList = "expiresAt"))
+@Entity
+public class RevokedToken {
+    /**
+     * The {@code jti} claim of the revoked token.
+     */
+    @Id
+    @Column(length = 36)
+    private String jti;
+
+    /**
+     * The expiry of the revoked token.
+     */
+    @Column(nullable = false)
+    private Instant expiresAt;
+}
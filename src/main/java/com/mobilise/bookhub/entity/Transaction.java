@@ -21,13 +21,16 @@ import java.time.LocalDateTime;
 @Setter
 @Getter
 @Builder
+@Table(indexes = @Index(name = "idx_transaction_type_due_date", columnList = "type, dueDate, id"))
 @Entity
 public class Transaction {
     /**
      * The unique identifier for the transaction.
+     * Taken from a sequence in blocks of 50, so many transactions can be inserted in one JDBC batch.
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "transaction_seq")
+    @SequenceGenerator(name = "transaction_seq", sequenceName = "transaction_seq", allocationSize = 50)
     private Long id;
 
     /**
@@ -49,6 +52,11 @@ public class Transaction {
      */
     private BigDecimal amount;
 
+    /**
+     * The number of copies involved in the transaction.
+     */
+    private Integer quantity;
+
     /**
      * The type of the transaction.
      */
@@ -61,6 +69,11 @@ public class Transaction {
     @DateTimeFormat(pattern = "MM/dd/yyyy HH:mm:ss")
     private LocalDateTime transactionDate;
 
+    /**
+     * When a borrowed copy must be returned; {@code null} for other transactions.
+     */
+    private LocalDateTime dueDate;
+
     /**
      * The status of the transaction.
      */
@@ -85,6 +85,13 @@ public class User implements Serializable {
      */
     private BigDecimal balance;
 
+    /**
+     * The version of the user's wallet ledger: the version of the last {@link WalletEntry}.
+     * The opening entry has version 0.
+     */
+    @Column(nullable = false)
+    private long walletVersion;
+
     /**
      * List of books owned by the user.
      */
@@ -0,0 +1,74 @@
+package com.mobilise.bookhub.entity;
+
+import com.mobilise.bookhub.enums.WalletEntryType;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * A movement of a user's balance. Entries are only ever appended, in the same transaction as the balance change
+ * and the book transaction they belong to.
+ * Each entry carries the user's wallet version after the change; versions are assigned by the conditional
+ * balance update, which locks the user's row, so a user's entries always commit in version order.
+ *
+ * @author codecharlan
+ */
+@Setter
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Table(name = "wallet_entry", uniqueConstraints = @UniqueConstraint(name = "uk_wallet_entry_user_version",
+        columnNames = {"user_id", "version"}))
+@Entity
+public class WalletEntry {
+    /**
+     * The unique identifier for the entry.
+     * Taken from a sequence in blocks of 50, so many entries can be inserted in one JDBC batch.
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "wallet_entry_seq")
+    @SequenceGenerator(name = "wallet_entry_seq", sequenceName = "wallet_entry_seq", allocationSize = 50)
+    private Long id;
+
+    /**
+     * The user whose balance changed.
+     */
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "user_id")
+    private User user;
+
+    /**
+     * The user's wallet version after this entry; the opening entry has version 0.
+     */
+    @Column(nullable = false)
+    private Long version;
+
+    /**
+     * The change of the balance; negative for debits.
+     */
+    @Column(nullable = false)
+    private BigDecimal amount;
+
+    /**
+     * The type of the entry.
+     */
+    @Column(nullable = false)
+    @Enumerated(EnumType.STRING)
+    private WalletEntryType type;
+
+    /**
+     * The book transaction the entry pays for, if any.
+     */
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "transaction_id")
+    private Transaction transaction;
+
+    /**
+     * When the entry was appended.
+     */
+    @Column(nullable = false)
+    private Instant createdAt;
+}
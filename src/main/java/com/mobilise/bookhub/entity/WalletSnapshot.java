@@ -0,0 +1,46 @@
+package com.mobilise.bookhub.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * A user's balance as of a wallet version, computed from the ledger.
+ * The ledger balance is the snapshot plus the entries after its version, so it never needs the full ledger.
+ *
+ * @author codecharlan
+ */
+@Setter
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Table(name = "wallet_snapshot")
+@Entity
+public class WalletSnapshot {
+    /**
+     * The ID of the user.
+     */
+    @Id
+    private Long userId;
+
+    /**
+     * The sum of the user's entries up to and including {@link #version}.
+     */
+    @Column(nullable = false)
+    private BigDecimal balance;
+
+    /**
+     * The wallet version of the last entry included in the snapshot.
+     */
+    @Column(nullable = false)
+    private Long version;
+
+    /**
+     * When the snapshot was taken.
+     */
+    @Column(nullable = false)
+    private Instant takenAt;
+}
@@ -0,0 +1,67 @@
+package com.mobilise.bookhub.enums;
+
+import com.mobilise.bookhub.exception.InvalidArgumentException;
+import lombok.Getter;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Enum representing the fields books can be listed by.
+ * Each field is backed by a composite index on (field, ID) declared on {@code Book}, so a page is read in index
+ * order instead of sorting the whole table, with the ID breaking ties between equal values.
+ *
+ * @author codecharlan
+ */
+@Getter
+public enum BookSortField {
+    TITLE("title", false),
+    PUBLICATION_YEAR("publicationYear", true),
+    UNIT_PRICE_OF_BOOK("unitPriceOfBook", false),
+    GENRE("genre", false),
+    ID("id", false);
+
+    private static final Map<String, BookSortField> BY_PARAMETER = new HashMap<>();
+    private static final String SORTABLE = Arrays.stream(values())
+            .map(BookSortField::getProperty)
+            .collect(Collectors.joining(", "));
+
+    static {
+        for (BookSortField field : values()) {
+            BY_PARAMETER.put(field.property.toLowerCase(Locale.ROOT), field);
+            BY_PARAMETER.put(field.name().toLowerCase(Locale.ROOT), field);
+        }
+    }
+
+    /**
+     * The name of the {@code Book} property.
+     */
+    private final String property;
+    /**
+     * Whether books may have no value for the field, in which case they cannot be paged with a cursor.
+     */
+    private final boolean nullable;
+
+    BookSortField(String property, boolean nullable) {
+        this.property = property;
+        this.nullable = nullable;
+    }
+
+    /**
+     * Resolves the {@code sortBy} parameter of a listing, ignoring case.
+     *
+     * @param parameter the property name, such as {@code publicationYear}, or the constant name
+     * @return the sort field
+     * @throws InvalidArgumentException if books cannot be sorted by the parameter
+     */
+    public static BookSortField fromParameter(String parameter) {
+        BookSortField field = parameter == null ? null : BY_PARAMETER.get(parameter.trim().toLowerCase(Locale.ROOT));
+        if (field == null) {
+            throw new InvalidArgumentException("Cannot sort books by " + parameter + "; sortable fields are " + SORTABLE);
+        }
+        return field;
+    }
+}
@@ -0,0 +1,13 @@
+package com.mobilise.bookhub.enums;
+/**
+ * Enum representing how the books matching a listing are counted.
+ * {@code NONE} skips the count and only reports whether another page follows,
+ * {@code APPROXIMATE} reuses a recent count of the same search, and {@code EXACT} counts on every request.
+ *
+ * @author codecharlan
+ */
+public enum CountMode {
+    NONE,
+    APPROXIMATE,
+    EXACT
+}
@@ -0,0 +1,12 @@
+package com.mobilise.bookhub.enums;
+/**
+ * Enum representing how a search term is matched against the books.
+ * {@code EXACT} matches the terms as they are typed, while {@code FUZZY} also matches the terms of titles and author
+ * names a few typing errors away from them.
+ *
+ * @author codecharlan
+ */
+public enum MatchMode {
+    EXACT,
+    FUZZY
+}
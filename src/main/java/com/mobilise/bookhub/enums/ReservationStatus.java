@@ -0,0 +1,13 @@
+package com.mobilise.bookhub.enums;
+/**
+ * Enum representing the status of a reservation.
+ *
+ * @author codecharlan
+ */
+public enum ReservationStatus {
+    WAITING,
+    HELD,
+    FULFILLED,
+    EXPIRED,
+    CANCELLED
+}
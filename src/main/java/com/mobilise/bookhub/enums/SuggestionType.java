@@ -0,0 +1,10 @@
+package com.mobilise.bookhub.enums;
+/**
+ * Enum representing what a type-ahead suggestion completes to.
+ *
+ * @author codecharlan
+ */
+public enum SuggestionType {
+    TITLE,
+    AUTHOR
+}
@@ -7,5 +7,6 @@ package com.mobilise.bookhub.enums;
 public enum TransactionStatus {
     COMPLETED,
     PENDING,
-    CANCELLED
+    CANCELLED,
+    OVERDUE
 }
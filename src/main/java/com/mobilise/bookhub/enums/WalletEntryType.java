@@ -0,0 +1,10 @@
+package com.mobilise.bookhub.enums;
+/**
+ * Enum representing the type of a wallet ledger entry.
+ *
+ * @author codecharlan
+ */
+public enum WalletEntryType {
+    OPENING,
+    PURCHASE
+}
@@ -0,0 +1,27 @@
+package com.mobilise.bookhub.exception;
+
+import lombok.Getter;
+import org.springframework.http.HttpStatus;
+/**
+ * Custom exception thrown when a book was changed since the version the client based its edit on.
+ *
+ * @author codecharlan
+ */
+@Getter
+public class BookVersionConflictException extends RuntimeException {
+
+    /**
+     * Constructs a BookVersionConflictException with the specified error message.
+     *
+     * @param message the detail message
+     */
+    public BookVersionConflictException(String message) {
+        super(message);
+        this.status = HttpStatus.PRECONDITION_FAILED;
+    }
+
+    /**
+     * The HTTP status code associated with this exception.
+     */
+    private final HttpStatus status;
+}
@@ -2,6 +2,8 @@ package com.mobilise.bookhub.exception;
 
 import com.mobilise.bookhub.dto.response.ApiResponse;
 import jakarta.validation.ConstraintViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.converter.HttpMessageNotReadableException;
@@ -222,4 +224,72 @@ public class GlobalExceptionHandler {
     public ResponseEntity<ApiResponse<String>> handleInvalidArgumentException(InvalidArgumentException e) {
         return new ResponseEntity<>(new ApiResponse<>(e.getLocalizedMessage(), null, BAD_REQUEST.value()), BAD_REQUEST);
     }
+
+    /**
+     * Handles {@link PasswordHashingUnavailableException} by creating a response with a status code of SERVICE_UNAVAILABLE.
+     * The response asks the client to retry after a second.
+     *
+     * @param e the {@link PasswordHashingUnavailableException} to handle
+     * @return a {@link ResponseEntity} containing the error message
+     */
+    @ExceptionHandler(PasswordHashingUnavailableException.class)
+    @ResponseStatus(SERVICE_UNAVAILABLE)
+    public ResponseEntity<ApiResponse<String>> handlePasswordHashingUnavailableException(PasswordHashingUnavailableException e) {
+        return ResponseEntity.status(SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(new ApiResponse<>(e.getLocalizedMessage(), null, SERVICE_UNAVAILABLE.value()));
+    }
+
+    /**
+     * Handles {@link BookVersionConflictException} by creating a response with a status code of PRECONDITION_FAILED.
+     * The response tells the client to reload the book before editing it again.
+     *
+     * @param e the {@link BookVersionConflictException} to handle
+     * @return a {@link ResponseEntity} containing the error message
+     */
+    @ExceptionHandler(BookVersionConflictException.class)
+    @ResponseStatus(PRECONDITION_FAILED)
+    public ResponseEntity<ApiResponse<String>> handleBookVersionConflictException(BookVersionConflictException e) {
+        return new ResponseEntity<>(new ApiResponse<>(e.getLocalizedMessage(), null, PRECONDITION_FAILED.value()), PRECONDITION_FAILED);
+    }
+
+    /**
+     * Handles {@link OptimisticLockingFailureException} by creating a response with a status code of CONFLICT.
+     * It is raised when an update still conflicts with concurrent changes after all retries.
+     *
+     * @param e the {@link OptimisticLockingFailureException} to handle
+     * @return a {@link ResponseEntity} containing the error message
+     */
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    @ResponseStatus(CONFLICT)
+    public ResponseEntity<ApiResponse<String>> handleOptimisticLockingFailureException(OptimisticLockingFailureException e) {
+        return new ResponseEntity<>(new ApiResponse<>("The resource was modified concurrently, please retry", null,
+                CONFLICT.value()), CONFLICT);
+    }
+
+    /**
+     * Handles {@link IdempotencyKeyReuseException} by creating a response with a status code of UNPROCESSABLE_ENTITY.
+     * It is raised when an idempotency key is sent again with a different request.
+     *
+     * @param e the {@link IdempotencyKeyReuseException} to handle
+     * @return a {@link ResponseEntity} containing the error message
+     */
+    @ExceptionHandler(IdempotencyKeyReuseException.class)
+    @ResponseStatus(UNPROCESSABLE_ENTITY)
+    public ResponseEntity<ApiResponse<String>> handleIdempotencyKeyReuseException(IdempotencyKeyReuseException e) {
+        return new ResponseEntity<>(new ApiResponse<>(e.getLocalizedMessage(), null, UNPROCESSABLE_ENTITY.value()), UNPROCESSABLE_ENTITY);
+    }
+
+    /**
+     * Handles {@link InsufficientBalanceException} by creating a response with a status code of PAYMENT_REQUIRED.
+     * It is raised when a user's balance does not cover a purchase.
+     *
+     * @param e the {@link InsufficientBalanceException} to handle
+     * @return a {@link ResponseEntity} containing the error message
+     */
+    @ExceptionHandler(InsufficientBalanceException.class)
+    @ResponseStatus(PAYMENT_REQUIRED)
+    public ResponseEntity<ApiResponse<String>> handleInsufficientBalanceException(InsufficientBalanceException e) {
+        return new ResponseEntity<>(new ApiResponse<>(e.getLocalizedMessage(), null, PAYMENT_REQUIRED.value()), PAYMENT_REQUIRED);
+    }
 }
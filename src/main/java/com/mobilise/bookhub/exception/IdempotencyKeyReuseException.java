@@ -0,0 +1,27 @@
+package com.mobilise.bookhub.exception;
+
+import lombok.Getter;
+import org.springframework.http.HttpStatus;
+/**
+ * Custom exception thrown when an idempotency key is sent again with a different request.
+ *
+ * @author codecharlan
+ */
+@Getter
+public class IdempotencyKeyReuseException extends RuntimeException {
+
+    /**
+     * Constructs an IdempotencyKeyReuseException with the specified error message.
+     *
+     * @param message the detail message
+     */
+    public IdempotencyKeyReuseException(String message) {
+        super(message);
+        this.status = HttpStatus.UNPROCESSABLE_ENTITY;
+    }
+
+    /**
+     * The HTTP status code associated with this exception.
+     */
+    private final HttpStatus status;
+}
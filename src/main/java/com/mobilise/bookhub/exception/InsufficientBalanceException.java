@@ -0,0 +1,27 @@
+package com.mobilise.bookhub.exception;
+
+import lombok.Getter;
+import org.springframework.http.HttpStatus;
+/**
+ * Custom exception thrown when a user's balance does not cover a purchase.
+ *
+ * @author codecharlan
+ */
+@Getter
+public class InsufficientBalanceException extends RuntimeException {
+
+    /**
+     * Constructs an InsufficientBalanceException with the specified error message.
+     *
+     * @param message the detail message
+     */
+    public InsufficientBalanceException(String message) {
+        super(message);
+        this.status = HttpStatus.PAYMENT_REQUIRED;
+    }
+
+    /**
+     * The HTTP status code associated with this exception.
+     */
+    private final HttpStatus status;
+}
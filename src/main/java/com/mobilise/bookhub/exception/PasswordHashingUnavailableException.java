@@ -0,0 +1,27 @@
+package com.mobilise.bookhub.exception;
+
+import lombok.Getter;
+import org.springframework.http.HttpStatus;
+/**
+ * Custom exception thrown when a password cannot be hashed or verified because the hashing executor is saturated.
+ *
+ * @author codecharlan
+ */
+@Getter
+public class PasswordHashingUnavailableException extends RuntimeException {
+
+    /**
+     * Constructs a PasswordHashingUnavailableException with the specified error message.
+     *
+     * @param message the detail message
+     */
+    public PasswordHashingUnavailableException(String message) {
+        super(message);
+        this.status = HttpStatus.SERVICE_UNAVAILABLE;
+    }
+
+    /**
+     * The HTTP status code associated with this exception.
+     */
+    private final HttpStatus status;
+}
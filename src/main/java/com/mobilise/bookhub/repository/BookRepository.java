@@ -1,11 +1,22 @@
 package com.mobilise.bookhub.repository;
 
 import com.mobilise.bookhub.entity.Book;
+import com.mobilise.bookhub.enums.BookStatus;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.function.IntSupplier;
 
 /**
  * Interface for the Book repository, extending {@link JpaRepository}.
@@ -17,7 +28,7 @@ import java.util.Optional;
  * The BookRepository interface extends {@link JpaRepository} and provides custom query methods for interacting with the Book entity.
  *
  */
-public interface BookRepository extends JpaRepository<Book, Long> {
+public interface BookRepository extends JpaRepository<Book, Long>, JpaSpecificationExecutor<Book> {
 
     /**
      * Finds a book by its title and author's name.
@@ -46,4 +57,216 @@ public interface BookRepository extends JpaRepository<Book, Long> {
      * @return a {@link Page} containing the matching books, sorted and paginated according to the {@link Pageable} object
      */
     Page<Book> findByTitleContainingIgnoreCaseOrAuthor_NameContainingIgnoreCase(String searchTerm, String searchTerm1, Pageable pageable);
+
+    /**
+     * Finds a page of books without counting them.
+     * One extra book is read to tell whether another page follows.
+     *
+     * @param pageable the {@link Pageable} object to define the pagination and sorting of the results
+     * @return a {@link Slice} of books
+     */
+    Slice<Book> findSliceBy(Pageable pageable);
+
+    /**
+     * Finds a page of the books whose title contains the specified search term, ignoring case, without counting them.
+     *
+     * @param searchTerm the search term to use
+     * @param pageable the {@link Pageable} object to define the pagination and sorting of the results
+     * @return a {@link Slice} of matching books
+     */
+    Slice<Book> findSliceByTitleContainingIgnoreCase(String searchTerm, Pageable pageable);
+
+    /**
+     * Finds a page of the books whose title or author's name contains the specified search term, ignoring case,
+     * without counting them.
+     *
+     * @param searchTerm the search term to use
+     * @param searchTerm1 an additional search term to use, for matching author's name
+     * @param pageable the {@link Pageable} object to define the pagination and sorting of the results
+     * @return a {@link Slice} of matching books
+     */
+    Slice<Book> findSliceByTitleContainingIgnoreCaseOrAuthor_NameContainingIgnoreCase(String searchTerm, String searchTerm1, Pageable pageable);
+
+    /**
+     * Finds the books after an ID, in increasing ID, together with their author and publisher.
+     * Used to read the whole catalog in pages without an offset.
+     *
+     * @param id    the ID to continue after
+     * @param limit the maximum number of books to return
+     * @return the books
+     */
+    @EntityGraph(attributePaths = {"author", "publisher"})
+    List<Book> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
+    /**
+     * Finds a book by its normalized ISBN, see {@link com.mobilise.bookhub.utils.IsbnUtils#normalize}.
+     *
+     * @param normalizedIsbn the 13 digits of the ISBN
+     * @return an {@link Optional} containing the found book, or an empty {@link Optional} if no book is found
+     */
+    Optional<Book> findByNormalizedIsbn(String normalizedIsbn);
+
+    /**
+     * Finds the books with any of the normalized ISBNs.
+     *
+     * @param normalizedIsbns the 13 digits of the ISBNs
+     * @return the books found
+     */
+    List<Book> findByNormalizedIsbnIn(Collection<String> normalizedIsbns);
+
+    /**
+     * Counts the books whose title contains the specified search term, ignoring case.
+     *
+     * @param searchTerm the search term to use
+     * @return the number of matching books
+     */
+    long countByTitleContainingIgnoreCase(String searchTerm);
+
+    /**
+     * Counts the books whose title or author's name contains the specified search term, ignoring case.
+     *
+     * @param searchTerm  the search term to use
+     * @param searchTerm1 an additional search term to use, for matching author's name
+     * @return the number of matching books
+     */
+    long countByTitleContainingIgnoreCaseOrAuthor_NameContainingIgnoreCase(String searchTerm, String searchTerm1);
+
+    /**
+     * Moves copies of an available book from the shelf to borrowed, as one conditional UPDATE, when copies are left
+     * on the shelf afterwards, so the book stays available. Borrowing the last copies is
+     * {@link #BORROW_LAST_COPIES_SQL}; a borrow tries this update first, so the usual borrow is one statement and
+     * its outcome tells the status of the book without reading it.
+     * Like all inventory updates it increments the version, so concurrent edits of the book detect the change.
+     * This is the only definition of the update: the single-book updates below and the JDBC batches of
+     * {@code BookUtils} both run it, with the statuses bound from {@link BookStatus}.
+     */
+    String BORROW_COPIES_SQL = "update book set "
+            + "total_copies = total_copies - :count, "
+            + "borrowed_copies = coalesce(borrowed_copies, 0) + :count, "
+            + "version = version + 1 "
+            + "where id = :id and status = :available and total_copies > :count";
+    /**
+     * Moves the last copies of an available book from the shelf to borrowed and makes the book {@code :borrowed},
+     * as one conditional UPDATE shared like {@link #BORROW_COPIES_SQL}.
+     */
+    String BORROW_LAST_COPIES_SQL = "update book set "
+            + "status = :borrowed, "
+            + "total_copies = total_copies - :count, "
+            + "borrowed_copies = coalesce(borrowed_copies, 0) + :count, "
+            + "version = version + 1 "
+            + "where id = :id and status = :available and total_copies = :count";
+    /**
+     * Moves borrowed copies of a book back to the shelf and makes the book {@code :available}, as one conditional
+     * UPDATE shared like {@link #BORROW_COPIES_SQL}.
+     */
+    String RETURN_COPIES_SQL = "update book set "
+            + "status = :available, "
+            + "total_copies = total_copies + :count, "
+            + "borrowed_copies = borrowed_copies - :count, "
+            + "version = version + 1 "
+            + "where id = :id and borrowed_copies >= :count";
+    /**
+     * Removes purchased copies of an available book from the shelf, as one conditional UPDATE shared like
+     * {@link #BORROW_COPIES_SQL}, when copies are left on the shelf afterwards. Purchasing the last copies is
+     * {@link #PURCHASE_LAST_COPIES_SQL}.
+     */
+    String PURCHASE_COPIES_SQL = "update book set "
+            + "total_copies = total_copies - :count, "
+            + "version = version + 1 "
+            + "where id = :id and status = :available and total_copies > :count";
+    /**
+     * Removes the last copies of an available book from the shelf and makes the book {@code :soldOut}, as one
+     * conditional UPDATE shared like {@link #BORROW_COPIES_SQL}.
+     */
+    String PURCHASE_LAST_COPIES_SQL = "update book set "
+            + "status = :soldOut, "
+            + "total_copies = total_copies - :count, "
+            + "version = version + 1 "
+            + "where id = :id and status = :available and total_copies = :count";
+
+    /**
+     * Atomically moves copies of an available book from the shelf to borrowed, see {@link #BORROW_COPIES_SQL}.
+     * The book becomes {@code BORROWED} when its last copy is borrowed.
+     *
+     * @param id    the ID of the book
+     * @param count the number of copies to borrow
+     * @return the status of the book after the borrow, or {@code null} if the book does not exist, is not available
+     * or has too few copies
+     */
+    default BookStatus borrowCopies(Long id, long count) {
+        return takeCopies(() -> borrowCopies(id, count, BookStatus.AVAILABLE.name()),
+                () -> borrowLastCopies(id, count, BookStatus.AVAILABLE.name(), BookStatus.BORROWED.name()),
+                BookStatus.BORROWED);
+    }
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Transactional
+    @Query(value = BORROW_COPIES_SQL, nativeQuery = true)
+    int borrowCopies(Long id, long count, String available);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Transactional
+    @Query(value = BORROW_LAST_COPIES_SQL, nativeQuery = true)
+    int borrowLastCopies(Long id, long count, String available, String borrowed);
+
+    /**
+     * Atomically moves borrowed copies of a book back to the shelf and makes the book available,
+     * see {@link #RETURN_COPIES_SQL}.
+     *
+     * @param id    the ID of the book
+     * @param count the number of copies to return
+     * @return {@code 1} if the copies were returned, {@code 0} if the book does not exist or has fewer borrowed copies
+     */
+    default int returnCopies(Long id, long count) {
+        return returnCopies(id, count, BookStatus.AVAILABLE.name());
+    }
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Transactional
+    @Query(value = RETURN_COPIES_SQL, nativeQuery = true)
+    int returnCopies(Long id, long count, String available);
+
+    /**
+     * Atomically removes purchased copies of an available book from the shelf, see {@link #PURCHASE_COPIES_SQL}.
+     * The book becomes {@code SOLD_OUT} when its last copy is purchased.
+     *
+     * @param id    the ID of the book
+     * @param count the number of copies to purchase
+     * @return the status of the book after the purchase, or {@code null} if the book does not exist, is not
+     * available or has too few copies
+     */
+    default BookStatus purchaseCopies(Long id, long count) {
+        return takeCopies(() -> purchaseCopies(id, count, BookStatus.AVAILABLE.name()),
+                () -> purchaseLastCopies(id, count, BookStatus.AVAILABLE.name(), BookStatus.SOLD_OUT.name()),
+                BookStatus.SOLD_OUT);
+    }
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Transactional
+    @Query(value = PURCHASE_COPIES_SQL, nativeQuery = true)
+    int purchaseCopies(Long id, long count, String available);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Transactional
+    @Query(value = PURCHASE_LAST_COPIES_SQL, nativeQuery = true)
+    int purchaseLastCopies(Long id, long count, String available, String soldOut);
+
+    /**
+     * Takes copies off the shelf, trying the update that leaves copies on the shelf first. If neither update
+     * matches, the first one is tried once more, in case copies were given back between the two.
+     *
+     * @param leavingCopies the update leaving copies on the shelf
+     * @param lastCopies    the update taking the last copies
+     * @param emptiedStatus the status of a book whose last copies were taken
+     * @return the status of the book afterwards, or {@code null} if no copies were taken
+     */
+    private static BookStatus takeCopies(IntSupplier leavingCopies, IntSupplier lastCopies, BookStatus emptiedStatus) {
+        if (leavingCopies.getAsInt() == 1) {
+            return BookStatus.AVAILABLE;
+        }
+        if (lastCopies.getAsInt() == 1) {
+            return emptiedStatus;
+        }
+        return leavingCopies.getAsInt() == 1 ? BookStatus.AVAILABLE : null;
+    }
 }
@@ -0,0 +1,119 @@
+package com.mobilise.bookhub.repository;
+
+import com.mobilise.bookhub.dto.request.BookFilterDto;
+import com.mobilise.bookhub.entity.Author;
+import com.mobilise.bookhub.entity.Book;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Predicate;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Specifications of the book listings read with {@link BookRepository#findBy}, for filtered pages and pages read
+ * with a cursor.
+ *
+ * @author codecharlan
+ */
+public final class BookSpecifications {
+    private static final char ESCAPE = '\\';
+
+    private BookSpecifications() {
+    }
+
+    /**
+     * Matches books whose title contains the search term, ignoring case.
+     *
+     * @param searchTerm the search term to use
+     * @return the specification
+     */
+    public static Specification<Book> titleContains(String searchTerm) {
+        return (root, query, cb) -> containsIgnoreCase(cb, root.get("title"), searchTerm);
+    }
+
+    /**
+     * Matches books whose title or author's name contains the search term, ignoring case.
+     *
+     * @param searchTerm the search term to use
+     * @return the specification
+     */
+    public static Specification<Book> titleOrAuthorContains(String searchTerm) {
+        return (root, query, cb) -> {
+            Join<Book, Author> author = root.join("author", JoinType.LEFT);
+            return cb.or(containsIgnoreCase(cb, root.get("title"), searchTerm),
+                    containsIgnoreCase(cb, author.get("name"), searchTerm));
+        };
+    }
+
+    /**
+     * Matches books passing the facet filters of a listing.
+     *
+     * @param filter the facet filters to use
+     * @return the specification, which matches every book when nothing is filtered
+     */
+    public static Specification<Book> matching(BookFilterDto filter) {
+        return (root, query, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+            if (!filter.genre().isEmpty()) {
+                predicates.add(root.get("genre").in(filter.genre()));
+            }
+            if (!filter.status().isEmpty()) {
+                predicates.add(root.get("status").in(filter.status()));
+            }
+            if (!filter.publisherId().isEmpty()) {
+                predicates.add(root.get("publisher").get("id").in(filter.publisherId()));
+            }
+            if (filter.yearFrom() != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.get("publicationYear"), filter.yearFrom()));
+            }
+            if (filter.yearTo() != null) {
+                predicates.add(cb.lessThanOrEqualTo(root.get("publicationYear"), filter.yearTo()));
+            }
+            if (filter.minPrice() != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.get("unitPriceOfBook"), filter.minPrice()));
+            }
+            if (filter.maxPrice() != null) {
+                predicates.add(cb.lessThanOrEqualTo(root.get("unitPriceOfBook"), filter.maxPrice()));
+            }
+            return cb.and(predicates.toArray(Predicate[]::new));
+        };
+    }
+
+    /**
+     * Bounds a keyset page by the value of its first sort key at the position it continues from.
+     * Keyset scrolling seeks with {@code key > :key or (key = :key and id > :id)}, which databases evaluate by
+     * reading the (key, ID) index from its start; the redundant {@code key >= :key} lets them start reading at the
+     * position instead.
+     *
+     * @param position the position the page continues from
+     * @param sort     the sort order of the page
+     * @return the specification, which matches every book on the first page
+     */
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    public static Specification<Book> atOrAfter(KeysetScrollPosition position, Sort sort) {
+        return (root, query, cb) -> {
+            Sort.Order first = sort.iterator().next();
+            Comparable key = (Comparable) position.getKeys().get(first.getProperty());
+            if (position.isInitial() || key == null) {
+                return cb.conjunction();
+            }
+            Expression<Comparable> property = root.get(first.getProperty());
+            return first.isAscending() ? cb.greaterThanOrEqualTo(property, key) : cb.lessThanOrEqualTo(property, key);
+        };
+    }
+
+    private static Predicate containsIgnoreCase(CriteriaBuilder cb, Expression<String> property, String searchTerm) {
+        String escaped = searchTerm.toLowerCase(Locale.ROOT)
+                .replace(String.valueOf(ESCAPE), String.valueOf(ESCAPE) + ESCAPE)
+                .replace("%", ESCAPE + "%")
+                .replace("_", ESCAPE + "_");
+        return cb.like(cb.lower(property), "%" + escaped + "%", ESCAPE);
+    }
+}
@@ -0,0 +1,48 @@
+package com.mobilise.bookhub.repository;
+
+import com.mobilise.bookhub.entity.IdempotencyRecord;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Repository for the completed responses of idempotent requests.
+ *
+ * @author codecharlan
+ */
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, String> {
+
+    /**
+     * Finds a completed response that has not expired yet.
+     *
+     * @param id  the scoped idempotency key
+     * @param now the current instant
+     * @return the completed response, if any
+     */
+    Optional<IdempotencyRecord> findByIdAndExpiresAtAfter(String id, Instant now);
+
+    /**
+     * Finds the ids of all completed responses that have not expired yet.
+     *
+     * @param now the current instant
+     * @return the scoped idempotency key of every unexpired response
+     */
+    @Query("select r.id from IdempotencyRecord r where r.expiresAt > :now")
+    List<String> findActiveIds(Instant now);
+
+    /**
+     * Deletes the completed responses that have expired.
+     *
+     * @param now the current instant
+     * @return the number of deleted rows
+     */
+    @Modifying
+    @Transactional
+    @Query("delete from IdempotencyRecord r where r.expiresAt <= :now")
+    int deleteExpired(Instant now);
+}
@@ -0,0 +1,12 @@
+package com.mobilise.bookhub.repository;
+
+import com.mobilise.bookhub.entity.InventoryCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+/**
+ * Repository for the inventory journal checkpoint.
+ *
+ * @author codecharlan
+ */
+public interface InventoryCheckpointRepository extends JpaRepository<InventoryCheckpoint, Long> {
+}
@@ -0,0 +1,12 @@
+package com.mobilise.bookhub.repository;
+
+import com.mobilise.bookhub.entity.OverdueScanCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+/**
+ * Repository for the overdue loan scanner checkpoint.
+ *
+ * @author codecharlan
+ */
+public interface OverdueScanCheckpointRepository extends JpaRepository<OverdueScanCheckpoint, Long> {
+}
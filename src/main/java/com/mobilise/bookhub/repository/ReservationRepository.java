@@ -0,0 +1,127 @@
+package com.mobilise.bookhub.repository;
+
+import com.mobilise.bookhub.entity.Reservation;
+import com.mobilise.bookhub.enums.ReservationStatus;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Repository for the reservation queues of out-of-stock books.
+ * Every status change is a conditional UPDATE on the current status, so a hold that is claimed, cancelled and
+ * expired at the same time changes state exactly once.
+ *
+ * @author codecharlan
+ */
+public interface ReservationRepository extends JpaRepository<Reservation, Long> {
+
+    /**
+     * Finds the head of a book's queue.
+     *
+     * @param bookId   the ID of the book
+     * @param status   the status of the reservations
+     * @param pageable the maximum number of reservations
+     * @return the oldest reservations with the status, in queue order
+     */
+    List<Reservation> findByBookIdAndStatusOrderByIdAsc(Long bookId, ReservationStatus status, Pageable pageable);
+
+    /**
+     * Finds which of the given books have users waiting for them.
+     *
+     * @param bookIds the IDs of the books
+     * @return the IDs of the books with at least one waiting reservation
+     */
+    @Query("select distinct r.book.id from Reservation r where r.book.id in :bookIds "
+            + "and r.status = com.mobilise.bookhub.enums.ReservationStatus.WAITING")
+    List<Long> findBookIdsWithWaitingReservations(Collection<Long> bookIds);
+
+    Optional<Reservation> findFirstByUserIdAndBookIdAndStatusIn(Long userId, Long bookId, Collection<ReservationStatus> statuses);
+
+    long countByBookIdAndStatusAndIdLessThan(Long bookId, ReservationStatus status, Long id);
+
+    /**
+     * Finds held reservations in ID order, for scheduling their expiry after a restart.
+     *
+     * @param afterId  the ID after which to start
+     * @param pageable the maximum number of reservations
+     * @return the held reservations
+     */
+    @Query("select r.id as id, r.heldUntil as heldUntil from Reservation r "
+            + "where r.status = com.mobilise.bookhub.enums.ReservationStatus.HELD and r.id > :afterId order by r.id")
+    List<Hold> findHolds(Long afterId, Pageable pageable);
+
+    /**
+     * Holds a copy for a waiting reservation.
+     *
+     * @param id        the ID of the reservation
+     * @param heldUntil until when the copy is held
+     * @return 1 if the reservation was waiting and is now held, otherwise 0
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("update Reservation r set r.status = com.mobilise.bookhub.enums.ReservationStatus.HELD, r.heldUntil = :heldUntil "
+            + "where r.id = :id and r.status = com.mobilise.bookhub.enums.ReservationStatus.WAITING")
+    int hold(Long id, Instant heldUntil);
+
+    /**
+     * Claims the copy held for a user, when the user borrows the book.
+     *
+     * @param userId the ID of the user
+     * @param bookId the ID of the book
+     * @param now    the current instant; expired holds cannot be claimed
+     * @return 1 if a held copy was claimed, otherwise 0
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("update Reservation r set r.status = com.mobilise.bookhub.enums.ReservationStatus.FULFILLED "
+            + "where r.user.id = :userId and r.book.id = :bookId "
+            + "and r.status = com.mobilise.bookhub.enums.ReservationStatus.HELD and r.heldUntil > :now")
+    int claim(Long userId, Long bookId, Instant now);
+
+    /**
+     * Finds the copies held for a user among the given books, when the user borrows several books at once.
+     *
+     * @param userId  the ID of the user
+     * @param bookIds the IDs of the books
+     * @param now     the current instant; expired holds are not found
+     * @return the held reservations of the user for the books
+     */
+    @Query("select r.id as id, r.book.id as bookId from Reservation r "
+            + "where r.user.id = :userId and r.book.id in :bookIds "
+            + "and r.status = com.mobilise.bookhub.enums.ReservationStatus.HELD and r.heldUntil > :now")
+    List<HeldCopy> findHeldCopies(Long userId, Collection<Long> bookIds, Instant now);
+
+    /**
+     * Moves a reservation from one status to another.
+     *
+     * @param id   the ID of the reservation
+     * @param from the expected current status
+     * @param to   the new status
+     * @return 1 if the reservation had the expected status, otherwise 0
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("update Reservation r set r.status = :to where r.id = :id and r.status = :from")
+    int transition(Long id, ReservationStatus from, ReservationStatus to);
+
+    /**
+     * A held reservation and the book it holds a copy of.
+     */
+    interface HeldCopy {
+        Long getId();
+
+        Long getBookId();
+    }
+
+    /**
+     * A held reservation and its deadline.
+     */
+    interface Hold {
+        Long getId();
+
+        Instant getHeldUntil();
+    }
+}
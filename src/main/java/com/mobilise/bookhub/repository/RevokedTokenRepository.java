@@ -0,0 +1,38 @@
+package com.mobilise.bookhub.repository;
+
+import com.mobilise.bookhub.entity.RevokedToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Repository for the persisted token revocation list.
+ *
+ * @author codecharlan
+ */
+public interface RevokedTokenRepository extends JpaRepository<RevokedToken, String> {
+
+    /**
+     * Finds the ids of all revoked tokens that have not expired yet.
+     *
+     * @param now the current instant
+     * @return the {@code jti} of every unexpired revoked token
+     */
+    @Query("select r.jti from RevokedToken r where r.expiresAt > :now")
+    List<String> findActiveJtis(Instant now);
+
+    /**
+     * Deletes the revoked tokens that have expired.
+     *
+     * @param now the current instant
+     * @return the number of deleted rows
+     */
+    @Modifying
+    @Transactional
+    @Query("delete from RevokedToken r where r.expiresAt <= :now")
+    int deleteExpired(Instant now);
+}
@@ -1,11 +1,78 @@
 package com.mobilise.bookhub.repository;
 
 import com.mobilise.bookhub.entity.Transaction;
+import com.mobilise.bookhub.enums.TransactionStatus;
 import com.mobilise.bookhub.enums.TransactionType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface TransactionRepository extends JpaRepository<Transaction, Long > {
     Optional<Transaction> findTransactionByUserIdAndBookIdAndType(Long userId, Long bookId, TransactionType type);
+
+    List<Transaction> findByUserIdAndBookIdInAndTypeOrderByIdAsc(Long userId, Collection<Long> bookIds, TransactionType type);
+
+    /**
+     * Finds loans that became overdue after a position in (due date, ID) order, using the (type, due date, ID) index.
+     * Paging by the last (due date, ID) seen reads only new rows, however many loans are already overdue.
+     *
+     * @param type         the type of open loans, i.e. {@code BORROW}
+     * @param afterDueDate the due date of the last loan seen
+     * @param afterId      the ID of the last loan seen
+     * @param now          the current time; loans due at or before it are overdue
+     * @param pageable     the maximum number of loans
+     * @return the loans in (due date, ID) order
+     */
+    @Query("select t.id as id, t.dueDate as dueDate from Transaction t "
+            + "where t.type = :type and t.dueDate <= :now "
+            + "and (t.dueDate > :afterDueDate or (t.dueDate = :afterDueDate and t.id > :afterId)) "
+            + "order by t.dueDate, t.id")
+    List<DueLoan> findOverdueAfter(TransactionType type, LocalDateTime afterDueDate, Long afterId,
+                                   LocalDateTime now, Pageable pageable);
+
+    /**
+     * Sets the status of the given transactions that still have the given type.
+     *
+     * @param ids    the IDs of the transactions
+     * @param type   the expected type; transactions whose type changed in the meantime are left alone
+     * @param status the new status
+     * @return the number of updated transactions
+     */
+    @Modifying
+    @Query("update Transaction t set t.status = :status where t.id in :ids and t.type = :type")
+    int updateStatus(Collection<Long> ids, TransactionType type, TransactionStatus status);
+
+    /**
+     * Counts the transactions of the given types of every book that has any.
+     *
+     * @param types the types of transactions to count, e.g. {@code BORROW} and {@code RETURN} for every loan ever made
+     * @return the number of transactions by book
+     */
+    @Query("select t.book.id as bookId, count(t) as transactions from Transaction t "
+            + "where t.type in :types group by t.book.id")
+    List<BookTransactions> countByBook(Collection<TransactionType> types);
+
+    /**
+     * A loan and its due date.
+     */
+    interface DueLoan {
+        Long getId();
+
+        LocalDateTime getDueDate();
+    }
+
+    /**
+     * A book and its number of transactions.
+     */
+    interface BookTransactions {
+        Long getBookId();
+
+        long getTransactions();
+    }
 }
@@ -1,10 +1,64 @@
 package com.mobilise.bookhub.repository;
 
 import com.mobilise.bookhub.entity.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
+import java.util.List;
 import java.util.Optional;
 
 public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByEmail(String email);
+
+    /**
+     * Debits a user's balance in one conditional UPDATE, so concurrent purchases can never overdraw it.
+     * The wallet version is advanced by the number of ledger entries recording the debit; the update locks the
+     * user's row until the entries are committed, so versions are never skipped or reused.
+     *
+     * @param id      the ID of the user
+     * @param amount  the amount to debit
+     * @param entries the number of wallet entries recording the debit
+     * @return 1 if the balance was debited, 0 if it does not cover the amount
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Transactional
+    @Query("update User u set u.balance = u.balance - :amount, u.walletVersion = u.walletVersion + :entries "
+            + "where u.id = :id and u.balance >= :amount")
+    int debitBalance(Long id, BigDecimal amount, long entries);
+
+    /**
+     * Reads a user's balance together with its wallet version.
+     *
+     * @param id the ID of the user
+     * @return the balance and wallet version, if the user exists
+     */
+    @Query("select u.id as id, u.balance as balance, u.walletVersion as walletVersion from User u where u.id = :id")
+    Optional<WalletState> findWalletStateById(Long id);
+
+    /**
+     * Finds users whose wallet has changed since their last snapshot, in ID order.
+     *
+     * @param afterId  the ID after which to start, for paging through all users
+     * @param pageable the maximum number of users to return
+     * @return the balance and wallet version of each user
+     */
+    @Query("select u.id as id, u.balance as balance, u.walletVersion as walletVersion from User u "
+            + "where u.id > :afterId and u.walletVersion > "
+            + "coalesce((select s.version from WalletSnapshot s where s.userId = u.id), -1) order by u.id")
+    List<WalletState> findWalletsChangedSinceSnapshot(Long afterId, Pageable pageable);
+
+    /**
+     * A user's balance and the wallet version it corresponds to.
+     */
+    interface WalletState {
+        Long getId();
+
+        BigDecimal getBalance();
+
+        Long getWalletVersion();
+    }
 }
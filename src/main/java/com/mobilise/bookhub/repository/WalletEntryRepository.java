@@ -0,0 +1,38 @@
+package com.mobilise.bookhub.repository;
+
+import com.mobilise.bookhub.entity.WalletEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Repository for the append-only wallet ledger.
+ *
+ * @author codecharlan
+ */
+public interface WalletEntryRepository extends JpaRepository<WalletEntry, Long> {
+
+    /**
+     * Sums a user's entries in a range of wallet versions, using the unique (user, version) index.
+     *
+     * @param userId    the ID of the user
+     * @param after     the version after which to start, exclusive
+     * @param upTo      the last version to include
+     * @return the sum of the entries, or 0 if there are none
+     */
+    @Query("select coalesce(sum(e.amount), 0) from WalletEntry e "
+            + "where e.user.id = :userId and e.version > :after and e.version <= :upTo")
+    BigDecimal sumAmounts(Long userId, long after, long upTo);
+
+    /**
+     * Finds which of several users have an opening entry, the entry at wallet version 0.
+     *
+     * @param userIds the IDs of the users
+     * @return the IDs of the users whose ledger has been opened
+     */
+    @Query("select e.user.id from WalletEntry e where e.version = 0 and e.user.id in :userIds")
+    List<Long> findOpenedUserIds(Collection<Long> userIds);
+}
@@ -0,0 +1,12 @@
+package com.mobilise.bookhub.repository;
+
+import com.mobilise.bookhub.entity.WalletSnapshot;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+/**
+ * Repository for the periodic snapshots of the wallet ledger.
+ *
+ * @author codecharlan
+ */
+public interface WalletSnapshotRepository extends JpaRepository<WalletSnapshot, Long> {
+}
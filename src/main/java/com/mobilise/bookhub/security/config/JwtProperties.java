@@ -0,0 +1,22 @@
+package com.mobilise.bookhub.security.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.util.Map;
+
+/**
+ * JWT configuration bound from the {@code jwt.*} properties.
+ *
+ * @param secret the Base64 encoded secret of the primary signing key
+ * @param keyId  the key id ({@code kid}) of the primary signing key, also used for tokens issued without a {@code kid}
+ * @param keys   additional verification keys by key id, e.g. keys retired by a rotation whose tokens are still live
+ * @author codecharlan
+ */
+@ConfigurationProperties(prefix = "jwt")
+public record JwtProperties(
+        String secret,
+        @DefaultValue("primary") String keyId,
+        Map<String, String> keys
+) {
+}
@@ -0,0 +1,24 @@
+package com.mobilise.bookhub.security.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Password hashing configuration bound from the {@code security.password-hashing.*} properties.
+ *
+ * @param strength      the BCrypt cost factor; stored hashes with a lower cost are upgraded on the next login
+ * @param threads       the number of hashing threads, {@code 0} for one per available processor
+ * @param queueCapacity the number of hashing requests allowed to wait for a thread before new ones are rejected
+ * @param timeout       how long a request waits for its hash before giving up
+ * @author codecharlan
+ */
+@ConfigurationProperties(prefix = "security.password-hashing")
+public record PasswordHashingProperties(
+        @DefaultValue("10") int strength,
+        @DefaultValue("0") int threads,
+        @DefaultValue("64") int queueCapacity,
+        @DefaultValue("5s") Duration timeout
+) {
+}
@@ -0,0 +1,32 @@
+package com.mobilise.bookhub.security.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Rate limiting configuration bound from the {@code rate-limit.*} properties.
+ *
+ * @param enabled     whether requests are rate limited
+ * @param idleTimeout how long an unused, full bucket is kept before it is evicted
+ * @param endpoints   the limits by request path; the first matching pattern applies, unmatched paths are not limited
+ * @author codecharlan
+ */
+@ConfigurationProperties(prefix = "rate-limit")
+public record RateLimitProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("10m") Duration idleTimeout,
+        @DefaultValue List<EndpointLimit> endpoints
+) {
+    /**
+     * The limit of one group of endpoints, applied per user, or per client IP for anonymous requests.
+     *
+     * @param pattern         the path pattern, e.g. {@code /api/books/**}
+     * @param capacity        the number of requests allowed in a burst
+     * @param refillPerSecond the sustained number of requests allowed per second
+     */
+    public record EndpointLimit(String pattern, long capacity, double refillPerSecond) {
+    }
+}
@@ -2,6 +2,9 @@ package com.mobilise.bookhub.security.config;
 
 
 import com.mobilise.bookhub.security.filter.JwtSecurityFilter;
+import com.mobilise.bookhub.security.filter.RateLimitingFilter;
+import com.mobilise.bookhub.security.implementation.BoundedPasswordEncoder;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -13,7 +16,6 @@ import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.config.http.SessionCreationPolicy;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
@@ -28,7 +30,7 @@ import java.util.List;
 /**
  * Security configuration class for the application.
  * This class configures the security settings for the application, including authentication, authorization, and CORS.
- * It also includes a JwtSecurityFilter for handling JWT tokens.
+ * It also includes a JwtSecurityFilter for handling JWT tokens and a RateLimitingFilter right after it.
  *
  * @author codecharlan
  * @version 1.0.0
@@ -41,6 +43,7 @@ import java.util.List;
 )
 public class SecurityConfig {
     private final JwtSecurityFilter jwtSecurityFilter;
+    private final RateLimitingFilter rateLimitingFilter;
 
     /**
      * Configures the security filter chain for the application.
@@ -62,23 +65,30 @@ public class SecurityConfig {
                         .requestMatchers(new AntPathRequestMatcher("/h2-console/**")).permitAll()
                         .requestMatchers(new AntPathRequestMatcher("/api/users/register")).permitAll()
                         .requestMatchers(new AntPathRequestMatcher("/api/users/login")).permitAll()
+                        .requestMatchers(new AntPathRequestMatcher("/actuator/health")).permitAll()
+                        .requestMatchers(new AntPathRequestMatcher("/actuator/**")).hasAuthority("ADMINISTRATOR")
                         .anyRequest()
                         .authenticated())
                 .addFilterBefore(jwtSecurityFilter, UsernamePasswordAuthenticationFilter.class)
+                .addFilterAfter(rateLimitingFilter, JwtSecurityFilter.class)
                 .sessionManagement(sess -> sess.sessionCreationPolicy(SessionCreationPolicy.STATELESS));
         return httpSecurity.build();
     }
 
     /**
-     * Provides a BCryptPasswordEncoder instance for password encoding.
-     * This method returns a BCryptPasswordEncoder instance, which is used for encoding passwords in the application.
+     * Provides a BCrypt password encoder that hashes on a dedicated, bounded thread pool.
+     * This method returns a BoundedPasswordEncoder instance, which is used for encoding and verifying passwords in the application.
      *
-     * @return the BCryptPasswordEncoder instance
-     * @see BCryptPasswordEncoder
+     * @param properties    the password hashing configuration
+     * @param meterRegistry the registry the hashing metrics are published to
+     * @return the BoundedPasswordEncoder instance
+     * @see BoundedPasswordEncoder
      */
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(PasswordHashingProperties properties, MeterRegistry meterRegistry) {
+        int threads = properties.threads() > 0 ? properties.threads() : Runtime.getRuntime().availableProcessors();
+        return new BoundedPasswordEncoder(properties.strength(), threads, properties.queueCapacity(),
+                properties.timeout(), meterRegistry);
     }
 
     /**
@@ -1,14 +1,19 @@
 package com.mobilise.bookhub.security.filter;
 
 import com.mobilise.bookhub.security.JwtService;
+import com.mobilise.bookhub.security.implementation.ResolvedUserContext;
+import com.mobilise.bookhub.security.implementation.TokenRevocationService;
+import com.mobilise.bookhub.security.implementation.UserDetailsImpl;
 import com.mobilise.bookhub.security.implementation.UserDetailsServiceImpl;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
 import jakarta.annotation.Nonnull;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -17,27 +22,63 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.Map;
 
-import static com.mobilise.bookhub.constants.Constants.LOGIN_URL;
-import static com.mobilise.bookhub.constants.Constants.REGISTER_URL;
+import static com.mobilise.bookhub.constants.Constants.*;
 /**
  * JwtSecurityFilter class extends {@link OncePerRequestFilter} and is responsible for handling JWT-based authentication.
  * It checks if the request is a registration or login request, and if not, it extracts the JWT token from the request header,
  * validates it, and sets the authenticated user details in the security context.
+ * This is the only place a request's token is parsed; controllers read the verified user through
+ * {@link org.springframework.security.core.annotation.AuthenticationPrincipal}, and the verified claims through the
+ * {@code VERIFIED_CLAIMS_ATTRIBUTE} request attribute.
+ * In stateless mode the authenticated user is built from the verified claims without a database lookup.
+ * Tokens revoked through {@link TokenRevocationService}, e.g. on logout, are rejected with 401.
+ * The user entity is only loaded later, through {@link ResolvedUserContext}, by services that need it.
  *
  * @author  codecharlan
  * @version 1.0.0
  */
-@RequiredArgsConstructor
 @Slf4j
 @Component
 public class JwtSecurityFilter extends OncePerRequestFilter {
     private final JwtService jwtService;
     private final UserDetailsServiceImpl userDetailsService;
+    private final TokenRevocationService tokenRevocationService;
+    /**
+     * Whether the authenticated user is built from the token claims instead of being loaded from the database.
+     */
+    private final boolean statelessAuthentication;
+    /**
+     * Number of JWT parses performed while serving one authenticated request; expected to be exactly 1.
+     */
+    private final DistributionSummary parsesPerRequest;
+
+    /**
+     * Constructor for JwtSecurityFilter.
+     *
+     * @param jwtService              the service used to verify tokens
+     * @param userDetailsService      the service used to load the authenticated user
+     * @param tokenRevocationService  the list of revoked tokens
+     * @param meterRegistry           the registry the parse metrics are published to
+     * @param statelessAuthentication whether to authenticate from the token claims alone
+     */
+    public JwtSecurityFilter(JwtService jwtService, UserDetailsServiceImpl userDetailsService,
+                             TokenRevocationService tokenRevocationService, MeterRegistry meterRegistry,
+                             @Value("${jwt.stateless-authentication:true}") boolean statelessAuthentication) {
+        this.jwtService = jwtService;
+        this.userDetailsService = userDetailsService;
+        this.tokenRevocationService = tokenRevocationService;
+        this.statelessAuthentication = statelessAuthentication;
+        this.parsesPerRequest = DistributionSummary.builder("bookhub.jwt.parses.per.request")
+                .description("JWT parses performed while serving one authenticated request")
+                .register(meterRegistry);
+    }
     /**
      * doFilterInternal method is overridden to handle the authentication process.
      * It checks if the request is a registration or login request, and if not, it extracts the JWT token from the request header,
      * validates it, and sets the authenticated user details in the security context.
+     * Requests without a bearer token continue unauthenticated and are rejected by the authorization rules.
      *
      * @param request  the HTTP request
      * @param response the HTTP response
@@ -54,19 +95,38 @@ public class JwtSecurityFilter extends OncePerRequestFilter {
             return;
         }
 
-        final String requestTokenHeader = request.getHeader("Authorization");
+        final String requestTokenHeader = request.getHeader(AUTHORIZATION_HEADER);
         String jwtToken = requestTokenHeader != null &&
                 requestTokenHeader.startsWith("Bearer ") ? requestTokenHeader.substring(7) : null;
-        String currentUserEmail = jwtService.parseTokenClaims(jwtToken).get("email");
-        UserDetails userDetails = userDetailsService.loadUserByUsername(currentUserEmail);
+        if (jwtToken == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        try {
+            Map<String, String> claims = jwtService.parseTokenClaims(jwtToken);
+            if (tokenRevocationService.isRevoked(claims.get("jti"))) {
+                response.sendError(HttpServletResponse.SC_UNAUTHORIZED, "Token has been revoked");
+                return;
+            }
+            UserDetails userDetails = statelessAuthentication
+                    ? new UserDetailsImpl(claims)
+                    : userDetailsService.loadAuthenticatedUser(claims.get("email"));
 
-        if (SecurityContextHolder.getContext().getAuthentication() == null) {
-            UsernamePasswordAuthenticationToken authenticatedUserToken = new UsernamePasswordAuthenticationToken(
-                    userDetails, null, userDetails.getAuthorities());
-            authenticatedUserToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-            SecurityContextHolder.getContext().setAuthentication(authenticatedUserToken);
+            if (SecurityContextHolder.getContext().getAuthentication() == null) {
+                UsernamePasswordAuthenticationToken authenticatedUserToken = new UsernamePasswordAuthenticationToken(
+                        userDetails, null, userDetails.getAuthorities());
+                authenticatedUserToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+                SecurityContextHolder.getContext().setAuthentication(authenticatedUserToken);
+            }
+            request.setAttribute(VERIFIED_CLAIMS_ATTRIBUTE, claims);
+            ResolvedUserContext.bind(request, userDetails.getUsername());
+            filterChain.doFilter(request, response);
+        } finally {
+            Object parseCount = request.getAttribute(JWT_PARSE_COUNT_ATTRIBUTE);
+            if (parseCount instanceof Integer count) {
+                parsesPerRequest.record(count);
+            }
         }
-        filterChain.doFilter(request, response);
     }
 
     private boolean isRegistrationOrLoginRequest(String requestUri) {
@@ -0,0 +1,132 @@
+package com.mobilise.bookhub.security.filter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mobilise.bookhub.dto.response.ApiResponse;
+import com.mobilise.bookhub.security.config.RateLimitProperties;
+import com.mobilise.bookhub.security.implementation.UserDetailsImpl;
+import com.mobilise.bookhub.utils.TokenBucket;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.Nonnull;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.PathContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * RateLimitingFilter limits requests per user, or per client IP for anonymous requests, with lock-free token buckets.
+ * It runs after {@link JwtSecurityFilter}, so authenticated requests are keyed by the email of the verified token.
+ * Limits are configured per path pattern in {@link RateLimitProperties}; requests over the limit get
+ * {@code 429 Too Many Requests} with a {@code Retry-After} header. Buckets that stay full and unused for the idle
+ * timeout are evicted.
+ *
+ * @author codecharlan
+ */
+@Component
+public class RateLimitingFilter extends OncePerRequestFilter {
+    private final boolean enabled;
+    private final long idleNanos;
+    private final List<Rule> rules;
+    private final ConcurrentMap<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+    private final ObjectMapper objectMapper;
+
+    /**
+     * A configured limit with its parsed pattern and rejection counter.
+     */
+    private record Rule(PathPattern pattern, RateLimitProperties.EndpointLimit limit, Counter rejections) {
+    }
+
+    /**
+     * Constructor for RateLimitingFilter.
+     *
+     * @param properties    the rate limiting configuration
+     * @param objectMapper  the mapper used to write the 429 response body
+     * @param meterRegistry the registry the rate limiting metrics are published to
+     */
+    public RateLimitingFilter(RateLimitProperties properties, ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.enabled = properties.enabled();
+        this.idleNanos = properties.idleTimeout().toNanos();
+        this.objectMapper = objectMapper;
+        this.rules = properties.endpoints().stream()
+                .map(limit -> new Rule(PathPatternParser.defaultInstance.parse(limit.pattern()), limit,
+                        Counter.builder("bookhub.rate.limit.rejections")
+                                .description("Requests rejected with 429 by the rate limiter")
+                                .tag("pattern", limit.pattern())
+                                .register(meterRegistry)))
+                .toList();
+        Gauge.builder("bookhub.rate.limit.buckets", buckets, ConcurrentMap::size)
+                .description("Token buckets currently held by the rate limiter")
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected void doFilterInternal(@Nonnull HttpServletRequest request, @Nonnull HttpServletResponse response,
+                                    @Nonnull FilterChain filterChain) throws ServletException, IOException {
+        Rule rule = enabled ? findRule(request) : null;
+        if (rule == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        long now = System.nanoTime();
+        String bucketKey = rule.limit().pattern() + '|' + clientKey(request);
+        TokenBucket bucket = buckets.computeIfAbsent(bucketKey,
+                key -> new TokenBucket(rule.limit().capacity(), rule.limit().refillPerSecond(), now));
+        long waitNanos = bucket.tryAcquire(now);
+        if (waitNanos == 0) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        rule.rejections().increment();
+        long retryAfterSeconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999L));
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), new ApiResponse<>("Too many requests, retry after "
+                + retryAfterSeconds + " seconds", null, HttpStatus.TOO_MANY_REQUESTS.value()));
+    }
+
+    /**
+     * Removes buckets that have been full and unused for the idle timeout.
+     */
+    @Scheduled(fixedDelayString = "${rate-limit.idle-timeout:PT10M}")
+    public void evictIdleBuckets() {
+        long now = System.nanoTime();
+        buckets.values().removeIf(bucket -> bucket.isIdle(now, idleNanos));
+    }
+
+    private Rule findRule(HttpServletRequest request) {
+        PathContainer path = PathContainer.parsePath(request.getRequestURI().substring(request.getContextPath().length()));
+        for (Rule rule : rules) {
+            if (rule.pattern().matches(path)) {
+                return rule;
+            }
+        }
+        return null;
+    }
+
+    private static String clientKey(HttpServletRequest request) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof UserDetailsImpl userDetails) {
+            return "user:" + userDetails.getEmail();
+        }
+        return "ip:" + request.getRemoteAddr();
+    }
+}
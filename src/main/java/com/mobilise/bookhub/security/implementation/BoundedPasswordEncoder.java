@@ -0,0 +1,127 @@
+package com.mobilise.bookhub.security.implementation;
+
+import com.mobilise.bookhub.exception.PasswordHashingUnavailableException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * BoundedPasswordEncoder runs BCrypt hashing and verification on a dedicated, fixed-size thread pool with a bounded queue,
+ * which bounds how many passwords are hashed at once. The request thread still waits for its hash, up to the timeout.
+ * When all threads are busy and the queue is full, new requests are rejected immediately with a
+ * {@link PasswordHashingUnavailableException} (503), so bursts of sign-ins fail fast instead of queueing without limit.
+ * Queue depth, rejections and hash latency are published as {@code bookhub.password.hashing.*} metrics.
+ *
+ * @author codecharlan
+ */
+public class BoundedPasswordEncoder implements PasswordEncoder {
+    private final PasswordEncoder delegate;
+    private final ThreadPoolExecutor executor;
+    private final Duration timeout;
+    private final Timer encodeTimer;
+    private final Timer matchesTimer;
+    private final Counter rejections;
+
+    /**
+     * Constructor for BoundedPasswordEncoder hashing with BCrypt.
+     *
+     * @param strength      the BCrypt cost factor
+     * @param threads       the number of hashing threads
+     * @param queueCapacity the number of requests allowed to wait for a thread
+     * @param timeout       how long a caller waits for its hash
+     * @param meterRegistry the registry the hashing metrics are published to
+     */
+    public BoundedPasswordEncoder(int strength, int threads, int queueCapacity, Duration timeout, MeterRegistry meterRegistry) {
+        this(new BCryptPasswordEncoder(strength), threads, queueCapacity, timeout, meterRegistry);
+    }
+
+    BoundedPasswordEncoder(PasswordEncoder delegate, int threads, int queueCapacity, Duration timeout, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.timeout = timeout;
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hashing-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        Gauge.builder("bookhub.password.hashing.queue.depth", executor, pool -> pool.getQueue().size())
+                .description("Password hashing requests waiting for a hashing thread")
+                .register(meterRegistry);
+        Gauge.builder("bookhub.password.hashing.active", executor, ThreadPoolExecutor::getActiveCount)
+                .description("Password hashing threads currently hashing")
+                .register(meterRegistry);
+        this.encodeTimer = hashTimer(meterRegistry, "encode");
+        this.matchesTimer = hashTimer(meterRegistry, "matches");
+        this.rejections = Counter.builder("bookhub.password.hashing.rejections")
+                .description("Password hashing requests rejected because the hashing queue was full")
+                .register(meterRegistry);
+    }
+
+    private static Timer hashTimer(MeterRegistry meterRegistry, String operation) {
+        return Timer.builder("bookhub.password.hashing.duration")
+                .description("Time spent hashing or verifying a password, excluding the queue wait")
+                .tag("operation", operation)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return submit(() -> encodeTimer.record(() -> delegate.encode(rawPassword)));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return submit(() -> matchesTimer.record(() -> delegate.matches(rawPassword, encodedPassword)));
+    }
+
+    /**
+     * Checks the stored hash's cost factor only, so it runs on the caller's thread.
+     */
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    private <T> T submit(Callable<T> hashing) {
+        Future<T> result;
+        try {
+            result = executor.submit(hashing);
+        } catch (RejectedExecutionException e) {
+            rejections.increment();
+            throw new PasswordHashingUnavailableException("Too many sign-in requests, please retry shortly");
+        }
+        try {
+            return result.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            result.cancel(true);
+            throw new PasswordHashingUnavailableException("Password verification timed out, please retry shortly");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            result.cancel(true);
+            throw new PasswordHashingUnavailableException("Password verification was interrupted");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    /**
+     * Stops the hashing threads; called by the container when the bean is destroyed.
+     */
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,148 @@
+package com.mobilise.bookhub.security.implementation;
+
+import com.mobilise.bookhub.security.config.JwtProperties;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.SigningKeyResolverAdapter;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.SignatureException;
+import org.springframework.stereotype.Component;
+
+import java.security.Key;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * JwtKeyRing holds the HMAC keys used to sign and verify JWT tokens.
+ * Keys are decoded once and kept in an immutable snapshot that is swapped atomically on rotation,
+ * so verification never decodes a secret and never takes a lock.
+ * Tokens select their verification key through the {@code kid} header.
+ *
+ * @author codecharlan
+ * @version 1.0.0
+ */
+@Component
+public class JwtKeyRing extends SigningKeyResolverAdapter {
+    /**
+     * Key id used for tokens that carry no {@code kid} header.
+     */
+    private final String defaultKeyId;
+    private volatile Snapshot snapshot;
+
+    /**
+     * Immutable view of the active signing key id and all verification keys.
+     */
+    private record Snapshot(String activeKeyId, Map<String, Key> keys) {
+    }
+
+    /**
+     * Constructor for JwtKeyRing.
+     *
+     * @param properties the JWT properties holding the primary secret and any additional verification keys
+     */
+    public JwtKeyRing(JwtProperties properties) {
+        this.defaultKeyId = properties.keyId();
+        Map<String, Key> keys = new LinkedHashMap<>();
+        if (properties.keys() != null) {
+            properties.keys().forEach((keyId, secret) -> keys.put(keyId, decode(secret)));
+        }
+        keys.put(defaultKeyId, decode(properties.secret()));
+        this.snapshot = new Snapshot(defaultKeyId, Map.copyOf(keys));
+    }
+
+    /**
+     * Get the id of the key currently used for signing.
+     *
+     * @return the active key id
+     */
+    public String getActiveKeyId() {
+        return snapshot.activeKeyId();
+    }
+
+    /**
+     * Get the key currently used for signing.
+     *
+     * @return the active signing key
+     */
+    public Key getActiveKey() {
+        Snapshot current = snapshot;
+        return current.keys().get(current.activeKeyId());
+    }
+
+    /**
+     * Get the ids of all keys accepted for verification.
+     *
+     * @return the registered key ids
+     */
+    public Set<String> getKeyIds() {
+        return snapshot.keys().keySet();
+    }
+
+    /**
+     * Returns whether tokens with the given {@code kid} header are still accepted for verification.
+     *
+     * @param keyId the {@code kid} header of a token, or {@code null} for tokens without one
+     * @return {@code true} if a key is registered for the key id
+     */
+    public boolean accepts(String keyId) {
+        return snapshot.keys().containsKey(keyId != null ? keyId : defaultKeyId);
+    }
+
+    /**
+     * Registers a new key and makes it the active signing key.
+     * Previously registered keys stay valid for verification until they are retired.
+     *
+     * @param keyId  the id of the new key
+     * @param secret the Base64 encoded secret of the new key
+     * @throws IllegalArgumentException if the key id is blank or the secret is too weak for HMAC-SHA
+     */
+    public synchronized void rotate(String keyId, String secret) {
+        if (keyId == null || keyId.isBlank()) {
+            throw new IllegalArgumentException("Key id is required for key rotation");
+        }
+        Map<String, Key> keys = new LinkedHashMap<>(snapshot.keys());
+        keys.put(keyId, decode(secret));
+        snapshot = new Snapshot(keyId, Map.copyOf(keys));
+    }
+
+    /**
+     * Removes a key so that tokens signed with it are no longer accepted.
+     *
+     * @param keyId the id of the key to retire
+     * @throws IllegalStateException if the key is the active signing key
+     */
+    public synchronized void retire(String keyId) {
+        Snapshot current = snapshot;
+        if (current.activeKeyId().equals(keyId)) {
+            throw new IllegalStateException("The active signing key cannot be retired: " + keyId);
+        }
+        Map<String, Key> keys = new LinkedHashMap<>(current.keys());
+        keys.remove(keyId);
+        snapshot = new Snapshot(current.activeKeyId(), Map.copyOf(keys));
+    }
+
+    /**
+     * Resolves the verification key of a token from its {@code kid} header.
+     *
+     * @param header the JWS header of the token
+     * @param claims the claims of the token
+     * @return the verification key
+     * @throws SignatureException if no key is registered for the token's key id
+     */
+    @Override
+    public Key resolveSigningKey(JwsHeader header, Claims claims) {
+        String keyId = header.getKeyId() != null ? header.getKeyId() : defaultKeyId;
+        Key key = snapshot.keys().get(keyId);
+        if (key == null) {
+            throw new SignatureException("Unknown signing key id: " + keyId);
+        }
+        return key;
+    }
+
+    private static Key decode(String secret) {
+        byte[] keyBytes = Decoders.BASE64.decode(secret);
+        return Keys.hmacShaKeyFor(keyBytes);
+    }
+}
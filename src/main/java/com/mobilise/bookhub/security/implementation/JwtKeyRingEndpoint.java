@@ -0,0 +1,61 @@
+package com.mobilise.bookhub.security.implementation;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Actuator endpoint for rotating JWT signing keys without a restart.
+ * Secrets are accepted on write but never returned.
+ * <p>
+ * The endpoint is exposed over HTTP at {@code /actuator/jwtkeys}, which only administrators may call, as long as
+ * {@code management.endpoints.web.exposure.include} lists {@code jwtkeys}. Rotating or retiring a key only changes the
+ * key ring of the instance that handles the call; when several instances run, call each of them, and configure the
+ * new key as {@code jwt.secret} and {@code jwt.key-id} so that it survives a restart.
+ *
+ * @author codecharlan
+ */
+@RequiredArgsConstructor
+@Component
+@Endpoint(id = "jwtkeys")
+public class JwtKeyRingEndpoint {
+    private final JwtKeyRing keyRing;
+
+    /**
+     * Lists the active signing key id and all key ids accepted for verification.
+     *
+     * @return the key ids
+     */
+    @ReadOperation
+    public Map<String, Object> keys() {
+        return Map.of("activeKeyId", keyRing.getActiveKeyId(), "keyIds", Set.copyOf(keyRing.getKeyIds()));
+    }
+
+    /**
+     * Registers a new key and makes it the active signing key.
+     *
+     * @param keyId  the id of the new key
+     * @param secret the Base64 encoded secret of the new key
+     */
+    @WriteOperation
+    public void rotate(String keyId, String secret) {
+        keyRing.rotate(keyId, secret);
+    }
+
+    /**
+     * Retires a key so that tokens signed with it are rejected.
+     *
+     * @param keyId the id of the key to retire
+     */
+    @DeleteOperation
+    public void retire(@Selector String keyId) {
+        keyRing.retire(keyId);
+    }
+}
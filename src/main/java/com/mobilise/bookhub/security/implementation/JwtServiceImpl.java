@@ -3,39 +3,66 @@ package com.mobilise.bookhub.security.implementation;
 import com.mobilise.bookhub.enums.Role;
 import com.mobilise.bookhub.exception.JwtParsingException;
 import com.mobilise.bookhub.security.JwtService;
-import com.mobilise.bookhub.security.implementation.UserDetailsImpl;
 import io.jsonwebtoken.*;
-import io.jsonwebtoken.io.Decoders;
-import io.jsonwebtoken.security.Keys;
 import io.jsonwebtoken.security.SignatureException;
-import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.lang.Nullable;
 import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
 
-import java.security.Key;
+import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.UUID;
+
+import static com.mobilise.bookhub.constants.Constants.JWT_PARSE_COUNT_ATTRIBUTE;
 /**
  * JWT service implementation.
+ * The signing keys and the parser are built once; the parser picks the verification key
+ * from the {@link JwtKeyRing} by the token's {@code kid} header.
  *
  * @author charlancodes
  */
 @Component
 public class JwtServiceImpl implements JwtService {
     /**
-     * The secret token used for signing JWTs.
+     * The key ring holding the signing and verification keys.
+     */
+    private final JwtKeyRing keyRing;
+    /**
+     * The thread-safe parser shared by all requests.
      */
-    @Value("${jwt.secret}")
-    private String secretToken;
+    private final JwtParser jwtParser;
     /**
-     * Get the signing key from the secret token.
+     * The optional cache of already verified tokens, {@code null} when disabled.
+     */
+    private final VerifiedTokenCache verifiedTokenCache;
+
+    /**
+     * Constructor for JwtServiceImpl without a verified-token cache.
      *
-     * @return the signing key
+     * @param keyRing the key ring holding the signing and verification keys
      */
-    private Key getSigningKey() {
-        byte[] keyBytes = Decoders.BASE64.decode(secretToken);
-        return Keys.hmacShaKeyFor(keyBytes);
+    public JwtServiceImpl(JwtKeyRing keyRing) {
+        this(keyRing, null);
+    }
+
+    /**
+     * Constructor for JwtServiceImpl.
+     *
+     * @param keyRing            the key ring holding the signing and verification keys
+     * @param verifiedTokenCache the cache of already verified tokens, or {@code null} to verify every token
+     */
+    @Autowired
+    public JwtServiceImpl(JwtKeyRing keyRing, @Nullable VerifiedTokenCache verifiedTokenCache) {
+        this.keyRing = keyRing;
+        this.verifiedTokenCache = verifiedTokenCache;
+        this.jwtParser = Jwts.parserBuilder()
+                .setSigningKeyResolver(keyRing)
+                .build();
     }
     /**
      * Generate a JWT token for the given authentication and role.
@@ -54,39 +81,72 @@ public class JwtServiceImpl implements JwtService {
         Date expiryDate = new Date(now.getTime() + 60000 * 120);
 
         return Jwts.builder()
+                .setHeaderParam(JwsHeader.KEY_ID, keyRing.getActiveKeyId())
+                .setId(UUID.randomUUID().toString())
                 .setSubject(email)
+                .claim("uid", userDetails.getId())
                 .claim("name", fullName)
                 .claim("email", email)
                 .claim("role", role.name())
                 .setIssuedAt(now)
                 .setExpiration(expiryDate)
-                .signWith(getSigningKey(), SignatureAlgorithm.HS512)
+                .signWith(keyRing.getActiveKey(), SignatureAlgorithm.HS512)
                 .compact();
     }
     /**
      * Parse the claims from the given JWT token.
+     * Tokens found in the verified-token cache are returned without verifying the signature again, as long as the key
+     * they were verified with has not been retired since; those are verified again, and rejected.
+     * Each actual parse is counted on the current request so the security filter can report parses per request.
      *
      * @param token the JWT token to parse
-     * @return a map of the parsed claims
+     * @return an unmodifiable map of the parsed claims
      * @throws JwtParsingException if the token cannot be parsed
      */
     @Override
     public Map<String, String> parseTokenClaims(String token) throws JwtParsingException {
+        if (verifiedTokenCache != null && token != null) {
+            VerifiedTokenCache.VerifiedToken verifiedToken = verifiedTokenCache.get(token);
+            if (verifiedToken != null) {
+                if (keyRing.accepts(verifiedToken.keyId())) {
+                    return verifiedToken.claims();
+                }
+                verifiedTokenCache.invalidate(token);
+            }
+        }
+        countParse();
         try {
-            Claims claims = Jwts.parserBuilder()
-                    .setSigningKey(getSigningKey())
-                    .build()
-                    .parseClaimsJws(token)
-                    .getBody();
+            Jws<Claims> jws = jwtParser.parseClaimsJws(token);
+            Claims claims = jws.getBody();
 
-            return new HashMap<>() {{
-                put("name", claims.get("name", String.class));
-                put("email", claims.get("email", String.class));
-                put("role", claims.get("role", String.class));
-            }};
+            Map<String, String> parsedClaims = new HashMap<>();
+            Long userId = claims.get("uid", Long.class);
+            parsedClaims.put("id", userId != null ? userId.toString() : null);
+            parsedClaims.put("name", claims.get("name", String.class));
+            parsedClaims.put("email", claims.get("email", String.class));
+            parsedClaims.put("role", claims.get("role", String.class));
+            parsedClaims.put("jti", claims.getId());
+            parsedClaims.put("exp", claims.getExpiration() != null ? String.valueOf(claims.getExpiration().getTime()) : null);
+            Map<String, String> unmodifiableClaims = Collections.unmodifiableMap(parsedClaims);
+            if (verifiedTokenCache != null) {
+                verifiedTokenCache.put(token, unmodifiableClaims, jws.getHeader().getKeyId(), claims.getExpiration());
+            }
+            return unmodifiableClaims;
         } catch (ExpiredJwtException | UnsupportedJwtException | MalformedJwtException | SignatureException |
                  IllegalArgumentException e) {
             throw new JwtParsingException("Error parsing JWT token: " + e.getMessage());
         }
     }
+
+    /**
+     * Increments the parse counter of the current request, if there is one.
+     */
+    private static void countParse() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes != null) {
+            Integer parseCount = (Integer) attributes.getAttribute(JWT_PARSE_COUNT_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+            attributes.setAttribute(JWT_PARSE_COUNT_ATTRIBUTE, parseCount == null ? 1 : parseCount + 1,
+                    RequestAttributes.SCOPE_REQUEST);
+        }
+    }
 }
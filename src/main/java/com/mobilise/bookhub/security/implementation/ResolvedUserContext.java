@@ -0,0 +1,57 @@
+package com.mobilise.bookhub.security.implementation;
+
+import com.mobilise.bookhub.entity.User;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.util.function.Function;
+
+import static com.mobilise.bookhub.constants.Constants.RESOLVED_USER_ATTRIBUTE;
+
+/**
+ * ResolvedUserContext holds the {@link User} entity of the authenticated user for the duration of one request.
+ * The security filter binds the context with the authenticated email; the entity itself is only loaded when a
+ * service first asks for it, and at most once per request.
+ * Outside a request, or for a different email, every call goes straight to the loader.
+ *
+ * @author codecharlan
+ */
+public final class ResolvedUserContext {
+    private final String email;
+    private User user;
+
+    private ResolvedUserContext(String email) {
+        this.email = email;
+    }
+
+    /**
+     * Binds a resolved-user context for the authenticated user to the request.
+     *
+     * @param request the current HTTP request
+     * @param email   the email of the authenticated user
+     */
+    public static void bind(HttpServletRequest request, String email) {
+        request.setAttribute(RESOLVED_USER_ATTRIBUTE, new ResolvedUserContext(email));
+    }
+
+    /**
+     * Resolve the user with the given email, loading it on first use within the current request.
+     *
+     * @param email  the email of the user
+     * @param loader loads the user from the database; expected to throw when the user does not exist
+     * @return the user entity
+     */
+    public static User resolve(String email, Function<String, User> loader) {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes != null
+                && attributes.getAttribute(RESOLVED_USER_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST) instanceof ResolvedUserContext context
+                && context.email.equals(email)) {
+            if (context.user == null) {
+                context.user = loader.apply(email);
+            }
+            return context.user;
+        }
+        return loader.apply(email);
+    }
+}
@@ -0,0 +1,107 @@
+package com.mobilise.bookhub.security.implementation;
+
+import com.mobilise.bookhub.entity.RevokedToken;
+import com.mobilise.bookhub.repository.RevokedTokenRepository;
+import com.mobilise.bookhub.utils.BloomFilter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+
+/**
+ * TokenRevocationService keeps the list of JWT tokens revoked before their expiry, e.g. on logout.
+ * The exact list is persisted; an in-memory Bloom filter in front of it answers the common "not revoked" case
+ * without touching the database, so only revoked tokens and rare false positives cost a lookup.
+ * The filter is rebuilt periodically from the unexpired entries, which both drops expired tokens and picks up
+ * tokens revoked by other instances.
+ *
+ * @author codecharlan
+ */
+@Slf4j
+@Component
+public class TokenRevocationService {
+    private final RevokedTokenRepository revokedTokenRepository;
+    private final long expectedRevocations;
+    private final double falsePositiveProbability;
+    private final Counter falsePositives;
+    private volatile BloomFilter revokedTokens;
+
+    /**
+     * Constructor for TokenRevocationService.
+     *
+     * @param revokedTokenRepository   the persisted revocation list
+     * @param expectedRevocations      the number of unexpired revocations the Bloom filter is sized for
+     * @param falsePositiveProbability the Bloom filter's false-positive probability at that size
+     * @param meterRegistry            the registry the revocation metrics are published to
+     */
+    public TokenRevocationService(RevokedTokenRepository revokedTokenRepository,
+                                  @Value("${jwt.revocation.expected-revocations:100000}") long expectedRevocations,
+                                  @Value("${jwt.revocation.false-positive-probability:0.001}") double falsePositiveProbability,
+                                  MeterRegistry meterRegistry) {
+        this.revokedTokenRepository = revokedTokenRepository;
+        this.expectedRevocations = expectedRevocations;
+        this.falsePositiveProbability = falsePositiveProbability;
+        this.falsePositives = Counter.builder("bookhub.jwt.revocation.false.positives")
+                .description("Revocation checks that passed the Bloom filter but were not revoked")
+                .register(meterRegistry);
+        this.revokedTokens = new BloomFilter(expectedRevocations, falsePositiveProbability);
+    }
+
+    /**
+     * Revokes a token until it expires.
+     *
+     * @param jti       the {@code jti} claim of the token; tokens without one cannot be revoked
+     * @param expiresAt the expiry of the token
+     */
+    public void revoke(String jti, Instant expiresAt) {
+        if (jti == null || expiresAt == null || !expiresAt.isAfter(Instant.now())) {
+            return;
+        }
+        revokedTokenRepository.save(new RevokedToken(jti, expiresAt));
+        synchronized (this) {
+            revokedTokens.put(jti);
+        }
+    }
+
+    /**
+     * Checks whether a token has been revoked.
+     *
+     * @param jti the {@code jti} claim of the token
+     * @return {@code true} if the token has been revoked
+     */
+    public boolean isRevoked(String jti) {
+        if (jti == null || !revokedTokens.mightContain(jti)) {
+            return false;
+        }
+        boolean revoked = revokedTokenRepository.existsById(jti);
+        if (!revoked) {
+            falsePositives.increment();
+        }
+        return revoked;
+    }
+
+    /**
+     * Deletes expired revocations and rebuilds the Bloom filter from the remaining ones.
+     * Runs under the same lock as {@link #revoke(String, Instant)}, so a revocation saved while the filter is
+     * rebuilt is either read back from the database or added to the new filter.
+     */
+    @PostConstruct
+    @Scheduled(fixedDelayString = "${jwt.revocation.refresh-interval:PT1M}", initialDelayString = "${jwt.revocation.refresh-interval:PT1M}")
+    public synchronized void refresh() {
+        Instant now = Instant.now();
+        int purged = revokedTokenRepository.deleteExpired(now);
+        BloomFilter rebuilt = new BloomFilter(expectedRevocations, falsePositiveProbability);
+        for (String jti : revokedTokenRepository.findActiveJtis(now)) {
+            rebuilt.put(jti);
+        }
+        revokedTokens = rebuilt;
+        if (purged > 0) {
+            log.info("Purged {} expired token revocations", purged);
+        }
+    }
+}
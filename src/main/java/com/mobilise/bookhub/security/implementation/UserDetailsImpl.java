@@ -1,6 +1,7 @@
 package com.mobilise.bookhub.security.implementation;
 
 import com.mobilise.bookhub.entity.User;
+import com.mobilise.bookhub.enums.Role;
 import lombok.Getter;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
@@ -8,6 +9,7 @@ import org.springframework.security.core.userdetails.UserDetails;
 
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 /**
@@ -38,6 +40,21 @@ public class UserDetailsImpl implements UserDetails {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Constructor for UserDetailsImpl from the claims of a verified JWT token.
+     * The password is not part of the token, so the resulting user cannot be used for password authentication.
+     *
+     * @param claims the verified claims containing the user's id, email, name and role
+     */
+    public UserDetailsImpl(Map<String, String> claims) {
+        String userId = claims.get("id");
+        this.id = userId != null ? Long.valueOf(userId) : null;
+        this.email = claims.get("email");
+        this.fullName = claims.get("name");
+        this.password = null;
+        this.authorities = List.of(new SimpleGrantedAuthority(Role.valueOf(claims.get("role")).name()));
+    }
+
     /**
      * Get the list of authorities granted to the user.
      *
@@ -1,30 +1,61 @@
 package com.mobilise.bookhub.security.implementation;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.mobilise.bookhub.entity.User;
 import com.mobilise.bookhub.exception.UserNotFoundException;
 import com.mobilise.bookhub.repository.UserRepository;
-import lombok.RequiredArgsConstructor;
 import lombok.ToString;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.stereotype.Component;
 
+import java.time.Duration;
+
 /**
  * UserDetailsServiceImpl class is responsible for loading user details from the database.
  * It implements the UserDetailsService interface provided by Spring Security.
+ * Users loaded for token authentication are kept in a short-lived cache that can be invalidated explicitly,
+ * e.g. when a user's role changes.
+ * It also stores re-hashed passwords when a login upgrades a hash to the configured cost factor.
  *
  * @author codecharlan
  * @version 1.0.0
  */
-@RequiredArgsConstructor
 @Component
 @ToString
-public class UserDetailsServiceImpl implements UserDetailsService {
+public class UserDetailsServiceImpl implements UserDetailsService, UserDetailsPasswordService {
 
     /**
      * The UserRepository dependency is used to interact with the database and fetch user details.
      */
     private final UserRepository userRepository;
 
+    /**
+     * Users authenticated by token, by email; {@code null} when the cache is disabled.
+     */
+    @ToString.Exclude
+    private final Cache<String, UserDetails> authenticatedUsers;
+
+    /**
+     * Constructor for UserDetailsServiceImpl.
+     *
+     * @param userRepository the repository used to fetch user details
+     * @param cacheTtl       how long a user loaded for token authentication is reused; zero disables the cache
+     * @param cacheSize      the maximum number of cached users
+     */
+    public UserDetailsServiceImpl(UserRepository userRepository,
+                                  @Value("${security.user-details-cache.ttl:PT30S}") Duration cacheTtl,
+                                  @Value("${security.user-details-cache.maximum-size:10000}") long cacheSize) {
+        this.userRepository = userRepository;
+        this.authenticatedUsers = cacheTtl.isZero() ? null : Caffeine.newBuilder()
+                .expireAfterWrite(cacheTtl)
+                .maximumSize(cacheSize)
+                .build();
+    }
+
     /**
      * The loadUserByUsername method is called by Spring Security to load user details.
      * It takes a username as input and returns a UserDetails object.
@@ -40,4 +71,48 @@ public class UserDetailsServiceImpl implements UserDetailsService {
                 .map(UserDetailsImpl::new)
                 .orElseThrow(() -> new UserNotFoundException("No active user found with email: " + username));
     }
+
+    /**
+     * Loads the user of an already verified token, reusing a recently loaded user when the cache is enabled.
+     * Password authentication must keep using {@link #loadUserByUsername(String)}.
+     *
+     * @param email The email of the authenticated user.
+     * @return A UserDetails object representing the user details.
+     * @throws UserNotFoundException If the user is not found in the database.
+     */
+    public UserDetails loadAuthenticatedUser(String email) throws UserNotFoundException {
+        if (authenticatedUsers == null) {
+            return loadUserByUsername(email);
+        }
+        return authenticatedUsers.get(email, this::loadUserByUsername);
+    }
+
+    /**
+     * Removes a user from the authenticated-user cache, so the next request reloads the user's role.
+     *
+     * @param email The email of the user to evict.
+     */
+    public void evictUser(String email) {
+        if (authenticatedUsers != null) {
+            authenticatedUsers.invalidate(email);
+        }
+    }
+
+    /**
+     * Stores a password hash upgraded during login, e.g. after the BCrypt cost factor was raised.
+     *
+     * @param user        the authenticated user
+     * @param newPassword the new password hash
+     * @return the user with the new password hash
+     * @throws UserNotFoundException If the user is not found in the database.
+     */
+    @Override
+    public UserDetails updatePassword(UserDetails user, String newPassword) throws UserNotFoundException {
+        User storedUser = userRepository.findByEmail(user.getUsername())
+                .orElseThrow(() -> new UserNotFoundException("No active user found with email: " + user.getUsername()));
+        storedUser.setPassword(newPassword);
+        User savedUser = userRepository.save(storedUser);
+        evictUser(savedUser.getEmail());
+        return new UserDetailsImpl(savedUser);
+    }
 }
@@ -0,0 +1,117 @@
+package com.mobilise.bookhub.security.implementation;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * VerifiedTokenCache remembers the claims of tokens whose signature has already been verified,
+ * so repeat requests with the same bearer token skip HMAC verification and claim extraction.
+ * Entries are keyed by the SHA-256 digest of the token, bounded in number and expire together with the token.
+ * Each entry keeps the id of the key the token was verified with, so that tokens of a retired key can be told apart.
+ * Hit and miss counts are published as the {@code cache.gets} metric with {@code cache=jwt.verified-tokens}.
+ *
+ * @author codecharlan
+ */
+@Component
+@ConditionalOnProperty(prefix = "jwt.verified-token-cache", name = "enabled", havingValue = "true")
+public class VerifiedTokenCache {
+    private final Cache<ByteBuffer, VerifiedToken> cache;
+
+    /**
+     * Claims of a verified token together with the id of the key it was verified with and the token's expiry.
+     *
+     * @param claims          the immutable claims extracted from the token
+     * @param keyId           the {@code kid} header of the token, or {@code null} if it has none
+     * @param expiresAtMillis the expiry of the token in epoch milliseconds
+     */
+    record VerifiedToken(Map<String, String> claims, String keyId, long expiresAtMillis) {
+    }
+
+    /**
+     * Constructor for VerifiedTokenCache.
+     *
+     * @param maximumSize   the maximum number of tokens kept
+     * @param meterRegistry the registry the cache metrics are published to
+     */
+    public VerifiedTokenCache(@Value("${jwt.verified-token-cache.maximum-size:100000}") long maximumSize,
+                              MeterRegistry meterRegistry) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new Expiry<ByteBuffer, VerifiedToken>() {
+                    @Override
+                    public long expireAfterCreate(ByteBuffer key, VerifiedToken value, long currentTime) {
+                        long remainingMillis = value.expiresAtMillis() - System.currentTimeMillis();
+                        return TimeUnit.MILLISECONDS.toNanos(Math.max(remainingMillis, 0));
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(ByteBuffer key, VerifiedToken value, long currentTime, long currentDuration) {
+                        return expireAfterCreate(key, value, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(ByteBuffer key, VerifiedToken value, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "jwt.verified-tokens");
+    }
+
+    /**
+     * Get a previously verified, unexpired token.
+     *
+     * @param token the raw JWT token
+     * @return the verified token, or {@code null} if the token has not been verified or has expired
+     */
+    VerifiedToken get(String token) {
+        return cache.getIfPresent(digest(token));
+    }
+
+    /**
+     * Remembers the claims of a verified token until the token expires.
+     *
+     * @param token      the raw JWT token
+     * @param claims     the immutable claims extracted from the token
+     * @param keyId      the {@code kid} header of the token, or {@code null} if it has none
+     * @param expiration the expiry of the token; tokens without one are not cached
+     */
+    public void put(String token, Map<String, String> claims, String keyId, Date expiration) {
+        if (expiration != null) {
+            cache.put(digest(token), new VerifiedToken(claims, keyId, expiration.getTime()));
+        }
+    }
+
+    /**
+     * Forgets a token, so that it is verified again on its next use.
+     *
+     * @param token the raw JWT token
+     */
+    public void invalidate(String token) {
+        cache.invalidate(digest(token));
+    }
+
+    private static ByteBuffer digest(String token) {
+        try {
+            MessageDigest messageDigest = MessageDigest.getInstance("SHA-256");
+            return ByteBuffer.wrap(messageDigest.digest(token.getBytes(StandardCharsets.US_ASCII)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
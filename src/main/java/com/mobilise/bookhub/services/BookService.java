@@ -1,26 +1,84 @@
 package com.mobilise.bookhub.services;
 
 
+import com.mobilise.bookhub.dto.request.BookFilterDto;
+import com.mobilise.bookhub.dto.request.BookLineDto;
 import com.mobilise.bookhub.dto.request.BookRequestDto;
+import com.mobilise.bookhub.dto.request.CheckoutRequestDto;
 import com.mobilise.bookhub.dto.response.ApiResponse;
 import com.mobilise.bookhub.dto.response.BookResponseDto;
+import com.mobilise.bookhub.dto.response.BulkBookResponseDto;
+import com.mobilise.bookhub.dto.response.CheckoutResponseDto;
+import com.mobilise.bookhub.dto.response.IsbnLookupResponseDto;
+import com.mobilise.bookhub.dto.response.ReservationResponseDto;
+import com.mobilise.bookhub.dto.response.SuggestionResponseDto;
+import com.mobilise.bookhub.enums.CountMode;
+import com.mobilise.bookhub.enums.MatchMode;
 
 import java.util.List;
 
 public interface BookService {
     ApiResponse<BookResponseDto> createBook(String email, BookRequestDto newBook);
 
-    ApiResponse<BookResponseDto> editBook(String email, Long id, BookRequestDto updatedBook);
+    default ApiResponse<BookResponseDto> editBook(String email, Long id, BookRequestDto updatedBook) {
+        return editBook(email, id, updatedBook, null);
+    }
+
+    ApiResponse<BookResponseDto> editBook(String email, Long id, BookRequestDto updatedBook, Long expectedVersion);
+
+    default ApiResponse<ApiResponse.Wrapper<List<BookResponseDto>>> getAllBooks(String email,
+                                                                                int pageNumber,
+                                                                                int pageSize,
+                                                                                String sortBy,
+                                                                                String sortOrder,
+                                                                                String searchTerm) {
+        return getAllBooks(email, pageNumber, pageSize, sortBy, sortOrder, searchTerm, CountMode.EXACT);
+    }
+
+    default ApiResponse<ApiResponse.Wrapper<List<BookResponseDto>>> getAllBooks(String email,
+                                                                                int pageNumber,
+                                                                                int pageSize,
+                                                                                String sortBy,
+                                                                                String sortOrder,
+                                                                                String searchTerm,
+                                                                                CountMode count) {
+        return getAllBooks(email, pageNumber, pageSize, sortBy, sortOrder, searchTerm, count, BookFilterDto.NONE);
+    }
 
     ApiResponse<ApiResponse.Wrapper<List<BookResponseDto>>> getAllBooks(String email,
                                                                         int pageNumber,
                                                                         int pageSize,
                                                                         String sortBy,
                                                                         String sortOrder,
-                                                                        String searchTerm);
+                                                                        String searchTerm,
+                                                                        CountMode count,
+                                                                        BookFilterDto filter);
+
+    default ApiResponse<ApiResponse.Wrapper<List<BookResponseDto>>> getAllBooksAfter(String email,
+                                                                                     String cursor,
+                                                                                     int pageSize,
+                                                                                     String sortBy,
+                                                                                     String sortOrder,
+                                                                                     String searchTerm,
+                                                                                     CountMode count) {
+        return getAllBooksAfter(email, cursor, pageSize, sortBy, sortOrder, searchTerm, count, BookFilterDto.NONE);
+    }
+
+    ApiResponse<ApiResponse.Wrapper<List<BookResponseDto>>> getAllBooksAfter(String email,
+                                                                             String cursor,
+                                                                             int pageSize,
+                                                                             String sortBy,
+                                                                             String sortOrder,
+                                                                             String searchTerm,
+                                                                             CountMode count,
+                                                                             BookFilterDto filter);
 
     ApiResponse<BookResponseDto> getBookById(String email, Long id);
 
+    ApiResponse<BookResponseDto> getBookByIsbn(String email, String isbn);
+
+    ApiResponse<List<IsbnLookupResponseDto>> getBooksByIsbn(String email, List<String> isbns);
+
     ApiResponse<String> deleteBook(String email, Long id);
 
     ApiResponse<BookResponseDto> borrowBook(Long bookId, String email, Integer borrowCount);
@@ -29,6 +87,34 @@ public interface BookService {
 
     ApiResponse<BookResponseDto> purchaseBook(Long bookId, String email, Integer borrowCount);
 
+    ApiResponse<CheckoutResponseDto> checkout(String email, CheckoutRequestDto cart);
+
+    ApiResponse<BulkBookResponseDto> borrowBooks(String email, List<BookLineDto> lines);
+
+    ApiResponse<BulkBookResponseDto> returnBooks(String email, List<BookLineDto> lines);
+
+    ApiResponse<ReservationResponseDto> reserveBook(String email, Long bookId);
+
+    ApiResponse<ReservationResponseDto> cancelReservation(String email, Long reservationId);
+
+    ApiResponse<List<SuggestionResponseDto>> suggestBooks(String prefix, int limit);
+
+    default ApiResponse<ApiResponse.Wrapper<List<BookResponseDto>>> searchBooksByTitleOrAuthor(String email, int pageNumber,
+                                                                                               int pageSize, String searchTerm) {
+        return searchBooksByTitleOrAuthor(email, pageNumber, pageSize, searchTerm, CountMode.EXACT);
+    }
+
+    default ApiResponse<ApiResponse.Wrapper<List<BookResponseDto>>> searchBooksByTitleOrAuthor(String email, int pageNumber,
+                                                                                               int pageSize, String searchTerm,
+                                                                                               CountMode count) {
+        return searchBooksByTitleOrAuthor(email, pageNumber, pageSize, searchTerm, count, MatchMode.EXACT);
+    }
+
     ApiResponse<ApiResponse.Wrapper<List<BookResponseDto>>> searchBooksByTitleOrAuthor(String email, int pageNumber,
-                                                                                       int pageSize, String searchTerm);
+                                                                                       int pageSize, String searchTerm,
+                                                                                       CountMode count, MatchMode match);
+
+    ApiResponse<ApiResponse.Wrapper<List<BookResponseDto>>> searchBooksByTitleOrAuthorAfter(String email, String cursor,
+                                                                                            int pageSize, String searchTerm,
+                                                                                            CountMode count);
 }
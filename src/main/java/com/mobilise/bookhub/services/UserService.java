@@ -6,8 +6,10 @@ import com.mobilise.bookhub.dto.response.ApiResponse;
 import com.mobilise.bookhub.dto.response.LoginResponseDto;
 import com.mobilise.bookhub.dto.response.RegistrationResponseDto;
 
+import java.util.Map;
+
 public interface UserService {
     ApiResponse<RegistrationResponseDto> registerUser(RegistrationRequestDto registrationRequest);
     ApiResponse<LoginResponseDto> login(LoginRequestDto loginRequest);
-    ApiResponse<String> logout(String authorizationHeader);
+    ApiResponse<String> logout(Map<String, String> tokenClaims);
 }
@@ -1,30 +1,63 @@
 package com.mobilise.bookhub.services.serviceImpl;
 
 
+import com.mobilise.bookhub.config.LoanProperties;
+import com.mobilise.bookhub.dto.request.BookFilterDto;
 import com.mobilise.bookhub.dto.request.BookRequestDto;
+import com.mobilise.bookhub.dto.request.BookLineDto;
+import com.mobilise.bookhub.dto.request.CheckoutRequestDto;
 import com.mobilise.bookhub.dto.response.ApiResponse;
 import com.mobilise.bookhub.dto.response.BookResponseDto;
+import com.mobilise.bookhub.dto.response.BulkBookResponseDto;
+import com.mobilise.bookhub.dto.response.CheckoutResponseDto;
+import com.mobilise.bookhub.dto.response.IsbnLookupResponseDto;
+import com.mobilise.bookhub.dto.response.ReservationResponseDto;
+import com.mobilise.bookhub.dto.response.SuggestionResponseDto;
 import com.mobilise.bookhub.entity.*;
+import com.mobilise.bookhub.enums.BookSortField;
+import com.mobilise.bookhub.enums.CountMode;
+import com.mobilise.bookhub.enums.MatchMode;
 import com.mobilise.bookhub.enums.TransactionType;
 import com.mobilise.bookhub.exception.*;
 import com.mobilise.bookhub.repository.*;
+import com.mobilise.bookhub.security.implementation.ResolvedUserContext;
 import com.mobilise.bookhub.services.BookService;
+import com.mobilise.bookhub.utils.BookCountCache;
+import com.mobilise.bookhub.utils.BookCursorCodec;
 import com.mobilise.bookhub.utils.BookUtils;
 import com.mobilise.bookhub.utils.DtoMapper;
+import com.mobilise.bookhub.utils.IsbnUtils;
+import com.mobilise.bookhub.utils.RetryWithJitter;
+import com.mobilise.bookhub.utils.facet.BookFacetIndex;
+import com.mobilise.bookhub.utils.search.BookChangedEvent;
+import com.mobilise.bookhub.utils.search.BookIsbnIndex;
+import com.mobilise.bookhub.utils.search.BookSearchIndex;
+import com.mobilise.bookhub.utils.search.BookSuggestionIndex;
+import com.mobilise.bookhub.utils.search.InvertedIndex;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.KeysetScrollPosition;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.util.ArrayList;
-import java.util.LinkedList;
-import java.util.List;
-import java.util.Optional;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.function.LongSupplier;
 
 import static com.mobilise.bookhub.enums.TransactionStatus.COMPLETED;
 import static com.mobilise.bookhub.enums.TransactionType.*;
@@ -47,7 +80,26 @@ public class BookServiceImpl implements BookService {
     private final TransactionRepository transactionRepository;
     private final DtoMapper dtoMapper;
     private final BookUtils bookUtils;
+    private final RetryWithJitter retryWithJitter;
+    private final WalletService walletService;
+    private final ReservationService reservationService;
+    private final LoanProperties loanProperties;
+    private final BookCursorCodec bookCursorCodec;
+    private final BookCountCache bookCountCache;
+    private final BookSearchIndex bookSearchIndex;
+    private final BookSuggestionIndex bookSuggestionIndex;
+    private final BookFacetIndex bookFacetIndex;
+    private final BookIsbnIndex bookIsbnIndex;
+    private final ApplicationEventPublisher eventPublisher;
+    private final PlatformTransactionManager transactionManager;
     private final static Logger logger = LoggerFactory.getLogger(BookServiceImpl.class);
+    /**
+     * The names under which the counts of each listing query are cached.
+     */
+    private static final String ALL_QUERY = "all";
+    private static final String TITLE_QUERY = "title";
+    private static final String TITLE_OR_AUTHOR_QUERY = "title-or-author";
+    private static final String FILTERED_QUERY = "filtered";
     /**
      * Create a new book.
      *
@@ -57,11 +109,12 @@ public class BookServiceImpl implements BookService {
      */
     @Override
     public ApiResponse<BookResponseDto> createBook(String email, BookRequestDto newBook) {
-        findUserByEmail(email);
         try {
             checkForDuplicateBook(newBook.title(), newBook.author().getName());
+            checkForDuplicateIsbn(newBook.isbn(), null);
             Book createdBook = dtoMapper.createNewBook(newBook);
             Book savedBook = bookRepository.save(createdBook);
+            eventPublisher.publishEvent(BookChangedEvent.saved(savedBook));
             BookResponseDto response = dtoMapper.createBookResponse(savedBook);
             logger.info("Book created successfully (ID: {})", savedBook.getId());
             return new ApiResponse<>("Book created successfully (ID: " + savedBook.getId() + ")",
@@ -73,13 +126,14 @@ public class BookServiceImpl implements BookService {
     }
     /**
      * Find a user by email.
+     * The user is loaded at most once per request, see {@link ResolvedUserContext}.
      *
      * @param email the email of the user to find
      * @return the user if found, or throws a {@link UserNotFoundException} if not found
      */
     User findUserByEmail(String email) {
-        return userRepository.findByEmail(email)
-                .orElseThrow(() -> new UserNotFoundException("The requested user could not be found with this email: " + email));
+        return ResolvedUserContext.resolve(email, userEmail -> userRepository.findByEmail(userEmail)
+                .orElseThrow(() -> new UserNotFoundException("The requested user could not be found with this email: " + userEmail)));
     }
     /**
      * Check if a book with the same title and author already exists.
@@ -96,50 +150,100 @@ public class BookServiceImpl implements BookService {
         }
         return false;
     }
+    /**
+     * Check if another book already has the same ISBN, however it is written.
+     *
+     * @param isbn the ISBN to check
+     * @param id the ID of the book the ISBN is for, or {@code null} for a new book
+     * @throws BookAlreadyCreatedException if another book has the same ISBN
+     */
+    void checkForDuplicateIsbn(String isbn, Long id) {
+        String normalizedIsbn = IsbnUtils.normalize(isbn);
+        if (normalizedIsbn == null) {
+            return;
+        }
+        bookRepository.findByNormalizedIsbn(normalizedIsbn)
+                .filter(book -> !book.getId().equals(id))
+                .ifPresent(book -> {
+                    throw new BookAlreadyCreatedException("A book with the same ISBN already exists: " + book.getTitle()
+                            + " (ID: " + book.getId() + ")");
+                });
+    }
 
     /**
      * Edit a book.
+     * The edit is applied to a fresh read of the book and saved with an optimistic version check; if a concurrent
+     * change (e.g. a borrow) wins the race, the edit is retried with jitter a bounded number of times.
+     * Each attempt runs in its own transaction, so an attempt that loses the race also rolls back the author and
+     * publisher it created, and the retry loop itself holds no transaction while it backs off.
+     * Copies held by the inventory ledger are written back before the edit and reloaded after it.
      *
      * @param email the email of the user editing the book
      * @param id the ID of the book to edit
      * @param updatedBook the details of the updated book
+     * @param expectedVersion the version the client's edit is based on (its {@code If-Match}), or {@code null} to edit any version
      * @return the updated book
-     * @throws Exception if an error occurs while editing the book
+     * @throws BookVersionConflictException if the book's version is no longer the expected version
+     * @throws OptimisticLockingFailureException if the edit still conflicts after all retries
      */
     @Override
-    public ApiResponse<BookResponseDto> editBook(String email, Long id, BookRequestDto updatedBook) {
-        findUserByEmail(email);
+    public ApiResponse<BookResponseDto> editBook(String email, Long id, BookRequestDto updatedBook, Long expectedVersion) {
         try {
-            Book retrievedBook = findBookById(id);
-
-            Optional<Author> retrievedAuthor = authorRepository.findByEmailAddress(retrievedBook.getAuthor().getEmailAddress());
-            Optional<Publisher> retrievedPublisher = publisherRepository.findByName(retrievedBook.getPublisher().getName());
-
-            retrievedBook.setAuthor(retrievedAuthor.orElseGet(() -> updateAuthor(updatedBook)));
-            retrievedBook.setPublisher(retrievedPublisher.orElseGet(() -> updatePublisher(updatedBook)));
-            retrievedBook.setTitle(updatedBook.title());
-            retrievedBook.setIsbn(updatedBook.isbn());
-            retrievedBook.setEdition(updatedBook.edition());
-            retrievedBook.setStatus(updatedBook.status());
-            retrievedBook.setDescription(updatedBook.description());
-            retrievedBook.setGenre(updatedBook.genre());
-            retrievedBook.setTotalCopies(updatedBook.totalCopies());
-            retrievedBook.setPublicationYear(updatedBook.publicationYear());
-            retrievedBook.setCoAuthors(updatedBook.coAuthors());
-            retrievedBook.setUnitPriceOfBook(updatedBook.unitPriceOfBook());
-            retrievedBook.setTotalCopies(updatedBook.totalCopies());
-
-            checkForDuplicateBook(retrievedBook.getTitle(), retrievedBook.getAuthor().getName());
-
-            Book savedBook = bookRepository.save(retrievedBook);
+            bookUtils.releaseBook(id);
+            TransactionTemplate attempt = new TransactionTemplate(transactionManager);
+            Book savedBook = retryWithJitter.run("editBook",
+                    () -> attempt.execute(status -> applyEdit(id, updatedBook, expectedVersion)));
+            bookUtils.releaseBook(id);
+            eventPublisher.publishEvent(BookChangedEvent.saved(savedBook));
             BookResponseDto response = dtoMapper.createBookResponse(savedBook);
             logger.info("Book edited successfully (ID: {})", savedBook.getId());
             return new ApiResponse<>("Book Edited Successfully", response, HTTP_NO_CONTENT);
+        } catch (BookVersionConflictException | OptimisticLockingFailureException e) {
+            logger.warn("Conflicting edit of book (ID: {}): {}", id, e.getMessage());
+            throw e;
         } catch (Exception e) {
             logger.error("Error editing book (ID: {}): {}", id, e.getMessage());
             throw new BookOperationException("an error occurred while editing book (ID: {})" + id + e.getLocalizedMessage());
         }
     }
+    /**
+     * Applies an edit to the current state of a book.
+     *
+     * @param id the ID of the book to edit
+     * @param updatedBook the details of the updated book
+     * @param expectedVersion the version the edit is based on, or {@code null}
+     * @return the saved book
+     */
+    private Book applyEdit(Long id, BookRequestDto updatedBook, Long expectedVersion) {
+        Book retrievedBook = findBookById(id);
+        if (expectedVersion != null && !expectedVersion.equals(retrievedBook.getVersion())) {
+            throw new BookVersionConflictException("Book (ID: " + id + ") has changed since version " + expectedVersion
+                    + ", current version is " + retrievedBook.getVersion());
+        }
+
+        Optional<Author> retrievedAuthor = authorRepository.findByEmailAddress(retrievedBook.getAuthor().getEmailAddress());
+        Optional<Publisher> retrievedPublisher = publisherRepository.findByName(retrievedBook.getPublisher().getName());
+
+        retrievedBook.setAuthor(retrievedAuthor.orElseGet(() -> updateAuthor(updatedBook)));
+        retrievedBook.setPublisher(retrievedPublisher.orElseGet(() -> updatePublisher(updatedBook)));
+        retrievedBook.setTitle(updatedBook.title());
+        retrievedBook.setIsbn(updatedBook.isbn());
+        retrievedBook.setNormalizedIsbn(IsbnUtils.normalize(updatedBook.isbn()));
+        retrievedBook.setEdition(updatedBook.edition());
+        retrievedBook.setStatus(updatedBook.status());
+        retrievedBook.setDescription(updatedBook.description());
+        retrievedBook.setGenre(updatedBook.genre());
+        retrievedBook.setTotalCopies(updatedBook.totalCopies());
+        retrievedBook.setPublicationYear(updatedBook.publicationYear());
+        retrievedBook.setCoAuthors(updatedBook.coAuthors());
+        retrievedBook.setUnitPriceOfBook(updatedBook.unitPriceOfBook());
+        retrievedBook.setTotalCopies(updatedBook.totalCopies());
+
+        checkForDuplicateBook(retrievedBook.getTitle(), retrievedBook.getAuthor().getName());
+        checkForDuplicateIsbn(updatedBook.isbn(), id);
+
+        return bookRepository.save(retrievedBook);
+    }
     /**
      * Updates the author of a book.
      *
@@ -165,6 +269,8 @@ public class BookServiceImpl implements BookService {
 
     /**
      * Get all books from the database.
+     * Unless an exact count is asked for, the page is read as a {@link Slice}: one extra book is fetched to tell
+     * whether another page follows, and no {@code COUNT} query runs.
      *
      * @param email the email of the user making the request
      * @param pageNumber the page number of the results to return
@@ -172,7 +278,10 @@ public class BookServiceImpl implements BookService {
      * @param sortBy the field to sort the results by
      * @param sortOrder the order of the sort (ascending or descending)
      * @param searchTerm the term to search for in the book titles or authors' names
+     * @param count how to count the matching books
+     * @param filter the facet filters the books must pass, and whether to count the books per facet value
      * @return a wrapper containing the list of books and pagination information
+     * @throws InvalidArgumentException if books cannot be sorted by the given field, or a range of the filter is empty
      */
     @Override
     public ApiResponse<ApiResponse.Wrapper<List<BookResponseDto>>> getAllBooks(String email,
@@ -180,35 +289,236 @@ public class BookServiceImpl implements BookService {
                                                                                int pageSize,
                                                                                String sortBy,
                                                                                String sortOrder,
-                                                                               String searchTerm) {
-        findUserByEmail(email);
-        Sort.Direction direction = Sort.Direction.ASC;
-        if (sortOrder != null && sortOrder.equalsIgnoreCase("desc")) {
-            direction = Sort.Direction.DESC;
+                                                                               String searchTerm,
+                                                                               CountMode count,
+                                                                               BookFilterDto filter) {
+        Sort sort = bookSort(BookSortField.fromParameter(sortBy), sortOrder);
+        boolean searching = searchTerm != null && !searchTerm.isEmpty();
+        if (filter.isFiltered() || filter.facets()) {
+            validateFilter(filter);
+            return new ApiResponse<>("Books Fetched Successfully",
+                    filteredPage(pageNumber, pageSize, sort, searchTerm, count, filter), HTTP_OK);
         }
-        Sort sort = Sort.by(direction, sortBy.toLowerCase());
         Pageable pageable = PageRequest.of(pageNumber, pageSize, sort);
+        String query = searching ? TITLE_QUERY : ALL_QUERY;
+
+        ApiResponse.Wrapper<List<BookResponseDto>> wrapper;
+        if (count == CountMode.EXACT) {
+            Page<Book> bookPage;
+            if (searching) {
+                bookPage = bookRepository.findByTitleContainingIgnoreCase(searchTerm, pageable);
+            } else {
+                bookPage = bookRepository.findAll(pageable);
+            }
+            bookCountCache.put(query, searchTerm, bookPage.getTotalElements());
+            wrapper = new ApiResponse.Wrapper<>(
+                    toResponses(bookPage),
+                    bookPage.getNumber(),
+                    bookPage.getSize(),
+                    bookPage.getTotalPages(),
+                    bookPage.getTotalElements()
+            );
+        } else {
+            Slice<Book> bookSlice;
+            if (searching) {
+                bookSlice = bookRepository.findSliceByTitleContainingIgnoreCase(searchTerm, pageable);
+            } else {
+                bookSlice = bookRepository.findSliceBy(pageable);
+            }
+            Long totalElements = countBooks(count, query, searchTerm,
+                    () -> searching ? bookRepository.countByTitleContainingIgnoreCase(searchTerm) : bookRepository.count());
+            wrapper = new ApiResponse.Wrapper<>(toResponses(bookSlice), bookSlice.getNumber(), bookSlice.getSize(),
+                    bookSlice.hasNext(), totalElements);
+        }
+
+        return new ApiResponse<>("Books Fetched Successfully", wrapper, HTTP_OK);
+    }
+
+    /**
+     * Reads a page of the books passing facet filters, with the filters as predicates of the page query.
+     * Unless the titles are searched too, which the facet bitmaps know nothing of, the matching books and the books
+     * per facet value are counted on the bitmaps once they are built, instead of with {@code COUNT} queries.
+     */
+    private ApiResponse.Wrapper<List<BookResponseDto>> filteredPage(int pageNumber, int pageSize, Sort sort,
+                                                                    String searchTerm, CountMode count,
+                                                                    BookFilterDto filter) {
+        boolean searching = searchTerm != null && !searchTerm.isEmpty();
+        Specification<Book> matching = matching(filter, searchTerm);
+        ScrollPosition position = ScrollPosition.offset((long) pageNumber * pageSize);
+        Window<Book> window = bookRepository.findBy(matching, query -> query.sortBy(sort).limit(pageSize).scroll(position));
+        BookFacetIndex.Counts counts = facetCounts(filter, searching);
+        ApiResponse.Wrapper<List<BookResponseDto>> wrapper = new ApiResponse.Wrapper<>(toResponses(window), pageNumber,
+                pageSize, window.hasNext(), countFiltered(count, counts, filter, searchTerm, matching));
+        wrapper.setFacets(counts == null ? null : counts.facets());
+        return wrapper;
+    }
+
+    /**
+     * Matches the books passing facet filters whose title contains the search term, if any.
+     */
+    private static Specification<Book> matching(BookFilterDto filter, String searchTerm) {
+        Specification<Book> matching = BookSpecifications.matching(filter);
+        return searchTerm == null || searchTerm.isEmpty()
+                ? matching
+                : matching.and(BookSpecifications.titleContains(searchTerm));
+    }
+
+    /**
+     * Counts the books passing facet filters on the facet bitmaps, unless the titles are searched too or the bitmaps
+     * are not built yet.
+     *
+     * @return the counts, or {@code null} if the bitmaps cannot count the books
+     */
+    private BookFacetIndex.Counts facetCounts(BookFilterDto filter, boolean searching) {
+        return searching || !bookFacetIndex.isReady() ? null : bookFacetIndex.count(filter);
+    }
+
+    /**
+     * Counts the books passing facet filters as asked for, from the facet counts when there are some.
+     *
+     * @return the number of matching books, or {@code null} if they are not counted
+     */
+    private Long countFiltered(CountMode count, BookFacetIndex.Counts counts, BookFilterDto filter, String searchTerm,
+                               Specification<Book> matching) {
+        if (counts != null) {
+            return count == null || count == CountMode.NONE ? null : counts.total();
+        }
+        String key = searchTerm == null || searchTerm.isEmpty() ? filter.toString() : filter + ":" + searchTerm;
+        return countBooks(count, FILTERED_QUERY, key, () -> bookRepository.count(matching));
+    }
+
+    /**
+     * Rejects facet filters whose ranges cannot match any book.
+     *
+     * @throws InvalidArgumentException if a lower bound is above its upper bound
+     */
+    private static void validateFilter(BookFilterDto filter) {
+        if (filter.yearFrom() != null && filter.yearTo() != null && filter.yearFrom() > filter.yearTo()) {
+            throw new InvalidArgumentException("yearFrom must not be after yearTo");
+        }
+        if (filter.minPrice() != null && filter.maxPrice() != null && filter.minPrice().compareTo(filter.maxPrice()) > 0) {
+            throw new InvalidArgumentException("minPrice must not be greater than maxPrice");
+        }
+    }
 
-        Page<Book> bookPage;
+    /**
+     * Get a page of books after a cursor.
+     * The page seeks past the last book of the previous page on (sort key, ID), so reading a deep page costs the same
+     * as reading the first one.
+     *
+     * @param email the email of the user making the request
+     * @param cursor the {@code nextCursor} of the previous page, or {@code null} or blank for the first page
+     * @param pageSize the number of results per page
+     * @param sortBy the field to sort the results by
+     * @param sortOrder the order of the sort (ascending or descending)
+     * @param searchTerm the term to search for in the book titles
+     * @param count how to count the matching books
+     * @param filter the facet filters the books must pass, and whether to count the books per facet value
+     * @return a wrapper containing the list of books and the cursor of the next page
+     * @throws InvalidArgumentException if the sort field cannot be paged with a cursor, the cursor is invalid or
+     *                                  was issued for another sort order, or a range of the filter is empty
+     */
+    @Override
+    public ApiResponse<ApiResponse.Wrapper<List<BookResponseDto>>> getAllBooksAfter(String email,
+                                                                                    String cursor,
+                                                                                    int pageSize,
+                                                                                    String sortBy,
+                                                                                    String sortOrder,
+                                                                                    String searchTerm,
+                                                                                    CountMode count,
+                                                                                    BookFilterDto filter) {
+        BookSortField sortField = BookSortField.fromParameter(sortBy);
+        if (sortField.isNullable()) {
+            throw new InvalidArgumentException("Books cannot be paged with a cursor by " + sortField.getProperty()
+                    + " because it may be empty; use page numbers instead");
+        }
+        Sort sort = bookSort(sortField, sortOrder);
+        KeysetScrollPosition position = bookCursorCodec.decode(cursor, sort);
+        Specification<Book> page = BookSpecifications.atOrAfter(position, sort);
+        if (filter.isFiltered() || filter.facets()) {
+            validateFilter(filter);
+            Specification<Book> matching = matching(filter, searchTerm);
+            Window<Book> window = scroll(page.and(matching), position, sort, pageSize);
+            BookFacetIndex.Counts counts = facetCounts(filter, searchTerm != null && !searchTerm.isEmpty());
+            ApiResponse.Wrapper<List<BookResponseDto>> wrapper = cursorPage(window, sort, pageSize,
+                    countFiltered(count, counts, filter, searchTerm, matching));
+            wrapper.setFacets(counts == null ? null : counts.facets());
+            return new ApiResponse<>("Books Fetched Successfully", wrapper, HTTP_OK);
+        }
+        Window<Book> window;
+        Long totalElements;
         if (searchTerm != null && !searchTerm.isEmpty()) {
-            bookPage = bookRepository.findByTitleContainingIgnoreCase(searchTerm, pageable);
+            window = scroll(page.and(BookSpecifications.titleContains(searchTerm)), position, sort, pageSize);
+            totalElements = countBooks(count, TITLE_QUERY, searchTerm,
+                    () -> bookRepository.countByTitleContainingIgnoreCase(searchTerm));
         } else {
-            bookPage = bookRepository.findAll(pageable);
+            window = scroll(page, position, sort, pageSize);
+            totalElements = countBooks(count, ALL_QUERY, null, bookRepository::count);
+        }
+        return new ApiResponse<>("Books Fetched Successfully", cursorPage(window, sort, pageSize, totalElements), HTTP_OK);
+    }
+
+    /**
+     * Reads the page of books matching a specification after a keyset position.
+     */
+    private Window<Book> scroll(Specification<Book> specification, KeysetScrollPosition position, Sort sort, int pageSize) {
+        return bookRepository.findBy(specification, query -> query.sortBy(sort).limit(pageSize).scroll(position));
+    }
+
+    /**
+     * Builds the sort order of a book listing from its whitelisted sort field, with the ID as a tiebreaker in the
+     * same direction, so the page can be read along the field's (field, ID) index.
+     *
+     * @param sortField the field to sort the results by
+     * @param sortOrder the order of the sort, {@code desc} for descending and ascending otherwise
+     * @return the sort order
+     */
+    private static Sort bookSort(BookSortField sortField, String sortOrder) {
+        Sort.Direction direction = Sort.Direction.ASC;
+        if (sortOrder != null && sortOrder.equalsIgnoreCase("desc")) {
+            direction = Sort.Direction.DESC;
+        }
+        Sort sort = Sort.by(direction, sortField.getProperty());
+        return sortField == BookSortField.ID ? sort : sort.and(Sort.by(direction, BookSortField.ID.getProperty()));
+    }
+
+    /**
+     * Counts the books matching a listing as asked for.
+     *
+     * @return the number of matching books, or {@code null} if they are not counted
+     */
+    private Long countBooks(CountMode count, String query, String searchTerm, LongSupplier counter) {
+        if (count == null) {
+            return null;
         }
+        return switch (count) {
+            case NONE -> null;
+            case APPROXIMATE -> bookCountCache.approximate(query, searchTerm, counter);
+            case EXACT -> bookCountCache.exact(query, searchTerm, counter);
+        };
+    }
+
+    /**
+     * Maps a page of books to their responses.
+     */
+    private List<BookResponseDto> toResponses(Iterable<Book> books) {
         List<BookResponseDto> responses = new ArrayList<>();
-        for (Book book : bookPage.getContent()) {
-            BookResponseDto bookResponse = dtoMapper.createBookResponse(book);
-            responses.add(bookResponse);
-        }
-        ApiResponse.Wrapper<List<BookResponseDto>> wrapper = new ApiResponse.Wrapper<>(
-                responses,
-                bookPage.getNumber(),
-                bookPage.getSize(),
-                bookPage.getTotalPages(),
-                bookPage.getTotalElements()
-        );
+        for (Book book : books) {
+            responses.add(dtoMapper.createBookResponse(book));
+        }
+        return responses;
+    }
 
-        return new ApiResponse<>("Books Fetched Successfully", wrapper, HTTP_OK);
+    /**
+     * Wraps a window of books read with a cursor, with the cursor of the next page if there is one.
+     */
+    private ApiResponse.Wrapper<List<BookResponseDto>> cursorPage(Window<Book> window, Sort sort, int pageSize,
+                                                                  Long totalElements) {
+        String nextCursor = null;
+        if (window.hasNext() && !window.isEmpty()) {
+            nextCursor = bookCursorCodec.encode(sort, (KeysetScrollPosition) window.positionAt(window.size() - 1));
+        }
+        return new ApiResponse.Wrapper<>(toResponses(window), pageSize, nextCursor, totalElements);
     }
     /**
      * Get a book by its ID.
@@ -219,11 +529,83 @@ public class BookServiceImpl implements BookService {
      */
     @Override
     public ApiResponse<BookResponseDto> getBookById(String email, Long id) {
-        findUserByEmail(email);
         Book book = findBookById(id);
         BookResponseDto response = dtoMapper.createBookResponse(book);
         return new ApiResponse<>("Book retrieved successfully (ID: " + response.id() + ")", response, HTTP_OK);
     }
+    /**
+     * Get a book by its ISBN, as a barcode scanner reads it.
+     * The ISBN is resolved to the book from memory once the {@link BookIsbnIndex} is built, and from the unique
+     * index of the normalized ISBNs before that, so the book is then read by its ID.
+     *
+     * @param email the email of the user making the request
+     * @param isbn the ISBN-10 or ISBN-13 of the book, with or without hyphens
+     * @return the book
+     * @throws InvalidArgumentException if the ISBN is not valid
+     * @throws ResourceNotFoundException if no book has the ISBN
+     */
+    @Override
+    public ApiResponse<BookResponseDto> getBookByIsbn(String email, String isbn) {
+        String normalizedIsbn = IsbnUtils.normalize(isbn);
+        if (normalizedIsbn == null) {
+            throw new InvalidArgumentException("Not a valid ISBN: " + isbn);
+        }
+        Book book;
+        if (bookIsbnIndex.isReady()) {
+            Long id = bookIsbnIndex.find(normalizedIsbn);
+            book = id == null ? null : bookRepository.findById(id).orElse(null);
+        } else {
+            book = bookRepository.findByNormalizedIsbn(normalizedIsbn).orElse(null);
+        }
+        if (book == null) {
+            throw new ResourceNotFoundException("Book not found for ISBN " + isbn);
+        }
+        BookResponseDto response = dtoMapper.createBookResponse(book);
+        return new ApiResponse<>("Book retrieved successfully (ID: " + response.id() + ")", response, HTTP_OK);
+    }
+
+    /**
+     * Get the books of a batch of scanned ISBNs, reading all of them with one query.
+     *
+     * @param email the email of the user making the request
+     * @param isbns the ISBN-10s or ISBN-13s, with or without hyphens
+     * @return the book of every ISBN, in the order of the ISBNs; without a book for ISBNs that are not valid or that
+     *         no book has
+     */
+    @Override
+    public ApiResponse<List<IsbnLookupResponseDto>> getBooksByIsbn(String email, List<String> isbns) {
+        Map<String, String> normalizedIsbns = new HashMap<>();
+        for (String isbn : isbns) {
+            String normalizedIsbn = IsbnUtils.normalize(isbn);
+            if (normalizedIsbn != null) {
+                normalizedIsbns.put(isbn, normalizedIsbn);
+            }
+        }
+        Map<String, Book> books = new HashMap<>();
+        if (bookIsbnIndex.isReady()) {
+            Map<Long, String> isbnsById = new HashMap<>();
+            for (String normalizedIsbn : normalizedIsbns.values()) {
+                Long id = bookIsbnIndex.find(normalizedIsbn);
+                if (id != null) {
+                    isbnsById.put(id, normalizedIsbn);
+                }
+            }
+            bookRepository.findAllById(isbnsById.keySet())
+                    .forEach(book -> books.put(isbnsById.get(book.getId()), book));
+        } else if (!normalizedIsbns.isEmpty()) {
+            bookRepository.findByNormalizedIsbnIn(new HashSet<>(normalizedIsbns.values()))
+                    .forEach(book -> books.merge(book.getNormalizedIsbn(), book,
+                            (one, other) -> one.getId() < other.getId() ? one : other));
+        }
+        List<IsbnLookupResponseDto> responses = new ArrayList<>();
+        for (String isbn : isbns) {
+            Book book = books.get(normalizedIsbns.get(isbn));
+            responses.add(new IsbnLookupResponseDto(isbn, book == null ? null : dtoMapper.createBookResponse(book)));
+        }
+        long found = responses.stream().filter(response -> response.book() != null).count();
+        return new ApiResponse<>(found + " of " + isbns.size() + " ISBNs found", responses, HTTP_OK);
+    }
+
     /**
      * Finds a book by its ID.
      *
@@ -246,11 +628,12 @@ public class BookServiceImpl implements BookService {
      */
     @Override
     public ApiResponse<String> deleteBook(String email, Long id) {
-        findUserByEmail(email);
         try {
+            bookUtils.releaseBook(id);
             Book book = findBookById(id);
             if (book.getBorrowedCopies() == null || book.getBorrowedCopies() == 0) {
                 bookRepository.delete(book);
+                eventPublisher.publishEvent(BookChangedEvent.deleted(id));
                 logger.info("Book deleted successfully (ID: {})", id);
                 return new ApiResponse<>("Book Deleted Successfully", "Deleted", HTTP_NO_CONTENT);
             } else if (book.getBorrowedCopies() > 0) {
@@ -264,11 +647,19 @@ public class BookServiceImpl implements BookService {
     }
     /**
      * Searches for books by their title or author's name.
+     * Once the {@link BookSearchIndex} is built, searches are ranked by relevance in memory and only the books of the
+     * page are loaded, by ID; the number of matching books then comes with the ranking. Until then, and when no
+     * search term is given, unless an exact count is asked for, the page is read as a {@link Slice} without a
+     * {@code COUNT} query.
+     * Fuzzy searches also match the title and author terms a few typing errors away from the search term; they need
+     * the index, so until it is built they are served as exact searches.
      *
      * @param email the email of the user making the request
      * @param pageNumber the page number of the results to return
      * @param pageSize the number of results per page
      * @param searchTerm the term to search for in the book titles or authors' names
+     * @param count how to count the matching books
+     * @param match how to match the search term
      * @return a wrapper containing the list of books and pagination information
      * @throws BookOperationException if an error occurs while searching books
      */
@@ -276,30 +667,47 @@ public class BookServiceImpl implements BookService {
     public ApiResponse<ApiResponse.Wrapper<List<BookResponseDto>>> searchBooksByTitleOrAuthor(String email,
                                                                                               int pageNumber,
                                                                                               int pageSize,
-                                                                                              String searchTerm) {
-        findUserByEmail(email);
+                                                                                              String searchTerm,
+                                                                                              CountMode count,
+                                                                                              MatchMode match) {
         try {
-            Sort sort = Sort.by(Sort.Direction.ASC, "title");
+            Sort sort = bookSort(BookSortField.TITLE, "asc");
             Pageable pageable = PageRequest.of(pageNumber, pageSize, sort);
+            boolean searching = searchTerm != null && !searchTerm.isEmpty();
+            if (searching && bookSearchIndex.isReady()) {
+                return new ApiResponse<>("Books Fetched Successfully", rankedPage(searchTerm, match, pageNumber, pageSize), HTTP_OK);
+            }
+            String query = searching ? TITLE_OR_AUTHOR_QUERY : ALL_QUERY;
 
-            Page<Book> bookPage;
-            if (searchTerm != null && !searchTerm.isEmpty()) {
-                bookPage = bookRepository.findByTitleContainingIgnoreCaseOrAuthor_NameContainingIgnoreCase(searchTerm, searchTerm, pageable);
+            ApiResponse.Wrapper<List<BookResponseDto>> wrapper;
+            if (count == CountMode.EXACT) {
+                Page<Book> bookPage;
+                if (searching) {
+                    bookPage = bookRepository.findByTitleContainingIgnoreCaseOrAuthor_NameContainingIgnoreCase(searchTerm, searchTerm, pageable);
+                } else {
+                    bookPage = bookRepository.findAll(pageable);
+                }
+                bookCountCache.put(query, searchTerm, bookPage.getTotalElements());
+                wrapper = new ApiResponse.Wrapper<>(
+                        toResponses(bookPage),
+                        bookPage.getNumber(),
+                        bookPage.getSize(),
+                        bookPage.getTotalPages(),
+                        bookPage.getTotalElements()
+                );
             } else {
-                bookPage = bookRepository.findAll(pageable);
-            }
-            List<BookResponseDto> searchResponses = new LinkedList<>();
-            for (Book eachbook : bookPage.getContent()) {
-                BookResponseDto bookResponse = dtoMapper.createBookResponse(eachbook);
-                searchResponses.add(bookResponse);
+                Slice<Book> bookSlice;
+                if (searching) {
+                    bookSlice = bookRepository.findSliceByTitleContainingIgnoreCaseOrAuthor_NameContainingIgnoreCase(searchTerm, searchTerm, pageable);
+                } else {
+                    bookSlice = bookRepository.findSliceBy(pageable);
+                }
+                Long totalElements = countBooks(count, query, searchTerm, () -> searching
+                        ? bookRepository.countByTitleContainingIgnoreCaseOrAuthor_NameContainingIgnoreCase(searchTerm, searchTerm)
+                        : bookRepository.count());
+                wrapper = new ApiResponse.Wrapper<>(toResponses(bookSlice), bookSlice.getNumber(), bookSlice.getSize(),
+                        bookSlice.hasNext(), totalElements);
             }
-            ApiResponse.Wrapper<List<BookResponseDto>> wrapper = new ApiResponse.Wrapper<>(
-                    searchResponses,
-                    bookPage.getNumber(),
-                    bookPage.getSize(),
-                    bookPage.getTotalPages(),
-                    bookPage.getTotalElements()
-            );
 
             return new ApiResponse<>("Books Fetched Successfully", wrapper, HTTP_OK);
         } catch (Exception e) {
@@ -307,8 +715,72 @@ public class BookServiceImpl implements BookService {
             throw new BookOperationException("An error occurred while searching books: " + e.getLocalizedMessage());
         }
     }
+    /**
+     * Reads a page of books ranked by the in-memory search index.
+     *
+     * @param searchTerm the search term
+     * @param match how to match the search term
+     * @param pageNumber the page number of the results to return
+     * @param pageSize the number of results per page
+     * @return a wrapper containing the page of books, best match first, and the number of matching books
+     */
+    private ApiResponse.Wrapper<List<BookResponseDto>> rankedPage(String searchTerm, MatchMode match, int pageNumber,
+                                                                  int pageSize) {
+        int offset = (int) Math.min((long) pageNumber * pageSize, Integer.MAX_VALUE - pageSize);
+        InvertedIndex.Hits hits = match == MatchMode.FUZZY
+                ? bookSearchIndex.fuzzySearch(searchTerm, offset, pageSize)
+                : bookSearchIndex.search(searchTerm, offset, pageSize);
+        Map<Long, Book> booksById = new HashMap<>();
+        for (Book book : bookRepository.findAllById(hits.keys())) {
+            booksById.put(book.getId(), book);
+        }
+        List<Book> ranked = new ArrayList<>(hits.keys().size());
+        for (Long bookId : hits.keys()) {
+            Book book = booksById.get(bookId);
+            if (book != null) {
+                ranked.add(book);
+            }
+        }
+        int totalPages = pageSize > 0 ? (hits.totalHits() + pageSize - 1) / pageSize : 0;
+        return new ApiResponse.Wrapper<>(toResponses(ranked), pageNumber, pageSize, totalPages, hits.totalHits());
+    }
+
+    /**
+     * Searches for books by their title or author's name, reading the page after a cursor.
+     *
+     * @param email the email of the user making the request
+     * @param cursor the {@code nextCursor} of the previous page, or {@code null} or blank for the first page
+     * @param pageSize the number of results per page
+     * @param searchTerm the term to search for in the book titles or authors' names
+     * @param count how to count the matching books
+     * @return a wrapper containing the list of books and the cursor of the next page
+     * @throws InvalidArgumentException if the cursor is invalid or was issued for another sort order
+     */
+    @Override
+    public ApiResponse<ApiResponse.Wrapper<List<BookResponseDto>>> searchBooksByTitleOrAuthorAfter(String email,
+                                                                                                   String cursor,
+                                                                                                   int pageSize,
+                                                                                                   String searchTerm,
+                                                                                                   CountMode count) {
+        Sort sort = bookSort(BookSortField.TITLE, "asc");
+        KeysetScrollPosition position = bookCursorCodec.decode(cursor, sort);
+        Specification<Book> page = BookSpecifications.atOrAfter(position, sort);
+        Window<Book> window;
+        Long totalElements;
+        if (searchTerm != null && !searchTerm.isEmpty()) {
+            window = scroll(page.and(BookSpecifications.titleOrAuthorContains(searchTerm)), position, sort, pageSize);
+            totalElements = countBooks(count, TITLE_OR_AUTHOR_QUERY, searchTerm,
+                    () -> bookRepository.countByTitleContainingIgnoreCaseOrAuthor_NameContainingIgnoreCase(searchTerm, searchTerm));
+        } else {
+            window = scroll(page, position, sort, pageSize);
+            totalElements = countBooks(count, ALL_QUERY, null, bookRepository::count);
+        }
+        return new ApiResponse<>("Books Fetched Successfully", cursorPage(window, sort, pageSize, totalElements), HTTP_OK);
+    }
     /**
      * Borrow a book.
+     * A copy held for the user by a reservation is borrowed first; the other copies are taken from the shelf.
+     * The loan is due after the configured loan period.
      *
      * @param bookId the ID of the book to borrow
      * @param email the email of the user borrowing the book
@@ -319,6 +791,7 @@ public class BookServiceImpl implements BookService {
      * @throws ResourceNotFoundException if the book with the given ID is not found
      */
     @Override
+    @Transactional
     public ApiResponse<BookResponseDto> borrowBook(Long bookId, String email, Integer borrowCount)
             throws InvalidArgumentException, BookOperationException, ResourceNotFoundException {
         User borrower = findUserByEmail(email);
@@ -326,23 +799,25 @@ public class BookServiceImpl implements BookService {
             if (borrowCount <= 0) {
                 throw new InvalidArgumentException("Borrow count must be greater than 0");
             }
-            Book requestedBook = findBookById(bookId);
-            if (borrowCount > requestedBook.getTotalCopies()) {
+            int shelfCount = reservationService.claimHold(borrower, bookId) ? borrowCount - 1 : borrowCount;
+            if (shelfCount > 0 && !bookUtils.updateBookAvailability(bookId, shelfCount, BORROW)) {
+                Book requestedBook = findBookById(bookId);
                 throw new BookOperationException("Cannot borrow more copies than available copies " + requestedBook.getTotalCopies());
             }
-            bookUtils.updateBookAvailability(requestedBook, borrowCount, BORROW);
             Book updatedBook = findBookById(bookId);
             Transaction saveTransaction = Transaction.builder()
                     .user(borrower)
                     .type(BORROW)
                     .status(COMPLETED)
                     .book(updatedBook)
+                    .quantity(borrowCount)
                     .amount(ZERO)
+                    .dueDate(LocalDateTime.now().plus(loanProperties.period()))
                     .build();
             transactionRepository.save(saveTransaction);
             BookResponseDto response = dtoMapper.createBookResponse(updatedBook);
-            logger.info("Successfully borrowed {} copies of book (ID: {}) by user {} ", borrowCount, requestedBook.getId(), borrower.getEmail());
-            return new ApiResponse<>("Successfully borrowed " + borrowCount + " copies of " + requestedBook.getTitle(), response, HTTP_OK);
+            logger.info("Successfully borrowed {} copies of book (ID: {}) by user {} ", borrowCount, bookId, borrower.getEmail());
+            return new ApiResponse<>("Successfully borrowed " + borrowCount + " copies of " + updatedBook.getTitle(), response, HTTP_OK);
         } catch (InvalidArgumentException e) {
             logger.error("Invalid argument: {}", e.getMessage());
             throw e;
@@ -360,6 +835,7 @@ public class BookServiceImpl implements BookService {
 
     /**
      * Returns a book by updating its availability and creating a transaction record.
+     * The returned copies are held for the users waiting for the book, in queue order.
      *
      * @param email       The email of the user returning the book.
      * @param bookId      The ID of the book to be returned.
@@ -370,6 +846,7 @@ public class BookServiceImpl implements BookService {
      * @throws ResourceNotFoundException if the book or user is not found.
      */
     @Override
+    @Transactional
     public ApiResponse<BookResponseDto> returnBook(String email, Long bookId, int returnCount)
             throws InvalidArgumentException, BookOperationException, ResourceNotFoundException {
         User borrower = findUserByEmail(email);
@@ -377,11 +854,12 @@ public class BookServiceImpl implements BookService {
             if (returnCount <= 0) {
                 throw new InvalidArgumentException("Return count must be greater than 0");
             }
-            Book book = findBookById(bookId);
-            if (returnCount > book.getBorrowedCopies()) {
+            if (!bookUtils.updateBookAvailability(bookId, returnCount, RETURN)) {
+                findBookById(bookId);
                 throw new BookOperationException("Return count exceeds the number of borrowed copies");
             }
-            bookUtils.updateBookAvailability(book, returnCount, RETURN);
+            reservationService.offerReturnedCopies(bookId, returnCount);
+            Book book = findBookById(bookId);
             Optional<Transaction> existingTransaction = findTransaction(borrower, book);
             if (existingTransaction.isPresent()) {
                 Transaction updatedTransaction = existingTransaction.get();
@@ -408,6 +886,7 @@ public class BookServiceImpl implements BookService {
     }
     /**
      * Purchases a book from the database.
+     * The user's balance is debited with the price of the copies, in the same transaction.
      *
      * @param bookId the ID of the book to purchase
      * @param email the email of the user making the purchase
@@ -416,8 +895,10 @@ public class BookServiceImpl implements BookService {
      * @throws InvalidArgumentException if the purchase count is less than or equal to 0
      * @throws BookOperationException if an error occurs while purchasing the book
      * @throws ResourceNotFoundException if the book with the given ID is not found
+     * @throws InsufficientBalanceException if the user's balance does not cover the price of the copies
      */
     @Override
+    @Transactional
     public ApiResponse<BookResponseDto> purchaseBook(Long bookId, String email, Integer purchaseCount)
             throws InvalidArgumentException, BookOperationException, ResourceNotFoundException {
         User purchaser = findUserByEmail(email);
@@ -425,23 +906,24 @@ public class BookServiceImpl implements BookService {
             if (purchaseCount <= 0) {
                 throw new InvalidArgumentException("Purchase count must be greater than 0");
             }
-            Book requestedBook = findBookById(bookId);
-            if (purchaseCount > requestedBook.getTotalCopies()) {
+            if (!bookUtils.updateBookAvailability(bookId, purchaseCount, PURCHASE)) {
+                Book requestedBook = findBookById(bookId);
                 throw new BookOperationException("Cannot purchase more copies than available copies " + requestedBook.getTotalCopies());
             }
-            bookUtils.updateBookAvailability(requestedBook, purchaseCount, PURCHASE);
             Book updatedBook = findBookById(bookId);
             Transaction savePurchaseTransaction = Transaction.builder()
                     .user(purchaser)
                     .type(PURCHASE)
                     .status(COMPLETED)
                     .book(updatedBook)
-                    .amount(requestedBook.getUnitPriceOfBook())
+                    .quantity(purchaseCount)
+                    .amount(updatedBook.getUnitPriceOfBook().multiply(BigDecimal.valueOf(purchaseCount)))
                     .build();
             transactionRepository.save(savePurchaseTransaction);
+            walletService.debit(purchaser, List.of(savePurchaseTransaction));
             BookResponseDto response = dtoMapper.createBookResponse(updatedBook);
-            logger.info("Successfully purchased {} copies of book (ID: {}) by user {}", purchaseCount, requestedBook.getId(), purchaser.getEmail());
-            return new ApiResponse<>("Successfully bought " + purchaseCount + " copies of " + requestedBook.getTitle(), response, HTTP_OK);
+            logger.info("Successfully purchased {} copies of book (ID: {}) by user {}", purchaseCount, bookId, purchaser.getEmail());
+            return new ApiResponse<>("Successfully bought " + purchaseCount + " copies of " + updatedBook.getTitle(), response, HTTP_OK);
         } catch (InvalidArgumentException e) {
             logger.error("Invalid argument: {}", e.getMessage());
             throw e;
@@ -451,11 +933,300 @@ public class BookServiceImpl implements BookService {
         } catch (ResourceNotFoundException e) {
             logger.error("Book not found error: {}", e.getMessage());
             throw e;
+        } catch (InsufficientBalanceException e) {
+            logger.error("Insufficient balance: {}", e.getMessage());
+            throw e;
         } catch (Exception e) {
             logger.error("Error purchasing book (ID: {}): {}", bookId, e.getMessage());
             throw new BookOperationException("Error Occurred while purchasing book (ID: {})" + bookId);
         }
     }
+    /**
+     * Purchases several books in one database transaction.
+     * Copies are taken with conditional updates in ascending book ID order, so concurrent checkouts of overlapping
+     * carts lock rows in the same order and cannot deadlock. The transaction records are inserted in one JDBC batch
+     * and the user's balance is debited once, with a conditional update, together with its wallet ledger entries. If any book lacks copies or the balance
+     * does not cover the total, nothing is purchased.
+     *
+     * @param email the email of the user making the purchase
+     * @param cart the books and number of copies to purchase; lines for the same book are added up
+     * @return a wrapper containing the purchased books, the total amount and the remaining balance
+     * @throws InvalidArgumentException if the cart is empty or a count is less than or equal to 0
+     * @throws ResourceNotFoundException if a book in the cart is not found
+     * @throws BookOperationException if a book does not have enough copies or an error occurs during the checkout
+     * @throws InsufficientBalanceException if the user's balance does not cover the total amount
+     */
+    @Override
+    @Transactional
+    public ApiResponse<CheckoutResponseDto> checkout(String email, CheckoutRequestDto cart)
+            throws InvalidArgumentException, BookOperationException, ResourceNotFoundException, InsufficientBalanceException {
+        User purchaser = findUserByEmail(email);
+        try {
+            if (cart == null) {
+                throw new InvalidArgumentException("Cart must contain at least one book");
+            }
+            SortedMap<Long, Integer> counts = mergeLines(cart.lines());
+            Map<Long, Book> books = findBooksById(counts.keySet());
+            BigDecimal totalAmount = ZERO;
+            List<Transaction> transactions = new ArrayList<>(counts.size());
+            for (Map.Entry<Long, Integer> line : counts.entrySet()) {
+                Book book = books.get(line.getKey());
+                if (book == null) {
+                    throw new ResourceNotFoundException("Book not found for id " + line.getKey());
+                }
+                if (!bookUtils.updateBookAvailability(line.getKey(), line.getValue(), PURCHASE)) {
+                    throw new BookOperationException("Cannot purchase more copies than available copies of " + book.getTitle());
+                }
+                BigDecimal amount = book.getUnitPriceOfBook().multiply(BigDecimal.valueOf(line.getValue()));
+                totalAmount = totalAmount.add(amount);
+                transactions.add(Transaction.builder()
+                        .user(purchaser)
+                        .type(PURCHASE)
+                        .status(COMPLETED)
+                        .book(book)
+                        .quantity(line.getValue())
+                        .amount(amount)
+                        .build());
+            }
+            transactionRepository.saveAll(transactions);
+            BigDecimal remainingBalance = walletService.debit(purchaser, transactions);
+
+            Map<Long, Book> updatedBooks = findBooksById(counts.keySet());
+            List<BookResponseDto> purchasedBooks = new ArrayList<>(counts.size());
+            for (Long bookId : counts.keySet()) {
+                purchasedBooks.add(dtoMapper.createBookResponse(updatedBooks.get(bookId)));
+            }
+            CheckoutResponseDto response = new CheckoutResponseDto(purchasedBooks, totalAmount, remainingBalance);
+            logger.info("Successfully checked out {} books for {} by user {}", counts.size(), totalAmount, purchaser.getEmail());
+            return new ApiResponse<>("Successfully bought " + counts.size() + " books", response, HTTP_OK);
+        } catch (InvalidArgumentException e) {
+            logger.error("Invalid argument: {}", e.getMessage());
+            throw e;
+        } catch (BookOperationException e) {
+            logger.error("Book operation error: {}", e.getMessage());
+            throw e;
+        } catch (ResourceNotFoundException e) {
+            logger.error("Book not found error: {}", e.getMessage());
+            throw e;
+        } catch (InsufficientBalanceException e) {
+            logger.error("Insufficient balance: {}", e.getMessage());
+            throw e;
+        } catch (Exception e) {
+            logger.error("Error checking out cart of user {}: {}", email, e.getMessage());
+            throw new BookOperationException("Error Occurred while checking out cart");
+        }
+    }
+    /**
+     * Reserves an out-of-stock book. The user is told their place in the queue and the next returned copy is held
+     * for them once they reach its head.
+     *
+     * @param email the email of the user reserving the book
+     * @param bookId the ID of the book to reserve
+     * @return a wrapper containing the reservation
+     * @throws ResourceNotFoundException if the book with the given ID is not found
+     * @throws BookOperationException if the book is available or already reserved by the user
+     */
+    @Override
+    public ApiResponse<ReservationResponseDto> reserveBook(String email, Long bookId)
+            throws ResourceNotFoundException, BookOperationException {
+        User user = findUserByEmail(email);
+        Book book = findBookById(bookId);
+        ReservationResponseDto response = reservationService.reserve(user, book);
+        logger.info("Book (ID: {}) reserved by user {} at position {}", bookId, user.getEmail(), response.position());
+        return new ApiResponse<>("Successfully reserved " + book.getTitle(), response, HTTP_CREATED);
+    }
+    /**
+     * Cancels a reservation. A copy held for it is offered to the next user in the queue.
+     *
+     * @param email the email of the user who made the reservation
+     * @param reservationId the ID of the reservation
+     * @return a wrapper containing the cancelled reservation
+     * @throws ResourceNotFoundException if the user has no reservation with the given ID
+     * @throws BookOperationException if the reservation is no longer active
+     */
+    @Override
+    public ApiResponse<ReservationResponseDto> cancelReservation(String email, Long reservationId)
+            throws ResourceNotFoundException, BookOperationException {
+        User user = findUserByEmail(email);
+        ReservationResponseDto response = reservationService.cancel(user, reservationId);
+        logger.info("Reservation {} cancelled by user {}", reservationId, user.getEmail());
+        return new ApiResponse<>("Successfully cancelled reservation " + reservationId, response, HTTP_OK);
+    }
+    /**
+     * Suggests the most popular titles and author names starting with what a user typed so far, from memory.
+     * No suggestions are made until the {@link BookSuggestionIndex} is built.
+     *
+     * @param prefix what the user typed so far
+     * @param limit the maximum number of suggestions
+     * @return a wrapper containing the suggestions, most popular first
+     * @throws InvalidArgumentException if the limit is not positive
+     */
+    @Override
+    public ApiResponse<List<SuggestionResponseDto>> suggestBooks(String prefix, int limit) throws InvalidArgumentException {
+        if (limit < 1) {
+            throw new InvalidArgumentException("The number of suggestions must be positive");
+        }
+        List<SuggestionResponseDto> suggestions = bookSuggestionIndex.isReady()
+                ? bookSuggestionIndex.suggest(prefix, limit)
+                : List.of();
+        return new ApiResponse<>("Suggestions Fetched Successfully", suggestions, HTTP_OK);
+    }
+    /**
+     * Borrows several books for one user in one database transaction.
+     * As with a single borrow, a copy held for the user by a reservation is borrowed first; the held copies are found
+     * with one query. All books are resolved with one query, the other copies are taken in one JDBC batch of
+     * conditional updates and the transaction records are inserted in one batch. Each book succeeds or fails on its
+     * own; a book that fails gives its held copy back to the reservation. The result reports every line.
+     *
+     * @param email the email of the user borrowing the books
+     * @param lines the books and number of copies to borrow; lines for the same book are added up
+     * @return a wrapper containing the result of every line
+     * @throws InvalidArgumentException if there are no lines or a count is less than or equal to 0
+     * @throws BookOperationException if an error occurs while borrowing the books
+     */
+    @Override
+    @Transactional
+    public ApiResponse<BulkBookResponseDto> borrowBooks(String email, List<BookLineDto> lines)
+            throws InvalidArgumentException, BookOperationException {
+        return applyBulk(email, lines, BORROW);
+    }
+    /**
+     * Returns several books for one user in one database transaction.
+     * All books and the user's borrow records are resolved with one query each, the copies are given back in one
+     * JDBC batch of conditional updates and the borrow records are updated in one batch. Each book succeeds or
+     * fails on its own; the result reports every line.
+     *
+     * @param email the email of the user returning the books
+     * @param lines the books and number of copies to return; lines for the same book are added up
+     * @return a wrapper containing the result of every line
+     * @throws InvalidArgumentException if there are no lines or a count is less than or equal to 0
+     * @throws BookOperationException if an error occurs while returning the books
+     */
+    @Override
+    @Transactional
+    public ApiResponse<BulkBookResponseDto> returnBooks(String email, List<BookLineDto> lines)
+            throws InvalidArgumentException, BookOperationException {
+        return applyBulk(email, lines, RETURN);
+    }
+    /**
+     * Borrows or returns several books, see {@link #borrowBooks(String, List)} and {@link #returnBooks(String, List)}.
+     */
+    private ApiResponse<BulkBookResponseDto> applyBulk(String email, List<BookLineDto> lines, TransactionType action) {
+        User user = findUserByEmail(email);
+        String operation = action == BORROW ? "borrow" : "return";
+        try {
+            SortedMap<Long, Integer> counts = mergeLines(lines);
+            Map<Long, Long> claimedHolds = action == BORROW ? reservationService.claimHolds(user, counts.keySet()) : Map.of();
+            Map<Long, Integer> shelfCounts = new TreeMap<>();
+            counts.forEach((bookId, count) -> {
+                int shelfCount = claimedHolds.containsKey(bookId) ? count - 1 : count;
+                if (shelfCount > 0) {
+                    shelfCounts.put(bookId, shelfCount);
+                }
+            });
+            Map<Long, Boolean> updated = new HashMap<>(bookUtils.updateBookAvailability(shelfCounts, action));
+            claimedHolds.forEach((bookId, reservationId) -> {
+                if (updated.getOrDefault(bookId, true)) {
+                    updated.put(bookId, true);
+                } else {
+                    reservationService.unclaimHold(reservationId);
+                }
+            });
+            List<Long> returnedIds = action != RETURN ? List.of()
+                    : counts.keySet().stream().filter(id -> updated.getOrDefault(id, false)).toList();
+            for (Long bookId : reservationService.findBooksWithWaitingReservations(returnedIds)) {
+                reservationService.offerReturnedCopies(bookId, counts.get(bookId));
+            }
+            Map<Long, Book> books = findBooksById(counts.keySet());
+            Map<Long, Transaction> borrowTransactions = new HashMap<>();
+            if (!returnedIds.isEmpty()) {
+                for (Transaction borrowed : transactionRepository.findByUserIdAndBookIdInAndTypeOrderByIdAsc(
+                        user.getId(), returnedIds, BORROW)) {
+                    borrowTransactions.putIfAbsent(borrowed.getBook().getId(), borrowed);
+                }
+            }
+
+            LocalDateTime dueDate = LocalDateTime.now().plus(loanProperties.period());
+            List<Transaction> transactions = new ArrayList<>(counts.size());
+            List<BulkBookResponseDto.LineResult> results = new ArrayList<>(counts.size());
+            for (Map.Entry<Long, Integer> line : counts.entrySet()) {
+                Book book = books.get(line.getKey());
+                if (book == null) {
+                    results.add(new BulkBookResponseDto.LineResult(line.getKey(), line.getValue(), false,
+                            "Book not found for id " + line.getKey(), null));
+                } else if (!updated.getOrDefault(line.getKey(), false)) {
+                    results.add(new BulkBookResponseDto.LineResult(line.getKey(), line.getValue(), false, action == BORROW
+                            ? "Cannot borrow more copies than available copies " + book.getTotalCopies()
+                            : "Return count exceeds the number of borrowed copies", null));
+                } else {
+                    if (action == BORROW) {
+                        transactions.add(Transaction.builder()
+                                .user(user)
+                                .type(BORROW)
+                                .status(COMPLETED)
+                                .book(book)
+                                .quantity(line.getValue())
+                                .amount(ZERO)
+                                .dueDate(dueDate)
+                                .build());
+                    } else if (borrowTransactions.containsKey(line.getKey())) {
+                        Transaction returned = borrowTransactions.get(line.getKey());
+                        returned.setType(RETURN);
+                        returned.setStatus(COMPLETED);
+                        transactions.add(returned);
+                    }
+                    results.add(new BulkBookResponseDto.LineResult(line.getKey(), line.getValue(), true, null,
+                            dtoMapper.createBookResponse(book)));
+                }
+            }
+            transactionRepository.saveAll(transactions);
+
+            int succeeded = (int) results.stream().filter(BulkBookResponseDto.LineResult::success).count();
+            BulkBookResponseDto response = new BulkBookResponseDto(results, succeeded, results.size() - succeeded);
+            logger.info("Bulk {} of {} books by user {}: {} succeeded", operation, results.size(), user.getEmail(), succeeded);
+            return new ApiResponse<>("Successfully " + (action == BORROW ? "borrowed " : "returned ") + succeeded
+                    + " of " + results.size() + " books", response, HTTP_OK);
+        } catch (InvalidArgumentException e) {
+            logger.error("Invalid argument: {}", e.getMessage());
+            throw e;
+        } catch (Exception e) {
+            logger.error("Error in bulk {} by user {}: {}", operation, email, e.getMessage());
+            throw new BookOperationException("Error Occurred while processing bulk " + operation);
+        }
+    }
+    /**
+     * Adds up the copies requested per book, ordered by book ID.
+     *
+     * @param lines the requested books and number of copies
+     * @return the number of copies by book ID, in ascending ID order
+     * @throws InvalidArgumentException if there are no lines or a count is less than or equal to 0
+     */
+    private SortedMap<Long, Integer> mergeLines(List<BookLineDto> lines) {
+        if (lines == null || lines.isEmpty()) {
+            throw new InvalidArgumentException("At least one book is required");
+        }
+        SortedMap<Long, Integer> counts = new TreeMap<>();
+        for (BookLineDto line : lines) {
+            if (line.bookId() == null || line.count() == null || line.count() <= 0) {
+                throw new InvalidArgumentException("Count must be greater than 0");
+            }
+            counts.merge(line.bookId(), line.count(), Integer::sum);
+        }
+        return counts;
+    }
+    /**
+     * Finds books by their IDs in one query.
+     *
+     * @param ids the IDs of the books
+     * @return the found books by ID; missing books are absent
+     */
+    private Map<Long, Book> findBooksById(Collection<Long> ids) {
+        Map<Long, Book> books = new HashMap<>();
+        for (Book book : bookRepository.findAllById(ids)) {
+            books.put(book.getId(), book);
+        }
+        return books;
+    }
     Optional<Transaction> findTransaction(User user, Book book) {
         return transactionRepository.findTransactionByUserIdAndBookIdAndType(user.getId(), book.getId(), BORROW);
     }
@@ -0,0 +1,272 @@
+package com.mobilise.bookhub.services.serviceImpl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.mobilise.bookhub.dto.response.ApiResponse;
+import com.mobilise.bookhub.entity.IdempotencyRecord;
+import com.mobilise.bookhub.exception.IdempotencyKeyReuseException;
+import com.mobilise.bookhub.exception.InvalidArgumentException;
+import com.mobilise.bookhub.repository.IdempotencyRecordRepository;
+import com.mobilise.bookhub.utils.BloomFilter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.function.Supplier;
+
+import static com.mobilise.bookhub.constants.Constants.IDEMPOTENCY_KEY_HEADER;
+
+/**
+ * IdempotencyService makes requests sent with an {@code Idempotency-Key} header safe to retry.
+ * The first request with a key runs, and its response is stored in the same transaction as its changes;
+ * a retry with the same key gets the stored response back without running again.
+ * <p>
+ * Completed responses are kept in a bounded in-memory cache in front of the persisted ones, and a Bloom filter
+ * of the persisted keys answers the common "new key" case without a database lookup, so a first request only
+ * costs one extra insert. The filter is rebuilt periodically from the unexpired keys. When two requests with the
+ * same key race, or a key was stored by another instance, the primary key lets only one of them commit and the
+ * other returns the winner's response.
+ * <p>
+ * Requests are told apart by the SHA-256 of their fingerprint, so a bulk request of a hundred lines is stored and
+ * compared in as little space as a single purchase.
+ *
+ * @author codecharlan
+ */
+@Slf4j
+@Service
+public class IdempotencyService {
+    private static final int MAX_KEY_LENGTH = 255;
+
+    private final IdempotencyRecordRepository idempotencyRecordRepository;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration ttl;
+    private final long expectedKeys;
+    private final double falsePositiveProbability;
+    private final Cache<String, CompletedRequest> completedRequests;
+    private final Counter replays;
+    private final Counter falsePositives;
+    private volatile BloomFilter persistedKeys;
+
+    /**
+     * Constructor for IdempotencyService.
+     *
+     * @param idempotencyRecordRepository the persisted responses
+     * @param objectMapper                the mapper used to store responses as JSON
+     * @param transactionManager          the transaction manager a request and its stored response share
+     * @param ttl                         how long a key is remembered
+     * @param cacheSize                   the maximum number of responses kept in memory
+     * @param expectedKeys                the number of unexpired keys the Bloom filter is sized for
+     * @param falsePositiveProbability    the Bloom filter's false-positive probability at that size
+     * @param meterRegistry               the registry the idempotency metrics are published to
+     */
+    public IdempotencyService(IdempotencyRecordRepository idempotencyRecordRepository, ObjectMapper objectMapper,
+                              PlatformTransactionManager transactionManager,
+                              @Value("${idempotency.ttl:PT24H}") Duration ttl,
+                              @Value("${idempotency.cache.maximum-size:10000}") long cacheSize,
+                              @Value("${idempotency.expected-keys:100000}") long expectedKeys,
+                              @Value("${idempotency.false-positive-probability:0.01}") double falsePositiveProbability,
+                              MeterRegistry meterRegistry) {
+        this.idempotencyRecordRepository = idempotencyRecordRepository;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.ttl = ttl;
+        this.expectedKeys = expectedKeys;
+        this.falsePositiveProbability = falsePositiveProbability;
+        this.completedRequests = Caffeine.newBuilder()
+                .expireAfterWrite(ttl)
+                .maximumSize(cacheSize)
+                .build();
+        this.replays = Counter.builder("bookhub.idempotency.replays")
+                .description("Requests answered with the stored response of an earlier request with the same key")
+                .register(meterRegistry);
+        this.falsePositives = Counter.builder("bookhub.idempotency.false.positives")
+                .description("Idempotency lookups that passed the Bloom filter but found no stored response")
+                .register(meterRegistry);
+        this.persistedKeys = new BloomFilter(expectedKeys, falsePositiveProbability);
+    }
+
+    /**
+     * Runs a request once per idempotency key.
+     *
+     * @param idempotencyKey the key sent by the client, or {@code null} to run the request unconditionally
+     * @param email          the email of the user making the request; keys are scoped per user
+     * @param fingerprint    the operation and arguments of the request, e.g. {@code PURCHASE:42:2}
+     * @param dataType       the type of the response data, used to read a stored response
+     * @param request        the request to run
+     * @param <T>            the type of the response data
+     * @return the response of the request, or the stored response of the earlier request with the same key
+     * @throws InvalidArgumentException      if the key is blank or too long
+     * @throws IdempotencyKeyReuseException  if the key was already used for a different request
+     */
+    public <T> ApiResponse<T> execute(String idempotencyKey, String email, String fingerprint, Class<T> dataType,
+                                      Supplier<ApiResponse<T>> request) {
+        if (idempotencyKey == null) {
+            return request.get();
+        }
+        if (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_KEY_LENGTH) {
+            throw new InvalidArgumentException(IDEMPOTENCY_KEY_HEADER + " must be between 1 and " + MAX_KEY_LENGTH + " characters");
+        }
+        String id = scopedKey(email, idempotencyKey);
+        String digest = fingerprintDigest(fingerprint);
+        ApiResponse<T> previous = findCompleted(id, digest, dataType);
+        if (previous != null) {
+            replays.increment();
+            return previous;
+        }
+        try {
+            ApiResponse<T> response = transactionTemplate.execute(status -> {
+                ApiResponse<T> result = request.get();
+                idempotencyRecordRepository.saveAndFlush(new IdempotencyRecord(id, digest, write(result),
+                        Instant.now().plus(ttl)));
+                return result;
+            });
+            remember(id, digest, response);
+            return response;
+        } catch (DataIntegrityViolationException e) {
+            ApiResponse<T> winner = load(id, digest, dataType);
+            if (winner == null) {
+                throw e;
+            }
+            log.info("Request with a concurrently used idempotency key was rolled back in favour of the first one");
+            replays.increment();
+            return winner;
+        }
+    }
+
+    /**
+     * Deletes expired responses and rebuilds the Bloom filter from the remaining keys.
+     * Runs under the same lock as adding a key, so a key stored while the filter is rebuilt is either read back
+     * from the database or added to the new filter.
+     */
+    @PostConstruct
+    @Scheduled(fixedDelayString = "${idempotency.refresh-interval:PT10M}", initialDelayString = "${idempotency.refresh-interval:PT10M}")
+    public synchronized void refresh() {
+        Instant now = Instant.now();
+        int purged = idempotencyRecordRepository.deleteExpired(now);
+        BloomFilter rebuilt = new BloomFilter(expectedKeys, falsePositiveProbability);
+        for (String id : idempotencyRecordRepository.findActiveIds(now)) {
+            rebuilt.put(id);
+        }
+        persistedKeys = rebuilt;
+        if (purged > 0) {
+            log.info("Purged {} expired idempotency keys", purged);
+        }
+    }
+
+    /**
+     * Scopes a client's key to the user, so two users sending the same key never share a response.
+     *
+     * @param email          the email of the user
+     * @param idempotencyKey the key sent by the client
+     * @return the hex SHA-256 of the user and the key
+     */
+    static String scopedKey(String email, String idempotencyKey) {
+        MessageDigest digest = sha256();
+        digest.update(email.getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) '\n');
+        return HexFormat.of().formatHex(digest.digest(idempotencyKey.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    /**
+     * Reduces the fingerprint of a request to a fixed length, however many lines the request has.
+     *
+     * @param fingerprint the operation and arguments of the request
+     * @return the hex SHA-256 of the fingerprint
+     */
+    static String fingerprintDigest(String fingerprint) {
+        return HexFormat.of().formatHex(sha256().digest(fingerprint.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private <T> ApiResponse<T> findCompleted(String id, String fingerprint, Class<T> dataType) {
+        CompletedRequest cached = completedRequests.getIfPresent(id);
+        if (cached != null) {
+            checkFingerprint(cached.fingerprint(), fingerprint);
+            @SuppressWarnings("unchecked")
+            ApiResponse<T> response = (ApiResponse<T>) cached.response();
+            return response;
+        }
+        if (!persistedKeys.mightContain(id)) {
+            return null;
+        }
+        ApiResponse<T> stored = load(id, fingerprint, dataType);
+        if (stored == null) {
+            falsePositives.increment();
+        }
+        return stored;
+    }
+
+    private <T> ApiResponse<T> load(String id, String fingerprint, Class<T> dataType) {
+        return idempotencyRecordRepository.findByIdAndExpiresAtAfter(id, Instant.now())
+                .map(stored -> {
+                    checkFingerprint(stored.getFingerprint(), fingerprint);
+                    ApiResponse<T> response = read(stored.getResponse(), dataType);
+                    completedRequests.put(id, new CompletedRequest(stored.getFingerprint(), response));
+                    return response;
+                })
+                .orElse(null);
+    }
+
+    private void remember(String id, String fingerprint, ApiResponse<?> response) {
+        completedRequests.put(id, new CompletedRequest(fingerprint, response));
+        synchronized (this) {
+            persistedKeys.put(id);
+        }
+    }
+
+    private static void checkFingerprint(String storedFingerprint, String fingerprint) {
+        if (!storedFingerprint.equals(fingerprint)) {
+            throw new IdempotencyKeyReuseException(IDEMPOTENCY_KEY_HEADER + " was already used for a different request");
+        }
+    }
+
+    private String write(ApiResponse<?> response) {
+        try {
+            return objectMapper.writeValueAsString(response);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot store response for idempotent replay", e);
+        }
+    }
+
+    private <T> ApiResponse<T> read(String json, Class<T> dataType) {
+        JavaType type = objectMapper.getTypeFactory().constructParametricType(ApiResponse.class, dataType);
+        try {
+            return objectMapper.readValue(json, type);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot read stored response for idempotent replay", e);
+        }
+    }
+
+    /**
+     * A completed request kept in memory.
+     *
+     * @param fingerprint the hex SHA-256 of the operation and arguments of the request
+     * @param response    the response of the request
+     */
+    private record CompletedRequest(String fingerprint, ApiResponse<?> response) {
+    }
+}
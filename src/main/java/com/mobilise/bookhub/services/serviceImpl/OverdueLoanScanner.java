@@ -0,0 +1,108 @@
+package com.mobilise.bookhub.services.serviceImpl;
+
+import com.mobilise.bookhub.entity.OverdueScanCheckpoint;
+import com.mobilise.bookhub.repository.OverdueScanCheckpointRepository;
+import com.mobilise.bookhub.repository.TransactionRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static com.mobilise.bookhub.enums.TransactionStatus.OVERDUE;
+import static com.mobilise.bookhub.enums.TransactionType.BORROW;
+
+/**
+ * OverdueLoanScanner marks loans as {@code OVERDUE} once their due date has passed.
+ * Each run pages through the loans that became due since the last run with keyset pagination on (due date, ID),
+ * continuing from a persisted checkpoint, so it reads only newly overdue loans instead of the whole transaction
+ * table. Due dates are set when a copy is borrowed and always lie in the future then, so no loan can appear behind
+ * the checkpoint later.
+ *
+ * @author codecharlan
+ */
+@Slf4j
+@Service
+public class OverdueLoanScanner {
+    private static final LocalDateTime START = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    private final TransactionRepository transactionRepository;
+    private final OverdueScanCheckpointRepository checkpointRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final Counter overdueLoans;
+
+    /**
+     * Constructor for OverdueLoanScanner.
+     *
+     * @param transactionRepository the loans
+     * @param checkpointRepository  the position of the last run
+     * @param transactionManager    the transaction manager each page is marked in
+     * @param batchSize             the number of loans marked per transaction
+     * @param meterRegistry         the registry the loan metrics are published to
+     */
+    public OverdueLoanScanner(TransactionRepository transactionRepository,
+                              OverdueScanCheckpointRepository checkpointRepository,
+                              PlatformTransactionManager transactionManager,
+                              @Value("${loan.overdue-scan.batch-size:500}") int batchSize,
+                              MeterRegistry meterRegistry) {
+        this.transactionRepository = transactionRepository;
+        this.checkpointRepository = checkpointRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.overdueLoans = Counter.builder("bookhub.loans.overdue")
+                .description("Loans marked overdue by the overdue scanner")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Marks the loans that became overdue since the last run.
+     *
+     * @return the number of loans marked overdue
+     */
+    @Scheduled(fixedDelayString = "${loan.overdue-scan.interval:PT5M}", initialDelayString = "${loan.overdue-scan.interval:PT5M}")
+    public int scan() {
+        LocalDateTime now = LocalDateTime.now();
+        int marked = 0;
+        int scanned;
+        do {
+            int[] page = transactionTemplate.execute(status -> scanPage(now));
+            scanned = page[0];
+            marked += page[1];
+        } while (scanned == batchSize);
+        if (marked > 0) {
+            overdueLoans.increment(marked);
+            log.info("Marked {} loans overdue", marked);
+        }
+        return marked;
+    }
+
+    /**
+     * Marks one page of newly overdue loans and moves the checkpoint past it.
+     *
+     * @return the number of loans read and the number marked overdue
+     */
+    private int[] scanPage(LocalDateTime now) {
+        OverdueScanCheckpoint checkpoint = checkpointRepository.findById(OverdueScanCheckpoint.ID)
+                .orElseGet(() -> new OverdueScanCheckpoint(OverdueScanCheckpoint.ID, START, 0L));
+        List<TransactionRepository.DueLoan> loans = transactionRepository.findOverdueAfter(BORROW,
+                checkpoint.getLastDueDate(), checkpoint.getLastTransactionId(), now, PageRequest.of(0, batchSize));
+        if (loans.isEmpty()) {
+            return new int[]{0, 0};
+        }
+        int marked = transactionRepository.updateStatus(loans.stream().map(TransactionRepository.DueLoan::getId).toList(),
+                BORROW, OVERDUE);
+        TransactionRepository.DueLoan last = loans.get(loans.size() - 1);
+        checkpoint.setLastDueDate(last.getDueDate());
+        checkpoint.setLastTransactionId(last.getId());
+        checkpointRepository.save(checkpoint);
+        return new int[]{loans.size(), marked};
+    }
+}
@@ -0,0 +1,343 @@
+package com.mobilise.bookhub.services.serviceImpl;
+
+import com.mobilise.bookhub.dto.response.ReservationResponseDto;
+import com.mobilise.bookhub.entity.Book;
+import com.mobilise.bookhub.entity.Reservation;
+import com.mobilise.bookhub.entity.User;
+import com.mobilise.bookhub.exception.BookOperationException;
+import com.mobilise.bookhub.exception.ResourceNotFoundException;
+import com.mobilise.bookhub.repository.ReservationRepository;
+import com.mobilise.bookhub.utils.BookUtils;
+import com.mobilise.bookhub.utils.HashedTimerWheel;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static com.mobilise.bookhub.enums.ReservationStatus.*;
+import static com.mobilise.bookhub.enums.TransactionType.BORROW;
+import static com.mobilise.bookhub.enums.TransactionType.RETURN;
+
+/**
+ * ReservationService keeps a FIFO queue of reservations per out-of-stock book, so users wait for a copy instead of
+ * polling the book.
+ * <p>
+ * When copies are returned, they are held for the reservations at the head of the queue, in the same transaction
+ * as the return. A held copy is taken off the shelf with the same conditional update as a borrow, and the holder
+ * claims it by borrowing the book. Each hold expires after the hold duration; expiry is driven by a
+ * {@link HashedTimerWheel} rather than a polling query, so pending holds cost nothing until they are due. An expired
+ * hold puts its copy back on the shelf and offers it to the next reservation in the queue.
+ *
+ * @author codecharlan
+ */
+@Slf4j
+@Service
+public class ReservationService {
+    private static final int RECOVERY_BATCH_SIZE = 1000;
+
+    private final ReservationRepository reservationRepository;
+    private final BookUtils bookUtils;
+    private final TransactionTemplate separateTransaction;
+    private final Duration holdDuration;
+    private final ExecutorService expiryExecutor;
+    private final HashedTimerWheel timerWheel;
+
+    /**
+     * Constructor for ReservationService.
+     *
+     * @param reservationRepository the reservation queues
+     * @param bookUtils             the conditional updates used to take and give back held copies
+     * @param transactionManager    the transaction manager expiries run in
+     * @param holdDuration          how long a returned copy is held for a reservation
+     * @param tickDuration          the resolution of hold expiry
+     * @param ticksPerWheel         the number of buckets of the timer wheel
+     * @param meterRegistry         the registry the reservation metrics are published to
+     */
+    public ReservationService(ReservationRepository reservationRepository, BookUtils bookUtils,
+                              PlatformTransactionManager transactionManager,
+                              @Value("${reservation.hold-duration:PT48H}") Duration holdDuration,
+                              @Value("${reservation.timer.tick-duration:PT1S}") Duration tickDuration,
+                              @Value("${reservation.timer.ticks-per-wheel:4096}") int ticksPerWheel,
+                              MeterRegistry meterRegistry) {
+        this.reservationRepository = reservationRepository;
+        this.bookUtils = bookUtils;
+        this.separateTransaction = new TransactionTemplate(transactionManager);
+        this.separateTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.holdDuration = holdDuration;
+        this.expiryExecutor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "reservation-expiry");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.timerWheel = new HashedTimerWheel("reservation-timer", tickDuration, ticksPerWheel, expiryExecutor);
+        Gauge.builder("bookhub.reservation.holds.pending", timerWheel, HashedTimerWheel::pending)
+                .description("Held copies waiting to be borrowed or to expire")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Adds a user to the end of a book's queue.
+     *
+     * @param user the user making the reservation
+     * @param book the book to reserve
+     * @return the reservation and its position in the queue
+     * @throws BookOperationException if the book is on the shelf or the user already has a reservation for it
+     */
+    @Transactional
+    public ReservationResponseDto reserve(User user, Book book) throws BookOperationException {
+        if (book.getTotalCopies() != null && book.getTotalCopies() > 0) {
+            throw new BookOperationException("Book is available, borrow it instead of reserving it");
+        }
+        if (reservationRepository.findFirstByUserIdAndBookIdAndStatusIn(user.getId(), book.getId(),
+                EnumSet.of(WAITING, HELD)).isPresent()) {
+            throw new BookOperationException("Book is already reserved by this user");
+        }
+        Reservation reservation = reservationRepository.save(Reservation.builder()
+                .user(user)
+                .book(book)
+                .status(WAITING)
+                .createdAt(Instant.now())
+                .build());
+        return toResponse(reservation);
+    }
+
+    /**
+     * Cancels a user's reservation. A copy held for it is given back to the queue.
+     *
+     * @param user          the user who made the reservation
+     * @param reservationId the ID of the reservation
+     * @return the cancelled reservation
+     * @throws ResourceNotFoundException if the user has no such reservation
+     * @throws BookOperationException    if the reservation is no longer waiting or held
+     */
+    @Transactional
+    public ReservationResponseDto cancel(User user, Long reservationId) throws ResourceNotFoundException, BookOperationException {
+        Reservation reservation = reservationRepository.findById(reservationId)
+                .filter(found -> found.getUser().getId().equals(user.getId()))
+                .orElseThrow(() -> new ResourceNotFoundException("Reservation not found for id " + reservationId));
+        Long bookId = reservation.getBook().getId();
+        if (reservationRepository.transition(reservationId, HELD, CANCELLED) == 1) {
+            releaseHeldCopy(bookId);
+        } else if (reservationRepository.transition(reservationId, WAITING, CANCELLED) != 1) {
+            throw new BookOperationException("Reservation is no longer active");
+        }
+        return ReservationResponseDto.builder().id(reservationId).bookId(bookId).status(CANCELLED).build();
+    }
+
+    /**
+     * Claims the copy held for a user. Must run in the transaction of the borrow.
+     *
+     * @param user   the borrower
+     * @param bookId the ID of the book
+     * @return {@code true} if a copy was held for the user; it is now borrowed by them
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public boolean claimHold(User user, Long bookId) {
+        return reservationRepository.claim(user.getId(), bookId, Instant.now()) == 1;
+    }
+
+    /**
+     * Claims the copies held for a user among several books, when the user borrows them at once. Must run in the
+     * transaction of the borrow. The held copies are found with one query, so books without a hold cost nothing more.
+     *
+     * @param user    the borrower
+     * @param bookIds the IDs of the books
+     * @return the IDs of the claimed reservations, by book ID; their copies are now borrowed by the user
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public Map<Long, Long> claimHolds(User user, Collection<Long> bookIds) {
+        if (bookIds.isEmpty()) {
+            return Map.of();
+        }
+        Map<Long, Long> claimed = new HashMap<>();
+        for (ReservationRepository.HeldCopy held : reservationRepository.findHeldCopies(user.getId(), bookIds, Instant.now())) {
+            if (!claimed.containsKey(held.getBookId())
+                    && reservationRepository.transition(held.getId(), HELD, FULFILLED) == 1) {
+                claimed.put(held.getBookId(), held.getId());
+            }
+        }
+        return claimed;
+    }
+
+    /**
+     * Gives a claimed copy back to the reservation, when the rest of the borrow it was claimed for failed but the
+     * transaction goes on. Must run in the transaction of the borrow. The hold keeps its original deadline.
+     *
+     * @param reservationId the ID of the claimed reservation
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void unclaimHold(Long reservationId) {
+        reservationRepository.transition(reservationId, FULFILLED, HELD);
+    }
+
+    /**
+     * Holds just-returned copies for the reservations at the head of a book's queue. Must run in the transaction
+     * of the return, after the copies are back on the shelf.
+     *
+     * @param bookId the ID of the book
+     * @param count  the number of returned copies
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void offerReturnedCopies(Long bookId, int count) {
+        int remaining = holdCopies(bookId, count);
+        if (remaining > 0) {
+            retryAfterCommit(bookId, remaining);
+        }
+    }
+
+    /**
+     * Finds which of the given books have users waiting for them, so a bulk return only offers those.
+     *
+     * @param bookIds the IDs of the books
+     * @return the IDs of the books with at least one waiting reservation
+     */
+    public List<Long> findBooksWithWaitingReservations(Collection<Long> bookIds) {
+        return bookIds.isEmpty() ? List.of() : reservationRepository.findBookIdsWithWaitingReservations(bookIds);
+    }
+
+    /**
+     * Schedules the expiry of the holds that were pending when the application stopped.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void scheduleHeldReservations() {
+        long afterId = 0L;
+        int scheduled = 0;
+        List<ReservationRepository.Hold> holds;
+        do {
+            holds = reservationRepository.findHolds(afterId, PageRequest.of(0, RECOVERY_BATCH_SIZE));
+            for (ReservationRepository.Hold hold : holds) {
+                scheduleExpiry(hold.getId(), hold.getHeldUntil());
+                afterId = hold.getId();
+            }
+            scheduled += holds.size();
+        } while (holds.size() == RECOVERY_BATCH_SIZE);
+        if (scheduled > 0) {
+            log.info("Scheduled the expiry of {} held reservations", scheduled);
+        }
+    }
+
+    /**
+     * Stops the timer wheel. Holds that have not expired are scheduled again on the next start.
+     */
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        timerWheel.close();
+        expiryExecutor.shutdown();
+        expiryExecutor.awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Expires a hold if it has not been claimed or cancelled, gives its copy back and offers it to the next
+     * reservation in the queue.
+     *
+     * @param reservationId the ID of the held reservation
+     */
+    void expire(Long reservationId) {
+        try {
+            separateTransaction.executeWithoutResult(status -> reservationRepository.findById(reservationId)
+                    .filter(reservation -> reservation.getStatus() == HELD)
+                    .ifPresent(reservation -> {
+                        if (reservation.getHeldUntil().isAfter(Instant.now())) {
+                            scheduleExpiry(reservationId, reservation.getHeldUntil());
+                        } else if (reservationRepository.transition(reservationId, HELD, EXPIRED) == 1) {
+                            log.info("Hold of reservation {} expired", reservationId);
+                            releaseHeldCopy(reservation.getBook().getId());
+                        }
+                    }));
+        } catch (RuntimeException e) {
+            log.error("Error expiring reservation {}: {}", reservationId, e.getMessage());
+        }
+    }
+
+    private void releaseHeldCopy(Long bookId) {
+        if (bookUtils.updateBookAvailability(bookId, 1, RETURN)) {
+            offerReturnedCopies(bookId, 1);
+        }
+    }
+
+    /**
+     * Holds up to {@code count} copies for the oldest waiting reservations of a book.
+     *
+     * @return the number of copies that could not be taken off the shelf while users are still waiting
+     */
+    private int holdCopies(Long bookId, int count) {
+        List<Reservation> waiting = reservationRepository.findByBookIdAndStatusOrderByIdAsc(bookId, WAITING,
+                PageRequest.of(0, count));
+        int held = 0;
+        for (Reservation reservation : waiting) {
+            if (!bookUtils.updateBookAvailability(bookId, 1, BORROW)) {
+                return waiting.size() - held;
+            }
+            Instant heldUntil = Instant.now().plus(holdDuration);
+            if (reservationRepository.hold(reservation.getId(), heldUntil) == 1) {
+                held++;
+                scheduleExpiryAfterCommit(reservation.getId(), heldUntil);
+            } else {
+                bookUtils.updateBookAvailability(bookId, 1, RETURN);
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Copies returned through the in-memory inventory ledger reach the shelf when the transaction completes, so
+     * the holds that could not be placed yet are placed then, in a new transaction.
+     */
+    private void retryAfterCommit(Long bookId, int count) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED) {
+                    separateTransaction.executeWithoutResult(retry -> holdCopies(bookId, count));
+                }
+            }
+        });
+    }
+
+    private void scheduleExpiryAfterCommit(Long reservationId, Instant heldUntil) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                scheduleExpiry(reservationId, heldUntil);
+            }
+        });
+    }
+
+    private void scheduleExpiry(Long reservationId, Instant heldUntil) {
+        timerWheel.schedule(() -> expire(reservationId), Duration.between(Instant.now(), heldUntil));
+    }
+
+    private ReservationResponseDto toResponse(Reservation reservation) {
+        return ReservationResponseDto.builder()
+                .id(reservation.getId())
+                .bookId(reservation.getBook().getId())
+                .status(reservation.getStatus())
+                .position(reservation.getStatus() == WAITING ? reservationRepository.countByBookIdAndStatusAndIdLessThan(
+                        reservation.getBook().getId(), WAITING, reservation.getId()) : null)
+                .heldUntil(reservation.getHeldUntil())
+                .build();
+    }
+}
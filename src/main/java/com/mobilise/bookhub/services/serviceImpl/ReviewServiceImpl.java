@@ -11,6 +11,7 @@ import com.mobilise.bookhub.exception.UserNotFoundException;
 import com.mobilise.bookhub.repository.BookRepository;
 import com.mobilise.bookhub.repository.ReviewRepository;
 import com.mobilise.bookhub.repository.UserRepository;
+import com.mobilise.bookhub.security.implementation.ResolvedUserContext;
 import com.mobilise.bookhub.services.ReviewService;
 import com.mobilise.bookhub.utils.DtoMapper;
 import lombok.RequiredArgsConstructor;
@@ -46,14 +47,14 @@ public class ReviewServiceImpl implements ReviewService {
         return new ApiResponse<>("Reviews retrieved successfully", reviewResponse, HTTP_OK);
     }
     /**
-     * Finds a user by email.
+     * Finds a user by email, loading it at most once per request.
      *
      * @param email the user's email
      * @return the user object if found, otherwise throws UserNotFoundException
      */
     private User findUserByEmail(String email) {
-        return userRepository.findByEmail(email)
-                .orElseThrow(() -> new UserNotFoundException("User not found with email: " + email));
+        return ResolvedUserContext.resolve(email, userEmail -> userRepository.findByEmail(userEmail)
+                .orElseThrow(() -> new UserNotFoundException("User not found with email: " + userEmail)));
     }
     /**
      * Retrieves a review by its ID.
@@ -64,7 +65,6 @@ public class ReviewServiceImpl implements ReviewService {
      */
     @Override
     public ApiResponse<ReviewResponseDto> getReviewById(Long id, String email) {
-        findUserByEmail(email);
         Review review = reviewRepository.findById(id).orElseThrow(()-> new ResourceNotFoundException("Could not find review for id " + id));
         ReviewResponseDto reviewResponse = DtoMapper.convertToResponseDto(review);
         return new ApiResponse<>("Review retrieved successfully", reviewResponse, HTTP_OK);
@@ -104,7 +104,6 @@ public class ReviewServiceImpl implements ReviewService {
      */
     @Override
     public ApiResponse<ReviewResponseDto> updateReview(Long id, String email, ReviewRequestDto requestDto) {
-        findUserByEmail(email);
         Review review = reviewRepository.findById(id).orElseThrow(() -> new ResourceNotFoundException("Review not available"));
         review.setRating(requestDto.rating());
         review.setComments(requestDto.comments());
@@ -120,7 +119,6 @@ public class ReviewServiceImpl implements ReviewService {
      */
     @Override
     public void deleteReview(Long id, String email) {
-        findUserByEmail(email);
         reviewRepository.findById(id).orElseThrow(() -> new ResourceNotFoundException("Review not available"));
         reviewRepository.deleteById(id);
     }
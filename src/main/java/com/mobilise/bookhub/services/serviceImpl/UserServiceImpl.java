@@ -11,6 +11,7 @@ import com.mobilise.bookhub.exception.InvalidCredentialException;
 import com.mobilise.bookhub.exception.UserAlreadyExistException;
 import com.mobilise.bookhub.repository.UserRepository;
 import com.mobilise.bookhub.security.JwtService;
+import com.mobilise.bookhub.security.implementation.TokenRevocationService;
 import com.mobilise.bookhub.security.implementation.UserDetailsImpl;
 import com.mobilise.bookhub.services.UserService;
 import com.mobilise.bookhub.utils.DtoMapper;
@@ -24,7 +25,9 @@ import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
 import java.util.Collection;
 import java.util.Map;
 import java.util.Optional;
@@ -46,15 +49,18 @@ public class UserServiceImpl implements UserService {
     private final AuthenticationManager authenticationManager;
     private final JwtService jwtService;
     private final DtoMapper dtoMapper;
+    private final TokenRevocationService tokenRevocationService;
+    private final WalletService walletService;
 
     /**
-     * Registers a new user.
+     * Registers a new user and opens their wallet ledger with the starting balance.
      *
      * @param registrationRequest the request containing the user's registration details
      * @return an ApiResponse object containing the registration response and HTTP status code
      * @throws UserAlreadyExistException if the user already exists
      */
     @Override
+    @Transactional
     public ApiResponse<RegistrationResponseDto> registerUser(RegistrationRequestDto registrationRequest) {
         Optional<User> optionalUser = userRepository.findByEmail(registrationRequest.email());
         if (optionalUser.isPresent()) {
@@ -62,6 +68,7 @@ public class UserServiceImpl implements UserService {
         }
         User newUser = dtoMapper.createNewUser(registrationRequest);
         User savedUser = userRepository.save(newUser);
+        walletService.open(savedUser);
         RegistrationResponseDto registrationResponse = dtoMapper.createUserResponse(savedUser);
         return new ApiResponse<>("User created successfully", registrationResponse, HTTP_CREATED);
     }
@@ -134,17 +141,19 @@ public class UserServiceImpl implements UserService {
         }
     }
     /**
-     * Logs out the user.
+     * Logs out the user and revokes the token, so it is rejected until it expires.
+     * The token is not parsed again; its claims were verified by the security filter.
      *
-     * @param authorizationHeader the authorization header containing the user's token
+     * @param tokenClaims the verified claims of the user's token, or {@code null} if the request carried none
      * @return an ApiResponse object containing the logout response and HTTP status code
      */
     @Override
-    public ApiResponse<String> logout(String authorizationHeader) {
+    public ApiResponse<String> logout(Map<String, String> tokenClaims) {
         try {
-            String token = authorizationHeader.substring(7);
-            Map<String, String> userDetails = jwtService.parseTokenClaims(token);
-            if (userDetails != null) {
+            if (tokenClaims != null) {
+                String expiresAt = tokenClaims.get("exp");
+                tokenRevocationService.revoke(tokenClaims.get("jti"),
+                        expiresAt != null ? Instant.ofEpochMilli(Long.parseLong(expiresAt)) : null);
                 SecurityContextHolder.clearContext();
                 return new ApiResponse<>("Successfully logged out", "You have been logged out", HTTP_OK);
             }
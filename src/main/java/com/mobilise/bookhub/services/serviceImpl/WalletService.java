@@ -0,0 +1,230 @@
+package com.mobilise.bookhub.services.serviceImpl;
+
+import com.mobilise.bookhub.entity.Transaction;
+import com.mobilise.bookhub.entity.User;
+import com.mobilise.bookhub.entity.WalletEntry;
+import com.mobilise.bookhub.entity.WalletSnapshot;
+import com.mobilise.bookhub.exception.InsufficientBalanceException;
+import com.mobilise.bookhub.repository.UserRepository;
+import com.mobilise.bookhub.repository.WalletEntryRepository;
+import com.mobilise.bookhub.repository.WalletSnapshotRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static com.mobilise.bookhub.enums.WalletEntryType.OPENING;
+import static com.mobilise.bookhub.enums.WalletEntryType.PURCHASE;
+import static java.math.BigDecimal.ZERO;
+
+/**
+ * WalletService keeps users' balances and the append-only ledger of their movements.
+ * The balance on {@code appuser} is the running total: a debit is one conditional UPDATE, so concurrent purchases
+ * by the same user never read-modify-write the row and can never overdraw it. The same statement advances the
+ * user's wallet version, and the ledger entries recording the debit are appended in the same transaction as the
+ * book transactions they pay for.
+ * <p>
+ * Reading the balance is a primary key lookup. The ledger is checked against it periodically: each run sums only
+ * the entries written since a user's last {@link WalletSnapshot}, stores a new snapshot and reports any user whose
+ * balance no longer matches the ledger.
+ * <p>
+ * Users registered before the ledger existed have no opening entry. The first run that sees such a user opens their
+ * ledger at the balance it had before the entries since written, so their existing balance is not reported as drift.
+ *
+ * @author codecharlan
+ */
+@Slf4j
+@Service
+public class WalletService {
+    private final UserRepository userRepository;
+    private final WalletEntryRepository walletEntryRepository;
+    private final WalletSnapshotRepository walletSnapshotRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int snapshotBatchSize;
+    private final Counter drift;
+
+    /**
+     * Constructor for WalletService.
+     *
+     * @param userRepository           the users and their balances
+     * @param walletEntryRepository    the ledger of balance movements
+     * @param walletSnapshotRepository the snapshots of the ledger
+     * @param transactionManager       the transaction manager each batch of snapshots is stored in
+     * @param snapshotBatchSize        the number of users snapshotted per transaction
+     * @param meterRegistry            the registry the wallet metrics are published to
+     */
+    public WalletService(UserRepository userRepository, WalletEntryRepository walletEntryRepository,
+                         WalletSnapshotRepository walletSnapshotRepository,
+                         PlatformTransactionManager transactionManager,
+                         @Value("${wallet.snapshot.batch-size:500}") int snapshotBatchSize,
+                         MeterRegistry meterRegistry) {
+        this.userRepository = userRepository;
+        this.walletEntryRepository = walletEntryRepository;
+        this.walletSnapshotRepository = walletSnapshotRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.snapshotBatchSize = snapshotBatchSize;
+        this.drift = Counter.builder("bookhub.wallet.drift")
+                .description("Users whose balance did not match the sum of their wallet ledger")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Appends the opening entry of a newly registered user's ledger.
+     *
+     * @param user the saved user, whose wallet version is 0
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void open(User user) {
+        walletEntryRepository.save(WalletEntry.builder()
+                .user(user)
+                .version(user.getWalletVersion())
+                .amount(user.getBalance())
+                .type(OPENING)
+                .createdAt(Instant.now())
+                .build());
+    }
+
+    /**
+     * Debits a user's balance for a set of saved purchase transactions and appends one ledger entry per transaction.
+     * Must run in the transaction that saved them, so the books, the balance and the ledger change together.
+     *
+     * @param user      the purchaser
+     * @param purchases the saved purchase transactions
+     * @return the remaining balance
+     * @throws InsufficientBalanceException if the balance does not cover the total amount
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public BigDecimal debit(User user, List<Transaction> purchases) throws InsufficientBalanceException {
+        BigDecimal totalAmount = purchases.stream().map(Transaction::getAmount).reduce(ZERO, BigDecimal::add);
+        if (userRepository.debitBalance(user.getId(), totalAmount, purchases.size()) != 1) {
+            throw new InsufficientBalanceException("Balance does not cover the total amount of " + totalAmount);
+        }
+        UserRepository.WalletState wallet = userRepository.findWalletStateById(user.getId()).orElseThrow();
+        long version = wallet.getWalletVersion() - purchases.size();
+        Instant now = Instant.now();
+        List<WalletEntry> entries = new ArrayList<>(purchases.size());
+        for (Transaction purchase : purchases) {
+            entries.add(WalletEntry.builder()
+                    .user(user)
+                    .version(++version)
+                    .amount(purchase.getAmount().negate())
+                    .type(PURCHASE)
+                    .transaction(purchase)
+                    .createdAt(now)
+                    .build());
+        }
+        walletEntryRepository.saveAll(entries);
+        return wallet.getBalance();
+    }
+
+    /**
+     * Snapshots the ledger of every user whose wallet changed since the last run, and reports users whose balance
+     * does not match their ledger. A user's balance and wallet version are read together, and the entries up to
+     * that version are committed with it, so the comparison is exact even while purchases continue.
+     * Users without an opening entry get one first, see {@link #openExisting}.
+     */
+    @Scheduled(fixedDelayString = "${wallet.snapshot.interval:PT5M}", initialDelayString = "${wallet.snapshot.interval:PT5M}")
+    public void snapshot() {
+        long afterId = 0L;
+        int snapshotted = 0;
+        List<UserRepository.WalletState> wallets;
+        do {
+            long from = afterId;
+            wallets = transactionTemplate.execute(status -> snapshotBatch(from));
+            snapshotted += wallets.size();
+            if (!wallets.isEmpty()) {
+                afterId = wallets.get(wallets.size() - 1).getId();
+            }
+        } while (wallets.size() == snapshotBatchSize);
+        if (snapshotted > 0) {
+            log.info("Snapshotted the wallets of {} users", snapshotted);
+        }
+    }
+
+    private List<UserRepository.WalletState> snapshotBatch(long afterId) {
+        List<UserRepository.WalletState> wallets = userRepository.findWalletsChangedSinceSnapshot(afterId,
+                PageRequest.of(0, snapshotBatchSize));
+        Map<Long, WalletSnapshot> previous = walletSnapshotRepository.findAllById(
+                        wallets.stream().map(UserRepository.WalletState::getId).toList()).stream()
+                .collect(Collectors.toMap(WalletSnapshot::getUserId, Function.identity()));
+        Instant now = Instant.now();
+        openExisting(wallets.stream().filter(wallet -> !previous.containsKey(wallet.getId())).toList(), now);
+        List<WalletSnapshot> newSnapshots = new ArrayList<>();
+        for (UserRepository.WalletState wallet : wallets) {
+            WalletSnapshot snapshot = previous.get(wallet.getId());
+            long after = snapshot == null ? -1L : snapshot.getVersion();
+            BigDecimal balance = (snapshot == null ? ZERO : snapshot.getBalance())
+                    .add(walletEntryRepository.sumAmounts(wallet.getId(), after, wallet.getWalletVersion()));
+            if (wallet.getBalance() == null || balance.compareTo(wallet.getBalance()) != 0) {
+                drift.increment();
+                log.warn("Balance {} of user {} does not match the ledger balance {} at wallet version {}",
+                        wallet.getBalance(), wallet.getId(), balance, wallet.getWalletVersion());
+            }
+            if (snapshot == null) {
+                newSnapshots.add(WalletSnapshot.builder()
+                        .userId(wallet.getId())
+                        .balance(balance)
+                        .version(wallet.getWalletVersion())
+                        .takenAt(now)
+                        .build());
+            } else {
+                snapshot.setBalance(balance);
+                snapshot.setVersion(wallet.getWalletVersion());
+                snapshot.setTakenAt(now);
+            }
+        }
+        walletSnapshotRepository.saveAll(newSnapshots);
+        return wallets;
+    }
+
+    /**
+     * Opens the ledger of users registered before it existed, whose wallet version was 0 and who have no opening
+     * entry. The opening entry is their balance before the entries written since, so that the ledger adds up to
+     * their balance at the version it was read with.
+     *
+     * @param wallets users without a snapshot
+     * @param now     the time of the run
+     */
+    private void openExisting(List<UserRepository.WalletState> wallets, Instant now) {
+        if (wallets.isEmpty()) {
+            return;
+        }
+        Set<Long> opened = new HashSet<>(walletEntryRepository.findOpenedUserIds(
+                wallets.stream().map(UserRepository.WalletState::getId).toList()));
+        List<WalletEntry> openings = new ArrayList<>();
+        for (UserRepository.WalletState wallet : wallets) {
+            if (opened.contains(wallet.getId())) {
+                continue;
+            }
+            BigDecimal balance = wallet.getBalance() == null ? ZERO : wallet.getBalance();
+            openings.add(WalletEntry.builder()
+                    .user(userRepository.getReferenceById(wallet.getId()))
+                    .version(0L)
+                    .amount(balance.subtract(walletEntryRepository.sumAmounts(wallet.getId(), 0, wallet.getWalletVersion())))
+                    .type(OPENING)
+                    .createdAt(now)
+                    .build());
+        }
+        walletEntryRepository.saveAll(openings);
+        if (!openings.isEmpty()) {
+            log.info("Opened the wallet ledgers of {} existing users", openings.size());
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.mobilise.bookhub.utils;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.function.LongSupplier;
+
+/**
+ * BookCountCache remembers how many books matched a search, so listings asking for an approximate total
+ * do not run a {@code COUNT} with the same {@code LIKE} predicate on every page.
+ * Counts are kept per query and case-insensitive search term and expire after a fixed time, so an approximate
+ * total lags behind new and deleted books by at most that long.
+ * Hit and miss counts are published as the {@code cache.gets} metric with {@code cache=books.counts}.
+ *
+ * @author codecharlan
+ */
+@Component
+public class BookCountCache {
+    private final Cache<String, Long> counts;
+
+    /**
+     * Constructor for BookCountCache.
+     *
+     * @param ttl           how long a count is reused
+     * @param maximumSize   the maximum number of counts kept
+     * @param meterRegistry the registry the cache metrics are published to
+     */
+    public BookCountCache(@Value("${book.count-cache.ttl:PT1M}") Duration ttl,
+                          @Value("${book.count-cache.maximum-size:10000}") long maximumSize,
+                          MeterRegistry meterRegistry) {
+        this.counts = Caffeine.newBuilder()
+                .expireAfterWrite(ttl)
+                .maximumSize(maximumSize)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, counts, "books.counts");
+    }
+
+    /**
+     * Get a recent count of a search, counting it if there is none.
+     *
+     * @param query      the name of the query the search runs
+     * @param searchTerm the search term, or {@code null} for all books
+     * @param counter    counts the matching books
+     * @return the number of matching books when they were last counted
+     */
+    public long approximate(String query, String searchTerm, LongSupplier counter) {
+        return counts.get(key(query, searchTerm), key -> counter.getAsLong());
+    }
+
+    /**
+     * Counts a search and remembers the count.
+     *
+     * @param query      the name of the query the search runs
+     * @param searchTerm the search term, or {@code null} for all books
+     * @param counter    counts the matching books
+     * @return the number of matching books
+     */
+    public long exact(String query, String searchTerm, LongSupplier counter) {
+        long count = counter.getAsLong();
+        counts.put(key(query, searchTerm), count);
+        return count;
+    }
+
+    /**
+     * Remembers the count of a search that was counted elsewhere, such as by a {@code Page} query.
+     *
+     * @param query      the name of the query the search runs
+     * @param searchTerm the search term, or {@code null} for all books
+     * @param count      the number of matching books
+     */
+    public void put(String query, String searchTerm, long count) {
+        counts.put(key(query, searchTerm), count);
+    }
+
+    private static String key(String query, String searchTerm) {
+        return searchTerm == null || searchTerm.isEmpty() ? query : query + ':' + searchTerm.toLowerCase(Locale.ROOT);
+    }
+}
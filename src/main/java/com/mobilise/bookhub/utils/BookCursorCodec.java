@@ -0,0 +1,106 @@
+package com.mobilise.bookhub.utils;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mobilise.bookhub.entity.Book;
+import com.mobilise.bookhub.exception.InvalidArgumentException;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.reflect.Field;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * BookCursorCodec turns the keyset position of a page of books into the opaque cursor handed to clients, and back.
+ * A cursor holds the sort key and ID of the last book of a page together with the sort order it was made for,
+ * so the next page seeks directly past that book instead of skipping an ever larger offset.
+ * A cursor is only valid for the sort order it was issued with.
+ *
+ * @author codecharlan
+ */
+@Component
+public class BookCursorCodec {
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Constructor for BookCursorCodec.
+     *
+     * @param objectMapper the mapper the cursor contents are serialized with
+     */
+    public BookCursorCodec(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Encodes the position after the last book of a page.
+     *
+     * @param sort     the sort order of the page
+     * @param position the keyset position of the last book
+     * @return the opaque cursor
+     */
+    public String encode(Sort sort, KeysetScrollPosition position) {
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(new Cursor(sort.toString(), position.getKeys()));
+            return ENCODER.encodeToString(json);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cursor could not be encoded", e);
+        }
+    }
+
+    /**
+     * Decodes a cursor into the position to continue from.
+     *
+     * @param cursor the cursor, or {@code null} or blank for the first page
+     * @param sort   the sort order of the requested page
+     * @return the keyset position to continue from
+     * @throws InvalidArgumentException if the cursor is malformed or was issued for another sort order
+     */
+    public KeysetScrollPosition decode(String cursor, Sort sort) {
+        if (cursor == null || cursor.isBlank()) {
+            return ScrollPosition.keyset();
+        }
+        Cursor decoded;
+        try {
+            decoded = objectMapper.readValue(DECODER.decode(cursor), Cursor.class);
+        } catch (Exception e) {
+            throw new InvalidArgumentException("Invalid cursor");
+        }
+        if (decoded.sort() == null || decoded.keys() == null || decoded.keys().isEmpty()) {
+            throw new InvalidArgumentException("Invalid cursor");
+        }
+        if (!decoded.sort().equals(sort.toString())) {
+            throw new InvalidArgumentException("Cursor does not match the requested sort order");
+        }
+        Map<String, Object> keys = new LinkedHashMap<>();
+        for (Map.Entry<String, Object> key : decoded.keys().entrySet()) {
+            Field field = ReflectionUtils.findField(Book.class, key.getKey());
+            if (field == null) {
+                throw new InvalidArgumentException("Invalid cursor");
+            }
+            // JSON loses the Java type of the key, so it is restored from the property it was read from.
+            try {
+                keys.put(key.getKey(), objectMapper.convertValue(key.getValue(), field.getType()));
+            } catch (IllegalArgumentException e) {
+                throw new InvalidArgumentException("Invalid cursor");
+            }
+        }
+        return ScrollPosition.forward(keys);
+    }
+
+    /**
+     * The contents of a cursor.
+     *
+     * @param sort the sort order the cursor was issued for
+     * @param keys the sort key and ID of the last book of the page
+     */
+    record Cursor(String sort, Map<String, Object> keys) {
+    }
+}
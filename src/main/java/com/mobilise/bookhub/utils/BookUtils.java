@@ -1,65 +1,216 @@
 package com.mobilise.bookhub.utils;
 
-import com.mobilise.bookhub.entity.Book;
 import com.mobilise.bookhub.enums.BookStatus;
 import com.mobilise.bookhub.enums.TransactionType;
 import com.mobilise.bookhub.repository.BookRepository;
-import lombok.RequiredArgsConstructor;
+import com.mobilise.bookhub.utils.inventory.BookAvailabilityChangedEvent;
+import com.mobilise.bookhub.utils.inventory.InventoryLedger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Service;
+
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
 /**
  * BookUtils class
  * It contains method for updating the availability of books.
+ * Every update is a single conditional UPDATE statement, defined once in {@link BookRepository}, so concurrent
+ * borrowers or purchasers can never take more copies than are on the shelf.
+ * When the {@link InventoryLedger} is enabled, the books it holds are updated in memory instead and written
+ * to the database in batches.
+ * Books whose status the update may have changed are announced with their new status in a
+ * {@link BookAvailabilityChangedEvent}, so listeners never read it back.
  *
  * @author codecharlan
  * @version 1. 0. 0
  */
 @Service
-@RequiredArgsConstructor
 public class BookUtils {
+    /**
+     * A batch of no-op updates, run once to learn whether the JDBC driver reports the rows updated by each batched
+     * statement or only {@link Statement#SUCCESS_NO_INFO}.
+     */
+    private static final String BATCH_COUNT_PROBE_SQL = "update book set version = version where id is null";
+
     private final BookRepository bookRepository;
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final InventoryLedger inventoryLedger;
+    private final ApplicationEventPublisher eventPublisher;
+    /**
+     * Whether the driver reports exact update counts for batched statements; {@code null} until probed.
+     */
+    private volatile Boolean exactBatchCounts;
+
+    /**
+     * Constructor for BookUtils.
+     *
+     * @param bookRepository  the repository used for the conditional updates
+     * @param jdbcTemplate    the template used for batches of conditional updates
+     * @param inventoryLedger the in-memory inventory engine, or {@code null} when it is disabled
+     * @param eventPublisher  the publisher of the availability changes
+     */
+    @Autowired
+    public BookUtils(BookRepository bookRepository, NamedParameterJdbcTemplate jdbcTemplate,
+                     @Nullable InventoryLedger inventoryLedger, ApplicationEventPublisher eventPublisher) {
+        this.bookRepository = bookRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.inventoryLedger = inventoryLedger;
+        this.eventPublisher = eventPublisher;
+    }
     /**
      * Updates the availability of a book based on the specified transaction type and count.
      *
-     * @param book the book to update its availability
+     * @param bookId the ID of the book to update its availability
      * @param count the number of books to be borrowed, returned, or purchased
      * @param action the type of transaction to be performed
+     * @return {@code true} if the copies were updated, {@code false} if the book does not exist, is not available
+     * or does not have enough copies for the transaction
+     *
+     * @throws IllegalArgumentException if the transaction type is invalid
+     */
+    public boolean updateBookAvailability(Long bookId, int count, TransactionType action) {
+        if (inventoryLedger != null) {
+            Boolean granted = inventoryLedger.apply(bookId, count, action);
+            if (granted != null) {
+                return granted;
+            }
+        }
+        BookStatus status = switch (action) {
+            case BORROW -> bookRepository.borrowCopies(bookId, count);
+            case RETURN -> bookRepository.returnCopies(bookId, count) == 1 ? BookStatus.AVAILABLE : null;
+            case PURCHASE -> bookRepository.purchaseCopies(bookId, count);
+            default -> throw new IllegalArgumentException("Invalid Transaction Type");
+        };
+        if (status != null && (action == TransactionType.RETURN || status != BookStatus.AVAILABLE)) {
+            eventPublisher.publishEvent(new BookAvailabilityChangedEvent(Map.of(bookId, status)));
+        }
+        return status != null;
+    }
+    /**
+     * Updates the availability of several books, sending all conditional updates to the database in one JDBC batch,
+     * or one by one if the driver does not report the rows each batched statement updated.
+     * Borrows and purchases first try the update leaving copies on the shelf; only the books it did not match go on to
+     * a second batch taking their last copies, and those neither matched to one more try of the first, as a single
+     * borrow or purchase does.
+     * The updates are sent in ascending book ID order, so concurrent batches lock rows in the same order.
+     * Books that do not exist or do not have enough copies are reported as not updated; the other books are
+     * updated regardless. The updates bypass the persistence context, so the books must be loaded afterwards.
+     *
+     * @param counts the number of copies by book ID
+     * @param action the type of transaction to be performed
+     * @return whether each book's copies were updated, by book ID
      *
      * @throws IllegalArgumentException if the transaction type is invalid
      */
-    public void updateBookAvailability(Book book, int count, TransactionType action) {
-        switch (action) {
-            case BORROW:
-                if (book.isAvailable()) {
-                    long borrowedCopies = book.getBorrowedCopies() + count;
-                    if (borrowedCopies == book.getTotalCopies()) {
-                        book.setStatus(BookStatus.BORROWED);
-                    } else {
-                        book.setStatus(BookStatus.AVAILABLE);
-                        book.setBorrowedCopies(borrowedCopies);
-                        book.setTotalCopies(book.getTotalCopies() - count);
-                    }
-                }
-                break;
-            case RETURN:
-                long returnedCopies = book.getBorrowedCopies() - count;
-                book.setTotalCopies(book.getTotalCopies() + count);
-                book.setBorrowedCopies(returnedCopies);
-                book.setStatus(BookStatus.AVAILABLE);
-                break;
-            case PURCHASE:
-                long purchasedCopies = book.getTotalCopies() - count;
-                if (purchasedCopies == 0) {
-                    book.setStatus(BookStatus.SOLD_OUT);
-                } else {
-                    if (book.isAvailable()) {
-                        book.setStatus(BookStatus.AVAILABLE);
-                    }
-                }
-                book.setTotalCopies(book.getTotalCopies() - count);
-                break;
-            default:
-                throw new IllegalArgumentException("Invalid Transaction Type");
+    public Map<Long, Boolean> updateBookAvailability(Map<Long, Integer> counts, TransactionType action) {
+        String lastCopiesSql = switch (action) {
+            case BORROW -> BookRepository.BORROW_LAST_COPIES_SQL;
+            case RETURN -> null;
+            case PURCHASE -> BookRepository.PURCHASE_LAST_COPIES_SQL;
+            default -> throw new IllegalArgumentException("Invalid Transaction Type");
+        };
+        String sql = switch (action) {
+            case BORROW -> BookRepository.BORROW_COPIES_SQL;
+            case RETURN -> BookRepository.RETURN_COPIES_SQL;
+            default -> BookRepository.PURCHASE_COPIES_SQL;
+        };
+        BookStatus emptiedStatus = action == TransactionType.BORROW ? BookStatus.BORROWED : BookStatus.SOLD_OUT;
+        Map<Long, Boolean> updated = new TreeMap<>();
+        List<Long> batchedIds = new ArrayList<>();
+        for (Map.Entry<Long, Integer> line : new TreeMap<>(counts).entrySet()) {
+            Boolean granted = inventoryLedger == null ? null
+                    : inventoryLedger.apply(line.getKey(), line.getValue(), action);
+            if (granted != null) {
+                updated.put(line.getKey(), granted);
+            } else {
+                batchedIds.add(line.getKey());
+            }
+        }
+        Map<Long, BookStatus> statuses = new TreeMap<>();
+        List<Long> unmatchedIds = update(sql, batchedIds, counts, BookStatus.AVAILABLE, statuses);
+        if (lastCopiesSql != null) {
+            unmatchedIds = update(lastCopiesSql, unmatchedIds, counts, emptiedStatus, statuses);
+            update(sql, unmatchedIds, counts, BookStatus.AVAILABLE, statuses);
+        }
+        batchedIds.forEach(bookId -> updated.put(bookId, statuses.containsKey(bookId)));
+        if (action != TransactionType.RETURN) {
+            statuses.values().removeIf(status -> status == BookStatus.AVAILABLE);
+        }
+        if (!statuses.isEmpty()) {
+            eventPublisher.publishEvent(new BookAvailabilityChangedEvent(statuses));
+        }
+        return updated;
+    }
+    /**
+     * Runs a conditional update for several books.
+     *
+     * @param sql      the update
+     * @param bookIds  the IDs of the books, in ascending order
+     * @param counts   the number of copies by book ID
+     * @param status   the status of a book the update matched
+     * @param statuses collects the status of each book the update matched
+     * @return the IDs of the books the update did not match
+     */
+    private List<Long> update(String sql, List<Long> bookIds, Map<Long, Integer> counts, BookStatus status,
+                              Map<Long, BookStatus> statuses) {
+        if (bookIds.isEmpty()) {
+            return bookIds;
+        }
+        SqlParameterSource[] batch = bookIds.stream()
+                .map(bookId -> new MapSqlParameterSource("id", bookId)
+                        .addValue("count", counts.get(bookId))
+                        .addValue("available", BookStatus.AVAILABLE.name())
+                        .addValue("borrowed", BookStatus.BORROWED.name())
+                        .addValue("soldOut", BookStatus.SOLD_OUT.name()))
+                .toArray(SqlParameterSource[]::new);
+        int[] updatedRows = reportsExactBatchCounts()
+                ? jdbcTemplate.batchUpdate(sql, batch)
+                : Arrays.stream(batch).mapToInt(line -> jdbcTemplate.update(sql, line)).toArray();
+        List<Long> unmatchedIds = new ArrayList<>();
+        for (int i = 0; i < updatedRows.length; i++) {
+            if (updatedRows[i] == 1) {
+                statuses.put(bookIds.get(i), status);
+            } else {
+                unmatchedIds.add(bookIds.get(i));
+            }
+        }
+        return unmatchedIds;
+    }
+    /**
+     * Returns whether the driver reports the rows updated by each statement of a batch.
+     * H2, PostgreSQL, MySQL and Oracle 12c or later do; drivers that report {@link Statement#SUCCESS_NO_INFO} instead,
+     * e.g. older Oracle drivers, leave no way to tell whether a conditional update matched, so their updates are
+     * sent one by one.
+     *
+     * @return {@code true} if batches can be used
+     */
+    private boolean reportsExactBatchCounts() {
+        Boolean exact = exactBatchCounts;
+        if (exact == null) {
+            int[] probed = jdbcTemplate.batchUpdate(BATCH_COUNT_PROBE_SQL,
+                    new SqlParameterSource[]{new MapSqlParameterSource(), new MapSqlParameterSource()});
+            exact = Arrays.stream(probed).noneMatch(rows -> rows == Statement.SUCCESS_NO_INFO);
+            exactBatchCounts = exact;
+        }
+        return exact;
+    }
+    /**
+     * Writes a book's pending inventory changes to the database and stops holding them in memory,
+     * e.g. before and after an administrator edits or deletes the book.
+     *
+     * @param bookId the ID of the book
+     */
+    public void releaseBook(Long bookId) {
+        if (inventoryLedger != null) {
+            inventoryLedger.evict(bookId);
         }
-        bookRepository.save(book);
     }
 }
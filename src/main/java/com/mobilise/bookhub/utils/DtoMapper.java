@@ -10,7 +10,9 @@ import com.mobilise.bookhub.entity.*;
 import com.mobilise.bookhub.repository.AuthorRepository;
 import com.mobilise.bookhub.repository.PublisherRepository;
 import com.mobilise.bookhub.security.implementation.UserDetailsImpl;
-import lombok.RequiredArgsConstructor;
+import com.mobilise.bookhub.utils.inventory.InventoryLedger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.lang.Nullable;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
@@ -23,12 +25,29 @@ import static com.mobilise.bookhub.enums.BookStatus.AVAILABLE;
  *
  * @author codecharlan
  */
-@RequiredArgsConstructor
 @Service
 public class DtoMapper {
     private final PasswordEncoder passwordEncoder;
     private final AuthorRepository authorRepository;
     private final PublisherRepository publisherRepository;
+    private final InventoryLedger inventoryLedger;
+
+    /**
+     * Constructor for DtoMapper.
+     *
+     * @param passwordEncoder     the encoder used to hash new users' passwords
+     * @param authorRepository    the repository used to find existing authors
+     * @param publisherRepository the repository used to find existing publishers
+     * @param inventoryLedger     the in-memory inventory engine, or {@code null} when it is disabled
+     */
+    @Autowired
+    public DtoMapper(PasswordEncoder passwordEncoder, AuthorRepository authorRepository,
+                     PublisherRepository publisherRepository, @Nullable InventoryLedger inventoryLedger) {
+        this.passwordEncoder = passwordEncoder;
+        this.authorRepository = authorRepository;
+        this.publisherRepository = publisherRepository;
+        this.inventoryLedger = inventoryLedger;
+    }
     /**
      * Creates a new User entity from the provided RegistrationRequestDto.
      *
@@ -83,7 +102,7 @@ public class DtoMapper {
      * @return a BookResponseDto containing the book's details
      */
     public BookResponseDto createBookResponse(Book book) {
-        return BookResponseDto.builder()
+        BookResponseDto response = BookResponseDto.builder()
                 .id(book.getId())
                 .isbn(book.getIsbn())
                 .title(book.getTitle())
@@ -97,7 +116,9 @@ public class DtoMapper {
                 .unitPriceOfBook(book.getUnitPriceOfBook())
                 .author(book.getAuthor())
                 .publisher(book.getPublisher())
+                .version(book.getVersion())
                 .build();
+        return inventoryLedger == null ? response : inventoryLedger.applyCurrentAvailability(response);
     }
     /**
      * Creates a new Book entity from the provided BookRequestDto.
@@ -116,6 +137,7 @@ public class DtoMapper {
         return Book.builder()
                 .id(newBook.id())
                 .isbn(newBook.isbn())
+                .normalizedIsbn(IsbnUtils.normalize(newBook.isbn()))
                 .title(newBook.title())
                 .edition(newBook.edition())
                 .description(newBook.description())
@@ -0,0 +1,212 @@
+package com.mobilise.bookhub.utils;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * HashedTimerWheel runs tasks after a delay, with a resolution of one tick.
+ * Timeouts are hashed into a ring of buckets by their deadline; each tick visits only the bucket of that tick, so
+ * scheduling and expiring a timeout cost O(1) no matter how many timeouts are pending. A timeout further away than
+ * one turn of the wheel waits in its bucket for the remaining number of rounds.
+ * <p>
+ * A single daemon thread turns the wheel. New timeouts are handed to it through a lock-free queue, and expired
+ * tasks are run on the given executor, so slow tasks never delay a tick.
+ *
+ * @author codecharlan
+ */
+@Slf4j
+public class HashedTimerWheel implements AutoCloseable {
+    private static final int MAX_TRANSFERS_PER_TICK = 100_000;
+
+    private final long tickNanos;
+    private final Bucket[] wheel;
+    private final int mask;
+    private final Executor taskExecutor;
+    private final Queue<Timeout> scheduled = new ConcurrentLinkedQueue<>();
+    private final AtomicLong pending = new AtomicLong();
+    private final Thread worker;
+    private final long startTime;
+    private volatile boolean running = true;
+
+    /**
+     * Constructor for HashedTimerWheel. The wheel starts turning immediately.
+     *
+     * @param name          the name of the worker thread
+     * @param tickDuration  the duration of one tick, i.e. the resolution of the timer
+     * @param ticksPerWheel the number of buckets, rounded up to a power of two
+     * @param taskExecutor  the executor expired tasks are run on
+     */
+    public HashedTimerWheel(String name, Duration tickDuration, int ticksPerWheel, Executor taskExecutor) {
+        if (tickDuration.isNegative() || tickDuration.isZero() || ticksPerWheel <= 0) {
+            throw new IllegalArgumentException("Timer wheel tick duration and size must be positive");
+        }
+        this.tickNanos = tickDuration.toNanos();
+        int size = Integer.highestOneBit(Math.max(1, ticksPerWheel - 1)) << 1;
+        this.wheel = new Bucket[size];
+        for (int i = 0; i < size; i++) {
+            wheel[i] = new Bucket();
+        }
+        this.mask = size - 1;
+        this.taskExecutor = taskExecutor;
+        this.startTime = System.nanoTime();
+        this.worker = new Thread(this::run, name);
+        this.worker.setDaemon(true);
+        this.worker.start();
+    }
+
+    /**
+     * Schedules a task.
+     *
+     * @param task  the task to run
+     * @param delay the delay after which to run it; a negative delay runs it on the next tick
+     * @return the timeout, which can be cancelled until the task runs
+     * @throws IllegalStateException if the wheel has been closed
+     */
+    public Timeout schedule(Runnable task, Duration delay) {
+        if (!running) {
+            throw new IllegalStateException("Timer wheel is closed");
+        }
+        Timeout timeout = new Timeout(task, System.nanoTime() - startTime + Math.max(0L, delay.toNanos()));
+        pending.incrementAndGet();
+        scheduled.add(timeout);
+        return timeout;
+    }
+
+    /**
+     * Returns the number of timeouts that have neither run nor been cancelled.
+     *
+     * @return the number of pending timeouts
+     */
+    public long pending() {
+        return pending.get();
+    }
+
+    /**
+     * Stops the wheel. Pending timeouts are dropped.
+     */
+    @Override
+    public void close() {
+        running = false;
+        worker.interrupt();
+        try {
+            worker.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void run() {
+        long tick = 0;
+        while (running) {
+            long deadline = tickNanos * (tick + 1);
+            long sleepNanos;
+            while (running && (sleepNanos = deadline - (System.nanoTime() - startTime)) > 0) {
+                LockSupport.parkNanos(this, sleepNanos);
+            }
+            if (!running) {
+                return;
+            }
+            transferScheduled(tick);
+            wheel[(int) (tick & mask)].expire(deadline);
+            tick++;
+        }
+    }
+
+    private void transferScheduled(long tick) {
+        for (int i = 0; i < MAX_TRANSFERS_PER_TICK; i++) {
+            Timeout timeout = scheduled.poll();
+            if (timeout == null) {
+                return;
+            }
+            if (timeout.finished.get()) {
+                continue;
+            }
+            long dueTick = Math.max(timeout.deadline / tickNanos, tick);
+            timeout.remainingRounds = (dueTick - tick) / wheel.length;
+            wheel[(int) (dueTick & mask)].add(timeout);
+        }
+    }
+
+    private void runTask(Timeout timeout) {
+        try {
+            taskExecutor.execute(timeout.task);
+        } catch (RejectedExecutionException e) {
+            log.warn("Timer wheel task was rejected: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * A scheduled task.
+     */
+    public final class Timeout {
+        private final Runnable task;
+        private final long deadline;
+        private long remainingRounds;
+        private Timeout next;
+        private final AtomicBoolean finished = new AtomicBoolean();
+
+        private Timeout(Runnable task, long deadline) {
+            this.task = task;
+            this.deadline = deadline;
+        }
+
+        /**
+         * Cancels the task if it has not run yet. The timeout is dropped from its bucket on the bucket's next tick.
+         */
+        public void cancel() {
+            if (finished.compareAndSet(false, true)) {
+                pending.decrementAndGet();
+            }
+        }
+
+        private void expire() {
+            if (finished.compareAndSet(false, true)) {
+                pending.decrementAndGet();
+                runTask(this);
+            }
+        }
+    }
+
+    /**
+     * The timeouts hashed to one tick, as a singly linked list only touched by the worker thread.
+     */
+    private final class Bucket {
+        private Timeout head;
+
+        private void add(Timeout timeout) {
+            timeout.next = head;
+            head = timeout;
+        }
+
+        private void expire(long deadline) {
+            Timeout previous = null;
+            Timeout timeout = head;
+            while (timeout != null) {
+                Timeout next = timeout.next;
+                boolean due = timeout.remainingRounds <= 0 && timeout.deadline <= deadline;
+                if (due || timeout.finished.get()) {
+                    if (previous == null) {
+                        head = next;
+                    } else {
+                        previous.next = next;
+                    }
+                    timeout.next = null;
+                    timeout.expire();
+                } else {
+                    timeout.remainingRounds--;
+                    previous = timeout;
+                }
+                timeout = next;
+            }
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.mobilise.bookhub.utils;
+
+/**
+ * IsbnUtils normalizes ISBNs so that every way of writing the same book number compares equal.
+ * Hyphens and spaces are stripped, and ISBN-10s are converted to the ISBN-13 with the {@code 978} prefix that a
+ * barcode of the same book encodes.
+ *
+ * @author codecharlan
+ */
+public final class IsbnUtils {
+    private IsbnUtils() {
+    }
+
+    /**
+     * Normalizes an ISBN to its 13 digits.
+     *
+     * @param isbn the ISBN-10 or ISBN-13, with or without hyphens and spaces
+     * @return the 13 digits of the ISBN, or {@code null} if the text is not an ISBN or its check digit is wrong
+     */
+    public static String normalize(String isbn) {
+        if (isbn == null) {
+            return null;
+        }
+        StringBuilder compact = new StringBuilder(13);
+        for (int i = 0; i < isbn.length(); i++) {
+            char c = isbn.charAt(i);
+            if (c >= '0' && c <= '9') {
+                compact.append(c);
+            } else if (c == 'X' || c == 'x') {
+                compact.append('X');
+            } else if (c != '-' && c != ' ') {
+                return null;
+            }
+        }
+        String digits = compact.toString();
+        if (digits.length() == 10) {
+            return isValidIsbn10(digits) ? toIsbn13(digits.substring(0, 9)) : null;
+        }
+        if (digits.length() == 13 && digits.indexOf('X') < 0 && (digits.startsWith("978") || digits.startsWith("979"))
+                && isbn13CheckDigit(digits) == digits.charAt(12)) {
+            return digits;
+        }
+        return null;
+    }
+
+    private static boolean isValidIsbn10(String digits) {
+        int sum = 0;
+        for (int i = 0; i < 10; i++) {
+            char c = digits.charAt(i);
+            if (c == 'X' && i < 9) {
+                return false;
+            }
+            sum += (10 - i) * (c == 'X' ? 10 : c - '0');
+        }
+        return sum % 11 == 0;
+    }
+
+    private static String toIsbn13(String isbn10Body) {
+        String body = "978" + isbn10Body;
+        return body + isbn13CheckDigit(body);
+    }
+
+    /**
+     * Returns the check digit of the first 12 digits of an ISBN-13, weighted alternately by 1 and 3.
+     */
+    private static char isbn13CheckDigit(String digits) {
+        int sum = 0;
+        for (int i = 0; i < 12; i++) {
+            sum += (i % 2 == 0 ? 1 : 3) * (digits.charAt(i) - '0');
+        }
+        return (char) ('0' + (10 - sum % 10) % 10);
+    }
+}
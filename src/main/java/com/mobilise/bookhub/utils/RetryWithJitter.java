@@ -0,0 +1,77 @@
+package com.mobilise.bookhub.utils;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * RetryWithJitter re-runs an operation that lost an optimistic-locking race.
+ * Each attempt must start from a fresh read. Retries are bounded and wait a random, exponentially growing
+ * time ("full jitter"), so contending writers spread out instead of colliding again.
+ * Conflicts and retries are counted per operation as {@code bookhub.optimistic.lock.conflicts} and
+ * {@code bookhub.optimistic.lock.retries}.
+ *
+ * @author codecharlan
+ */
+@Component
+public class RetryWithJitter {
+    private final int maxAttempts;
+    private final long baseBackoffNanos;
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * Constructor for RetryWithJitter.
+     *
+     * @param maxAttempts   the maximum number of attempts, including the first one
+     * @param baseBackoff   the upper bound of the wait before the first retry; doubled for each further retry
+     * @param meterRegistry the registry the conflict and retry counters are published to
+     */
+    public RetryWithJitter(@Value("${optimistic-lock.retry.max-attempts:3}") int maxAttempts,
+                           @Value("${optimistic-lock.retry.base-backoff:10ms}") Duration baseBackoff,
+                           MeterRegistry meterRegistry) {
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.baseBackoffNanos = Math.max(1, baseBackoff.toNanos());
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Runs the operation, retrying it on {@link OptimisticLockingFailureException}.
+     *
+     * @param operation the name of the operation, used as the metrics tag
+     * @param action    the operation; must not run inside a surrounding transaction
+     * @param <T>       the result type
+     * @return the result of the first successful attempt
+     * @throws OptimisticLockingFailureException if the last attempt also conflicts
+     */
+    public <T> T run(String operation, Supplier<T> action) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return action.get();
+            } catch (OptimisticLockingFailureException e) {
+                meterRegistry.counter("bookhub.optimistic.lock.conflicts", "operation", operation).increment();
+                if (attempt >= maxAttempts) {
+                    throw e;
+                }
+                meterRegistry.counter("bookhub.optimistic.lock.retries", "operation", operation).increment();
+                backOff(attempt);
+            }
+        }
+    }
+
+    private void backOff(int attempt) {
+        long maxWaitNanos = baseBackoffNanos << Math.min(attempt - 1, 20);
+        long waitNanos = ThreadLocalRandom.current().nextLong(maxWaitNanos) + 1;
+        try {
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting to retry", e);
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.mobilise.bookhub.utils;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * TokenBucket is a lock-free token bucket implemented with the generic cell rate algorithm (GCRA).
+ * The whole bucket state is a single "theoretical arrival time" updated by compare-and-set, so acquiring a token
+ * costs one atomic read and, when allowed, one CAS.
+ *
+ * @author codecharlan
+ */
+public class TokenBucket {
+    private final long emissionIntervalNanos;
+    private final long burstNanos;
+    private final AtomicLong theoreticalArrivalTime;
+
+    /**
+     * Constructor for TokenBucket, starting full.
+     *
+     * @param capacity        the maximum number of tokens, i.e. the allowed burst
+     * @param refillPerSecond the number of tokens added per second
+     * @param nowNanos        the current {@link System#nanoTime()}
+     */
+    public TokenBucket(long capacity, double refillPerSecond, long nowNanos) {
+        if (capacity <= 0 || refillPerSecond <= 0) {
+            throw new IllegalArgumentException("Token bucket capacity and refill rate must be positive");
+        }
+        this.emissionIntervalNanos = Math.max(1L, (long) (1_000_000_000L / refillPerSecond));
+        this.burstNanos = emissionIntervalNanos * capacity;
+        this.theoreticalArrivalTime = new AtomicLong(nowNanos);
+    }
+
+    /**
+     * Takes one token if available.
+     *
+     * @param nowNanos the current {@link System#nanoTime()}
+     * @return {@code 0} if a token was taken, otherwise the nanoseconds until the next token is available
+     */
+    public long tryAcquire(long nowNanos) {
+        while (true) {
+            long arrivalTime = theoreticalArrivalTime.get();
+            long nextArrivalTime = Math.max(arrivalTime, nowNanos) + emissionIntervalNanos;
+            long allowedAt = nextArrivalTime - burstNanos;
+            if (allowedAt - nowNanos > 0) {
+                return allowedAt - nowNanos;
+            }
+            if (theoreticalArrivalTime.compareAndSet(arrivalTime, nextArrivalTime)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Checks whether the bucket has been full and unused for at least the given time, so it can be dropped
+     * and recreated full on the next request without changing any decision.
+     *
+     * @param nowNanos    the current {@link System#nanoTime()}
+     * @param idleNanos   the idle time in nanoseconds
+     * @return {@code true} if the bucket is idle
+     */
+    public boolean isIdle(long nowNanos, long idleNanos) {
+        return nowNanos - theoreticalArrivalTime.get() >= idleNanos;
+    }
+}
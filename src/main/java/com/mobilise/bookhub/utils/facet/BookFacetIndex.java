@@ -0,0 +1,383 @@
+package com.mobilise.bookhub.utils.facet;
+
+import com.mobilise.bookhub.dto.request.BookFilterDto;
+import com.mobilise.bookhub.entity.Book;
+import com.mobilise.bookhub.enums.BookStatus;
+import com.mobilise.bookhub.enums.Genre;
+import com.mobilise.bookhub.utils.inventory.BookAvailabilityChangedEvent;
+import com.mobilise.bookhub.utils.search.BookCatalog;
+import com.mobilise.bookhub.utils.search.BookChangedEvent;
+import com.mobilise.bookhub.utils.search.CatalogIndex;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.BaseUnits;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.TreeMap;
+
+/**
+ * BookFacetIndex counts the books of the catalog matching facet filters, overall and per facet value.
+ * Every genre, status, publisher, publication year and price band has a {@link CompressedBitmap} of the IDs of its
+ * books, so a filter is the union of the bitmaps of the selected values of each facet and the intersection of the
+ * facets, and a count is the cardinality of an intersection, without a {@code GROUP BY} over the books.
+ * Facet counts are multi-select: the counts of a facet apply the filters of the other facets but not its own, so
+ * they tell how many books selecting one more value of the facet would add.
+ * <p>
+ * The bitmaps are built from the {@link BookCatalog} once the application is ready, and follow every created, edited
+ * and deleted book through {@link BookChangedEvent}s, and the status of books whose copies were borrowed, returned or
+ * purchased through {@link BookAvailabilityChangedEvent}s. Until they are built, nothing can be counted.
+ *
+ * @author codecharlan
+ */
+@Slf4j
+@Component
+public class BookFacetIndex {
+    public static final String GENRE = "genre";
+    public static final String STATUS = "status";
+    public static final String PUBLISHER = "publisherId";
+    public static final String PUBLICATION_YEAR = "publicationYear";
+    public static final String PRICE = "price";
+
+    private final CatalogIndex<Facets> facets;
+    private final Timer countings;
+
+    /**
+     * The books matching a filter and, if asked for, the books per facet value.
+     *
+     * @param total  the number of matching books
+     * @param facets the number of books per value of each facet, keyed by facet name, or {@code null}
+     */
+    public record Counts(long total, Map<String, Map<String, Long>> facets) {
+    }
+
+    /**
+     * Constructor for BookFacetIndex.
+     *
+     * @param bookCatalog        the catalog the bitmaps are built from
+     * @param priceBands         the increasing prices the unit prices are banded at; the first band starts at zero
+     *                           and the last one is open
+     * @param meterRegistry      the registry the bitmap metrics are published to
+     */
+    public BookFacetIndex(BookCatalog bookCatalog,
+                          @Value("${facets.price-bands:10,25,50,100}") List<BigDecimal> priceBands,
+                          MeterRegistry meterRegistry) {
+        for (int i = 0; i < priceBands.size(); i++) {
+            if (priceBands.get(i).signum() <= 0 || i > 0 && priceBands.get(i).compareTo(priceBands.get(i - 1)) <= 0) {
+                throw new IllegalArgumentException("Price bands must be positive and increasing: " + priceBands);
+            }
+        }
+        BigDecimal[] bands = priceBands.toArray(BigDecimal[]::new);
+        this.facets = new CatalogIndex<>(bookCatalog, () -> new Facets(bands));
+        this.countings = Timer.builder("bookhub.facets.counts")
+                .description("Time taken to count the books matching facet filters")
+                .register(meterRegistry);
+        Gauge.builder("bookhub.facets.books", this, index -> index.facets.read(current -> current.all.cardinality()))
+                .description("Books in the facet bitmaps")
+                .register(meterRegistry);
+        Gauge.builder("bookhub.facets.memory", this, index -> index.facets.read(Facets::estimatedBytes))
+                .description("Estimated heap held by the facet bitmaps")
+                .baseUnit(BaseUnits.BYTES)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Builds the bitmaps from the catalog. Books changed while the catalog is read are counted as they were changed.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long read = facets.rebuild(Facets::put);
+        log.info("Built facet bitmaps for {} books", read);
+    }
+
+    /**
+     * Counts a created or edited book under its facet values, or stops counting a deleted one.
+     *
+     * @param event the change
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookChanged(BookChangedEvent event) {
+        if (event.isDeleted()) {
+            facets.apply(current -> current.remove(event.bookId()));
+        } else {
+            Book book = event.book();
+            facets.apply(current -> current.put(book));
+        }
+    }
+
+    /**
+     * Counts books whose copies changed under the status they changed to. The event carries the statuses, so
+     * nothing is read from the database.
+     *
+     * @param event the change
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAvailabilityChanged(BookAvailabilityChangedEvent event) {
+        if (event.statuses().isEmpty()) {
+            return;
+        }
+        facets.apply(current -> event.statuses().forEach(current::setStatus));
+    }
+
+    /**
+     * Returns whether the bitmaps have been built and can count books.
+     *
+     * @return {@code true} once the bitmaps have been built
+     */
+    public boolean isReady() {
+        return facets.isReady();
+    }
+
+    /**
+     * Counts the books matching a filter, and per facet value if the filter asks for it.
+     * Genres and statuses are counted for every value, publishers and publication years only for those with books,
+     * and prices per band, labelled {@code low-high} or {@code low+} for the last one.
+     *
+     * @param filter the facet filters
+     * @return the counts
+     */
+    public Counts count(BookFilterDto filter) {
+        return countings.record(() -> facets.read(current -> current.count(filter)));
+    }
+
+    /**
+     * The bitmaps of every facet value, and the facet values of every book so that changes can take them out again.
+     */
+    private static final class Facets {
+        private final BigDecimal[] priceBands;
+        private final CompressedBitmap all = new CompressedBitmap();
+        private final Map<Genre, CompressedBitmap> genres = new EnumMap<>(Genre.class);
+        private final Map<BookStatus, CompressedBitmap> statuses = new EnumMap<>(BookStatus.class);
+        private final Map<Long, CompressedBitmap> publishers = new TreeMap<>();
+        private final NavigableMap<Integer, CompressedBitmap> years = new TreeMap<>();
+        private final CompressedBitmap[] prices;
+        private final Map<Integer, Values> books = new HashMap<>();
+
+        /**
+         * The facet values of a book; any of them may be missing.
+         */
+        private record Values(Genre genre, BookStatus status, Long publisherId, Integer year, BigDecimal price) {
+        }
+
+        private Facets(BigDecimal[] priceBands) {
+            this.priceBands = priceBands;
+            this.prices = new CompressedBitmap[priceBands.length + 1];
+            for (int i = 0; i < prices.length; i++) {
+                prices[i] = new CompressedBitmap();
+            }
+        }
+
+        private void put(Book book) {
+            int id = Math.toIntExact(book.getId());
+            remove(book.getId());
+            Long publisherId = book.getPublisher() == null ? null : book.getPublisher().getId();
+            Values values = new Values(book.getGenre(), book.getStatus(), publisherId, book.getPublicationYear(),
+                    book.getUnitPriceOfBook());
+            all.add(id);
+            add(genres, values.genre(), id);
+            add(statuses, values.status(), id);
+            add(publishers, values.publisherId(), id);
+            add(years, values.year(), id);
+            if (values.price() != null) {
+                prices[band(values.price())].add(id);
+            }
+            books.put(id, values);
+        }
+
+        private void remove(long bookId) {
+            int id = Math.toIntExact(bookId);
+            Values values = books.remove(id);
+            if (values == null) {
+                return;
+            }
+            all.remove(id);
+            remove(genres, values.genre(), id);
+            remove(statuses, values.status(), id);
+            remove(publishers, values.publisherId(), id);
+            remove(years, values.year(), id);
+            if (values.price() != null) {
+                prices[band(values.price())].remove(id);
+            }
+        }
+
+        private void setStatus(long bookId, BookStatus status) {
+            int id = Math.toIntExact(bookId);
+            Values values = books.get(id);
+            if (values == null || values.status() == status) {
+                return;
+            }
+            remove(statuses, values.status(), id);
+            add(statuses, status, id);
+            books.put(id, new Values(values.genre(), status, values.publisherId(), values.year(), values.price()));
+        }
+
+        private Counts count(BookFilterDto filter) {
+            CompressedBitmap[] selections = {
+                    select(filter.genre(), genres),
+                    select(filter.status(), statuses),
+                    select(filter.publisherId(), publishers),
+                    filter.isYearFiltered() ? union(years.subMap(
+                            filter.yearFrom() == null ? Integer.MIN_VALUE : filter.yearFrom(), true,
+                            filter.yearTo() == null ? Integer.MAX_VALUE : filter.yearTo(), true).values()) : null,
+                    filter.isPriceFiltered() ? selectPrices(filter.minPrice(), filter.maxPrice()) : null
+            };
+            long total = intersect(selections, -1).cardinality();
+            if (!filter.facets()) {
+                return new Counts(total, null);
+            }
+            Map<String, Map<String, Long>> counts = new LinkedHashMap<>();
+            counts.put(GENRE, countEach(intersect(selections, 0), genres, Genre.values()));
+            counts.put(STATUS, countEach(intersect(selections, 1), statuses, BookStatus.values()));
+            counts.put(PUBLISHER, countEach(intersect(selections, 2), publishers, null));
+            counts.put(PUBLICATION_YEAR, countEach(intersect(selections, 3), years, null));
+            CompressedBitmap matchingOtherFacets = intersect(selections, 4);
+            Map<String, Long> priceCounts = new LinkedHashMap<>();
+            for (int band = 0; band < prices.length; band++) {
+                priceCounts.put(priceLabel(band), matchingOtherFacets.andCardinality(prices[band]));
+            }
+            counts.put(PRICE, priceCounts);
+            return new Counts(total, counts);
+        }
+
+        /**
+         * Returns the books of the selected values of a facet, or {@code null} if nothing is selected.
+         */
+        private static <K> CompressedBitmap select(Collection<K> selected, Map<K, CompressedBitmap> bitmaps) {
+            if (selected.isEmpty()) {
+                return null;
+            }
+            return union(selected.stream().map(bitmaps::get).filter(Objects::nonNull).toList());
+        }
+
+        /**
+         * Returns the books priced within inclusive bounds: the whole of every band within the bounds, and the books
+         * of the bands the bounds fall into whose own price is within them.
+         */
+        private CompressedBitmap selectPrices(BigDecimal minPrice, BigDecimal maxPrice) {
+            CompressedBitmap selected = new CompressedBitmap();
+            for (int band = 0; band < prices.length; band++) {
+                BigDecimal low = band == 0 ? null : priceBands[band - 1];
+                BigDecimal high = band == priceBands.length ? null : priceBands[band];
+                boolean below = minPrice != null && high != null && high.compareTo(minPrice) <= 0;
+                boolean above = maxPrice != null && low != null && low.compareTo(maxPrice) > 0;
+                if (below || above) {
+                    continue;
+                }
+                boolean fromLow = minPrice == null || low != null && low.compareTo(minPrice) >= 0;
+                boolean toHigh = maxPrice == null || high != null && high.compareTo(maxPrice) <= 0;
+                if (fromLow && toHigh) {
+                    selected = selected.or(prices[band]);
+                } else {
+                    CompressedBitmap within = selected;
+                    prices[band].forEach(id -> {
+                        BigDecimal price = books.get(id).price();
+                        if ((minPrice == null || price.compareTo(minPrice) >= 0)
+                                && (maxPrice == null || price.compareTo(maxPrice) <= 0)) {
+                            within.add(id);
+                        }
+                    });
+                }
+            }
+            return selected;
+        }
+
+        /**
+         * Returns the books matching every selection but the skipped one.
+         */
+        private CompressedBitmap intersect(CompressedBitmap[] selections, int skipped) {
+            CompressedBitmap matching = all;
+            for (int i = 0; i < selections.length; i++) {
+                if (i != skipped && selections[i] != null) {
+                    matching = matching.and(selections[i]);
+                }
+            }
+            return matching;
+        }
+
+        /**
+         * Counts the matching books of every value of a facet, or of every value with books if no values are given.
+         */
+        private static <K> Map<String, Long> countEach(CompressedBitmap matching, Map<K, CompressedBitmap> bitmaps,
+                                                       K[] values) {
+            Map<String, Long> counts = new LinkedHashMap<>();
+            if (values != null) {
+                for (K value : values) {
+                    CompressedBitmap bitmap = bitmaps.get(value);
+                    counts.put(value.toString(), bitmap == null ? 0L : matching.andCardinality(bitmap));
+                }
+            } else {
+                bitmaps.forEach((value, bitmap) -> {
+                    long count = matching.andCardinality(bitmap);
+                    if (count > 0) {
+                        counts.put(value.toString(), count);
+                    }
+                });
+            }
+            return counts;
+        }
+
+        private int band(BigDecimal price) {
+            int band = 0;
+            while (band < priceBands.length && price.compareTo(priceBands[band]) >= 0) {
+                band++;
+            }
+            return band;
+        }
+
+        private String priceLabel(int band) {
+            String low = band == 0 ? "0" : priceBands[band - 1].toPlainString();
+            return band == priceBands.length ? low + "+" : low + "-" + priceBands[band].toPlainString();
+        }
+
+        private long estimatedBytes() {
+            long bytes = all.estimatedBytes();
+            for (Map<?, CompressedBitmap> bitmaps : List.of(genres, statuses, publishers, years)) {
+                for (CompressedBitmap bitmap : bitmaps.values()) {
+                    bytes += bitmap.estimatedBytes();
+                }
+            }
+            for (CompressedBitmap bitmap : prices) {
+                bytes += bitmap.estimatedBytes();
+            }
+            return bytes;
+        }
+
+        private static CompressedBitmap union(Collection<CompressedBitmap> bitmaps) {
+            CompressedBitmap union = new CompressedBitmap();
+            for (CompressedBitmap bitmap : bitmaps) {
+                union = union.or(bitmap);
+            }
+            return union;
+        }
+
+        private static <K> void add(Map<K, CompressedBitmap> bitmaps, K value, int id) {
+            if (value != null) {
+                bitmaps.computeIfAbsent(value, key -> new CompressedBitmap()).add(id);
+            }
+        }
+
+        /**
+         * Takes a book out of the bitmap of a value, dropping the bitmap once the value has no books.
+         */
+        private static <K> void remove(Map<K, CompressedBitmap> bitmaps, K value, int id) {
+            CompressedBitmap bitmap = value == null ? null : bitmaps.get(value);
+            if (bitmap != null && bitmap.remove(id) && bitmap.isEmpty()) {
+                bitmaps.remove(value);
+            }
+        }
+    }
+}
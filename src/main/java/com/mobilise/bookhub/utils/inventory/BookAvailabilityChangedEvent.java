@@ -0,0 +1,17 @@
+package com.mobilise.bookhub.utils.inventory;
+
+import com.mobilise.bookhub.enums.BookStatus;
+
+import java.util.Map;
+
+/**
+ * Published when a borrow, return or purchase may have changed the status of books in the database, so the in-memory
+ * indexes over the catalog can count them under their new status without reading it.
+ * Changes that leave a book available, e.g. a borrow with copies left on the shelf, are not published.
+ * Listeners receive it after the change has committed, or immediately when it was made outside a transaction.
+ *
+ * @param statuses the status of each book after the change, by book ID
+ * @author codecharlan
+ */
+public record BookAvailabilityChangedEvent(Map<Long, BookStatus> statuses) {
+}
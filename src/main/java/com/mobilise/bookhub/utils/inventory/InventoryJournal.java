@@ -0,0 +1,246 @@
+package com.mobilise.bookhub.utils.inventory;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only journal of inventory changes, written as numbered segment files in one directory.
+ * Every record is the change ({@code delta}) of one book's available and borrowed copies, so records can be
+ * summed in any order. A segment is closed by {@link #rotate()} and deleted once its changes are stored in
+ * the database; the segments still on disk at startup are the changes that must be replayed.
+ * Each record carries a CRC32, and replay stops at the first torn or corrupt record of a segment.
+ *
+ * @author codecharlan
+ * @version 1.0.0
+ */
+@Slf4j
+public class InventoryJournal implements AutoCloseable {
+    private static final Pattern SEGMENT_NAME = Pattern.compile("segment-(\\d{20})\\.log");
+    /**
+     * bookId (8), available delta (4), borrowed delta (4), CRC32 of the preceding 16 bytes (4).
+     */
+    static final int RECORD_SIZE = 20;
+
+    private final Path directory;
+    /**
+     * Whether every append is forced to the storage device before it is acknowledged.
+     */
+    private final boolean syncOnWrite;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(RECORD_SIZE);
+    private final CRC32 crc = new CRC32();
+    private FileChannel channel;
+    private long segment;
+
+    /**
+     * Opens the journal in a directory, starting a new segment after the ones already on disk.
+     *
+     * @param directory   the directory holding the segment files
+     * @param syncOnWrite whether every append is forced to the storage device
+     * @throws UncheckedIOException if the directory or the new segment cannot be created
+     */
+    public InventoryJournal(Path directory, boolean syncOnWrite) {
+        this.directory = directory;
+        this.syncOnWrite = syncOnWrite;
+        try {
+            Files.createDirectories(directory);
+            List<Long> existing = segments();
+            this.segment = existing.isEmpty() ? 0 : existing.get(existing.size() - 1);
+            openNextSegment();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open inventory journal in " + directory, e);
+        }
+    }
+
+    /**
+     * Appends one change to the current segment.
+     *
+     * @param bookId         the ID of the book
+     * @param availableDelta the change of available copies
+     * @param borrowedDelta  the change of borrowed copies
+     * @throws UncheckedIOException if the record cannot be written
+     */
+    public synchronized void append(long bookId, int availableDelta, int borrowedDelta) {
+        buffer.clear();
+        buffer.putLong(bookId).putInt(availableDelta).putInt(borrowedDelta);
+        crc.reset();
+        buffer.flip();
+        crc.update(buffer);
+        buffer.limit(RECORD_SIZE);
+        buffer.putInt(16, (int) crc.getValue());
+        buffer.position(0);
+        try {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            if (syncOnWrite) {
+                channel.force(false);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot append to inventory journal segment " + segment, e);
+        }
+    }
+
+    /**
+     * Closes the current segment and starts the next one. Changes appended afterwards go to the new segment.
+     *
+     * @return the number of the closed segment
+     * @throws UncheckedIOException if the segments cannot be switched
+     */
+    public synchronized long rotate() {
+        long closed = segment;
+        try {
+            channel.force(false);
+            channel.close();
+            openNextSegment();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot rotate inventory journal segment " + closed, e);
+        }
+        return closed;
+    }
+
+    /**
+     * Makes sure new segments are numbered after a checkpoint, e.g. when the journal directory was emptied while
+     * the database kept its checkpoint. Must be called before the first append.
+     *
+     * @param checkpoint the last segment stored in the database
+     * @throws UncheckedIOException if the segments cannot be switched
+     */
+    public synchronized void startAfter(long checkpoint) {
+        if (segment > checkpoint) {
+            return;
+        }
+        try {
+            channel.close();
+            Files.deleteIfExists(segmentPath(segment));
+            segment = checkpoint;
+            openNextSegment();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot start inventory journal after segment " + checkpoint, e);
+        }
+    }
+
+    /**
+     * @return the number of the last closed segment, or {@code 0} if none was closed
+     */
+    public synchronized long lastClosedSegment() {
+        return segment - 1;
+    }
+
+    /**
+     * Sums the changes of all closed segments after a checkpoint, per book.
+     *
+     * @param afterSegment the last segment already stored in the database
+     * @return the summed {@code {available, borrowed}} changes by book ID
+     * @throws UncheckedIOException if a segment cannot be read
+     */
+    public synchronized Map<Long, long[]> replay(long afterSegment) {
+        Map<Long, long[]> changes = new HashMap<>();
+        for (long closed : segments()) {
+            if (closed <= afterSegment || closed == segment) {
+                continue;
+            }
+            readSegment(closed, changes);
+        }
+        return changes;
+    }
+
+    /**
+     * Deletes the closed segments up to and including a checkpoint.
+     *
+     * @param upToSegment the last segment stored in the database
+     */
+    public synchronized void deleteUpTo(long upToSegment) {
+        for (long closed : segments()) {
+            if (closed <= upToSegment && closed != segment) {
+                try {
+                    Files.deleteIfExists(segmentPath(closed));
+                } catch (IOException e) {
+                    log.warn("Cannot delete inventory journal segment {}: {}", closed, e.getMessage());
+                }
+            }
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        try {
+            channel.force(false);
+            channel.close();
+        } catch (IOException e) {
+            log.warn("Cannot close inventory journal segment {}: {}", segment, e.getMessage());
+        }
+    }
+
+    private void openNextSegment() throws IOException {
+        segment++;
+        channel = FileChannel.open(segmentPath(segment),
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    private void readSegment(long closed, Map<Long, long[]> changes) {
+        ByteBuffer record = ByteBuffer.allocate(RECORD_SIZE);
+        CRC32 checksum = new CRC32();
+        try (FileChannel in = FileChannel.open(segmentPath(closed), StandardOpenOption.READ)) {
+            while (true) {
+                record.clear();
+                while (record.hasRemaining()) {
+                    if (in.read(record) < 0) {
+                        break;
+                    }
+                }
+                if (record.hasRemaining()) {
+                    if (record.position() > 0) {
+                        log.warn("Ignoring torn record at the end of inventory journal segment {}", closed);
+                    }
+                    return;
+                }
+                checksum.reset();
+                checksum.update(record.array(), 0, 16);
+                if ((int) checksum.getValue() != record.getInt(16)) {
+                    log.warn("Ignoring corrupt record and the rest of inventory journal segment {}", closed);
+                    return;
+                }
+                long[] change = changes.computeIfAbsent(record.getLong(0), id -> new long[2]);
+                change[0] += record.getInt(8);
+                change[1] += record.getInt(12);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read inventory journal segment " + closed, e);
+        }
+    }
+
+    private List<Long> segments() {
+        List<Long> numbers = new ArrayList<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            files.forEach(file -> {
+                Matcher matcher = SEGMENT_NAME.matcher(file.getFileName().toString());
+                if (matcher.matches()) {
+                    numbers.add(Long.parseLong(matcher.group(1)));
+                }
+            });
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot list inventory journal segments in " + directory, e);
+        }
+        numbers.sort(null);
+        return numbers;
+    }
+
+    private Path segmentPath(long number) {
+        return directory.resolve(String.format("segment-%020d.log", number));
+    }
+}
@@ -0,0 +1,511 @@
+package com.mobilise.bookhub.utils.inventory;
+
+import com.mobilise.bookhub.dto.response.BookResponseDto;
+import com.mobilise.bookhub.entity.InventoryCheckpoint;
+import com.mobilise.bookhub.enums.BookStatus;
+import com.mobilise.bookhub.enums.TransactionType;
+import com.mobilise.bookhub.repository.InventoryCheckpointRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.ApplicationEventPublisherAware;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory inventory engine for titles with many concurrent borrowers and purchasers.
+ * Each book's available and borrowed copies are kept in one {@link AtomicLong} and changed by compare-and-set,
+ * so copies are granted or denied without touching the database. Every committed change is appended to an
+ * {@link InventoryJournal}, and the summed changes are written to the {@code book} table in one batch per flush.
+ * On startup the journal segments not yet stored are replayed into the table.
+ * <p>
+ * Within a transaction, decreases (copies taken) are reserved in the counters immediately, so no other request
+ * can take the same copies, but the whole change is only journaled once the transaction has committed and the
+ * increases (copies given back) are only applied then. A rollback releases the reservation and journals nothing,
+ * so the journal only ever holds changes whose transactions committed, and recovery never replays a borrow or
+ * purchase that has no {@code Transaction} row.
+ * Books whose status was set by an administrator while copies are on the shelf are not managed here and keep
+ * using the conditional updates of {@link com.mobilise.bookhub.utils.BookUtils}.
+ * <p>
+ * The counters are local to this instance: enable the ledger only when a single instance serves the books,
+ * and {@link #evict(Long) evict} a book before and after editing it.
+ *
+ * @author codecharlan
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "inventory.ledger", name = "enabled", havingValue = "true")
+public class InventoryLedger implements ApplicationEventPublisherAware {
+    private static final String LOAD_BOOK_SQL = "select total_copies, borrowed_copies, status from book where id = ?";
+    /**
+     * The status is set first, from the values before the change, matching the repository's conditional updates.
+     */
+    private static final String APPLY_CHANGE_SQL = "update book set "
+            + "status = case when total_copies + ? > 0 then 'AVAILABLE' "
+            + "when coalesce(borrowed_copies, 0) + ? > 0 then 'BORROWED' else 'SOLD_OUT' end, "
+            + "total_copies = total_copies + ?, "
+            + "borrowed_copies = coalesce(borrowed_copies, 0) + ?, "
+            + "version = coalesce(version, 0) + 1 "
+            + "where id = ?";
+    /**
+     * Returned by {@link #change} when a change is refused.
+     */
+    private static final Entry DENIED = new Entry(0);
+
+    private final InventoryCheckpointRepository checkpointRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    /**
+     * Used after the caller's transaction has completed, when its resources are still bound to the thread.
+     */
+    private final TransactionTemplate separateTransaction;
+    private final InventoryJournal journal;
+    private final Map<Long, Entry> entries = new ConcurrentHashMap<>();
+    /**
+     * Changes hold the read lock; a flush holds the write lock while it closes a journal segment and drains the
+     * pending changes, so the drained changes are exactly those of the closed segments.
+     */
+    private final ReentrantReadWriteLock segmentLock = new ReentrantReadWriteLock();
+    private final Object flushLock = new Object();
+    private final Counter grants;
+    private final Counter denials;
+    private final Timer flushes;
+    private ApplicationEventPublisher eventPublisher;
+
+    /**
+     * Constructor for InventoryLedger.
+     *
+     * @param checkpointRepository the last journal segment stored in the database
+     * @param jdbcTemplate         the template used to load books and write batched changes
+     * @param transactionManager   the transaction manager the batches are written with
+     * @param journalDirectory     the directory of the journal segments
+     * @param syncOnWrite          whether every journal append is forced to the storage device
+     * @param meterRegistry        the registry the ledger metrics are published to
+     */
+    public InventoryLedger(InventoryCheckpointRepository checkpointRepository, JdbcTemplate jdbcTemplate,
+                           PlatformTransactionManager transactionManager,
+                           @Value("${inventory.ledger.journal-directory:data/inventory-journal}") Path journalDirectory,
+                           @Value("${inventory.ledger.sync-on-write:false}") boolean syncOnWrite,
+                           MeterRegistry meterRegistry) {
+        this.checkpointRepository = checkpointRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.separateTransaction = new TransactionTemplate(transactionManager);
+        this.separateTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.journal = new InventoryJournal(journalDirectory, syncOnWrite);
+        this.grants = Counter.builder("bookhub.inventory.ledger.requests").tag("outcome", "granted")
+                .description("Inventory changes decided by the in-memory ledger")
+                .register(meterRegistry);
+        this.denials = Counter.builder("bookhub.inventory.ledger.requests").tag("outcome", "denied")
+                .description("Inventory changes decided by the in-memory ledger")
+                .register(meterRegistry);
+        this.flushes = Timer.builder("bookhub.inventory.ledger.flush")
+                .description("Time taken to write the pending inventory changes to the book table")
+                .register(meterRegistry);
+        Gauge.builder("bookhub.inventory.ledger.books", entries, Map::size)
+                .description("Books whose inventory is held by the ledger")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Sets the publisher the statuses of the books stored by a flush are announced with.
+     *
+     * @param eventPublisher the publisher of {@link BookAvailabilityChangedEvent}s
+     */
+    @Override
+    public void setApplicationEventPublisher(ApplicationEventPublisher eventPublisher) {
+        this.eventPublisher = eventPublisher;
+    }
+
+    /**
+     * Replays the journal segments that were not stored in the database before the last shutdown.
+     */
+    @PostConstruct
+    public void recover() {
+        long checkpoint = checkpointRepository.findById(InventoryCheckpoint.ID)
+                .map(InventoryCheckpoint::getLastAppliedSegment)
+                .orElse(0L);
+        journal.startAfter(checkpoint);
+        long lastClosedSegment = journal.lastClosedSegment();
+        if (lastClosedSegment <= checkpoint) {
+            journal.deleteUpTo(lastClosedSegment);
+            return;
+        }
+        List<Object[]> batch = new ArrayList<>();
+        journal.replay(checkpoint).forEach((bookId, change) -> {
+            if (change[0] != 0 || change[1] != 0) {
+                batch.add(changeRow(bookId, change[0], change[1]));
+            }
+        });
+        store(lastClosedSegment, batch);
+        journal.deleteUpTo(lastClosedSegment);
+        log.info("Recovered {} inventory changes from journal segments {} to {}", batch.size(), checkpoint + 1, lastClosedSegment);
+    }
+
+    /**
+     * Grants or denies a change of a book's copies.
+     *
+     * @param bookId the ID of the book
+     * @param count  the number of copies to borrow, return or purchase
+     * @param action the type of transaction
+     * @return whether the change was granted, or {@code null} if the book is not managed by the ledger
+     * @throws IllegalArgumentException if the transaction type is invalid
+     * @throws UncheckedIOException     if the change of a caller without a transaction cannot be journaled; it is
+     *                                  not applied then
+     */
+    public Boolean apply(Long bookId, int count, TransactionType action) {
+        int availableDelta;
+        int borrowedDelta;
+        switch (action) {
+            case BORROW -> {
+                availableDelta = -count;
+                borrowedDelta = count;
+            }
+            case RETURN -> {
+                availableDelta = count;
+                borrowedDelta = -count;
+            }
+            case PURCHASE -> {
+                availableDelta = -count;
+                borrowedDelta = 0;
+            }
+            default -> throw new IllegalArgumentException("Invalid Transaction Type");
+        }
+        int availableTaken = Math.min(availableDelta, 0);
+        int borrowedTaken = Math.min(borrowedDelta, 0);
+        boolean inTransaction = TransactionSynchronizationManager.isSynchronizationActive();
+        Entry entry = inTransaction
+                ? change(bookId, availableTaken, borrowedTaken, true, false)
+                : change(bookId, availableDelta, borrowedDelta, true, true);
+        if (entry == null) {
+            return null;
+        }
+        if (entry == DENIED) {
+            denials.increment();
+            return false;
+        }
+        grants.increment();
+        if (!inTransaction) {
+            return true;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                commit(bookId, entry, availableDelta, borrowedDelta, availableTaken, borrowedTaken);
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    release(bookId, entry, availableTaken, borrowedTaken);
+                }
+            }
+        });
+        return true;
+    }
+
+    /**
+     * Replaces a book's copies and status with the ledger's counts, which may be newer than the database
+     * until the next flush.
+     *
+     * @param book the book read from the database
+     * @return the book with current counts, or the same book if the ledger does not hold it
+     */
+    public BookResponseDto applyCurrentAvailability(BookResponseDto book) {
+        Entry entry = book.id() == null ? null : entries.get(book.id());
+        if (entry == null) {
+            return book;
+        }
+        long state = entry.state.get();
+        return book.toBuilder()
+                .totalCopies((long) available(state))
+                .borrowedCopies((long) borrowed(state))
+                .status(status(state))
+                .build();
+    }
+
+    /**
+     * Writes the pending changes to the database and drops a book from the ledger, so its next change reloads it.
+     * Changes of the book wait until its pending changes are stored.
+     *
+     * @param bookId the ID of the book
+     */
+    public void evict(Long bookId) {
+        flush(bookId);
+    }
+
+    /**
+     * Writes the pending changes of all books to the database in one batch.
+     */
+    @Scheduled(fixedDelayString = "${inventory.ledger.flush-interval:PT1S}")
+    public void flush() {
+        flush(null);
+    }
+
+    /**
+     * Stores the pending changes and closes the journal.
+     */
+    @PreDestroy
+    public void shutdown() {
+        flush();
+        journal.close();
+    }
+
+    private void flush(Long evictedBookId) {
+        synchronized (flushLock) {
+            ReentrantReadWriteLock.WriteLock writeLock = segmentLock.writeLock();
+            writeLock.lock();
+            boolean locked = true;
+            try {
+                List<Entry> drained = new ArrayList<>();
+                Map<Long, BookStatus> drainedStatuses = new HashMap<>();
+                List<Object[]> batch = new ArrayList<>();
+                for (Map.Entry<Long, Entry> each : entries.entrySet()) {
+                    Entry entry = each.getValue();
+                    long availableDelta = entry.pendingAvailable.getAndSet(0);
+                    long borrowedDelta = entry.pendingBorrowed.getAndSet(0);
+                    entry.drainedAvailable = availableDelta;
+                    entry.drainedBorrowed = borrowedDelta;
+                    if (availableDelta != 0 || borrowedDelta != 0) {
+                        drained.add(entry);
+                        drainedStatuses.put(each.getKey(), status(entry.state.get()));
+                        batch.add(changeRow(each.getKey(), availableDelta, borrowedDelta));
+                    }
+                }
+                Entry evicted = evictedBookId == null ? null : entries.remove(evictedBookId);
+                if (batch.isEmpty()) {
+                    return;
+                }
+                long segment = journal.rotate();
+                if (evicted == null) {
+                    writeLock.unlock();
+                    locked = false;
+                }
+                Timer.Sample sample = Timer.start();
+                try {
+                    store(segment, batch);
+                } catch (RuntimeException e) {
+                    for (Entry entry : drained) {
+                        entry.pendingAvailable.addAndGet(entry.drainedAvailable);
+                        entry.pendingBorrowed.addAndGet(entry.drainedBorrowed);
+                    }
+                    if (evicted != null) {
+                        entries.put(evictedBookId, evicted);
+                    }
+                    log.error("Error storing inventory changes of journal segment {}: {}", segment, e.getMessage());
+                    throw e;
+                } finally {
+                    sample.stop(flushes);
+                }
+                journal.deleteUpTo(segment);
+                if (eventPublisher != null) {
+                    eventPublisher.publishEvent(new BookAvailabilityChangedEvent(drainedStatuses));
+                }
+            } finally {
+                if (locked) {
+                    writeLock.unlock();
+                }
+            }
+        }
+    }
+
+    private void store(long segment, List<Object[]> batch) {
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.batchUpdate(APPLY_CHANGE_SQL, batch);
+            checkpointRepository.save(new InventoryCheckpoint(InventoryCheckpoint.ID, segment));
+        });
+    }
+
+    /**
+     * Applies a change to a book's counters and, if asked for, journals it.
+     *
+     * @param checked   whether the change is refused when a counter would go negative
+     * @param journaled whether the change is journaled and stored by a flush, or only reserved in the counters
+     *                  until its transaction commits
+     * @return the book's entry if the change was applied, {@link #DENIED} if it was refused, or {@code null} if
+     * the book is not managed by the ledger
+     */
+    private Entry change(Long bookId, int availableDelta, int borrowedDelta, boolean checked, boolean journaled) {
+        segmentLock.readLock().lock();
+        try {
+            Entry entry = entries.get(bookId);
+            if (entry == null) {
+                entry = load(bookId);
+                if (entry == null) {
+                    if (!checked && (availableDelta != 0 || borrowedDelta != 0)) {
+                        // the book stopped being managed, e.g. after an edit: store the change in the table
+                        separateTransaction.executeWithoutResult(status ->
+                                jdbcTemplate.update(APPLY_CHANGE_SQL, changeRow(bookId, availableDelta, borrowedDelta)));
+                    }
+                    return null;
+                }
+            }
+            if (availableDelta == 0 && borrowedDelta == 0) {
+                return entry;
+            }
+            long current;
+            long next;
+            do {
+                current = entry.state.get();
+                long available = (long) available(current) + availableDelta;
+                long borrowed = (long) borrowed(current) + borrowedDelta;
+                if (checked && (available < 0 || borrowed < 0)) {
+                    return DENIED;
+                }
+                next = pack(available, borrowed);
+            } while (!entry.state.compareAndSet(current, next));
+            if (journaled) {
+                try {
+                    journal.append(bookId, availableDelta, borrowedDelta);
+                } catch (UncheckedIOException e) {
+                    undo(entry, availableDelta, borrowedDelta);
+                    throw e;
+                }
+                entry.pendingAvailable.addAndGet(availableDelta);
+                entry.pendingBorrowed.addAndGet(borrowedDelta);
+            }
+            return entry;
+        } finally {
+            segmentLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Completes the change of a committed transaction: gives back the copies it returned and journals the whole
+     * change. Should the book have been evicted since its copies were reserved, the reservation went with it and
+     * the whole change is applied to the book as it is now.
+     * The transaction has committed, so a change that cannot be journaled is still stored by the next flush.
+     */
+    private void commit(Long bookId, Entry reserved, int availableDelta, int borrowedDelta,
+                        int availableTaken, int borrowedTaken) {
+        segmentLock.readLock().lock();
+        try {
+            if (entries.get(bookId) == reserved) {
+                undo(reserved, availableTaken - availableDelta, borrowedTaken - borrowedDelta);
+                try {
+                    journal.append(bookId, availableDelta, borrowedDelta);
+                } catch (UncheckedIOException e) {
+                    log.error("Error journaling the committed inventory change of book {}: {}", bookId, e.getMessage());
+                }
+                reserved.pendingAvailable.addAndGet(availableDelta);
+                reserved.pendingBorrowed.addAndGet(borrowedDelta);
+                return;
+            }
+        } finally {
+            segmentLock.readLock().unlock();
+        }
+        change(bookId, availableDelta, borrowedDelta, false, true);
+    }
+
+    /**
+     * Releases the copies reserved by a rolled-back transaction. Nothing was journaled, so nothing is stored.
+     */
+    private void release(Long bookId, Entry reserved, int availableTaken, int borrowedTaken) {
+        segmentLock.readLock().lock();
+        try {
+            if (entries.get(bookId) == reserved) {
+                undo(reserved, availableTaken, borrowedTaken);
+            }
+        } finally {
+            segmentLock.readLock().unlock();
+        }
+    }
+
+    private void undo(Entry entry, int availableDelta, int borrowedDelta) {
+        long current;
+        do {
+            current = entry.state.get();
+        } while (!entry.state.compareAndSet(current, pack((long) available(current) - availableDelta,
+                (long) borrowed(current) - borrowedDelta)));
+    }
+
+    /**
+     * Loads a book's copies into the ledger; must be called under the read lock, so an eviction's pending
+     * changes are stored before the book is read again.
+     */
+    private Entry load(Long bookId) {
+        List<Entry> loaded = jdbcTemplate.query(LOAD_BOOK_SQL, (resultSet, rowNumber) -> {
+            long totalCopies = resultSet.getLong("total_copies");
+            long borrowedCopies = resultSet.getLong("borrowed_copies");
+            BookStatus status = BookStatus.valueOf(resultSet.getString("status"));
+            boolean manageable = (status == BookStatus.AVAILABLE || totalCopies == 0)
+                    && totalCopies <= Integer.MAX_VALUE && borrowedCopies <= Integer.MAX_VALUE;
+            return manageable ? new Entry(pack(totalCopies, borrowedCopies)) : null;
+        }, bookId);
+        if (loaded.isEmpty() || loaded.get(0) == null) {
+            return null;
+        }
+        return entries.computeIfAbsent(bookId, id -> loaded.get(0));
+    }
+
+    private static Object[] changeRow(Long bookId, long availableDelta, long borrowedDelta) {
+        return new Object[]{availableDelta, borrowedDelta, availableDelta, borrowedDelta, bookId};
+    }
+
+    /**
+     * The status the book table derives from a book's copies when its changes are stored, see {@code APPLY_CHANGE_SQL}.
+     */
+    private static BookStatus status(long state) {
+        return available(state) > 0 ? BookStatus.AVAILABLE
+                : borrowed(state) > 0 ? BookStatus.BORROWED : BookStatus.SOLD_OUT;
+    }
+
+    private static long pack(long available, long borrowed) {
+        return available << 32 | borrowed;
+    }
+
+    private static int available(long state) {
+        return (int) (state >>> 32);
+    }
+
+    private static int borrowed(long state) {
+        return (int) state;
+    }
+
+    /**
+     * One book held by the ledger.
+     */
+    private static final class Entry {
+        /**
+         * Available copies in the high 32 bits, borrowed copies in the low 32 bits.
+         */
+        private final AtomicLong state;
+        /**
+         * Changes journaled but not yet stored in the database.
+         */
+        private final AtomicLong pendingAvailable = new AtomicLong();
+        private final AtomicLong pendingBorrowed = new AtomicLong();
+        /**
+         * Changes taken by the running flush, given back if it fails; only accessed by the flushing thread.
+         */
+        private long drainedAvailable;
+        private long drainedBorrowed;
+
+        private Entry(long state) {
+            this.state = new AtomicLong(state);
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.mobilise.bookhub.utils.search;
+
+import com.mobilise.bookhub.entity.Book;
+import com.mobilise.bookhub.repository.BookRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * BookCatalog reads the whole catalog for the in-memory indexes to be built from.
+ * Books are read in pages by ID, each in its own read-only transaction, so a large catalog is never held at once
+ * and the associations of each page can still be loaded.
+ *
+ * @author codecharlan
+ */
+@Component
+public class BookCatalog {
+    private final BookRepository bookRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+
+    /**
+     * Constructor for BookCatalog.
+     *
+     * @param bookRepository     the books
+     * @param transactionManager the transaction manager each page is read in
+     * @param batchSize          the number of books read per page
+     */
+    public BookCatalog(BookRepository bookRepository, PlatformTransactionManager transactionManager,
+                       @Value("${search.catalog.batch-size:1000}") int batchSize) {
+        this.bookRepository = bookRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Passes every book to a consumer, in increasing ID, inside the transaction the book was read in.
+     *
+     * @param consumer receives each book
+     * @return the number of books read
+     */
+    public long forEach(Consumer<Book> consumer) {
+        long afterId = 0L;
+        long read = 0L;
+        List<Book> page;
+        do {
+            long from = afterId;
+            page = transactionTemplate.execute(status -> {
+                List<Book> books = bookRepository.findByIdGreaterThanOrderByIdAsc(from, Limit.of(batchSize));
+                books.forEach(consumer);
+                return books;
+            });
+            read += page.size();
+            if (!page.isEmpty()) {
+                afterId = page.get(page.size() - 1).getId();
+            }
+        } while (page.size() == batchSize);
+        return read;
+    }
+}
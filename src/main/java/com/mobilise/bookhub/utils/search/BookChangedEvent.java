@@ -0,0 +1,43 @@
+package com.mobilise.bookhub.utils.search;
+
+import com.mobilise.bookhub.entity.Book;
+
+/**
+ * Published when a book is created, edited or deleted, so the in-memory indexes over the catalog can follow.
+ * Listeners receive it after the change has committed, or immediately when it was made outside a transaction.
+ *
+ * @param bookId the ID of the book
+ * @param book   the saved book, or {@code null} if it was deleted
+ * @author codecharlan
+ */
+public record BookChangedEvent(Long bookId, Book book) {
+
+    /**
+     * Creates the event of a created or edited book.
+     *
+     * @param book the saved book
+     * @return the event
+     */
+    public static BookChangedEvent saved(Book book) {
+        return new BookChangedEvent(book.getId(), book);
+    }
+
+    /**
+     * Creates the event of a deleted book.
+     *
+     * @param bookId the ID of the deleted book
+     * @return the event
+     */
+    public static BookChangedEvent deleted(Long bookId) {
+        return new BookChangedEvent(bookId, null);
+    }
+
+    /**
+     * Returns whether the book was deleted.
+     *
+     * @return {@code true} if the book was deleted
+     */
+    public boolean isDeleted() {
+        return book == null;
+    }
+}
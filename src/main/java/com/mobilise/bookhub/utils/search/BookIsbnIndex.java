@@ -0,0 +1,140 @@
+package com.mobilise.bookhub.utils.search;
+
+import com.mobilise.bookhub.entity.Book;
+import com.mobilise.bookhub.utils.IsbnUtils;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * BookIsbnIndex resolves scanned ISBNs to books without a database round trip.
+ * Every book with a valid ISBN is kept in a hash map under its normalized ISBN, see {@link IsbnUtils#normalize}, so
+ * an ISBN-10 and the ISBN-13 of the same book, with or without hyphens, resolve to the same book.
+ * <p>
+ * The map is built from the {@link BookCatalog} once the application is ready, and follows every created, edited and
+ * deleted book through {@link BookChangedEvent}s. Until it is built, nothing is resolved. Should several books share an
+ * ISBN, as books saved before ISBNs were normalized may, the one with the lowest ID is resolved.
+ *
+ * @author codecharlan
+ */
+@Slf4j
+@Component
+public class BookIsbnIndex {
+    private final CatalogIndex<Isbns> isbns;
+
+    /**
+     * Constructor for BookIsbnIndex.
+     *
+     * @param bookCatalog   the catalog the map is built from
+     * @param meterRegistry the registry the map metrics are published to
+     */
+    public BookIsbnIndex(BookCatalog bookCatalog, MeterRegistry meterRegistry) {
+        this.isbns = new CatalogIndex<>(bookCatalog, Isbns::new);
+        Gauge.builder("bookhub.isbn.index.books", this, BookIsbnIndex::size)
+                .description("Books resolvable by their ISBN")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Builds the map from the catalog. Books changed while the catalog is read are resolved as they were changed.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long read = isbns.rebuild(Isbns::put);
+        log.info("Mapped the ISBNs of {} of {} books", size(), read);
+    }
+
+    /**
+     * Maps the ISBN of a created or edited book, or unmaps a deleted one.
+     *
+     * @param event the change
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookChanged(BookChangedEvent event) {
+        isbns.apply(current -> current.apply(event));
+    }
+
+    /**
+     * Returns whether the map has been built and can resolve ISBNs.
+     *
+     * @return {@code true} once the map has been built
+     */
+    public boolean isReady() {
+        return isbns.isReady();
+    }
+
+    /**
+     * Resolves a normalized ISBN to a book.
+     *
+     * @param normalizedIsbn the 13 digits of the ISBN
+     * @return the ID of the book, or {@code null} if no book has the ISBN
+     */
+    public Long find(String normalizedIsbn) {
+        return isbns.read(current -> current.bookIds.get(normalizedIsbn));
+    }
+
+    private int size() {
+        return isbns.read(current -> current.bookIds.size());
+    }
+
+    /**
+     * The books by normalized ISBN, and the normalized ISBN of every book so that changes can unmap it again.
+     */
+    private static final class Isbns {
+        private final Map<String, Long> bookIds = new HashMap<>();
+        private final Map<Long, String> isbnsByBook = new HashMap<>();
+        /**
+         * The books of the ISBNs shared by several books, so that another one is resolved when one goes.
+         */
+        private final Map<String, TreeSet<Long>> sharedIsbns = new HashMap<>();
+
+        private void apply(BookChangedEvent event) {
+            if (event.isDeleted()) {
+                remove(event.bookId());
+            } else {
+                put(event.book());
+            }
+        }
+
+        private void put(Book book) {
+            remove(book.getId());
+            String isbn = IsbnUtils.normalize(book.getIsbn());
+            if (isbn == null) {
+                return;
+            }
+            isbnsByBook.put(book.getId(), isbn);
+            Long sharedWith = bookIds.putIfAbsent(isbn, book.getId());
+            if (sharedWith != null) {
+                TreeSet<Long> books = sharedIsbns.computeIfAbsent(isbn, key -> new TreeSet<>(List.of(sharedWith)));
+                books.add(book.getId());
+                bookIds.put(isbn, books.first());
+            }
+        }
+
+        private void remove(Long bookId) {
+            String isbn = isbnsByBook.remove(bookId);
+            if (isbn == null) {
+                return;
+            }
+            TreeSet<Long> books = sharedIsbns.get(isbn);
+            if (books == null) {
+                bookIds.remove(isbn);
+                return;
+            }
+            books.remove(bookId);
+            bookIds.put(isbn, books.first());
+            if (books.size() == 1) {
+                sharedIsbns.remove(isbn);
+            }
+        }
+    }
+}
@@ -0,0 +1,234 @@
+package com.mobilise.bookhub.utils.search;
+
+import com.mobilise.bookhub.entity.Author;
+import com.mobilise.bookhub.entity.Book;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * BookSearchIndex serves full-text searches over the catalog from memory.
+ * Every book is indexed under the terms of its title, author, co-authors, description and ISBN, each field
+ * weighted by how much a match in it says about the book, and searches are ranked with BM25 by an
+ * {@link InvertedIndex}. The index is built from the {@link BookCatalog} once the application is ready and follows
+ * every created, edited and deleted book through {@link BookChangedEvent}s; until it is built, {@link #isReady()}
+ * is {@code false} and searches are served by the database.
+ * <p>
+ * The terms of titles and author names also make up the vocabulary of a {@link SymSpellDictionary}, which lets
+ * {@link #fuzzySearch} rank the books matching misspelled terms ("Tolkein") as if the closest indexed terms had been
+ * searched for.
+ *
+ * @author codecharlan
+ */
+@Slf4j
+@Component
+public class BookSearchIndex {
+    private static final float TITLE_WEIGHT = 3f;
+    private static final float AUTHOR_WEIGHT = 2f;
+    private static final float CO_AUTHOR_WEIGHT = 1.5f;
+    private static final float DESCRIPTION_WEIGHT = 1f;
+    private static final float ISBN_WEIGHT = 1f;
+    private static final int MAX_EDIT_DISTANCE = 2;
+    private static final int PREFIX_LENGTH = 7;
+    /**
+     * The most indexed terms a misspelled term is replaced with, so that a short term does not match half the catalog.
+     */
+    private static final int MAX_CORRECTIONS = 5;
+
+    private final CatalogIndex<Indexed> indexed;
+    private final Timer searches;
+
+    /**
+     * The ranked books and the vocabulary of their titles and author names.
+     */
+    private record Indexed(InvertedIndex index, SymSpellDictionary vocabulary) {
+    }
+
+    /**
+     * A book's terms and the terms of its title and author names at the time it changed, or {@code null} terms if it
+     * was deleted.
+     */
+    private record Change(long bookId, Map<String, Float> terms, List<String> vocabulary) {
+    }
+
+    /**
+     * Constructor for BookSearchIndex.
+     *
+     * @param bookCatalog   the catalog the index is built from
+     * @param k1            the BM25 term frequency saturation
+     * @param b             the BM25 document length normalization
+     * @param meterRegistry the registry the index metrics are published to
+     */
+    public BookSearchIndex(BookCatalog bookCatalog,
+                           @Value("${search.index.k1:1.2}") float k1,
+                           @Value("${search.index.b:0.75}") float b,
+                           MeterRegistry meterRegistry) {
+        this.indexed = new CatalogIndex<>(bookCatalog,
+                () -> new Indexed(new InvertedIndex(k1, b), new SymSpellDictionary(MAX_EDIT_DISTANCE, PREFIX_LENGTH)));
+        this.searches = Timer.builder("bookhub.search.index.queries")
+                .description("Time taken to rank a search in the in-memory index")
+                .register(meterRegistry);
+        Gauge.builder("bookhub.search.index.books", this, searchIndex -> searchIndex.read(InvertedIndex::size))
+                .description("Books in the in-memory search index")
+                .register(meterRegistry);
+        Gauge.builder("bookhub.search.index.terms", this, searchIndex -> searchIndex.read(InvertedIndex::terms))
+                .description("Distinct terms in the in-memory search index")
+                .register(meterRegistry);
+        Gauge.builder("bookhub.search.index.vocabulary.deletions", this, searchIndex -> searchIndex.indexed.read(current -> current.vocabulary().deletions()))
+                .description("Deletions the title and author terms are stored under for fuzzy searches")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Builds the index from the catalog. Books changed while the catalog is read are indexed as they were changed.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long read = indexed.rebuild((rebuilt, book) -> apply(rebuilt, change(book.getId(), book)));
+        log.info("Indexed {} books for search", read);
+    }
+
+    /**
+     * Indexes a created or edited book, or removes a deleted one.
+     *
+     * @param event the change
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookChanged(BookChangedEvent event) {
+        Change change = change(event.bookId(), event.isDeleted() ? null : event.book());
+        indexed.apply(current -> apply(current, change));
+    }
+
+    /**
+     * Returns whether the index has been built and can serve searches.
+     *
+     * @return {@code true} once the index has been built
+     */
+    public boolean isReady() {
+        return indexed.isReady();
+    }
+
+    /**
+     * Ranks the books matching any term of a query.
+     *
+     * @param query  the query
+     * @param offset the number of best matches to skip
+     * @param limit  the maximum number of books to return
+     * @return the IDs of the page of books, best match first, and the number of matching books
+     */
+    public InvertedIndex.Hits search(String query, int offset, int limit) {
+        List<String> terms = Tokenizer.tokenize(query);
+        String isbn = Tokenizer.isbnTerm(query);
+        if (isbn != null) {
+            terms.add(isbn);
+        }
+        return searches.record(() -> read(current -> current.search(terms, offset, limit)));
+    }
+
+    /**
+     * Ranks the books matching any term of a query or, for each term of at least three characters, the indexed
+     * title and author terms within one edit of it, or two edits from six characters on. A corrected term counts
+     * for less than an exact one the more edits it takes.
+     *
+     * @param query  the query, possibly misspelled
+     * @param offset the number of best matches to skip
+     * @param limit  the maximum number of books to return
+     * @return the IDs of the page of books, best match first, and the number of matching books
+     */
+    public InvertedIndex.Hits fuzzySearch(String query, int offset, int limit) {
+        List<String> terms = Tokenizer.tokenize(query);
+        return searches.record(() -> indexed.read(current -> {
+            Map<String, Float> weights = new LinkedHashMap<>();
+            for (String term : terms) {
+                weights.put(term, 1f);
+            }
+            for (String term : terms) {
+                current.vocabulary().lookup(term, editDistance(term)).stream()
+                        .filter(correction -> current.index().documentFrequency(correction.term()) > 0)
+                        .sorted(Comparator.comparingInt(SymSpellDictionary.Suggestion::distance)
+                                .thenComparing(correction -> -current.index().documentFrequency(correction.term())))
+                        .limit(MAX_CORRECTIONS)
+                        .forEach(correction -> weights.merge(correction.term(), 1f / (1 + correction.distance()), Math::max));
+            }
+            return current.index().search(weights, offset, limit);
+        }));
+    }
+
+    private static int editDistance(String term) {
+        if (term.length() < 3) {
+            return 0;
+        }
+        return term.length() < 6 ? 1 : MAX_EDIT_DISTANCE;
+    }
+
+    private <T> T read(Function<InvertedIndex, T> reader) {
+        return indexed.read(current -> reader.apply(current.index()));
+    }
+
+    private static Change change(long bookId, Book book) {
+        if (book == null) {
+            return new Change(bookId, null, List.of());
+        }
+        List<String> names = new ArrayList<>(Tokenizer.tokenize(book.getTitle()));
+        if (book.getAuthor() != null) {
+            names.addAll(Tokenizer.tokenize(book.getAuthor().getName()));
+        }
+        if (book.getCoAuthors() != null) {
+            for (Author coAuthor : book.getCoAuthors()) {
+                names.addAll(Tokenizer.tokenize(coAuthor.getName()));
+            }
+        }
+        return new Change(bookId, terms(book), names);
+    }
+
+    private static void apply(Indexed target, Change change) {
+        if (change.terms() == null) {
+            target.index().remove(change.bookId());
+        } else {
+            target.index().put(change.bookId(), change.terms());
+            change.vocabulary().forEach(target.vocabulary()::add);
+        }
+    }
+
+    /**
+     * Returns the weighted frequency of every term of a book.
+     */
+    static Map<String, Float> terms(Book book) {
+        Map<String, Float> terms = new HashMap<>();
+        add(terms, book.getTitle(), TITLE_WEIGHT);
+        if (book.getAuthor() != null) {
+            add(terms, book.getAuthor().getName(), AUTHOR_WEIGHT);
+        }
+        if (book.getCoAuthors() != null) {
+            for (Author coAuthor : book.getCoAuthors()) {
+                add(terms, coAuthor.getName(), CO_AUTHOR_WEIGHT);
+            }
+        }
+        add(terms, book.getDescription(), DESCRIPTION_WEIGHT);
+        String isbn = Tokenizer.isbnTerm(book.getIsbn());
+        if (isbn != null) {
+            terms.merge(isbn, ISBN_WEIGHT, Float::sum);
+        }
+        return terms;
+    }
+
+    private static void add(Map<String, Float> terms, String text, float weight) {
+        for (String term : Tokenizer.tokenize(text)) {
+            terms.merge(term, weight, Float::sum);
+        }
+    }
+}
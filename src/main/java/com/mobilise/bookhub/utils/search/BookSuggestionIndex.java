@@ -0,0 +1,243 @@
+package com.mobilise.bookhub.utils.search;
+
+import com.mobilise.bookhub.dto.response.SuggestionResponseDto;
+import com.mobilise.bookhub.entity.Author;
+import com.mobilise.bookhub.entity.Book;
+import com.mobilise.bookhub.enums.SuggestionType;
+import com.mobilise.bookhub.repository.TransactionRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.BaseUnits;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+import static com.mobilise.bookhub.enums.TransactionType.BORROW;
+import static com.mobilise.bookhub.enums.TransactionType.RETURN;
+
+/**
+ * BookSuggestionIndex completes what a user is typing to the titles and author names of the catalog.
+ * Titles and names are kept in a {@link RadixTrie} under their folded text and under the text from each later word
+ * that is not a stop word, so "hob" suggests "The Hobbit". A title weighs one more than the number of times the book
+ * was ever borrowed, and an author name the sum of the weights of the author's books, so popular books and authors
+ * are suggested first.
+ * <p>
+ * The trie is built from the {@link BookCatalog} and the loans once the application is ready, and rebuilt
+ * periodically to follow how often books are borrowed; in between it follows every created, edited and deleted book
+ * through {@link BookChangedEvent}s, an edited book keeping its weight. Until it is built, there are no suggestions.
+ *
+ * @author codecharlan
+ */
+@Slf4j
+@Component
+public class BookSuggestionIndex {
+    private final TransactionRepository transactionRepository;
+    private final CatalogIndex<Suggestions> suggestions;
+    private final Timer lookups;
+
+    /**
+     * Constructor for BookSuggestionIndex.
+     *
+     * @param bookCatalog           the catalog the trie is built from
+     * @param transactionRepository the transactions the popularity of the books is counted from
+     * @param topK                  the number of suggestions kept at every node of the trie, and so the most a
+     *                              lookup returns
+     * @param meterRegistry         the registry the trie metrics are published to
+     */
+    public BookSuggestionIndex(BookCatalog bookCatalog, TransactionRepository transactionRepository,
+                               @Value("${suggest.top-k:10}") int topK, MeterRegistry meterRegistry) {
+        this.transactionRepository = transactionRepository;
+        this.suggestions = new CatalogIndex<>(bookCatalog, () -> new Suggestions(topK));
+        this.lookups = Timer.builder("bookhub.suggest.queries")
+                .description("Time taken to look up the suggestions for a prefix")
+                .register(meterRegistry);
+        Gauge.builder("bookhub.suggest.trie.nodes", this, index -> index.read(RadixTrie::nodes))
+                .description("Nodes of the suggestion trie")
+                .register(meterRegistry);
+        Gauge.builder("bookhub.suggest.trie.entries", this, index -> index.read(RadixTrie::size))
+                .description("Titles and author names in the suggestion trie, once per key they are found under")
+                .register(meterRegistry);
+        Gauge.builder("bookhub.suggest.trie.memory", this, index -> index.read(RadixTrie::estimatedBytes))
+                .description("Estimated heap held by the suggestion trie")
+                .baseUnit(BaseUnits.BYTES)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Builds the trie from the catalog and the loans. Books changed while the catalog is read are suggested as they
+     * were changed.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${suggest.refresh-interval:PT1H}", initialDelayString = "${suggest.refresh-interval:PT1H}")
+    public void rebuild() {
+        Map<Long, Long> loans = new HashMap<>();
+        transactionRepository.countByBook(List.of(BORROW, RETURN))
+                .forEach(book -> loans.put(book.getBookId(), book.getTransactions()));
+        long read = suggestions.rebuild((rebuilt, book) ->
+                rebuilt.put(book, 1 + loans.getOrDefault(book.getId(), 0L)));
+        log.info("Built suggestions for {} books", read);
+    }
+
+    /**
+     * Suggests a created or edited book, or stops suggesting a deleted one.
+     *
+     * @param event the change
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookChanged(BookChangedEvent event) {
+        suggestions.apply(current -> current.apply(event));
+    }
+
+    /**
+     * Returns whether the trie has been built and can serve suggestions.
+     *
+     * @return {@code true} once the trie has been built
+     */
+    public boolean isReady() {
+        return suggestions.isReady();
+    }
+
+    /**
+     * Returns the most popular titles and author names starting with a prefix, or with a later word of them.
+     *
+     * @param prefix what the user typed so far; case, diacritics and punctuation are ignored
+     * @param limit  the maximum number of suggestions, at most the configured top-k
+     * @return the suggestions, most popular first
+     */
+    public List<SuggestionResponseDto> suggest(String prefix, int limit) {
+        String key = prefixKey(prefix);
+        if (key.isEmpty()) {
+            return List.of();
+        }
+        return lookups.record(() -> read(trie -> trie.top(key, limit)).stream()
+                .map(RadixTrie.Ranked::value)
+                .toList());
+    }
+
+    private <T> T read(Function<RadixTrie<SuggestionResponseDto>, T> reader) {
+        return suggestions.read(current -> reader.apply(current.trie));
+    }
+
+    /**
+     * Returns the key a prefix is looked up with: its words, folded and separated by single spaces, and a trailing
+     * space if the prefix ends after a word, so that "dune " only suggests titles going on after "Dune".
+     */
+    static String prefixKey(String prefix) {
+        if (prefix == null) {
+            return "";
+        }
+        String key = String.join(" ", Tokenizer.words(prefix));
+        boolean wordEnded = !prefix.isEmpty() && !Character.isLetterOrDigit(prefix.charAt(prefix.length() - 1));
+        return !key.isEmpty() && wordEnded ? key + " " : key;
+    }
+
+    /**
+     * Returns the keys a title or name is suggested under: its folded text, and the text from each later word that
+     * is not a stop word.
+     */
+    static Set<String> keys(String text) {
+        List<String> words = Tokenizer.words(text);
+        Set<String> keys = new LinkedHashSet<>();
+        for (int i = 0; i < words.size(); i++) {
+            if (i == 0 || !Tokenizer.isStopWord(words.get(i))) {
+                keys.add(String.join(" ", words.subList(i, words.size())));
+            }
+        }
+        return keys;
+    }
+
+    /**
+     * The trie and the suggestions it holds for every book and author, so that changes can take them out again.
+     */
+    private static final class Suggestions {
+        private final RadixTrie<SuggestionResponseDto> trie;
+        private final Map<Long, Title> titles = new HashMap<>();
+        private final Map<Long, Name> authors = new HashMap<>();
+
+        /**
+         * The suggested title of a book, its weight and the ID of its author, if any.
+         */
+        private record Title(SuggestionResponseDto suggestion, long weight, Long authorId) {
+        }
+
+        /**
+         * The suggested name of an author and its weight.
+         */
+        private record Name(SuggestionResponseDto suggestion, long weight) {
+        }
+
+        private Suggestions(int topK) {
+            this.trie = new RadixTrie<>(topK);
+        }
+
+        private void apply(BookChangedEvent event) {
+            if (event.isDeleted()) {
+                remove(event.bookId());
+            } else {
+                Title previous = titles.get(event.bookId());
+                put(event.book(), previous == null ? 1L : previous.weight());
+            }
+        }
+
+        private void put(Book book, long weight) {
+            remove(book.getId());
+            Author author = book.getAuthor();
+            Long authorId = author == null || author.getId() == null || isBlank(author.getName()) ? null : author.getId();
+            if (isBlank(book.getTitle())) {
+                return;
+            }
+            SuggestionResponseDto suggestion = new SuggestionResponseDto(book.getTitle(), SuggestionType.TITLE, book.getId());
+            keys(book.getTitle()).forEach(key -> trie.put(key, suggestion, weight));
+            titles.put(book.getId(), new Title(suggestion, weight, authorId));
+            if (authorId != null) {
+                weighAuthor(authorId, author.getName(), weight);
+            }
+        }
+
+        private void remove(long bookId) {
+            Title title = titles.remove(bookId);
+            if (title == null) {
+                return;
+            }
+            keys(title.suggestion().text()).forEach(key -> trie.remove(key, title.suggestion()));
+            if (title.authorId() != null) {
+                weighAuthor(title.authorId(), null, -title.weight());
+            }
+        }
+
+        /**
+         * Adds to the weight of an author, renaming the author if a name is given, and stops suggesting the author
+         * once no book weighs for them.
+         */
+        private void weighAuthor(long authorId, String name, long delta) {
+            Name current = authors.remove(authorId);
+            String text = name != null ? name : current.suggestion().text();
+            long weight = (current == null ? 0L : current.weight()) + delta;
+            if (current != null && (weight <= 0 || !current.suggestion().text().equals(text))) {
+                keys(current.suggestion().text()).forEach(key -> trie.remove(key, current.suggestion()));
+            }
+            if (weight <= 0) {
+                return;
+            }
+            SuggestionResponseDto suggestion = new SuggestionResponseDto(text, SuggestionType.AUTHOR, authorId);
+            keys(text).forEach(key -> trie.put(key, suggestion, weight));
+            authors.put(authorId, new Name(suggestion, weight));
+        }
+
+        private static boolean isBlank(String text) {
+            return text == null || text.isBlank();
+        }
+    }
+}
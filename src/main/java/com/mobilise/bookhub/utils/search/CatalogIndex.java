@@ -0,0 +1,126 @@
+package com.mobilise.bookhub.utils.search;
+
+import com.mobilise.bookhub.entity.Book;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * CatalogIndex holds the state of an in-memory index over the catalog, and rebuilds it from the {@link BookCatalog}
+ * without losing the changes made while the catalog is read.
+ * Reads hold the read lock, changes and the swap to a rebuilt state hold the write lock. A change is applied to the
+ * current state and, while a rebuild reads the catalog, also recorded and replayed onto the rebuilt state before it
+ * is swapped in, so a book changed during a rebuild is indexed as it was changed.
+ *
+ * @param <S> the state of the index; it is only accessed under the lock
+ * @author codecharlan
+ */
+public final class CatalogIndex<S> {
+    private final BookCatalog bookCatalog;
+    private final Supplier<S> empty;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private S state;
+    /**
+     * The changes made while a rebuild reads the catalog, replayed onto the rebuilt state; {@code null} otherwise.
+     */
+    private List<Consumer<S>> changesDuringRebuild;
+    private volatile boolean ready;
+
+    /**
+     * Constructor for CatalogIndex.
+     *
+     * @param bookCatalog the catalog the state is built from
+     * @param empty       creates an empty state, held until the first rebuild and filled by every rebuild
+     */
+    public CatalogIndex(BookCatalog bookCatalog, Supplier<S> empty) {
+        this.bookCatalog = bookCatalog;
+        this.empty = empty;
+        this.state = empty.get();
+    }
+
+    /**
+     * Builds a new state from the catalog, replays the changes made meanwhile onto it and swaps it in.
+     * Should reading the catalog fail, the current state is kept.
+     *
+     * @param put adds a book to the state being built
+     * @return the number of books read
+     */
+    public long rebuild(BiConsumer<S, Book> put) {
+        S rebuilt = empty.get();
+        lock.writeLock().lock();
+        try {
+            changesDuringRebuild = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        long read;
+        try {
+            read = bookCatalog.forEach(book -> put.accept(rebuilt, book));
+        } catch (RuntimeException e) {
+            lock.writeLock().lock();
+            try {
+                changesDuringRebuild = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            throw e;
+        }
+        lock.writeLock().lock();
+        try {
+            changesDuringRebuild.forEach(change -> change.accept(rebuilt));
+            changesDuringRebuild = null;
+            state = rebuilt;
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        return read;
+    }
+
+    /**
+     * Applies a change to the state, and to the state being rebuilt, if any.
+     *
+     * @param change the change; it may be applied twice, to different states
+     */
+    public void apply(Consumer<S> change) {
+        lock.writeLock().lock();
+        try {
+            change.accept(state);
+            if (changesDuringRebuild != null) {
+                changesDuringRebuild.add(change);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Reads the state under the read lock.
+     *
+     * @param reader reads the state
+     * @param <T>    the type of what is read
+     * @return what was read
+     */
+    public <T> T read(Function<S, T> reader) {
+        lock.readLock().lock();
+        try {
+            return reader.apply(state);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns whether the state has been built from the catalog.
+     *
+     * @return {@code true} once a rebuild has completed
+     */
+    public boolean isReady() {
+        return ready;
+    }
+}
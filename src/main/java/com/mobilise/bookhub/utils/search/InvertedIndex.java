@@ -0,0 +1,372 @@
+package com.mobilise.bookhub.utils.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * InvertedIndex ranks documents against a set of query terms with Okapi BM25.
+ * Each term maps to a postings list of the documents containing it together with the term's weighted frequency in
+ * them, so a query only visits the documents sharing a term with it. Documents are numbered internally in the order
+ * they were added; replacing or removing a document marks its number deleted, and the postings are compacted once
+ * a quarter of the numbers are deleted.
+ * <p>
+ * The index is not thread-safe for writes: callers serialize {@link #put} and {@link #remove} against each other and
+ * against {@link #search}. Concurrent searches are safe.
+ *
+ * @author codecharlan
+ */
+public class InvertedIndex {
+    private static final int MIN_DELETED_TO_COMPACT = 1024;
+
+    private final float k1;
+    private final float b;
+    private final Map<String, Integer> termIds = new HashMap<>();
+    private final List<Postings> postings = new ArrayList<>();
+    private final Map<Long, Integer> docsByKey = new HashMap<>();
+    private final BitSet deleted = new BitSet();
+    private final ThreadLocal<Accumulator> accumulators = ThreadLocal.withInitial(Accumulator::new);
+    private long[] docKeys = new long[16];
+    private float[] docLengths = new float[16];
+    private int[][] docTerms = new int[16][];
+    private int docCount;
+    private int deletedCount;
+    private double totalLength;
+
+    /**
+     * The ranked keys of one page of matching documents.
+     *
+     * @param keys      the keys of the page, best match first
+     * @param totalHits the number of documents matching any query term
+     */
+    public record Hits(List<Long> keys, int totalHits) {
+    }
+
+    /**
+     * Constructor for InvertedIndex.
+     *
+     * @param k1 how quickly repeated occurrences of a term stop raising the score, typically 1.2
+     * @param b  how strongly scores are normalized by document length, from 0 (not at all) to 1 (fully)
+     */
+    public InvertedIndex(float k1, float b) {
+        this.k1 = k1;
+        this.b = b;
+    }
+
+    /**
+     * Adds a document, replacing any document with the same key.
+     *
+     * @param key   the key of the document
+     * @param terms the weighted frequency of each term of the document; their sum is the document's length
+     */
+    public void put(long key, Map<String, Float> terms) {
+        remove(key);
+        if (terms.isEmpty()) {
+            return;
+        }
+        int doc = docCount++;
+        ensureDocCapacity(docCount);
+        int[] ids = new int[terms.size()];
+        float length = 0f;
+        int i = 0;
+        for (Map.Entry<String, Float> term : terms.entrySet()) {
+            int termId = termIds.computeIfAbsent(term.getKey(), t -> {
+                postings.add(new Postings());
+                return postings.size() - 1;
+            });
+            postings.get(termId).add(doc, term.getValue());
+            ids[i++] = termId;
+            length += term.getValue();
+        }
+        docKeys[doc] = key;
+        docLengths[doc] = length;
+        docTerms[doc] = ids;
+        docsByKey.put(key, doc);
+        totalLength += length;
+    }
+
+    /**
+     * Removes a document.
+     *
+     * @param key the key of the document
+     * @return {@code true} if the document was indexed
+     */
+    public boolean remove(long key) {
+        Integer doc = docsByKey.remove(key);
+        if (doc == null) {
+            return false;
+        }
+        deleted.set(doc);
+        deletedCount++;
+        totalLength -= docLengths[doc];
+        for (int termId : docTerms[doc]) {
+            postings.get(termId).live--;
+        }
+        docTerms[doc] = null;
+        if (deletedCount >= MIN_DELETED_TO_COMPACT && deletedCount * 4 >= docCount) {
+            compact();
+        }
+        return true;
+    }
+
+    /**
+     * Ranks the documents containing any of the terms.
+     *
+     * @param terms  the query terms; repeated terms count once
+     * @param offset the number of best matches to skip
+     * @param limit  the maximum number of keys to return
+     * @return the keys of the page and the number of matching documents
+     */
+    public Hits search(List<String> terms, int offset, int limit) {
+        Map<String, Float> weights = new LinkedHashMap<>();
+        for (String term : terms) {
+            weights.put(term, 1f);
+        }
+        return search(weights, offset, limit);
+    }
+
+    /**
+     * Ranks the documents containing any of the terms, each term's contribution to a score scaled by its weight.
+     *
+     * @param terms  the weight of each query term
+     * @param offset the number of best matches to skip
+     * @param limit  the maximum number of keys to return
+     * @return the keys of the page and the number of matching documents
+     */
+    public Hits search(Map<String, Float> terms, int offset, int limit) {
+        int live = size();
+        if (live == 0 || limit <= 0) {
+            return new Hits(List.of(), 0);
+        }
+        float averageLength = (float) (totalLength / live);
+        Accumulator accumulator = accumulators.get();
+        accumulator.reset(docCount);
+        for (Map.Entry<String, Float> term : terms.entrySet()) {
+            Integer termId = termIds.get(term.getKey());
+            if (termId == null) {
+                continue;
+            }
+            Postings list = postings.get(termId);
+            if (list.live <= 0) {
+                continue;
+            }
+            float idf = term.getValue() * (float) Math.log(1 + (live - list.live + 0.5) / (list.live + 0.5));
+            for (int i = 0; i < list.size; i++) {
+                int doc = list.docs[i];
+                if (deleted.get(doc)) {
+                    continue;
+                }
+                float frequency = list.frequencies[i];
+                float norm = k1 * (1 - b + b * docLengths[doc] / averageLength);
+                accumulator.add(doc, idf * frequency * (k1 + 1) / (frequency + norm));
+            }
+        }
+        int[] top = accumulator.top(offset + limit);
+        List<Long> keys = new ArrayList<>(Math.max(0, top.length - offset));
+        for (int i = offset; i < top.length; i++) {
+            keys.add(docKeys[top[i]]);
+        }
+        return new Hits(keys, accumulator.touched);
+    }
+
+    /**
+     * Returns the number of indexed documents containing a term.
+     *
+     * @param term the term
+     * @return the number of documents
+     */
+    public int documentFrequency(String term) {
+        Integer termId = termIds.get(term);
+        return termId == null ? 0 : postings.get(termId).live;
+    }
+
+    /**
+     * Returns the number of indexed documents.
+     *
+     * @return the number of documents
+     */
+    public int size() {
+        return docsByKey.size();
+    }
+
+    /**
+     * Returns the number of distinct terms ever indexed.
+     *
+     * @return the number of terms
+     */
+    public int terms() {
+        return termIds.size();
+    }
+
+    /**
+     * Renumbers the live documents densely and drops the deleted ones from every postings list.
+     */
+    private void compact() {
+        int[] renumbered = new int[docCount];
+        int live = 0;
+        for (int doc = 0; doc < docCount; doc++) {
+            if (deleted.get(doc)) {
+                renumbered[doc] = -1;
+                continue;
+            }
+            renumbered[doc] = live;
+            docKeys[live] = docKeys[doc];
+            docLengths[live] = docLengths[doc];
+            docTerms[live] = docTerms[doc];
+            live++;
+        }
+        Arrays.fill(docTerms, live, docCount, null);
+        for (Postings list : postings) {
+            list.compact(renumbered);
+        }
+        docsByKey.replaceAll((key, doc) -> renumbered[doc]);
+        deleted.clear();
+        deletedCount = 0;
+        docCount = live;
+    }
+
+    private void ensureDocCapacity(int capacity) {
+        if (capacity > docKeys.length) {
+            int newLength = Math.max(capacity, docKeys.length * 2);
+            docKeys = Arrays.copyOf(docKeys, newLength);
+            docLengths = Arrays.copyOf(docLengths, newLength);
+            docTerms = Arrays.copyOf(docTerms, newLength);
+        }
+    }
+
+    /**
+     * The documents containing one term, in increasing document number.
+     */
+    private static final class Postings {
+        private int[] docs = new int[4];
+        private float[] frequencies = new float[4];
+        private int size;
+        private int live;
+
+        private void add(int doc, float frequency) {
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+                frequencies = Arrays.copyOf(frequencies, size * 2);
+            }
+            docs[size] = doc;
+            frequencies[size] = frequency;
+            size++;
+            live++;
+        }
+
+        private void compact(int[] renumbered) {
+            int kept = 0;
+            for (int i = 0; i < size; i++) {
+                int doc = renumbered[docs[i]];
+                if (doc >= 0) {
+                    docs[kept] = doc;
+                    frequencies[kept] = frequencies[i];
+                    kept++;
+                }
+            }
+            size = kept;
+            live = kept;
+        }
+    }
+
+    /**
+     * Per-thread scores of the documents touched by one query, reused across queries.
+     */
+    private static final class Accumulator {
+        private float[] scores = new float[0];
+        private int[] touchedDocs = new int[0];
+        private int touched;
+
+        private void reset(int docCount) {
+            for (int i = 0; i < touched && i < scores.length; i++) {
+                int doc = touchedDocs[i];
+                if (doc < scores.length) {
+                    scores[doc] = 0f;
+                }
+            }
+            if (scores.length < docCount) {
+                scores = new float[docCount];
+                touchedDocs = new int[Math.max(16, docCount)];
+            }
+            touched = 0;
+        }
+
+        private void add(int doc, float score) {
+            if (scores[doc] == 0f) {
+                touchedDocs[touched++] = doc;
+            }
+            scores[doc] += score;
+        }
+
+        /**
+         * Selects the best documents with a bounded min-heap, best first; ties go to the earlier document.
+         */
+        private int[] top(int k) {
+            int size = Math.min(k, touched);
+            int[] heap = new int[size];
+            int heapSize = 0;
+            for (int i = 0; i < touched; i++) {
+                int doc = touchedDocs[i];
+                if (heapSize < size) {
+                    heap[heapSize++] = doc;
+                    siftUp(heap, heapSize - 1);
+                } else if (size > 0 && better(doc, heap[0])) {
+                    heap[0] = doc;
+                    siftDown(heap, heapSize);
+                }
+            }
+            int[] sorted = new int[heapSize];
+            for (int i = heapSize - 1; i >= 0; i--) {
+                sorted[i] = heap[0];
+                heap[0] = heap[--heapSize];
+                siftDown(heap, heapSize);
+            }
+            return sorted;
+        }
+
+        private boolean better(int doc, int other) {
+            return scores[doc] > scores[other] || (scores[doc] == scores[other] && doc < other);
+        }
+
+        private void siftUp(int[] heap, int i) {
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (!better(heap[parent], heap[i])) {
+                    return;
+                }
+                swap(heap, parent, i);
+                i = parent;
+            }
+        }
+
+        private void siftDown(int[] heap, int size) {
+            int i = 0;
+            while (true) {
+                int worst = i;
+                int left = 2 * i + 1;
+                int right = left + 1;
+                if (left < size && better(heap[worst], heap[left])) {
+                    worst = left;
+                }
+                if (right < size && better(heap[worst], heap[right])) {
+                    worst = right;
+                }
+                if (worst == i) {
+                    return;
+                }
+                swap(heap, i, worst);
+                i = worst;
+            }
+        }
+
+        private static void swap(int[] heap, int i, int j) {
+            int tmp = heap[i];
+            heap[i] = heap[j];
+            heap[j] = tmp;
+        }
+    }
+}
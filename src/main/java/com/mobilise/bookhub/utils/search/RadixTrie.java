@@ -0,0 +1,380 @@
+package com.mobilise.bookhub.utils.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * RadixTrie answers "the best values whose key starts with this prefix" without visiting the keys under the prefix.
+ * Chains of nodes with a single child are merged into one edge labelled with the whole chain, and every node keeps
+ * the best {@code k} values of its subtree by weight, so a lookup walks at most the length of the prefix and copies a
+ * list that is already ranked. A new value is offered to the rankings on the path to its key; replacing or removing
+ * one re-ranks the nodes on the path from the rankings of their children, which costs the depth of the key times the
+ * fan-out and {@code k}.
+ * <p>
+ * The same value may be put under several keys, and counts once in a ranking. The trie is not thread-safe for
+ * writes: callers serialize {@link #put} and {@link #remove} against each other and against {@link #top}.
+ *
+ * @param <T> the type of the values
+ * @author codecharlan
+ */
+public class RadixTrie<T> {
+    /**
+     * Rough sizes on a 64-bit JVM with compressed references, used to estimate the memory the trie holds.
+     */
+    private static final int NODE_BYTES = 32;
+    private static final int LABEL_BYTES = 40;
+    private static final int ARRAY_BYTES = 16;
+    private static final int REFERENCE_BYTES = 4;
+    private static final int RANKED_BYTES = 32;
+
+    private final int k;
+    private final Node<T> root = new Node<>("");
+    private int nodes = 1;
+    private int values;
+    private long labelChars;
+    private long rankedSlots;
+
+    /**
+     * A value and the weight it is ranked by, under the key it was put with.
+     *
+     * @param key    the key
+     * @param value  the value
+     * @param weight the weight; heavier values rank first, and equal weights rank by key
+     * @param <T>    the type of the value
+     */
+    public record Ranked<T>(String key, T value, long weight) {
+    }
+
+    private static final Comparator<Ranked<?>> BEST_FIRST = Comparator.<Ranked<?>>comparingLong(Ranked::weight)
+            .reversed()
+            .thenComparing(Ranked::key);
+
+    /**
+     * Constructor for RadixTrie.
+     *
+     * @param k the number of best values kept at every node, and so the most a lookup returns
+     */
+    public RadixTrie(int k) {
+        this.k = k;
+    }
+
+    /**
+     * Puts a value under a key, replacing its weight if it is already under the key.
+     *
+     * @param key    the key
+     * @param value  the value
+     * @param weight the weight of the value
+     */
+    public void put(String key, T value, long weight) {
+        List<Node<T>> path = new ArrayList<>();
+        Node<T> node = root;
+        path.add(node);
+        int matched = 0;
+        while (matched < key.length()) {
+            int index = node.childIndex(key.charAt(matched));
+            if (index < 0) {
+                Node<T> leaf = new Node<>(key.substring(matched));
+                node.insertChild(-index - 1, leaf);
+                nodes++;
+                labelChars += leaf.label.length();
+                node = leaf;
+                matched = key.length();
+            } else {
+                Node<T> child = node.children[index];
+                int common = commonPrefix(child.label, key, matched);
+                if (common < child.label.length()) {
+                    child = split(node, index, common);
+                }
+                node = child;
+                matched += common;
+            }
+            path.add(node);
+        }
+        Ranked<T> ranked = new Ranked<>(key, value, weight);
+        int existing = node.valueIndex(value);
+        if (existing >= 0) {
+            node.values[existing] = ranked;
+            rerank(path);
+        } else {
+            node.values = Arrays.copyOf(node.values, node.values.length + 1);
+            node.values[node.values.length - 1] = ranked;
+            values++;
+            for (Node<T> onPath : path) {
+                offer(onPath, ranked);
+            }
+        }
+    }
+
+    /**
+     * Removes a value from under a key.
+     *
+     * @param key   the key
+     * @param value the value
+     * @return {@code true} if the value was under the key
+     */
+    public boolean remove(String key, T value) {
+        List<Node<T>> path = new ArrayList<>();
+        Node<T> node = root;
+        path.add(node);
+        int matched = 0;
+        while (matched < key.length()) {
+            int index = node.childIndex(key.charAt(matched));
+            if (index < 0) {
+                return false;
+            }
+            Node<T> child = node.children[index];
+            if (!key.startsWith(child.label, matched)) {
+                return false;
+            }
+            node = child;
+            matched += child.label.length();
+            path.add(node);
+        }
+        int existing = node.valueIndex(value);
+        if (existing < 0) {
+            return false;
+        }
+        Ranked<T>[] remaining = Arrays.copyOf(node.values, node.values.length - 1);
+        System.arraycopy(node.values, existing + 1, remaining, existing, node.values.length - existing - 1);
+        node.values = remaining;
+        values--;
+        for (int depth = path.size() - 1; depth > 0; depth--) {
+            Node<T> current = path.get(depth);
+            Node<T> parent = path.get(depth - 1);
+            if (current.values.length == 0 && current.children.length == 0) {
+                parent.removeChild(current);
+                nodes--;
+                labelChars -= current.label.length();
+                rankedSlots -= current.top.length;
+                path.remove(depth);
+            } else if (current.values.length == 0 && current.children.length == 1) {
+                Node<T> merged = current.children[0];
+                merged.label = current.label + merged.label;
+                parent.replaceChild(current, merged);
+                nodes--;
+                rankedSlots -= current.top.length;
+                path.set(depth, merged);
+            }
+        }
+        rerank(path);
+        return true;
+    }
+
+    /**
+     * Returns the best values whose key starts with a prefix.
+     *
+     * @param prefix the prefix
+     * @param limit  the maximum number of values, at most {@code k}
+     * @return the values, best first, each once
+     */
+    public List<Ranked<T>> top(String prefix, int limit) {
+        Node<T> node = root;
+        int matched = 0;
+        while (matched < prefix.length()) {
+            int index = node.childIndex(prefix.charAt(matched));
+            if (index < 0) {
+                return List.of();
+            }
+            Node<T> child = node.children[index];
+            int common = commonPrefix(child.label, prefix, matched);
+            if (common < child.label.length() && matched + common < prefix.length()) {
+                return List.of();
+            }
+            node = child;
+            matched += common;
+        }
+        return List.of(Arrays.copyOf(node.top, Math.min(limit, node.top.length)));
+    }
+
+    /**
+     * Returns the number of nodes.
+     *
+     * @return the number of nodes
+     */
+    public int nodes() {
+        return nodes;
+    }
+
+    /**
+     * Returns the number of values put, counting a value once per key it is under.
+     *
+     * @return the number of values
+     */
+    public int size() {
+        return values;
+    }
+
+    /**
+     * Returns a rough estimate of the heap the trie holds, not counting the values themselves.
+     *
+     * @return the estimated number of bytes
+     */
+    public long estimatedBytes() {
+        return (long) nodes * (NODE_BYTES + LABEL_BYTES + 3 * ARRAY_BYTES)
+                + labelChars
+                + (long) nodes * REFERENCE_BYTES
+                + (long) values * (REFERENCE_BYTES + RANKED_BYTES)
+                + rankedSlots * REFERENCE_BYTES;
+    }
+
+    /**
+     * Splits the edge to a child after {@code common} characters, returning the node in the middle of the edge.
+     */
+    private Node<T> split(Node<T> parent, int index, int common) {
+        Node<T> child = parent.children[index];
+        Node<T> middle = new Node<>(child.label.substring(0, common));
+        child.label = child.label.substring(common);
+        middle.children = newChildren(1);
+        middle.children[0] = child;
+        middle.top = child.top;
+        rankedSlots += middle.top.length;
+        parent.children[index] = middle;
+        nodes++;
+        return middle;
+    }
+
+    /**
+     * Ranks the nodes of a path again, from the deepest up, each from its own values and its children's rankings.
+     */
+    private void rerank(List<Node<T>> path) {
+        for (int depth = path.size() - 1; depth >= 0; depth--) {
+            Node<T> node = path.get(depth);
+            Map<T, Ranked<T>> best = new HashMap<>();
+            for (Ranked<T> ranked : node.values) {
+                best.merge(ranked.value(), ranked, RadixTrie::better);
+            }
+            for (Node<T> child : node.children) {
+                for (Ranked<T> ranked : child.top) {
+                    best.merge(ranked.value(), ranked, RadixTrie::better);
+                }
+            }
+            List<Ranked<T>> ranking = new ArrayList<>(best.values());
+            ranking.sort(BEST_FIRST);
+            @SuppressWarnings("unchecked")
+            Ranked<T>[] top = ranking.subList(0, Math.min(k, ranking.size())).toArray(Ranked[]::new);
+            rankedSlots += top.length - node.top.length;
+            node.top = top;
+        }
+    }
+
+    /**
+     * Adds a new value to the ranking of a node, which is enough when nothing under the node got worse.
+     */
+    private void offer(Node<T> node, Ranked<T> ranked) {
+        Ranked<T>[] top = node.top;
+        for (int i = 0; i < top.length; i++) {
+            if (top[i].value().equals(ranked.value())) {
+                if (BEST_FIRST.compare(ranked, top[i]) >= 0) {
+                    return;
+                }
+                Ranked<T>[] replaced = top.clone();
+                System.arraycopy(replaced, i + 1, replaced, i, replaced.length - i - 1);
+                replaced[replaced.length - 1] = ranked;
+                Arrays.sort(replaced, BEST_FIRST);
+                node.top = replaced;
+                return;
+            }
+        }
+        if (top.length == k && BEST_FIRST.compare(ranked, top[k - 1]) >= 0) {
+            return;
+        }
+        Ranked<T>[] grown = Arrays.copyOf(top, Math.min(k, top.length + 1));
+        int at = Math.min(top.length, k - 1);
+        while (at > 0 && BEST_FIRST.compare(ranked, grown[at - 1]) < 0) {
+            if (at < grown.length) {
+                grown[at] = grown[at - 1];
+            }
+            at--;
+        }
+        grown[at] = ranked;
+        rankedSlots += grown.length - top.length;
+        node.top = grown;
+    }
+
+    private static <T> Ranked<T> better(Ranked<T> one, Ranked<T> other) {
+        return BEST_FIRST.compare(one, other) <= 0 ? one : other;
+    }
+
+    private static int commonPrefix(String label, String key, int from) {
+        int length = Math.min(label.length(), key.length() - from);
+        int i = 0;
+        while (i < length && label.charAt(i) == key.charAt(from + i)) {
+            i++;
+        }
+        return i;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> Node<T>[] newChildren(int length) {
+        return new Node[length];
+    }
+
+    /**
+     * A node and the label of the edge leading to it; children are kept sorted by the first character of their label.
+     */
+    private static final class Node<T> {
+        private String label;
+        private Node<T>[] children = newChildren(0);
+        @SuppressWarnings("unchecked")
+        private Ranked<T>[] values = new Ranked[0];
+        @SuppressWarnings("unchecked")
+        private Ranked<T>[] top = new Ranked[0];
+
+        private Node(String label) {
+            this.label = label;
+        }
+
+        /**
+         * Returns the index of the child whose label starts with a character, or {@code -(insertion point) - 1}.
+         */
+        private int childIndex(char first) {
+            int low = 0;
+            int high = children.length - 1;
+            while (low <= high) {
+                int middle = (low + high) >>> 1;
+                char c = children[middle].label.charAt(0);
+                if (c < first) {
+                    low = middle + 1;
+                } else if (c > first) {
+                    high = middle - 1;
+                } else {
+                    return middle;
+                }
+            }
+            return -low - 1;
+        }
+
+        private void insertChild(int index, Node<T> child) {
+            Node<T>[] grown = newChildren(children.length + 1);
+            System.arraycopy(children, 0, grown, 0, index);
+            grown[index] = child;
+            System.arraycopy(children, index, grown, index + 1, children.length - index);
+            children = grown;
+        }
+
+        private void removeChild(Node<T> child) {
+            int index = childIndex(child.label.charAt(0));
+            Node<T>[] shrunk = newChildren(children.length - 1);
+            System.arraycopy(children, 0, shrunk, 0, index);
+            System.arraycopy(children, index + 1, shrunk, index, children.length - index - 1);
+            children = shrunk;
+        }
+
+        private void replaceChild(Node<T> child, Node<T> replacement) {
+            children[childIndex(child.label.charAt(0))] = replacement;
+        }
+
+        private int valueIndex(T value) {
+            for (int i = 0; i < values.length; i++) {
+                if (values[i].value().equals(value)) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+    }
+}
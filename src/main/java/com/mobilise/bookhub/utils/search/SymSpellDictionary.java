@@ -0,0 +1,218 @@
+package com.mobilise.bookhub.utils.search;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+
+/**
+ * SymSpellDictionary finds the terms of a vocabulary within a small edit distance of a misspelled term.
+ * Every term is stored under each string obtained by deleting up to {@code maxDistance} characters from its prefix
+ * (symmetric delete spelling correction). Two terms within that distance of each other share at least one such
+ * deletion, so a lookup only generates the deletions of the misspelled term and checks the few terms stored under
+ * them, instead of comparing it against the whole vocabulary. Distances are optimal string alignment distances:
+ * insertions, deletions, substitutions and transpositions of adjacent characters each count as one edit.
+ * <p>
+ * The dictionary only grows; callers check whether a suggested term is still in use. It is not thread-safe for
+ * writes: callers serialize {@link #add} against each other and against {@link #lookup}.
+ *
+ * @author codecharlan
+ */
+public class SymSpellDictionary {
+    private static final int[] NO_TERMS = new int[0];
+
+    private final int maxDistance;
+    private final int prefixLength;
+    private final Map<String, Integer> termIds = new HashMap<>();
+    private final List<String> terms = new ArrayList<>();
+    private final Map<String, int[]> deletes = new HashMap<>();
+
+    /**
+     * A term of the dictionary and its distance from the looked up term.
+     *
+     * @param term     the term
+     * @param distance the number of edits between the two terms
+     */
+    public record Suggestion(String term, int distance) {
+    }
+
+    /**
+     * Constructor for SymSpellDictionary.
+     *
+     * @param maxDistance  the largest edit distance lookups can be asked for
+     * @param prefixLength the number of leading characters deletions are generated from; longer terms are told apart
+     *                     by the distance check, which keeps the number of stored deletions bounded
+     */
+    public SymSpellDictionary(int maxDistance, int prefixLength) {
+        if (prefixLength <= maxDistance) {
+            throw new IllegalArgumentException("The prefix length must be greater than the maximum distance");
+        }
+        this.maxDistance = maxDistance;
+        this.prefixLength = prefixLength;
+    }
+
+    /**
+     * Adds a term to the dictionary.
+     *
+     * @param term the term
+     * @return {@code true} if the term was not in the dictionary yet
+     */
+    public boolean add(String term) {
+        if (termIds.containsKey(term)) {
+            return false;
+        }
+        int termId = terms.size();
+        terms.add(term);
+        termIds.put(term, termId);
+        for (String delete : deletes(prefix(term), maxDistance)) {
+            int[] ids = deletes.getOrDefault(delete, NO_TERMS);
+            int[] grown = Arrays.copyOf(ids, ids.length + 1);
+            grown[ids.length] = termId;
+            deletes.put(delete, grown);
+        }
+        return true;
+    }
+
+    /**
+     * Returns whether a term is in the dictionary.
+     *
+     * @param term the term
+     * @return {@code true} if the term was added
+     */
+    public boolean contains(String term) {
+        return termIds.containsKey(term);
+    }
+
+    /**
+     * Finds the terms within an edit distance of a term, the term itself included.
+     *
+     * @param term     the term, possibly misspelled
+     * @param distance the largest edit distance to accept, at most the dictionary's maximum distance
+     * @return the terms found, closest first
+     */
+    public List<Suggestion> lookup(String term, int distance) {
+        int bound = Math.min(distance, maxDistance);
+        List<Suggestion> suggestions = new ArrayList<>();
+        Set<String> checked = new HashSet<>();
+        String prefix = prefix(term);
+        Set<String> visited = new HashSet<>();
+        Queue<String> candidates = new ArrayDeque<>();
+        candidates.add(prefix);
+        visited.add(prefix);
+        while (!candidates.isEmpty()) {
+            String candidate = candidates.poll();
+            int deleted = prefix.length() - candidate.length();
+            for (int termId : deletes.getOrDefault(candidate, NO_TERMS)) {
+                String suggestion = terms.get(termId);
+                if (Math.abs(suggestion.length() - term.length()) > bound || !checked.add(suggestion)) {
+                    continue;
+                }
+                int edits = distance(term, suggestion, bound);
+                if (edits <= bound) {
+                    suggestions.add(new Suggestion(suggestion, edits));
+                }
+            }
+            if (deleted < bound) {
+                for (int i = 0; i < candidate.length(); i++) {
+                    String delete = candidate.substring(0, i) + candidate.substring(i + 1);
+                    if (visited.add(delete)) {
+                        candidates.add(delete);
+                    }
+                }
+            }
+        }
+        suggestions.sort(Comparator.comparingInt(Suggestion::distance));
+        return suggestions;
+    }
+
+    /**
+     * Returns the number of terms in the dictionary.
+     *
+     * @return the number of terms
+     */
+    public int size() {
+        return terms.size();
+    }
+
+    /**
+     * Returns the number of distinct deletions the terms are stored under.
+     *
+     * @return the number of deletions
+     */
+    public int deletions() {
+        return deletes.size();
+    }
+
+    private String prefix(String term) {
+        return term.length() > prefixLength ? term.substring(0, prefixLength) : term;
+    }
+
+    /**
+     * Returns the term and every string obtained by deleting up to {@code distance} of its characters.
+     */
+    private static Set<String> deletes(String term, int distance) {
+        Set<String> deletes = new LinkedHashSet<>();
+        deletes.add(term);
+        List<String> level = List.of(term);
+        for (int d = 0; d < distance; d++) {
+            List<String> next = new ArrayList<>();
+            for (String word : level) {
+                for (int i = 0; i < word.length(); i++) {
+                    String delete = word.substring(0, i) + word.substring(i + 1);
+                    if (deletes.add(delete)) {
+                        next.add(delete);
+                    }
+                }
+            }
+            level = next;
+        }
+        return deletes;
+    }
+
+    /**
+     * Returns the optimal string alignment distance between two terms, or {@code bound + 1} once it exceeds the bound.
+     */
+    static int distance(String source, String target, int bound) {
+        int n = source.length();
+        int m = target.length();
+        if (Math.abs(n - m) > bound) {
+            return bound + 1;
+        }
+        int[] previousPrevious = new int[m + 1];
+        int[] previous = new int[m + 1];
+        int[] current = new int[m + 1];
+        for (int j = 0; j <= m; j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= n; i++) {
+            current[0] = i;
+            int rowMinimum = i;
+            char s = source.charAt(i - 1);
+            for (int j = 1; j <= m; j++) {
+                char t = target.charAt(j - 1);
+                int cost = s == t ? 0 : 1;
+                int value = Math.min(Math.min(previous[j] + 1, current[j - 1] + 1), previous[j - 1] + cost);
+                if (i > 1 && j > 1 && s == target.charAt(j - 2) && source.charAt(i - 2) == t) {
+                    value = Math.min(value, previousPrevious[j - 2] + 1);
+                }
+                current[j] = value;
+                rowMinimum = Math.min(rowMinimum, value);
+            }
+            if (rowMinimum > bound) {
+                return bound + 1;
+            }
+            int[] recycled = previousPrevious;
+            previousPrevious = previous;
+            previous = current;
+            current = recycled;
+        }
+        return Math.min(previous[m], bound + 1);
+    }
+}
@@ -0,0 +1,94 @@
+package com.mobilise.bookhub.utils.search;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Tokenizer splits text into the terms the search indexes are built from.
+ * Text is folded to lower case without diacritics and split on anything that is not a letter or digit;
+ * common English stop words are dropped, as they match nearly every book.
+ *
+ * @author codecharlan
+ */
+public final class Tokenizer {
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final Pattern ISBN = Pattern.compile("[0-9][0-9\\- ]{8,15}[0-9Xx]");
+    private static final Set<String> STOP_WORDS = Set.of("a", "an", "and", "are", "as", "at", "be", "by", "for",
+            "from", "in", "is", "it", "of", "on", "or", "the", "to", "with");
+
+    private Tokenizer() {
+    }
+
+    /**
+     * Splits text into terms.
+     *
+     * @param text the text, or {@code null}
+     * @return the terms in the order they occur, with repeats
+     */
+    public static List<String> tokenize(String text) {
+        List<String> terms = new ArrayList<>();
+        for (String word : words(text)) {
+            if (!STOP_WORDS.contains(word)) {
+                terms.add(word);
+            }
+        }
+        return terms;
+    }
+
+    /**
+     * Splits text into words, stop words included.
+     *
+     * @param text the text, or {@code null}
+     * @return the words in the order they occur
+     */
+    public static List<String> words(String text) {
+        List<String> words = new ArrayList<>();
+        if (text == null || text.isBlank()) {
+            return words;
+        }
+        for (String token : SEPARATORS.split(fold(text))) {
+            if (!token.isEmpty()) {
+                words.add(token);
+            }
+        }
+        return words;
+    }
+
+    /**
+     * Returns whether a word is a stop word.
+     *
+     * @param word a folded word
+     * @return {@code true} if the word is not indexed on its own
+     */
+    public static boolean isStopWord(String word) {
+        return STOP_WORDS.contains(word);
+    }
+
+    /**
+     * Folds text to lower case without diacritics.
+     *
+     * @param text the text
+     * @return the folded text
+     */
+    public static String fold(String text) {
+        return DIACRITICS.matcher(Normalizer.normalize(text, Normalizer.Form.NFKD)).replaceAll("").toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Returns the single term an ISBN is indexed under: its digits and check character, without separators.
+     *
+     * @param text the text, which may be an ISBN
+     * @return the ISBN term, or {@code null} if the text does not look like an ISBN
+     */
+    public static String isbnTerm(String text) {
+        if (text == null || !ISBN.matcher(text.trim()).matches()) {
+            return null;
+        }
+        return text.trim().replaceAll("[\\- ]", "").toLowerCase(Locale.ROOT);
+    }
+}
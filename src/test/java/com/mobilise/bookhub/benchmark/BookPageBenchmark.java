@@ -0,0 +1,128 @@
+package com.mobilise.bookhub.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures reading one page of books, sorted by title, from catalogs of growing size in H2.
+ * The table carries the (field, id) indexes declared on {@code Book}, and the queries have the shape Hibernate
+ * generates for a listing: the first page and a keyset page halfway through stay flat as the catalog grows, while
+ * the same page read by offset grows with the offset. On a key with many equal values, such as the publication
+ * year, a keyset page also reads past the books sharing its value, so it grows with the number of such books.
+ * Run with {@code mvn -Pbenchmark -DskipTests verify -Dbenchmark.include=BookPageBenchmark}.
+ *
+ * @author codecharlan
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BookPageBenchmark {
+    private static final int PAGE_SIZE = 20;
+    private static final String COLUMNS = "select id, title, publication_year, unit_price_of_book, genre from book ";
+    private static final String[] GENRES = {"FICTION", "MYSTERY", "FANTASY", "HISTORY", "SCIENCE", "POETRY"};
+
+    @Param({"10000", "100000", "1000000"})
+    private int catalogSize;
+
+    private Connection connection;
+    private PreparedStatement firstPage;
+    private PreparedStatement offsetPage;
+    private PreparedStatement keysetPage;
+    private String middleTitle;
+    private long middleId;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        connection = DriverManager.getConnection("jdbc:h2:mem:book-page-" + catalogSize + ";DB_CLOSE_DELAY=-1;OPTIMIZE_REUSE_RESULTS=FALSE");
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("create table book (id bigint primary key, title varchar(255), publication_year integer, "
+                    + "unit_price_of_book numeric(38,2) not null, genre varchar(255) not null)");
+            statement.execute("create index idx_book_title_id on book (title, id)");
+            statement.execute("create index idx_book_publication_year_id on book (publication_year, id)");
+            statement.execute("create index idx_book_unit_price_id on book (unit_price_of_book, id)");
+            statement.execute("create index idx_book_genre_id on book (genre, id)");
+        }
+        connection.setAutoCommit(false);
+        try (PreparedStatement insert = connection.prepareStatement("insert into book values (?, ?, ?, ?, ?)")) {
+            for (int id = 1; id <= catalogSize; id++) {
+                insert.setLong(1, id);
+                long hash = id * 2654435761L;
+                insert.setString(2, "Title " + Long.toString(hash % 1_000_000_007L, 36));
+                insert.setInt(3, 1800 + (int) (hash % 224));
+                insert.setBigDecimal(4, BigDecimal.valueOf(500 + id % 9500));
+                insert.setString(5, GENRES[id % GENRES.length]);
+                insert.addBatch();
+                if (id % 10_000 == 0) {
+                    insert.executeBatch();
+                }
+            }
+            insert.executeBatch();
+        }
+        connection.commit();
+
+        firstPage = connection.prepareStatement(COLUMNS + "order by title, id offset 0 rows fetch first ? rows only");
+        offsetPage = connection.prepareStatement(COLUMNS + "order by title, id offset ? rows fetch first ? rows only");
+        // The redundant title >= ? lets the seek start inside the index, as BookSpecifications.atOrAfter does.
+        keysetPage = connection.prepareStatement(COLUMNS + "where title >= ? and (title > ? or (title = ? and id > ?)) "
+                + "order by title, id fetch first ? rows only");
+        offsetPage.setInt(1, catalogSize / 2);
+        offsetPage.setInt(2, PAGE_SIZE);
+        try (ResultSet middle = offsetPage.executeQuery()) {
+            middle.next();
+            middleId = middle.getLong(1);
+            middleTitle = middle.getString(2);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("drop all objects");
+        }
+        connection.close();
+    }
+
+    @Benchmark
+    public long firstPage() throws SQLException {
+        firstPage.setInt(1, PAGE_SIZE);
+        return read(firstPage);
+    }
+
+    @Benchmark
+    public long keysetPageHalfway() throws SQLException {
+        keysetPage.setString(1, middleTitle);
+        keysetPage.setString(2, middleTitle);
+        keysetPage.setString(3, middleTitle);
+        keysetPage.setLong(4, middleId);
+        keysetPage.setInt(5, PAGE_SIZE);
+        return read(keysetPage);
+    }
+
+    @Benchmark
+    public long offsetPageHalfway() throws SQLException {
+        offsetPage.setInt(1, catalogSize / 2);
+        offsetPage.setInt(2, PAGE_SIZE);
+        return read(offsetPage);
+    }
+
+    private static long read(PreparedStatement page) throws SQLException {
+        long checksum = 0;
+        try (ResultSet books = page.executeQuery()) {
+            while (books.next()) {
+                checksum += books.getLong(1);
+            }
+        }
+        return checksum;
+    }
+}
@@ -0,0 +1,156 @@
+package com.mobilise.bookhub.benchmark;
+
+import com.mobilise.bookhub.entity.Author;
+import com.mobilise.bookhub.entity.Book;
+import com.mobilise.bookhub.utils.search.BookChangedEvent;
+import com.mobilise.bookhub.utils.search.BookSearchIndex;
+import com.mobilise.bookhub.utils.search.SymSpellDictionary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures finding the terms within two edits of a misspelled term in the vocabulary of a synthetic catalog, whose
+ * titles and author names are made of pseudo-words drawn with a skew towards the common ones.
+ * {@code lookupOneEdit} and {@code lookupTwoEdits} ask the deletion dictionary, {@code scanVocabulary} compares the
+ * term against every term of the vocabulary, which is what a dictionary-free fuzzy match costs, and
+ * {@code fuzzySearch} ranks the catalog for a misspelled author name end to end.
+ * Run with {@code mvn -Pbenchmark -DskipTests verify -Dbenchmark.include=FuzzySearchBenchmark}.
+ *
+ * @author codecharlan
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class FuzzySearchBenchmark {
+    private static final String[] SYLLABLES = {"ka", "lo", "mi", "ren", "tal", "dor", "vi", "sen", "ar", "bel", "cor",
+            "den", "el", "fa", "gor", "hal", "is", "jun", "kel", "lin", "mor", "nar", "ol", "pen", "quin", "ros",
+            "sul", "tor", "ul", "ven", "wen", "xan", "yor", "zel", "an", "bri", "cas", "dru", "eth", "fin"};
+    private static final int WORDS = 100_000;
+    private static final int SURNAMES = 20_000;
+
+    @Param({"1000000"})
+    private int catalogSize;
+
+    private SymSpellDictionary dictionary;
+    private String[] vocabulary;
+    private String oneEdit;
+    private String twoEdits;
+    private String misspelledAuthor;
+    private BookSearchIndex searchIndex;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        searchIndex = new BookSearchIndex(null, 1.2f, 0.75f, new SimpleMeterRegistry());
+        Set<String> terms = new LinkedHashSet<>();
+        for (int id = 1; id <= catalogSize; id++) {
+            long hash = id * 2654435761L;
+            String title = word(skewed(hash, WORDS)) + " " + word(skewed(hash >>> 7, WORDS)) + " " + word(skewed(hash >>> 13, WORDS));
+            String author = word(WORDS + (int) ((hash >>> 3) % SURNAMES));
+            for (String term : title.split(" ")) {
+                terms.add(term);
+            }
+            terms.add(author);
+            searchIndex.onBookChanged(BookChangedEvent.saved(Book.builder().id((long) id).title(title)
+                    .author(Author.builder().name(author).build()).build()));
+        }
+        vocabulary = terms.toArray(String[]::new);
+        dictionary = new SymSpellDictionary(2, 7);
+        for (String term : vocabulary) {
+            dictionary.add(term);
+        }
+
+        String target = vocabulary[vocabulary.length / 2];
+        oneEdit = transpose(target, 1);
+        twoEdits = transpose(target, 1).substring(0, target.length() - 1) + "q";
+        String surname = word(WORDS + SURNAMES / 2);
+        misspelledAuthor = transpose(surname, 2);
+        System.out.printf("%n%d terms stored under %d deletions; looking up %s and %s for %s%n",
+                dictionary.size(), dictionary.deletions(), oneEdit, twoEdits, target);
+    }
+
+    @Benchmark
+    public List<SymSpellDictionary.Suggestion> lookupOneEdit() {
+        return dictionary.lookup(oneEdit, 2);
+    }
+
+    @Benchmark
+    public List<SymSpellDictionary.Suggestion> lookupTwoEdits() {
+        return dictionary.lookup(twoEdits, 2);
+    }
+
+    @Benchmark
+    public List<String> scanVocabulary() {
+        List<String> matches = new ArrayList<>();
+        for (String term : vocabulary) {
+            if (Math.abs(term.length() - twoEdits.length()) <= 2 && distance(twoEdits, term) <= 2) {
+                matches.add(term);
+            }
+        }
+        return matches;
+    }
+
+    @Benchmark
+    public Object fuzzySearch() {
+        return searchIndex.fuzzySearch(misspelledAuthor, 0, 20);
+    }
+
+    /**
+     * Draws a word index with a skew towards the low, common ones.
+     */
+    private static int skewed(long hash, int words) {
+        double uniform = (hash & 0xFFFFFF) / (double) 0x1000000;
+        return (int) (uniform * uniform * words);
+    }
+
+    private static String word(int index) {
+        StringBuilder word = new StringBuilder();
+        int rest = index;
+        do {
+            word.append(SYLLABLES[rest % SYLLABLES.length]);
+            rest /= SYLLABLES.length;
+        } while (rest > 0);
+        return word.length() < 4 ? word.append(SYLLABLES[index % 7]).toString() : word.toString();
+    }
+
+    private static String transpose(String word, int at) {
+        char[] chars = word.toCharArray();
+        char swapped = chars[at];
+        chars[at] = chars[at + 1];
+        chars[at + 1] = swapped;
+        return new String(chars);
+    }
+
+    /**
+     * Optimal string alignment distance without any bound, as a scan without a dictionary computes it.
+     */
+    private static int distance(String source, String target) {
+        int n = source.length();
+        int m = target.length();
+        int[][] d = new int[n + 1][m + 1];
+        for (int i = 0; i <= n; i++) {
+            d[i][0] = i;
+        }
+        for (int j = 0; j <= m; j++) {
+            d[0][j] = j;
+        }
+        for (int i = 1; i <= n; i++) {
+            for (int j = 1; j <= m; j++) {
+                int cost = source.charAt(i - 1) == target.charAt(j - 1) ? 0 : 1;
+                d[i][j] = Math.min(Math.min(d[i - 1][j] + 1, d[i][j - 1] + 1), d[i - 1][j - 1] + cost);
+                if (i > 1 && j > 1 && source.charAt(i - 1) == target.charAt(j - 2) && source.charAt(i - 2) == target.charAt(j - 1)) {
+                    d[i][j] = Math.min(d[i][j], d[i - 2][j - 2] + 1);
+                }
+            }
+        }
+        return d[n][m];
+    }
+}
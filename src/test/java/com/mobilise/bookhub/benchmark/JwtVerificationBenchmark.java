@@ -0,0 +1,63 @@
+package com.mobilise.bookhub.benchmark;
+
+import com.mobilise.bookhub.entity.User;
+import com.mobilise.bookhub.enums.Role;
+import com.mobilise.bookhub.security.config.JwtProperties;
+import com.mobilise.bookhub.security.implementation.JwtKeyRing;
+import com.mobilise.bookhub.security.implementation.JwtServiceImpl;
+import com.mobilise.bookhub.security.implementation.UserDetailsImpl;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.io.Encoders;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares verifying a token with a parser and key built once against rebuilding both on every call.
+ * Run with {@code mvn -Pbenchmark -DskipTests verify -Dbenchmark.include=JwtVerificationBenchmark}.
+ *
+ * @author codecharlan
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtVerificationBenchmark {
+    private String secret;
+    private String token;
+    private JwtServiceImpl jwtService;
+
+    @Setup
+    public void setUp() {
+        secret = Encoders.BASE64.encode("bookhub-benchmark-secret-bookhub-benchmark-secret-bookhub-benchmark-secret"
+                .getBytes(StandardCharsets.UTF_8));
+        jwtService = new JwtServiceImpl(new JwtKeyRing(new JwtProperties(secret, "primary", Map.of())));
+        User user = User.builder().id(1L).email("ernest@charlancodes.org").fullName("Charlan Codes")
+                .password("secret").role(Role.USER).build();
+        UserDetailsImpl userDetails = new UserDetailsImpl(user);
+        token = jwtService.generateToken(
+                new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities()), Role.USER);
+    }
+
+    @Benchmark
+    public Map<String, String> cachedKeyAndParser() {
+        return jwtService.parseTokenClaims(token);
+    }
+
+    @Benchmark
+    public Claims perCallKeyAndParser() {
+        return Jwts.parserBuilder()
+                .setSigningKey(Keys.hmacShaKeyFor(Decoders.BASE64.decode(secret)))
+                .build()
+                .parseClaimsJws(token)
+                .getBody();
+    }
+}
@@ -0,0 +1,98 @@
+package com.mobilise.bookhub.controller;
+
+import com.mobilise.bookhub.dto.request.BookLineDto;
+import com.mobilise.bookhub.dto.request.BulkBookRequestDto;
+import com.mobilise.bookhub.dto.request.CheckoutRequestDto;
+import com.mobilise.bookhub.dto.response.ApiResponse;
+import com.mobilise.bookhub.dto.response.BulkBookResponseDto;
+import com.mobilise.bookhub.dto.response.CheckoutResponseDto;
+import com.mobilise.bookhub.entity.Book;
+import com.mobilise.bookhub.entity.User;
+import com.mobilise.bookhub.enums.BookStatus;
+import com.mobilise.bookhub.enums.Gender;
+import com.mobilise.bookhub.enums.Genre;
+import com.mobilise.bookhub.enums.Role;
+import com.mobilise.bookhub.repository.BookRepository;
+import com.mobilise.bookhub.repository.UserRepository;
+import com.mobilise.bookhub.security.implementation.UserDetailsImpl;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.ResponseEntity;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class BookControllerIdempotencyTest {
+    @Autowired
+    private BookController bookController;
+    @Autowired
+    private BookRepository bookRepository;
+    @Autowired
+    private UserRepository userRepository;
+
+    private UserDetailsImpl saveUser(String email) {
+        User user = userRepository.findByEmail(email).orElseGet(() -> userRepository.save(User.builder()
+                .fullName("Idempotent Desk").email(email).password("securePassword").role(Role.USER)
+                .gender(Gender.FEMALE).balance(BigDecimal.valueOf(45000)).build()));
+        return new UserDetailsImpl(user);
+    }
+
+    private List<Book> saveBooks(String title, int count, long totalCopies) {
+        List<Book> books = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            books.add(Book.builder().title(title + " " + i).isbn("978-0000000300").genre(Genre.FICTION)
+                    .status(BookStatus.AVAILABLE).totalCopies(totalCopies).borrowedCopies(0L)
+                    .unitPriceOfBook(BigDecimal.valueOf(10)).build());
+        }
+        return bookRepository.saveAll(books);
+    }
+
+    @Test
+    void testBorrowBooks_HundredLinesWithIdempotencyKey() {
+        UserDetailsImpl desk = saveUser("bulk-idempotent@charlancodes.org");
+        List<BookLineDto> lines = saveBooks("Bulk Idempotent", 100, 3).stream()
+                .map(book -> new BookLineDto(book.getId(), 1))
+                .toList();
+        BulkBookRequestDto request = new BulkBookRequestDto(lines, null);
+
+        ResponseEntity<ApiResponse<BulkBookResponseDto>> first = bookController.borrowBooks(desk, request, "bulk-key-1");
+        ResponseEntity<ApiResponse<BulkBookResponseDto>> retry = bookController.borrowBooks(desk, request, "bulk-key-1");
+
+        // Assertions
+        assertEquals(200, first.getStatusCode().value());
+        assertEquals(100, first.getBody().data().succeeded());
+        assertEquals(200, retry.getStatusCode().value());
+        assertEquals(100, retry.getBody().data().succeeded());
+        for (BookLineDto line : lines) {
+            assertEquals(2L, bookRepository.findById(line.bookId()).orElseThrow().getTotalCopies());
+        }
+    }
+
+    @Test
+    void testCheckout_HundredLinesWithIdempotencyKey() {
+        UserDetailsImpl buyer = saveUser("checkout-idempotent@charlancodes.org");
+        List<BookLineDto> lines = saveBooks("Checkout Idempotent", 100, 3).stream()
+                .map(book -> new BookLineDto(book.getId(), 1))
+                .toList();
+        CheckoutRequestDto cart = new CheckoutRequestDto(lines);
+
+        ResponseEntity<ApiResponse<CheckoutResponseDto>> first = bookController.checkout(buyer, cart, "checkout-key-1");
+        ResponseEntity<ApiResponse<CheckoutResponseDto>> retry = bookController.checkout(buyer, cart, "checkout-key-1");
+
+        // Assertions
+        assertEquals(200, first.getStatusCode().value());
+        assertEquals(100, first.getBody().data().books().size());
+        assertEquals(200, retry.getStatusCode().value());
+        assertEquals(0, first.getBody().data().totalAmount().compareTo(retry.getBody().data().totalAmount()));
+        assertEquals(0, BigDecimal.valueOf(44000).compareTo(
+                userRepository.findByEmail(buyer.getEmail()).orElseThrow().getBalance()));
+        for (BookLineDto line : lines) {
+            assertEquals(2L, bookRepository.findById(line.bookId()).orElseThrow().getTotalCopies());
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.mobilise.bookhub.repository;
+
+import com.mobilise.bookhub.entity.Book;
+import com.mobilise.bookhub.enums.BookStatus;
+import com.mobilise.bookhub.enums.Genre;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+@SpringBootTest
+class BookRepositoryConcurrencyTest {
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Test
+    void testBorrowCopies_ConcurrentBorrowersNeverOversell() throws Exception {
+        Book book = bookRepository.save(Book.builder().title("Concurrent Borrowers").isbn("978-0000000002")
+                .genre(Genre.FICTION).status(BookStatus.AVAILABLE).totalCopies(5L).borrowedCopies(0L)
+                .unitPriceOfBook(BigDecimal.valueOf(1500)).build());
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger successes = new AtomicInteger();
+        try {
+            for (int i = 0; i < 20; i++) {
+                executor.submit(() -> {
+                    start.await();
+                    if (bookRepository.borrowCopies(book.getId(), 1) != null) {
+                        successes.incrementAndGet();
+                    }
+                    return null;
+                });
+            }
+            start.countDown();
+        } finally {
+            executor.shutdown();
+            executor.awaitTermination(30, TimeUnit.SECONDS);
+        }
+        Book updatedBook = bookRepository.findById(book.getId()).orElseThrow();
+
+        // Assertions
+        assertEquals(5, successes.get());
+        assertEquals(0L, updatedBook.getTotalCopies());
+        assertEquals(5L, updatedBook.getBorrowedCopies());
+        assertEquals(BookStatus.BORROWED, updatedBook.getStatus());
+    }
+
+    @Test
+    void testPurchaseAndReturnCopies_UpdateStatus() {
+        Book book = bookRepository.save(Book.builder().title("Purchase And Return").isbn("978-0000000003")
+                .genre(Genre.FICTION).status(BookStatus.AVAILABLE).totalCopies(2L).borrowedCopies(0L)
+                .unitPriceOfBook(BigDecimal.valueOf(1500)).build());
+
+        assertEquals(BookStatus.AVAILABLE, bookRepository.borrowCopies(book.getId(), 1));
+        assertNull(bookRepository.purchaseCopies(book.getId(), 2));
+        assertEquals(BookStatus.SOLD_OUT, bookRepository.purchaseCopies(book.getId(), 1));
+        assertEquals(BookStatus.SOLD_OUT, bookRepository.findById(book.getId()).orElseThrow().getStatus());
+        assertEquals(0, bookRepository.returnCopies(book.getId(), 2));
+        assertEquals(1, bookRepository.returnCopies(book.getId(), 1));
+
+        // Assertions
+        Book updatedBook = bookRepository.findById(book.getId()).orElseThrow();
+        assertEquals(1L, updatedBook.getTotalCopies());
+        assertEquals(0L, updatedBook.getBorrowedCopies());
+        assertEquals(BookStatus.AVAILABLE, updatedBook.getStatus());
+    }
+}
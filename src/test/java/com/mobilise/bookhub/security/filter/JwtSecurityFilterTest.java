@@ -0,0 +1,127 @@
+package com.mobilise.bookhub.security.filter;
+
+import com.mobilise.bookhub.entity.User;
+import com.mobilise.bookhub.enums.Role;
+import com.mobilise.bookhub.security.config.JwtProperties;
+import com.mobilise.bookhub.security.implementation.JwtKeyRing;
+import com.mobilise.bookhub.security.implementation.JwtServiceImpl;
+import com.mobilise.bookhub.security.implementation.TokenRevocationService;
+import com.mobilise.bookhub.security.implementation.UserDetailsImpl;
+import com.mobilise.bookhub.security.implementation.UserDetailsServiceImpl;
+import io.jsonwebtoken.io.Encoders;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import static com.mobilise.bookhub.constants.Constants.VERIFIED_CLAIMS_ATTRIBUTE;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class JwtSecurityFilterTest {
+    @Mock
+    private UserDetailsServiceImpl userDetailsService;
+    @Mock
+    private TokenRevocationService tokenRevocationService;
+    private JwtServiceImpl jwtService;
+    private SimpleMeterRegistry meterRegistry;
+    private JwtSecurityFilter jwtSecurityFilter;
+    private UserDetailsImpl userDetails;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        String secret = Encoders.BASE64.encode("bookhub-signing-secret-bookhub-signing-secret-bookhub-signing-secret"
+                .getBytes(StandardCharsets.UTF_8));
+        jwtService = spy(new JwtServiceImpl(new JwtKeyRing(new JwtProperties(secret, "primary", Map.of()))));
+        meterRegistry = new SimpleMeterRegistry();
+        jwtSecurityFilter = new JwtSecurityFilter(jwtService, userDetailsService, tokenRevocationService, meterRegistry, false);
+        userDetails = new UserDetailsImpl(User.builder().id(1L).fullName("Charlan Codes")
+                .email("ernest@charlancodes.org").password("securePassword").role(Role.USER).build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    void testDoFilter_ParsesTokenOncePerRequest() throws Exception {
+        String token = jwtService.generateToken(
+                new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities()), Role.USER);
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/books/all");
+        request.addHeader("Authorization", "Bearer " + token);
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+        when(userDetailsService.loadAuthenticatedUser(anyString())).thenReturn(userDetails);
+
+        jwtSecurityFilter.doFilter(request, new MockHttpServletResponse(), (req, res) ->
+                assertEquals(userDetails, SecurityContextHolder.getContext().getAuthentication().getPrincipal()));
+
+        // Assertions
+        DistributionSummary parsesPerRequest = meterRegistry.get("bookhub.jwt.parses.per.request").summary();
+        assertEquals(1, parsesPerRequest.count());
+        assertEquals(1.0, parsesPerRequest.max());
+        assertEquals("ernest@charlancodes.org",
+                ((Map<?, ?>) request.getAttribute(VERIFIED_CLAIMS_ATTRIBUTE)).get("email"));
+        verify(jwtService, times(1)).parseTokenClaims(token);
+    }
+
+    @Test
+    void testDoFilter_StatelessAuthentication() throws Exception {
+        JwtSecurityFilter statelessFilter = new JwtSecurityFilter(jwtService, userDetailsService, tokenRevocationService, meterRegistry, true);
+        String token = jwtService.generateToken(
+                new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities()), Role.USER);
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/books/all");
+        request.addHeader("Authorization", "Bearer " + token);
+
+        statelessFilter.doFilter(request, new MockHttpServletResponse(), (req, res) -> {
+            UserDetailsImpl principal = (UserDetailsImpl) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+            assertEquals(1L, principal.getId());
+            assertEquals("ernest@charlancodes.org", principal.getEmail());
+            assertEquals("USER", principal.getAuthorities().iterator().next().getAuthority());
+        });
+
+        verifyNoInteractions(userDetailsService);
+    }
+
+    @Test
+    void testDoFilter_RevokedToken() throws Exception {
+        String token = jwtService.generateToken(
+                new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities()), Role.USER);
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/books/all");
+        request.addHeader("Authorization", "Bearer " + token);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        when(tokenRevocationService.isRevoked(jwtService.parseTokenClaims(token).get("jti"))).thenReturn(true);
+
+        jwtSecurityFilter.doFilter(request, response, (req, res) -> fail("Revoked token must not reach the controller"));
+
+        // Assertions
+        assertEquals(401, response.getStatus());
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+    }
+
+    @Test
+    void testDoFilter_NoToken() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/books/all");
+
+        jwtSecurityFilter.doFilter(request, new MockHttpServletResponse(), (req, res) ->
+                assertNull(SecurityContextHolder.getContext().getAuthentication()));
+
+        verify(jwtService, never()).parseTokenClaims(anyString());
+        verifyNoInteractions(userDetailsService);
+    }
+}
@@ -0,0 +1,84 @@
+package com.mobilise.bookhub.security.filter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mobilise.bookhub.entity.User;
+import com.mobilise.bookhub.enums.Role;
+import com.mobilise.bookhub.security.config.RateLimitProperties;
+import com.mobilise.bookhub.security.implementation.UserDetailsImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RateLimitingFilterTest {
+    private SimpleMeterRegistry meterRegistry;
+    private RateLimitingFilter rateLimitingFilter;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        RateLimitProperties properties = new RateLimitProperties(true, Duration.ofMinutes(10), List.of(
+                new RateLimitProperties.EndpointLimit("/api/users/login", 2, 0.01),
+                new RateLimitProperties.EndpointLimit("/api/books/**", 1, 0.01)));
+        rateLimitingFilter = new RateLimitingFilter(properties, new ObjectMapper(), meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    private MockHttpServletResponse perform(String uri, String remoteAddress) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", uri);
+        request.setRemoteAddr(remoteAddress);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        rateLimitingFilter.doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+
+    @Test
+    void testDoFilter_RejectsOverLimitPerIp() throws Exception {
+        assertEquals(200, perform("/api/users/login", "10.0.0.1").getStatus());
+        assertEquals(200, perform("/api/users/login", "10.0.0.1").getStatus());
+        MockHttpServletResponse rejected = perform("/api/users/login", "10.0.0.1");
+
+        // Assertions
+        assertEquals(429, rejected.getStatus());
+        assertEquals("100", rejected.getHeader("Retry-After"));
+        assertEquals(200, perform("/api/users/login", "10.0.0.2").getStatus());
+        assertEquals(1.0, meterRegistry.get("bookhub.rate.limit.rejections").tag("pattern", "/api/users/login").counter().count());
+    }
+
+    @Test
+    void testDoFilter_KeysAuthenticatedRequestsByUser() throws Exception {
+        UserDetailsImpl userDetails = new UserDetailsImpl(User.builder().id(1L).fullName("Charlan Codes")
+                .email("ernest@charlancodes.org").password("securePassword").role(Role.USER).build());
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities()));
+
+        assertEquals(200, perform("/api/books/all", "10.0.0.1").getStatus());
+
+        // Assertions
+        assertEquals(429, perform("/api/books/all", "10.0.0.2").getStatus());
+        SecurityContextHolder.clearContext();
+        assertEquals(200, perform("/api/books/all", "10.0.0.1").getStatus());
+    }
+
+    @Test
+    void testDoFilter_UnmatchedPathIsNotLimited() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            assertEquals(200, perform("/api/reviews/all", "10.0.0.1").getStatus());
+        }
+        assertEquals(0.0, meterRegistry.get("bookhub.rate.limit.buckets").gauge().value());
+    }
+}
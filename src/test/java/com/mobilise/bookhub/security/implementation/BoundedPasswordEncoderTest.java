@@ -0,0 +1,80 @@
+package com.mobilise.bookhub.security.implementation;
+
+import com.mobilise.bookhub.exception.PasswordHashingUnavailableException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BoundedPasswordEncoderTest {
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private BoundedPasswordEncoder passwordEncoder;
+
+    @AfterEach
+    void tearDown() {
+        passwordEncoder.shutdown();
+    }
+
+    @Test
+    void testEncodeAndMatches_Success() {
+        passwordEncoder = new BoundedPasswordEncoder(4, 2, 4, Duration.ofSeconds(5), meterRegistry);
+
+        String encoded = passwordEncoder.encode("securePassword");
+
+        // Assertions
+        assertTrue(passwordEncoder.matches("securePassword", encoded));
+        assertFalse(passwordEncoder.matches("wrongPassword", encoded));
+        assertEquals(1, meterRegistry.get("bookhub.password.hashing.duration").tag("operation", "encode").timer().count());
+        assertEquals(2, meterRegistry.get("bookhub.password.hashing.duration").tag("operation", "matches").timer().count());
+    }
+
+    @Test
+    void testUpgradeEncoding_LowerCost() {
+        passwordEncoder = new BoundedPasswordEncoder(6, 1, 1, Duration.ofSeconds(5), meterRegistry);
+
+        // Assertions
+        assertTrue(passwordEncoder.upgradeEncoding(new BCryptPasswordEncoder(4).encode("securePassword")));
+        assertFalse(passwordEncoder.upgradeEncoding(new BCryptPasswordEncoder(6).encode("securePassword")));
+    }
+
+    @Test
+    void testEncode_RejectedWhenQueueIsFull() throws Exception {
+        CountDownLatch hashing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        PasswordEncoder blockingEncoder = new BCryptPasswordEncoder(4) {
+            @Override
+            public String encode(CharSequence rawPassword) {
+                hashing.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return super.encode(rawPassword);
+            }
+        };
+        passwordEncoder = new BoundedPasswordEncoder(blockingEncoder, 1, 1, Duration.ofSeconds(5), meterRegistry);
+        CompletableFuture<String> running = CompletableFuture.supplyAsync(() -> passwordEncoder.encode("first"));
+        assertTrue(hashing.await(5, TimeUnit.SECONDS));
+        CompletableFuture<String> queued = CompletableFuture.supplyAsync(() -> passwordEncoder.encode("second"));
+        while (meterRegistry.get("bookhub.password.hashing.queue.depth").gauge().value() < 1) {
+            Thread.onSpinWait();
+        }
+
+        assertThrows(PasswordHashingUnavailableException.class, () -> passwordEncoder.encode("third"));
+        release.countDown();
+
+        // Assertions
+        assertNotNull(running.get(5, TimeUnit.SECONDS));
+        assertNotNull(queued.get(5, TimeUnit.SECONDS));
+        assertEquals(1.0, meterRegistry.get("bookhub.password.hashing.rejections").counter().count());
+    }
+}
@@ -0,0 +1,101 @@
+package com.mobilise.bookhub.security.implementation;
+
+import com.mobilise.bookhub.entity.User;
+import com.mobilise.bookhub.enums.Role;
+import com.mobilise.bookhub.exception.JwtParsingException;
+import com.mobilise.bookhub.security.config.JwtProperties;
+import io.jsonwebtoken.io.Encoders;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JwtServiceImplTest {
+    private JwtKeyRing keyRing;
+    private JwtServiceImpl jwtService;
+    private Authentication authentication;
+
+    @BeforeEach
+    void setUp() {
+        keyRing = new JwtKeyRing(new JwtProperties(secret("first"), "primary", Map.of()));
+        jwtService = new JwtServiceImpl(keyRing);
+        User user = User.builder().id(1L).fullName("Charlan Codes").email("ernest@charlancodes.org")
+                .password("securePassword").role(Role.USER).build();
+        UserDetailsImpl userDetails = new UserDetailsImpl(user);
+        authentication = new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
+    }
+
+    private static String secret(String seed) {
+        return Encoders.BASE64.encode((seed + "-bookhub-signing-secret-bookhub-signing-secret-bookhub-signing")
+                .getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void testParseTokenClaims_Success() {
+        String token = jwtService.generateToken(authentication, Role.USER);
+
+        Map<String, String> claims = jwtService.parseTokenClaims(token);
+
+        // Assertions
+        assertEquals("ernest@charlancodes.org", claims.get("email"));
+        assertEquals("USER", claims.get("role"));
+    }
+
+    @Test
+    void testParseTokenClaims_AfterRotation() {
+        String oldToken = jwtService.generateToken(authentication, Role.USER);
+        keyRing.rotate("second", secret("second"));
+        String newToken = jwtService.generateToken(authentication, Role.USER);
+
+        // Assertions
+        assertEquals("second", keyRing.getActiveKeyId());
+        assertEquals("ernest@charlancodes.org", jwtService.parseTokenClaims(oldToken).get("email"));
+        assertEquals("ernest@charlancodes.org", jwtService.parseTokenClaims(newToken).get("email"));
+    }
+
+    @Test
+    void testParseTokenClaims_RetiredKey() {
+        String oldToken = jwtService.generateToken(authentication, Role.USER);
+        keyRing.rotate("second", secret("second"));
+        keyRing.retire("primary");
+
+        assertThrows(JwtParsingException.class, () -> jwtService.parseTokenClaims(oldToken));
+    }
+
+    @Test
+    void testRetire_ActiveKey() {
+        assertThrows(IllegalStateException.class, () -> keyRing.retire("primary"));
+    }
+
+    @Test
+    void testParseTokenClaims_VerifiedTokenCacheHit() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        JwtServiceImpl cachingJwtService = new JwtServiceImpl(keyRing, new VerifiedTokenCache(100, meterRegistry));
+        String token = cachingJwtService.generateToken(authentication, Role.USER);
+
+        Map<String, String> firstClaims = cachingJwtService.parseTokenClaims(token);
+        Map<String, String> secondClaims = cachingJwtService.parseTokenClaims(token);
+
+        // Assertions
+        assertSame(firstClaims, secondClaims);
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("result", "hit").functionCounter().count());
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("result", "miss").functionCounter().count());
+    }
+
+    @Test
+    void testParseTokenClaims_VerifiedTokenCacheRetiredKey() {
+        JwtServiceImpl cachingJwtService = new JwtServiceImpl(keyRing, new VerifiedTokenCache(100, new SimpleMeterRegistry()));
+        String oldToken = cachingJwtService.generateToken(authentication, Role.USER);
+        cachingJwtService.parseTokenClaims(oldToken);
+        keyRing.rotate("second", secret("second"));
+        keyRing.retire("primary");
+
+        assertThrows(JwtParsingException.class, () -> cachingJwtService.parseTokenClaims(oldToken));
+    }
+}
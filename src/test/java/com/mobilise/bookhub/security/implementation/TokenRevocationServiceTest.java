@@ -0,0 +1,67 @@
+package com.mobilise.bookhub.security.implementation;
+
+import com.mobilise.bookhub.entity.RevokedToken;
+import com.mobilise.bookhub.repository.RevokedTokenRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class TokenRevocationServiceTest {
+    @Mock
+    private RevokedTokenRepository revokedTokenRepository;
+    private TokenRevocationService tokenRevocationService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        tokenRevocationService = new TokenRevocationService(revokedTokenRepository, 1000, 0.001, new SimpleMeterRegistry());
+    }
+
+    @Test
+    void testIsRevoked_NotRevokedSkipsDatabase() {
+        assertFalse(tokenRevocationService.isRevoked("8d0b6a5e-5f4e-4c57-9d43-1f0f5b2e7c11"));
+
+        verifyNoInteractions(revokedTokenRepository);
+    }
+
+    @Test
+    void testIsRevoked_AfterRevoke() {
+        String jti = "8d0b6a5e-5f4e-4c57-9d43-1f0f5b2e7c11";
+        when(revokedTokenRepository.existsById(jti)).thenReturn(true);
+
+        tokenRevocationService.revoke(jti, Instant.now().plusSeconds(60));
+
+        // Assertions
+        assertTrue(tokenRevocationService.isRevoked(jti));
+        verify(revokedTokenRepository, times(1)).save(any(RevokedToken.class));
+    }
+
+    @Test
+    void testRefresh_RebuildsFromUnexpiredRevocations() {
+        String jti = "8d0b6a5e-5f4e-4c57-9d43-1f0f5b2e7c11";
+        when(revokedTokenRepository.findActiveJtis(any(Instant.class))).thenReturn(List.of(jti));
+        when(revokedTokenRepository.existsById(jti)).thenReturn(true);
+
+        tokenRevocationService.refresh();
+
+        // Assertions
+        assertTrue(tokenRevocationService.isRevoked(jti));
+        verify(revokedTokenRepository, times(1)).deleteExpired(any(Instant.class));
+    }
+
+    @Test
+    void testRevoke_ExpiredTokenIsIgnored() {
+        tokenRevocationService.revoke("8d0b6a5e-5f4e-4c57-9d43-1f0f5b2e7c11", Instant.now().minusSeconds(1));
+
+        verifyNoInteractions(revokedTokenRepository);
+    }
+}
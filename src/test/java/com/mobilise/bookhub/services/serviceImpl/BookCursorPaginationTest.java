@@ -0,0 +1,102 @@
+package com.mobilise.bookhub.services.serviceImpl;
+
+import com.mobilise.bookhub.dto.response.ApiResponse;
+import com.mobilise.bookhub.dto.response.BookResponseDto;
+import com.mobilise.bookhub.entity.Book;
+import com.mobilise.bookhub.enums.BookStatus;
+import com.mobilise.bookhub.enums.CountMode;
+import com.mobilise.bookhub.enums.Genre;
+import com.mobilise.bookhub.exception.InvalidArgumentException;
+import com.mobilise.bookhub.repository.BookRepository;
+import com.mobilise.bookhub.services.BookService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class BookCursorPaginationTest {
+    @Autowired
+    private BookService bookService;
+    @Autowired
+    private BookRepository bookRepository;
+
+    private List<Book> saveBooks(String prefix, String... suffixes) {
+        List<Book> books = new ArrayList<>();
+        for (String suffix : suffixes) {
+            books.add(bookRepository.save(Book.builder().title(prefix + suffix).isbn("978-0000000500")
+                    .genre(Genre.FICTION).status(BookStatus.AVAILABLE).totalCopies(1L).borrowedCopies(0L)
+                    .unitPriceOfBook(BigDecimal.valueOf(1500)).build()));
+        }
+        return books;
+    }
+
+    @Test
+    void testGetAllBooksAfter_VisitsEveryBookOnceInSortOrder() {
+        // Repeated titles, so the ID has to break ties between pages.
+        List<Book> books = saveBooks("Cursor Paging ", "C", "A", "B", "A", "C", "B", "A");
+        List<Long> expected = books.stream()
+                .sorted(Comparator.comparing(Book::getTitle).reversed().thenComparing(Book::getId, Comparator.reverseOrder()))
+                .map(Book::getId)
+                .toList();
+
+        List<Long> visited = new ArrayList<>();
+        String cursor = "";
+        int pages = 0;
+        do {
+            ApiResponse.Wrapper<List<BookResponseDto>> page = bookService.getAllBooksAfter("reader@charlancodes.org",
+                    cursor, 3, "title", "desc", "Cursor Paging", CountMode.NONE).data();
+            page.getData().forEach(book -> visited.add(book.id()));
+            assertNull(page.getTotalElements());
+            assertEquals(page.getNextCursor() != null, page.getHasNext());
+            cursor = page.getNextCursor();
+            pages++;
+        } while (cursor != null);
+
+        // Assertions
+        assertEquals(expected, visited);
+        assertEquals(3, pages);
+    }
+
+    @Test
+    void testGetAllBooksAfter_CountsOnlyWhenAskedAndRejectsCursorOfOtherSortOrder() {
+        saveBooks("Cursor Counting ", "A", "B", "C");
+
+        ApiResponse.Wrapper<List<BookResponseDto>> page = bookService.getAllBooksAfter("reader@charlancodes.org",
+                null, 2, "title", "asc", "Cursor Counting", CountMode.EXACT).data();
+
+        // Assertions
+        assertEquals(2, page.getData().size());
+        assertEquals(3L, page.getTotalElements());
+        assertEquals(2, page.getTotalPages());
+        assertTrue(page.getHasNext());
+        assertThrows(InvalidArgumentException.class, () -> bookService.getAllBooksAfter("reader@charlancodes.org",
+                page.getNextCursor(), 2, "title", "desc", "Cursor Counting", CountMode.NONE));
+        assertThrows(InvalidArgumentException.class, () -> bookService.getAllBooksAfter("reader@charlancodes.org",
+                "not-a-cursor", 2, "title", "asc", "Cursor Counting", CountMode.NONE));
+        assertThrows(InvalidArgumentException.class, () -> bookService.getAllBooksAfter("reader@charlancodes.org",
+                null, 2, "publicationYear", "asc", "Cursor Counting", CountMode.NONE));
+    }
+
+    @Test
+    void testSearchBooksByTitleOrAuthorAfter_PagesBooksWithoutAuthor() {
+        List<Book> books = saveBooks("Cursor Search ", "B", "A", "C", "D");
+
+        ApiResponse.Wrapper<List<BookResponseDto>> first = bookService.searchBooksByTitleOrAuthorAfter(
+                "reader@charlancodes.org", "", 3, "cursor search", CountMode.NONE).data();
+        ApiResponse.Wrapper<List<BookResponseDto>> second = bookService.searchBooksByTitleOrAuthorAfter(
+                "reader@charlancodes.org", first.getNextCursor(), 3, "cursor search", CountMode.NONE).data();
+
+        // Assertions
+        assertEquals(List.of(books.get(1).getId(), books.get(0).getId(), books.get(2).getId()),
+                first.getData().stream().map(BookResponseDto::id).toList());
+        assertEquals(List.of(books.get(3).getId()), second.getData().stream().map(BookResponseDto::id).toList());
+        assertFalse(second.getHasNext());
+    }
+}
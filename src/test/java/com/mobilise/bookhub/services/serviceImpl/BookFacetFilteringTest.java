@@ -0,0 +1,93 @@
+package com.mobilise.bookhub.services.serviceImpl;
+
+import com.mobilise.bookhub.dto.request.BookFilterDto;
+import com.mobilise.bookhub.dto.response.ApiResponse;
+import com.mobilise.bookhub.dto.response.BookResponseDto;
+import com.mobilise.bookhub.entity.Book;
+import com.mobilise.bookhub.entity.Publisher;
+import com.mobilise.bookhub.enums.BookStatus;
+import com.mobilise.bookhub.enums.CountMode;
+import com.mobilise.bookhub.enums.Genre;
+import com.mobilise.bookhub.exception.InvalidArgumentException;
+import com.mobilise.bookhub.repository.BookRepository;
+import com.mobilise.bookhub.repository.PublisherRepository;
+import com.mobilise.bookhub.services.BookService;
+import com.mobilise.bookhub.utils.BookUtils;
+import com.mobilise.bookhub.utils.facet.BookFacetIndex;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static com.mobilise.bookhub.enums.TransactionType.BORROW;
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class BookFacetFilteringTest {
+    @Autowired
+    private BookService bookService;
+    @Autowired
+    private BookRepository bookRepository;
+    @Autowired
+    private PublisherRepository publisherRepository;
+    @Autowired
+    private BookFacetIndex bookFacetIndex;
+    @Autowired
+    private BookUtils bookUtils;
+
+    private Book saveBook(String title, Genre genre, int year, Publisher publisher) {
+        return bookRepository.save(Book.builder().title(title).isbn("978-0000000600").genre(genre)
+                .status(BookStatus.AVAILABLE).totalCopies(1L).borrowedCopies(0L).publicationYear(year)
+                .unitPriceOfBook(BigDecimal.valueOf(year - 1990)).publisher(publisher).build());
+    }
+
+    @Test
+    void testGetAllBooks_PagesFilteredBooksAndCountsFacetsOnBitmaps() {
+        Publisher publisher = publisherRepository.save(new Publisher("Facet Press", "Lagos", "facets@charlancodes.org"));
+        Book first = saveBook("Facet Fiction A", Genre.FICTION, 2001, publisher);
+        saveBook("Facet Fiction B", Genre.FICTION, 2002, publisher);
+        saveBook("Facet Fiction C", Genre.FICTION, 2003, publisher);
+        saveBook("Facet Mystery A", Genre.MYSTERY, 2004, publisher);
+        saveBook("Facet Mystery B", Genre.MYSTERY, 2005, publisher);
+        bookFacetIndex.rebuild();
+        BookFilterDto fiction = new BookFilterDto(Set.of(Genre.FICTION), null, Set.of(publisher.getId()), null, null,
+                null, null, true);
+
+        ApiResponse.Wrapper<List<BookResponseDto>> firstPage = bookService.getAllBooks("reader@charlancodes.org", 0, 2,
+                "publicationYear", "asc", null, CountMode.EXACT, fiction).data();
+        ApiResponse.Wrapper<List<BookResponseDto>> lastPage = bookService.getAllBooks("reader@charlancodes.org", 1, 2,
+                "publicationYear", "asc", null, CountMode.EXACT, fiction).data();
+        bookUtils.updateBookAvailability(first.getId(), 1, BORROW);
+        ApiResponse.Wrapper<List<BookResponseDto>> afterBorrow = bookService.getAllBooks("reader@charlancodes.org", 0, 2,
+                "publicationYear", "asc", null, CountMode.EXACT, fiction).data();
+        ApiResponse.Wrapper<List<BookResponseDto>> searched = bookService.getAllBooks("reader@charlancodes.org", 0, 2,
+                "publicationYear", "asc", "Fiction B", CountMode.EXACT, fiction).data();
+
+        // Assertions
+        assertEquals(List.of("Facet Fiction A", "Facet Fiction B"), firstPage.getData().stream().map(BookResponseDto::title).toList());
+        assertTrue(firstPage.getHasNext());
+        assertEquals(3L, firstPage.getTotalElements());
+        assertEquals(2, firstPage.getTotalPages());
+        assertEquals(3L, firstPage.getFacets().get(BookFacetIndex.GENRE).get("FICTION"));
+        assertEquals(2L, firstPage.getFacets().get(BookFacetIndex.GENRE).get("MYSTERY"));
+        assertEquals(Map.of("2001", 1L, "2002", 1L, "2003", 1L), firstPage.getFacets().get(BookFacetIndex.PUBLICATION_YEAR));
+        assertEquals(List.of("Facet Fiction C"), lastPage.getData().stream().map(BookResponseDto::title).toList());
+        assertFalse(lastPage.getHasNext());
+        assertEquals(1L, afterBorrow.getFacets().get(BookFacetIndex.STATUS).get("BORROWED"));
+        assertEquals(1L, searched.getTotalElements());
+        assertNull(searched.getFacets());
+    }
+
+    @Test
+    void testGetAllBooks_RejectsEmptyRanges() {
+        BookFilterDto years = new BookFilterDto(null, null, null, 2010, 2000, null, null, false);
+
+        // Assertions
+        assertThrows(InvalidArgumentException.class, () -> bookService.getAllBooks("reader@charlancodes.org", 0, 10,
+                "title", "asc", null, CountMode.NONE, years));
+    }
+}
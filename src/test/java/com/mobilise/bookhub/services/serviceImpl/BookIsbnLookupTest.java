@@ -0,0 +1,73 @@
+package com.mobilise.bookhub.services.serviceImpl;
+
+import com.mobilise.bookhub.dto.response.IsbnLookupResponseDto;
+import com.mobilise.bookhub.entity.Book;
+import com.mobilise.bookhub.enums.BookStatus;
+import com.mobilise.bookhub.enums.Genre;
+import com.mobilise.bookhub.exception.InvalidArgumentException;
+import com.mobilise.bookhub.exception.ResourceNotFoundException;
+import com.mobilise.bookhub.repository.BookRepository;
+import com.mobilise.bookhub.services.BookService;
+import com.mobilise.bookhub.utils.IsbnUtils;
+import com.mobilise.bookhub.utils.search.BookChangedEvent;
+import com.mobilise.bookhub.utils.search.BookIsbnIndex;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class BookIsbnLookupTest {
+    @Autowired
+    private BookService bookService;
+    @Autowired
+    private BookRepository bookRepository;
+    @Autowired
+    private BookIsbnIndex bookIsbnIndex;
+
+    private Book saveBook(String title, String isbn) {
+        return bookRepository.save(Book.builder().title(title).isbn(isbn).normalizedIsbn(IsbnUtils.normalize(isbn))
+                .genre(Genre.FICTION).status(BookStatus.AVAILABLE).totalCopies(1L).borrowedCopies(0L)
+                .unitPriceOfBook(BigDecimal.valueOf(1500)).build());
+    }
+
+    @Test
+    void testGetBookByIsbn_ResolvesIsbn10AndIsbn13OfIndexedAndCreatedBooks() {
+        Book book = saveBook("Isbn Lookup", "978-0-306-40615-7");
+        bookIsbnIndex.rebuild();
+
+        Long isbn10 = bookService.getBookByIsbn("reader@charlancodes.org", "0306406152").data().id();
+        Long isbn13 = bookService.getBookByIsbn("reader@charlancodes.org", "978-0-306-40615-7").data().id();
+        Book created = saveBook("Isbn Lookup Created", "0-439-42089-X");
+        bookIsbnIndex.onBookChanged(BookChangedEvent.saved(created));
+
+        // Assertions
+        assertEquals(book.getId(), isbn10);
+        assertEquals(book.getId(), isbn13);
+        assertEquals(created.getId(), bookService.getBookByIsbn("reader@charlancodes.org", "9780439420891").data().id());
+        assertThrows(InvalidArgumentException.class, () -> bookService.getBookByIsbn("reader@charlancodes.org", "0306406153"));
+        assertThrows(ResourceNotFoundException.class, () -> bookService.getBookByIsbn("reader@charlancodes.org", "979-10-90636-07-1"));
+    }
+
+    @Test
+    void testGetBooksByIsbn_ResolvesABatchInOrder() {
+        Book first = saveBook("Isbn Batch A", "978-1-86197-876-9");
+        Book second = saveBook("Isbn Batch B", "0-8044-2957-X");
+        bookIsbnIndex.rebuild();
+
+        List<IsbnLookupResponseDto> results = bookService.getBooksByIsbn("reader@charlancodes.org",
+                List.of("080442957X", "not an isbn", "9781861978769", "979-10-90636-07-1")).data();
+
+        // Assertions
+        assertEquals(List.of("080442957X", "not an isbn", "9781861978769", "979-10-90636-07-1"),
+                results.stream().map(IsbnLookupResponseDto::isbn).toList());
+        assertEquals(second.getId(), results.get(0).book().id());
+        assertNull(results.get(1).book());
+        assertEquals(first.getId(), results.get(2).book().id());
+        assertNull(results.get(3).book());
+    }
+}
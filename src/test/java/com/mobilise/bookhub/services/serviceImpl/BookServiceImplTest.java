@@ -1,30 +1,56 @@
 package com.mobilise.bookhub.services.serviceImpl;
 
+import com.mobilise.bookhub.config.LoanProperties;
 import com.mobilise.bookhub.dto.request.BookRequestDto;
+import com.mobilise.bookhub.dto.request.BookLineDto;
+import com.mobilise.bookhub.dto.request.CheckoutRequestDto;
 import com.mobilise.bookhub.dto.response.ApiResponse;
 import com.mobilise.bookhub.dto.response.BookResponseDto;
+import com.mobilise.bookhub.dto.response.BulkBookResponseDto;
+import com.mobilise.bookhub.dto.response.CheckoutResponseDto;
 import com.mobilise.bookhub.entity.*;
 import com.mobilise.bookhub.enums.BookStatus;
+import com.mobilise.bookhub.enums.CountMode;
 import com.mobilise.bookhub.enums.Genre;
 import com.mobilise.bookhub.enums.TransactionType;
 import com.mobilise.bookhub.exception.*;
 import com.mobilise.bookhub.repository.*;
+import com.mobilise.bookhub.utils.BookCountCache;
 import com.mobilise.bookhub.utils.BookUtils;
 import com.mobilise.bookhub.utils.DtoMapper;
+import com.mobilise.bookhub.utils.RetryWithJitter;
+import com.mobilise.bookhub.utils.facet.BookFacetIndex;
+import com.mobilise.bookhub.utils.search.BookIsbnIndex;
+import com.mobilise.bookhub.utils.search.BookSearchIndex;
+import com.mobilise.bookhub.utils.search.BookSuggestionIndex;
+import com.mobilise.bookhub.utils.search.InvertedIndex;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpStatus;
+import org.springframework.transaction.PlatformTransactionManager;
 
 import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static java.net.HttpURLConnection.HTTP_CREATED;
@@ -47,6 +73,28 @@ class BookServiceImplTest {
     private DtoMapper dtoMapper;
     @Mock
     private BookUtils bookUtils;
+    @Mock
+    private WalletService walletService;
+    @Mock
+    private ReservationService reservationService;
+    @Mock
+    private BookCountCache bookCountCache;
+    @Mock
+    private BookSearchIndex bookSearchIndex;
+    @Mock
+    private BookSuggestionIndex bookSuggestionIndex;
+    @Mock
+    private BookFacetIndex bookFacetIndex;
+    @Mock
+    private BookIsbnIndex bookIsbnIndex;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+    @Spy
+    private LoanProperties loanProperties = new LoanProperties(Duration.ofDays(14));
+    @Spy
+    private RetryWithJitter retryWithJitter = new RetryWithJitter(3, Duration.ofMillis(1), new SimpleMeterRegistry());
     @InjectMocks
     private BookServiceImpl bookService;
     BookRequestDto bookRequestDto;
@@ -122,6 +170,46 @@ class BookServiceImplTest {
         verify(bookRepository, times(1)).save(any(Book.class));
     }
 
+    @Test
+    void testEditBook_RetriesOnOptimisticLockConflict() {
+        Book existingBook = new Book();
+        existingBook.setId(1L);
+        existingBook.setVersion(4L);
+        existingBook.setAuthor(Author.builder().name("Chinua Achebe").nationality("Nigeria").emailAddress("c.achebe@gmail.com").build());
+        existingBook.setPublisher(Publisher.builder().id(2L).name("Manning Corp").location("New York").build());
+
+        when(bookRepository.findById(anyLong())).thenReturn(Optional.of(existingBook));
+        when(authorRepository.findByEmailAddress(anyString())).thenReturn(Optional.of(existingBook.getAuthor()));
+        when(publisherRepository.findByName(anyString())).thenReturn(Optional.of(existingBook.getPublisher()));
+        when(dtoMapper.createBookResponse(any(Book.class))).thenReturn(bookResponseDto);
+        when(bookRepository.save(any(Book.class)))
+                .thenThrow(new ObjectOptimisticLockingFailureException(Book.class, 1L))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+
+        ApiResponse<BookResponseDto> response = bookService.editBook("ernest@charlancodes.org", 1L, bookRequestDto, 4L);
+
+        // Assertions
+        assertEquals(HttpStatus.NO_CONTENT.value(), response.status());
+        verify(bookRepository, times(2)).findById(1L);
+        verify(bookRepository, times(2)).save(any(Book.class));
+        verify(transactionManager, times(1)).rollback(any());
+        verify(transactionManager, times(1)).commit(any());
+    }
+
+    @Test
+    void testEditBook_StaleVersion() {
+        Book existingBook = new Book();
+        existingBook.setId(1L);
+        existingBook.setVersion(5L);
+        when(bookRepository.findById(anyLong())).thenReturn(Optional.of(existingBook));
+
+        assertThrows(BookVersionConflictException.class, () -> {
+            bookService.editBook("ernest@charlancodes.org", 1L, bookRequestDto, 4L);
+        });
+
+        verify(bookRepository, times(0)).save(any(Book.class));
+    }
+
     @Test
     void testGetAllBooks_Success() {
         User user = new User();
@@ -141,6 +229,62 @@ class BookServiceImplTest {
         verify(bookRepository, times(1)).findAll(any(PageRequest.class));
     }
 
+    @Test
+    void testGetAllBooks_SliceSkipsCountQuery() {
+        List<Book> books = Collections.singletonList(new Book());
+        Slice<Book> bookSlice = new SliceImpl<>(books, PageRequest.of(0, 1), true);
+
+        when(bookRepository.findSliceByTitleContainingIgnoreCase(anyString(), any(PageRequest.class))).thenReturn(bookSlice);
+        when(dtoMapper.createBookResponse(any(Book.class))).thenReturn(bookResponseDto);
+
+        ApiResponse.Wrapper<List<BookResponseDto>> page = bookService.getAllBooks("ernest@charlancodes.org", 0, 1,
+                "title", "asc", "Things", CountMode.NONE).data();
+
+        // Assertions
+        assertTrue(page.getHasNext());
+        assertNull(page.getTotalElements());
+        assertNull(page.getTotalPages());
+        verify(bookRepository, never()).findByTitleContainingIgnoreCase(anyString(), any(Pageable.class));
+        verify(bookRepository, never()).countByTitleContainingIgnoreCase(anyString());
+        verifyNoInteractions(bookCountCache);
+    }
+
+    @Test
+    void testGetAllBooks_ApproximateCountComesFromCache() {
+        Slice<Book> bookSlice = new SliceImpl<>(Collections.singletonList(new Book()), PageRequest.of(0, 10), false);
+
+        when(bookRepository.findSliceBy(any(PageRequest.class))).thenReturn(bookSlice);
+        when(bookCountCache.approximate(eq("all"), isNull(), any())).thenReturn(42L);
+        when(dtoMapper.createBookResponse(any(Book.class))).thenReturn(bookResponseDto);
+
+        ApiResponse.Wrapper<List<BookResponseDto>> page = bookService.getAllBooks("ernest@charlancodes.org", 0, 10,
+                "title", "asc", null, CountMode.APPROXIMATE).data();
+
+        // Assertions
+        assertFalse(page.getHasNext());
+        assertEquals(42L, page.getTotalElements());
+        assertEquals(5, page.getTotalPages());
+        verify(bookRepository, never()).count();
+    }
+
+    @Test
+    void testGetAllBooks_UnknownSortField() {
+        assertThrows(InvalidArgumentException.class, () ->
+                bookService.getAllBooks("ernest@charlancodes.org", 0, 10, "description", "asc", null));
+        verifyNoInteractions(bookRepository);
+    }
+
+    @Test
+    void testGetAllBooks_SortsByCamelCaseFieldWithIdTiebreaker() {
+        when(bookRepository.findAll(any(Pageable.class))).thenReturn(new PageImpl<>(Collections.emptyList()));
+
+        bookService.getAllBooks("ernest@charlancodes.org", 0, 10, "publicationYear", "desc", null);
+
+        // Assertions
+        verify(bookRepository).findAll(PageRequest.of(0, 10,
+                Sort.by(Sort.Direction.DESC, "publicationYear").and(Sort.by(Sort.Direction.DESC, "id"))));
+    }
+
     @Test
     void testGetBookById_Success() {
         User user = new User();
@@ -173,6 +317,24 @@ class BookServiceImplTest {
         verify(bookRepository, times(1)).findById(anyLong());
     }
 
+    @Test
+    void testGetBookByIsbn_ReadsNormalizedIsbnUntilIndexIsBuilt() {
+        Book book = new Book();
+        book.setId(1L);
+
+        when(bookIsbnIndex.isReady()).thenReturn(false);
+        when(bookRepository.findByNormalizedIsbn("9780306406157")).thenReturn(Optional.of(book));
+        when(dtoMapper.createBookResponse(book)).thenReturn(bookResponseDto);
+
+        ApiResponse<BookResponseDto> response = bookService.getBookByIsbn("ernest@charlancodes.org", "0-306-40615-2");
+
+        // Assertions
+        assertEquals(HttpStatus.OK.value(), response.status());
+        verify(bookIsbnIndex, never()).find(anyString());
+        assertThrows(InvalidArgumentException.class,
+                () -> bookService.getBookByIsbn("ernest@charlancodes.org", "0-306-40615-3"));
+    }
+
     @Test
     void testDeleteBook_Success() {
         User user = new User();
@@ -241,6 +403,32 @@ class BookServiceImplTest {
         verify(bookRepository, times(1)).findByTitleContainingIgnoreCaseOrAuthor_NameContainingIgnoreCase(anyString(), anyString(), any(PageRequest.class));
     }
 
+    @Test
+    void testSearchBooksByTitleOrAuthor_RankedByIndexOnceReady() {
+        User user = new User();
+        user.setEmail("ernest@charlancodes.org");
+        Book first = Book.builder().id(7L).title("The Intruder").build();
+        Book second = Book.builder().id(3L).title("Intruders at Dawn").build();
+
+        when(userRepository.findByEmail(anyString())).thenReturn(Optional.of(user));
+        when(bookSearchIndex.isReady()).thenReturn(true);
+        when(bookSearchIndex.search("intruder", 10, 2)).thenReturn(new InvertedIndex.Hits(List.of(7L, 3L), 13));
+        when(bookRepository.findAllById(List.of(7L, 3L))).thenReturn(List.of(second, first));
+        when(dtoMapper.createBookResponse(any(Book.class)))
+                .thenAnswer(invocation -> BookResponseDto.builder().id(((Book) invocation.getArgument(0)).getId()).build());
+
+        ApiResponse.Wrapper<List<BookResponseDto>> page = bookService.searchBooksByTitleOrAuthor(
+                "ernest@charlancodes.org", 5, 2, "intruder").data();
+
+        // Assertions
+        assertEquals(List.of(7L, 3L), page.getData().stream().map(BookResponseDto::id).toList());
+        assertEquals(13L, page.getTotalElements());
+        assertEquals(7, page.getTotalPages());
+        assertTrue(page.getHasNext());
+        verify(bookRepository, never()).findByTitleContainingIgnoreCaseOrAuthor_NameContainingIgnoreCase(anyString(), anyString(), any(Pageable.class));
+        verify(bookRepository, never()).countByTitleContainingIgnoreCaseOrAuthor_NameContainingIgnoreCase(anyString(), anyString());
+    }
+
     @Test
     void testSearchBooksByTitleOrAuthor_EmptySearchTerm() {
         User user = new User();
@@ -266,12 +454,14 @@ class BookServiceImplTest {
         when(bookRepository.findById(anyLong())).thenReturn(Optional.of(book));
         when(dtoMapper.createBookResponse(any(Book.class))).thenReturn(bookResponseDto);
         when(transactionRepository.save(any(Transaction.class))).thenReturn(new Transaction());
+        when(bookUtils.updateBookAvailability(anyLong(), anyInt(), any(TransactionType.class))).thenReturn(true);
 
         ApiResponse<BookResponseDto> response = bookService.borrowBook(1L, "ernest@charlancodes.org", 3);
 
         // Assertions
         assertEquals(HttpStatus.OK.value(), response.status());
-        verify(transactionRepository, times(1)).save(any(Transaction.class));
+        verify(transactionRepository, times(1)).save(argThat(transaction -> transaction.getDueDate() != null
+                && transaction.getDueDate().isAfter(LocalDateTime.now().plusDays(13))));
     }
 
     @Test
@@ -306,6 +496,25 @@ class BookServiceImplTest {
 
     }
 
+    @Test
+    void testBorrowBook_NotEnoughCopies() {
+        User borrower = new User();
+        borrower.setEmail("ernest@charlancodes.org");
+        Book book = new Book();
+        book.setId(1L);
+        book.setTotalCopies(2L);
+
+        when(userRepository.findByEmail(anyString())).thenReturn(Optional.of(borrower));
+        when(bookUtils.updateBookAvailability(anyLong(), anyInt(), any(TransactionType.class))).thenReturn(false);
+        when(bookRepository.findById(anyLong())).thenReturn(Optional.of(book));
+
+        assertThrows(BookOperationException.class, () -> {
+            bookService.borrowBook(1L, "ernest@charlancodes.org", 3);
+        });
+
+        verify(transactionRepository, times(0)).save(any(Transaction.class));
+    }
+
     @Test
     void testReturnBook_Success() {
         User borrower = new User();
@@ -318,6 +527,7 @@ class BookServiceImplTest {
         when(bookRepository.findById(anyLong())).thenReturn(Optional.of(book));
         when(transactionRepository.findTransactionByUserIdAndBookIdAndType(anyLong(), anyLong(), any(TransactionType.class))).thenReturn(Optional.of(new Transaction()));
         when(dtoMapper.createBookResponse(any(Book.class))).thenReturn(bookResponseDto);
+        when(bookUtils.updateBookAvailability(anyLong(), anyInt(), any(TransactionType.class))).thenReturn(true);
 
         ApiResponse<BookResponseDto> response = bookService.returnBook("ernest@charlancodes.org", 1L, 2);
 
@@ -366,12 +576,30 @@ class BookServiceImplTest {
         when(bookRepository.findById(anyLong())).thenReturn(Optional.of(book));
         when(dtoMapper.createBookResponse(any(Book.class))).thenReturn(bookResponseDto);
         when(transactionRepository.save(any(Transaction.class))).thenReturn(new Transaction());
+        when(bookUtils.updateBookAvailability(anyLong(), anyInt(), any(TransactionType.class))).thenReturn(true);
 
         ApiResponse<BookResponseDto> response = bookService.purchaseBook(1L, "ernest@charlancodes.org", 3);
 
         // Assertions
         assertEquals(HttpStatus.OK.value(), response.status());
-        verify(transactionRepository, times(1)).save(any(Transaction.class));
+        verify(transactionRepository, times(1)).save(argThat(transaction ->
+                BigDecimal.valueOf(30).equals(transaction.getAmount())));
+        verify(walletService, times(1)).debit(eq(purchaser), argThat(purchases -> purchases.size() == 1));
+    }
+
+    @Test
+    void testPurchaseBook_InsufficientBalance() {
+        User purchaser = User.builder().id(7L).email("ernest@charlancodes.org").build();
+        Book book = Book.builder().id(1L).totalCopies(5L).unitPriceOfBook(BigDecimal.valueOf(10)).build();
+
+        when(userRepository.findByEmail(anyString())).thenReturn(Optional.of(purchaser));
+        when(bookRepository.findById(anyLong())).thenReturn(Optional.of(book));
+        when(bookUtils.updateBookAvailability(anyLong(), anyInt(), any(TransactionType.class))).thenReturn(true);
+        when(walletService.debit(any(User.class), anyList()))
+                .thenThrow(new InsufficientBalanceException("Balance does not cover the total amount of 30"));
+
+        assertThrows(InsufficientBalanceException.class, () -> bookService.purchaseBook(1L, "ernest@charlancodes.org", 3));
+        verify(dtoMapper, never()).createBookResponse(any(Book.class));
     }
 
     @Test
@@ -404,6 +632,148 @@ class BookServiceImplTest {
         verify(transactionRepository, times(0)).save(any(Transaction.class));
     }
 
+    @Test
+    void testCheckout_Success() {
+        User purchaser = User.builder().id(7L).email("ernest@charlancodes.org").balance(BigDecimal.valueOf(100)).build();
+        Book firstBook = Book.builder().id(1L).title("First").totalCopies(5L).unitPriceOfBook(BigDecimal.valueOf(10)).build();
+        Book secondBook = Book.builder().id(2L).title("Second").totalCopies(5L).unitPriceOfBook(BigDecimal.valueOf(20)).build();
+        CheckoutRequestDto cart = new CheckoutRequestDto(List.of(new BookLineDto(2L, 1),
+                new BookLineDto(1L, 2), new BookLineDto(2L, 1)));
+
+        when(userRepository.findByEmail(anyString())).thenReturn(Optional.of(purchaser));
+        when(bookRepository.findAllById(anyCollection())).thenReturn(List.of(secondBook, firstBook));
+        when(bookUtils.updateBookAvailability(anyLong(), anyInt(), any(TransactionType.class))).thenReturn(true);
+        when(walletService.debit(eq(purchaser), anyList())).thenReturn(BigDecimal.valueOf(40));
+        when(dtoMapper.createBookResponse(any(Book.class))).thenReturn(bookResponseDto);
+
+        ApiResponse<CheckoutResponseDto> response = bookService.checkout("ernest@charlancodes.org", cart);
+
+        // Assertions
+        assertEquals(HttpStatus.OK.value(), response.status());
+        assertEquals(BigDecimal.valueOf(60), response.data().totalAmount());
+        assertEquals(BigDecimal.valueOf(40), response.data().remainingBalance());
+        InOrder lockOrder = inOrder(bookUtils);
+        lockOrder.verify(bookUtils).updateBookAvailability(1L, 2, TransactionType.PURCHASE);
+        lockOrder.verify(bookUtils).updateBookAvailability(2L, 2, TransactionType.PURCHASE);
+        verify(transactionRepository, times(1)).saveAll(argThat(transactions -> ((List<?>) transactions).size() == 2));
+        verify(walletService, times(1)).debit(eq(purchaser), argThat(purchases -> purchases.size() == 2));
+    }
+
+    @Test
+    void testCheckout_InsufficientBalance() {
+        User purchaser = User.builder().id(7L).email("ernest@charlancodes.org").balance(BigDecimal.valueOf(5)).build();
+        Book book = Book.builder().id(1L).title("First").totalCopies(5L).unitPriceOfBook(BigDecimal.valueOf(10)).build();
+
+        when(userRepository.findByEmail(anyString())).thenReturn(Optional.of(purchaser));
+        when(bookRepository.findAllById(anyCollection())).thenReturn(List.of(book));
+        when(bookUtils.updateBookAvailability(anyLong(), anyInt(), any(TransactionType.class))).thenReturn(true);
+        when(walletService.debit(any(User.class), anyList()))
+                .thenThrow(new InsufficientBalanceException("Balance does not cover the total amount of 10"));
+
+        assertThrows(InsufficientBalanceException.class, () -> bookService.checkout("ernest@charlancodes.org",
+                new CheckoutRequestDto(List.of(new BookLineDto(1L, 1)))));
+        verify(dtoMapper, never()).createBookResponse(any(Book.class));
+    }
+
+    @Test
+    void testCheckout_NotEnoughCopies() {
+        User purchaser = User.builder().id(7L).email("ernest@charlancodes.org").build();
+        Book book = Book.builder().id(1L).title("First").totalCopies(1L).unitPriceOfBook(BigDecimal.valueOf(10)).build();
+
+        when(userRepository.findByEmail(anyString())).thenReturn(Optional.of(purchaser));
+        when(bookRepository.findAllById(anyCollection())).thenReturn(List.of(book));
+        when(bookUtils.updateBookAvailability(anyLong(), anyInt(), any(TransactionType.class))).thenReturn(false);
+
+        assertThrows(BookOperationException.class, () -> bookService.checkout("ernest@charlancodes.org",
+                new CheckoutRequestDto(List.of(new BookLineDto(1L, 2)))));
+        verify(walletService, never()).debit(any(User.class), anyList());
+    }
+
+    @Test
+    void testBorrowBooks_PartialSuccess() {
+        User borrower = User.builder().id(7L).email("ernest@charlancodes.org").build();
+        Book firstBook = Book.builder().id(1L).title("First").totalCopies(1L).build();
+        Book secondBook = Book.builder().id(2L).title("Second").totalCopies(0L).build();
+
+        when(userRepository.findByEmail(anyString())).thenReturn(Optional.of(borrower));
+        when(bookUtils.updateBookAvailability(anyMap(), eq(TransactionType.BORROW)))
+                .thenReturn(Map.of(1L, true, 2L, false, 3L, false));
+        when(bookRepository.findAllById(anyCollection())).thenReturn(List.of(firstBook, secondBook));
+        when(dtoMapper.createBookResponse(any(Book.class))).thenReturn(bookResponseDto);
+
+        ApiResponse<BulkBookResponseDto> response = bookService.borrowBooks("ernest@charlancodes.org", List.of(
+                new BookLineDto(3L, 1), new BookLineDto(2L, 1), new BookLineDto(1L, 1)));
+
+        // Assertions
+        assertEquals(HttpStatus.OK.value(), response.status());
+        assertEquals(1, response.data().succeeded());
+        assertEquals(2, response.data().failed());
+        assertEquals(List.of(1L, 2L, 3L), response.data().lines().stream().map(BulkBookResponseDto.LineResult::bookId).toList());
+        assertEquals("Book not found for id 3", response.data().lines().get(2).message());
+        verify(bookUtils, times(1)).updateBookAvailability(Map.of(1L, 1, 2L, 1, 3L, 1), TransactionType.BORROW);
+        verify(bookRepository, times(1)).findAllById(anyCollection());
+        verify(transactionRepository, times(1)).saveAll(argThat(transactions -> ((List<?>) transactions).size() == 1));
+    }
+
+    @Test
+    void testBorrowBooks_ClaimsHeldCopies() {
+        User borrower = User.builder().id(7L).email("ernest@charlancodes.org").build();
+        Book heldBook = Book.builder().id(1L).title("Held").totalCopies(0L).build();
+        Book partlyHeldBook = Book.builder().id(2L).title("Partly Held").totalCopies(0L).build();
+
+        when(userRepository.findByEmail(anyString())).thenReturn(Optional.of(borrower));
+        when(reservationService.claimHolds(eq(borrower), anyCollection())).thenReturn(Map.of(1L, 21L, 2L, 22L));
+        when(bookUtils.updateBookAvailability(anyMap(), eq(TransactionType.BORROW))).thenReturn(Map.of(2L, false));
+        when(bookRepository.findAllById(anyCollection())).thenReturn(List.of(heldBook, partlyHeldBook));
+        when(dtoMapper.createBookResponse(any(Book.class))).thenReturn(bookResponseDto);
+
+        ApiResponse<BulkBookResponseDto> response = bookService.borrowBooks("ernest@charlancodes.org", List.of(
+                new BookLineDto(1L, 1), new BookLineDto(2L, 2)));
+
+        // Assertions
+        assertEquals(1, response.data().succeeded());
+        assertTrue(response.data().lines().get(0).success());
+        assertFalse(response.data().lines().get(1).success());
+        verify(bookUtils, times(1)).updateBookAvailability(Map.of(2L, 1), TransactionType.BORROW);
+        verify(reservationService, times(1)).unclaimHold(22L);
+        verify(reservationService, never()).unclaimHold(21L);
+    }
+
+    @Test
+    void testReturnBooks_UpdatesBorrowTransactionsInOneBatch() {
+        User borrower = User.builder().id(7L).email("ernest@charlancodes.org").build();
+        Book firstBook = Book.builder().id(1L).title("First").totalCopies(1L).build();
+        Book secondBook = Book.builder().id(2L).title("Second").totalCopies(1L).build();
+        Transaction firstBorrow = Transaction.builder().id(10L).user(borrower).book(firstBook).type(TransactionType.BORROW).build();
+        Transaction secondBorrow = Transaction.builder().id(11L).user(borrower).book(secondBook).type(TransactionType.BORROW).build();
+
+        when(userRepository.findByEmail(anyString())).thenReturn(Optional.of(borrower));
+        when(bookUtils.updateBookAvailability(anyMap(), eq(TransactionType.RETURN))).thenReturn(Map.of(1L, true, 2L, true));
+        when(bookRepository.findAllById(anyCollection())).thenReturn(List.of(firstBook, secondBook));
+        when(transactionRepository.findByUserIdAndBookIdInAndTypeOrderByIdAsc(eq(7L), anyCollection(), eq(TransactionType.BORROW)))
+                .thenReturn(List.of(firstBorrow, secondBorrow));
+        when(dtoMapper.createBookResponse(any(Book.class))).thenReturn(bookResponseDto);
+
+        ApiResponse<BulkBookResponseDto> response = bookService.returnBooks("ernest@charlancodes.org", List.of(
+                new BookLineDto(1L, 1), new BookLineDto(2L, 1)));
+
+        // Assertions
+        assertEquals(2, response.data().succeeded());
+        assertEquals(TransactionType.RETURN, firstBorrow.getType());
+        assertEquals(TransactionType.RETURN, secondBorrow.getType());
+        verify(transactionRepository, times(1)).saveAll(argThat(transactions -> ((List<?>) transactions).size() == 2));
+        verify(transactionRepository, never()).save(any(Transaction.class));
+    }
+
+    @Test
+    void testBorrowBooks_InvalidArgument() {
+        when(userRepository.findByEmail(anyString())).thenReturn(Optional.of(new User()));
+
+        assertThrows(InvalidArgumentException.class, () -> bookService.borrowBooks("ernest@charlancodes.org",
+                List.of(new BookLineDto(1L, 0))));
+        verify(bookUtils, never()).updateBookAvailability(anyMap(), any());
+    }
+
     @Test
     void testFindBookById_Success() {
         Book book = new Book();
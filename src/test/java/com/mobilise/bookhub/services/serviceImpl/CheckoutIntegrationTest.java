@@ -0,0 +1,87 @@
+package com.mobilise.bookhub.services.serviceImpl;
+
+import com.mobilise.bookhub.dto.request.BookLineDto;
+import com.mobilise.bookhub.dto.request.CheckoutRequestDto;
+import com.mobilise.bookhub.dto.response.ApiResponse;
+import com.mobilise.bookhub.dto.response.CheckoutResponseDto;
+import com.mobilise.bookhub.entity.Book;
+import com.mobilise.bookhub.entity.User;
+import com.mobilise.bookhub.enums.BookStatus;
+import com.mobilise.bookhub.enums.Gender;
+import com.mobilise.bookhub.enums.Genre;
+import com.mobilise.bookhub.enums.Role;
+import com.mobilise.bookhub.exception.BookOperationException;
+import com.mobilise.bookhub.repository.BookRepository;
+import com.mobilise.bookhub.repository.TransactionRepository;
+import com.mobilise.bookhub.repository.UserRepository;
+import com.mobilise.bookhub.services.BookService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class CheckoutIntegrationTest {
+    private static final String EMAIL = "checkout@charlancodes.org";
+    @Autowired
+    private BookService bookService;
+    @Autowired
+    private BookRepository bookRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private TransactionRepository transactionRepository;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        user = userRepository.findByEmail(EMAIL).orElseGet(() -> userRepository.save(User.builder()
+                .fullName("Checkout").email(EMAIL).password("securePassword").role(Role.USER).gender(Gender.MALE)
+                .balance(BigDecimal.valueOf(45000)).build()));
+        user.setBalance(BigDecimal.valueOf(45000));
+        user = userRepository.save(user);
+    }
+
+    private Book saveBook(String title, long totalCopies) {
+        return bookRepository.save(Book.builder().title(title).isbn("978-0000000200").genre(Genre.FICTION)
+                .status(BookStatus.AVAILABLE).totalCopies(totalCopies).borrowedCopies(0L)
+                .unitPriceOfBook(BigDecimal.valueOf(1500)).build());
+    }
+
+    @Test
+    void testCheckout_PurchasesAllLinesAndDebitsOnce() {
+        Book firstBook = saveBook("Checkout First", 3);
+        Book secondBook = saveBook("Checkout Second", 1);
+        long transactionsBefore = transactionRepository.count();
+
+        ApiResponse<CheckoutResponseDto> response = bookService.checkout(EMAIL, new CheckoutRequestDto(List.of(
+                new BookLineDto(secondBook.getId(), 1), new BookLineDto(firstBook.getId(), 2))));
+
+        // Assertions
+        assertEquals(0, BigDecimal.valueOf(4500).compareTo(response.data().totalAmount()));
+        assertEquals(0, BigDecimal.valueOf(40500).compareTo(userRepository.findById(user.getId()).orElseThrow().getBalance()));
+        assertEquals(1L, bookRepository.findById(firstBook.getId()).orElseThrow().getTotalCopies());
+        assertEquals(BookStatus.SOLD_OUT, bookRepository.findById(secondBook.getId()).orElseThrow().getStatus());
+        assertEquals(transactionsBefore + 2, transactionRepository.count());
+    }
+
+    @Test
+    void testCheckout_RollsBackEveryLineWhenOneFails() {
+        Book firstBook = saveBook("Checkout Rollback First", 3);
+        Book secondBook = saveBook("Checkout Rollback Second", 1);
+        long transactionsBefore = transactionRepository.count();
+
+        assertThrows(BookOperationException.class, () -> bookService.checkout(EMAIL, new CheckoutRequestDto(List.of(
+                new BookLineDto(firstBook.getId(), 2), new BookLineDto(secondBook.getId(), 2)))));
+
+        // Assertions
+        assertEquals(3L, bookRepository.findById(firstBook.getId()).orElseThrow().getTotalCopies());
+        assertEquals(0, BigDecimal.valueOf(45000).compareTo(userRepository.findById(user.getId()).orElseThrow().getBalance()));
+        assertEquals(transactionsBefore, transactionRepository.count());
+    }
+}
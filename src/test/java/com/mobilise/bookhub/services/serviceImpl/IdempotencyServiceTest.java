@@ -0,0 +1,112 @@
+package com.mobilise.bookhub.services.serviceImpl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mobilise.bookhub.dto.response.ApiResponse;
+import com.mobilise.bookhub.dto.response.BookResponseDto;
+import com.mobilise.bookhub.entity.IdempotencyRecord;
+import com.mobilise.bookhub.exception.IdempotencyKeyReuseException;
+import com.mobilise.bookhub.repository.IdempotencyRecordRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class IdempotencyServiceTest {
+    private static final String EMAIL = "ernest@charlancodes.org";
+    @Mock
+    private IdempotencyRecordRepository idempotencyRecordRepository;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private IdempotencyService idempotencyService;
+    private ApiResponse<BookResponseDto> purchaseResponse;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        idempotencyService = new IdempotencyService(idempotencyRecordRepository, objectMapper, transactionManager,
+                Duration.ofHours(1), 100, 1000, 0.01, new SimpleMeterRegistry());
+        purchaseResponse = new ApiResponse<>("Successfully bought 2 copies of Things Fall Apart",
+                BookResponseDto.builder().id(42L).title("Things Fall Apart").totalCopies(3L).build(), 200);
+    }
+
+    @Test
+    void testExecute_RetryReturnsFirstResponse() {
+        AtomicInteger purchases = new AtomicInteger();
+
+        ApiResponse<BookResponseDto> first = idempotencyService.execute("key-1", EMAIL, "PURCHASE:42:2",
+                BookResponseDto.class, () -> {
+                    purchases.incrementAndGet();
+                    return purchaseResponse;
+                });
+        ApiResponse<BookResponseDto> retry = idempotencyService.execute("key-1", EMAIL, "PURCHASE:42:2",
+                BookResponseDto.class, () -> {
+                    purchases.incrementAndGet();
+                    return purchaseResponse;
+                });
+
+        // Assertions
+        assertEquals(1, purchases.get());
+        assertSame(first, retry);
+        verify(idempotencyRecordRepository, times(1)).saveAndFlush(any(IdempotencyRecord.class));
+        verify(idempotencyRecordRepository, never()).findByIdAndExpiresAtAfter(any(), any());
+    }
+
+    @Test
+    void testExecute_KeyReusedForDifferentRequest() {
+        idempotencyService.execute("key-1", EMAIL, "PURCHASE:42:2", BookResponseDto.class, () -> purchaseResponse);
+
+        assertThrows(IdempotencyKeyReuseException.class, () -> idempotencyService.execute("key-1", EMAIL,
+                "PURCHASE:42:3", BookResponseDto.class, () -> purchaseResponse));
+    }
+
+    @Test
+    void testExecute_ReplaysPersistedResponse() throws Exception {
+        String id = IdempotencyService.scopedKey(EMAIL, "key-1");
+        when(idempotencyRecordRepository.findActiveIds(any(Instant.class))).thenReturn(List.of(id));
+        when(idempotencyRecordRepository.findByIdAndExpiresAtAfter(eq(id), any(Instant.class))).thenReturn(Optional.of(
+                new IdempotencyRecord(id, IdempotencyService.fingerprintDigest("PURCHASE:42:2"),
+                        objectMapper.writeValueAsString(purchaseResponse), Instant.now().plusSeconds(60))));
+        idempotencyService.refresh();
+
+        ApiResponse<BookResponseDto> retry = idempotencyService.execute("key-1", EMAIL, "PURCHASE:42:2",
+                BookResponseDto.class, () -> fail("A replayed request must not run again"));
+
+        // Assertions
+        assertEquals(purchaseResponse.message(), retry.message());
+        assertEquals(42L, retry.data().id());
+        assertEquals(3L, retry.data().totalCopies());
+        verify(idempotencyRecordRepository, never()).saveAndFlush(any(IdempotencyRecord.class));
+    }
+
+    @Test
+    void testExecute_WithoutKey() {
+        AtomicInteger purchases = new AtomicInteger();
+
+        idempotencyService.execute(null, EMAIL, "PURCHASE:42:2", BookResponseDto.class, () -> {
+            purchases.incrementAndGet();
+            return purchaseResponse;
+        });
+        idempotencyService.execute(null, EMAIL, "PURCHASE:42:2", BookResponseDto.class, () -> {
+            purchases.incrementAndGet();
+            return purchaseResponse;
+        });
+
+        // Assertions
+        assertEquals(2, purchases.get());
+        verifyNoInteractions(idempotencyRecordRepository);
+    }
+}
@@ -0,0 +1,66 @@
+package com.mobilise.bookhub.services.serviceImpl;
+
+import com.mobilise.bookhub.entity.Book;
+import com.mobilise.bookhub.entity.Transaction;
+import com.mobilise.bookhub.entity.User;
+import com.mobilise.bookhub.enums.BookStatus;
+import com.mobilise.bookhub.enums.Gender;
+import com.mobilise.bookhub.enums.Genre;
+import com.mobilise.bookhub.enums.Role;
+import com.mobilise.bookhub.enums.TransactionStatus;
+import com.mobilise.bookhub.enums.TransactionType;
+import com.mobilise.bookhub.repository.BookRepository;
+import com.mobilise.bookhub.repository.TransactionRepository;
+import com.mobilise.bookhub.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class OverdueLoanScannerTest {
+    @Autowired
+    private OverdueLoanScanner overdueLoanScanner;
+    @Autowired
+    private TransactionRepository transactionRepository;
+    @Autowired
+    private BookRepository bookRepository;
+    @Autowired
+    private UserRepository userRepository;
+
+    private Transaction saveLoan(User user, Book book, TransactionType type, LocalDateTime dueDate) {
+        return transactionRepository.save(Transaction.builder().user(user).book(book).type(type)
+                .status(TransactionStatus.COMPLETED).quantity(1).amount(BigDecimal.ZERO).dueDate(dueDate).build());
+    }
+
+    private TransactionStatus statusOf(Transaction loan) {
+        return transactionRepository.findById(loan.getId()).orElseThrow().getStatus();
+    }
+
+    @Test
+    void testScan_MarksOnlyNewlyOverdueBorrows() {
+        User user = userRepository.save(User.builder().fullName("Overdue").email("overdue@charlancodes.org")
+                .password("securePassword").role(Role.USER).gender(Gender.MALE).balance(BigDecimal.valueOf(45000)).build());
+        Book book = bookRepository.save(Book.builder().title("Overdue Loans").isbn("978-0000000500").genre(Genre.FICTION)
+                .status(BookStatus.AVAILABLE).totalCopies(5L).borrowedCopies(0L).unitPriceOfBook(BigDecimal.valueOf(1500)).build());
+        Transaction overdue = saveLoan(user, book, TransactionType.BORROW, LocalDateTime.now().minusDays(2));
+        Transaction returned = saveLoan(user, book, TransactionType.RETURN, LocalDateTime.now().minusDays(1));
+        Transaction current = saveLoan(user, book, TransactionType.BORROW, LocalDateTime.now().plusDays(3));
+
+        int firstRun = overdueLoanScanner.scan();
+        Transaction lateOverdue = saveLoan(user, book, TransactionType.BORROW, LocalDateTime.now().minusSeconds(1));
+        int secondRun = overdueLoanScanner.scan();
+
+        // Assertions
+        assertTrue(firstRun >= 1);
+        assertEquals(1, secondRun);
+        assertEquals(TransactionStatus.OVERDUE, statusOf(overdue));
+        assertEquals(TransactionStatus.OVERDUE, statusOf(lateOverdue));
+        assertEquals(TransactionStatus.COMPLETED, statusOf(returned));
+        assertEquals(TransactionStatus.COMPLETED, statusOf(current));
+    }
+}
@@ -0,0 +1,115 @@
+package com.mobilise.bookhub.services.serviceImpl;
+
+import com.mobilise.bookhub.entity.Book;
+import com.mobilise.bookhub.entity.Reservation;
+import com.mobilise.bookhub.entity.User;
+import com.mobilise.bookhub.enums.BookStatus;
+import com.mobilise.bookhub.enums.Gender;
+import com.mobilise.bookhub.enums.Genre;
+import com.mobilise.bookhub.enums.ReservationStatus;
+import com.mobilise.bookhub.enums.Role;
+import com.mobilise.bookhub.enums.TransactionType;
+import com.mobilise.bookhub.exception.BookOperationException;
+import com.mobilise.bookhub.repository.BookRepository;
+import com.mobilise.bookhub.repository.ReservationRepository;
+import com.mobilise.bookhub.repository.UserRepository;
+import com.mobilise.bookhub.services.BookService;
+import com.mobilise.bookhub.utils.BookUtils;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class ReservationServiceTest {
+    @Autowired
+    private BookService bookService;
+    @Autowired
+    private BookUtils bookUtils;
+    @Autowired
+    private BookRepository bookRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ReservationRepository reservationRepository;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private User saveUser(String email) {
+        return userRepository.findByEmail(email).orElseGet(() -> userRepository.save(User.builder().fullName("Reader")
+                .email(email).password("securePassword").role(Role.USER).gender(Gender.MALE)
+                .balance(BigDecimal.valueOf(45000)).build()));
+    }
+
+    private Book saveBorrowedBook(String title) {
+        return bookRepository.save(Book.builder().title(title).isbn("978-0000000400").genre(Genre.FICTION)
+                .status(BookStatus.BORROWED).totalCopies(0L).borrowedCopies(1L)
+                .unitPriceOfBook(BigDecimal.valueOf(1500)).build());
+    }
+
+    private ReservationStatus statusOf(Long reservationId) {
+        return reservationRepository.findById(reservationId).map(Reservation::getStatus).orElseThrow();
+    }
+
+    @Test
+    void testReturnBook_HoldsCopyForHeadOfQueueUntilBorrowed() {
+        User returner = saveUser("reservation-returner@charlancodes.org");
+        User first = saveUser("reservation-first@charlancodes.org");
+        User second = saveUser("reservation-second@charlancodes.org");
+        Book book = saveBorrowedBook("Reservation Queue");
+        Long firstReservation = bookService.reserveBook(first.getEmail(), book.getId()).data().id();
+        Long secondReservation = bookService.reserveBook(second.getEmail(), book.getId()).data().id();
+
+        bookService.returnBook(returner.getEmail(), book.getId(), 1);
+
+        // Assertions
+        assertEquals(ReservationStatus.HELD, statusOf(firstReservation));
+        assertEquals(ReservationStatus.WAITING, statusOf(secondReservation));
+        assertEquals(0L, bookRepository.findById(book.getId()).orElseThrow().getTotalCopies());
+        assertThrows(BookOperationException.class, () -> bookService.borrowBook(book.getId(), second.getEmail(), 1));
+
+        bookService.borrowBook(book.getId(), first.getEmail(), 1);
+        Book borrowedBook = bookRepository.findById(book.getId()).orElseThrow();
+
+        assertEquals(ReservationStatus.FULFILLED, statusOf(firstReservation));
+        assertEquals(0L, borrowedBook.getTotalCopies());
+        assertEquals(1L, borrowedBook.getBorrowedCopies());
+    }
+
+    @Test
+    void testExpire_PassesHeldCopyToNextInQueue() throws Exception {
+        ReservationService reservationService = new ReservationService(reservationRepository, bookUtils,
+                transactionManager, Duration.ofMillis(100), Duration.ofMillis(10), 64, new SimpleMeterRegistry());
+        User first = saveUser("reservation-expiry-first@charlancodes.org");
+        User second = saveUser("reservation-expiry-second@charlancodes.org");
+        Book book = saveBorrowedBook("Reservation Expiry");
+        Long firstReservation = reservationService.reserve(first, book).id();
+        Long secondReservation = reservationService.reserve(second, book).id();
+        try {
+            new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                assertTrue(bookUtils.updateBookAvailability(book.getId(), 1, TransactionType.RETURN));
+                reservationService.offerReturnedCopies(book.getId(), 1);
+            });
+            assertEquals(ReservationStatus.HELD, statusOf(firstReservation));
+
+            long deadline = System.currentTimeMillis() + 5000;
+            while (statusOf(secondReservation) != ReservationStatus.HELD && System.currentTimeMillis() < deadline) {
+                Thread.sleep(20);
+            }
+
+            // Assertions
+            assertEquals(ReservationStatus.EXPIRED, statusOf(firstReservation));
+            assertEquals(ReservationStatus.HELD, statusOf(secondReservation));
+            assertEquals(0L, bookRepository.findById(book.getId()).orElseThrow().getTotalCopies());
+        } finally {
+            reservationService.shutdown();
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.mobilise.bookhub.services.serviceImpl;
+
+import com.mobilise.bookhub.entity.Book;
+import com.mobilise.bookhub.entity.User;
+import com.mobilise.bookhub.enums.BookStatus;
+import com.mobilise.bookhub.enums.Gender;
+import com.mobilise.bookhub.enums.Genre;
+import com.mobilise.bookhub.enums.Role;
+import com.mobilise.bookhub.repository.BookRepository;
+import com.mobilise.bookhub.repository.UserRepository;
+import com.mobilise.bookhub.security.implementation.ResolvedUserContext;
+import com.mobilise.bookhub.services.BookService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class ResolvedUserQueryCountTest {
+    private static final String EMAIL = "query.count@charlancodes.org";
+    @Autowired
+    private BookService bookService;
+    @Autowired
+    private BookRepository bookRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    private Statistics statistics;
+    private Book book;
+
+    @BeforeEach
+    void setUp() {
+        if (userRepository.findByEmail(EMAIL).isEmpty()) {
+            userRepository.save(User.builder().fullName("Query Count").email(EMAIL).password("securePassword")
+                    .role(Role.USER).gender(Gender.FEMALE).balance(BigDecimal.valueOf(45000)).build());
+        }
+        book = bookRepository.save(Book.builder().title("Query Count").isbn("978-0000000001").genre(Genre.FICTION)
+                .status(BookStatus.AVAILABLE).totalCopies(5L).borrowedCopies(0L)
+                .unitPriceOfBook(BigDecimal.valueOf(1500)).build());
+
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/books");
+        ResolvedUserContext.bind(request, EMAIL);
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    void testGetBookById_DoesNotLoadUser() {
+        bookService.getBookById(EMAIL, book.getId());
+
+        // Assertions
+        assertEquals(0, userLookupCount());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void testBorrowAndReturn_LoadsUserOncePerRequest() {
+        bookService.borrowBook(book.getId(), EMAIL, 1);
+        bookService.returnBook(EMAIL, book.getId(), 1);
+
+        // Assertions
+        assertEquals(1, userLookupCount());
+    }
+
+    private long userLookupCount() {
+        long count = 0;
+        for (String query : statistics.getQueries()) {
+            if (query.contains("from appuser")) {
+                count += statistics.getQueryStatistics(query).getExecutionCount();
+            }
+        }
+        return count;
+    }
+}
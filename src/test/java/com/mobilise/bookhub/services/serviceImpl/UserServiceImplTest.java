@@ -12,6 +12,7 @@ import com.mobilise.bookhub.exception.InvalidCredentialException;
 import com.mobilise.bookhub.exception.UserAlreadyExistException;
 import com.mobilise.bookhub.repository.UserRepository;
 import com.mobilise.bookhub.security.JwtService;
+import com.mobilise.bookhub.security.implementation.TokenRevocationService;
 import com.mobilise.bookhub.security.implementation.UserDetailsImpl;
 import com.mobilise.bookhub.utils.DtoMapper;
 import org.junit.jupiter.api.BeforeEach;
@@ -26,6 +27,7 @@ import org.springframework.security.core.Authentication;
 import org.springframework.security.core.userdetails.UserDetails;
 
 import java.math.BigDecimal;
+import java.time.Instant;
 import java.util.Map;
 import java.util.Optional;
 
@@ -43,6 +45,10 @@ class UserServiceImplTest {
     private JwtService jwtService;
     @Mock
     private DtoMapper dtoMapper;
+    @Mock
+    private TokenRevocationService tokenRevocationService;
+    @Mock
+    private WalletService walletService;
     @InjectMocks
     private UserServiceImpl userService;
     private RegistrationRequestDto registrationRequestDto;
@@ -75,6 +81,7 @@ class UserServiceImplTest {
         assertNotNull(response);
         assertEquals("User created successfully", response.message());
         assertEquals(201, response.status());
+        verify(walletService, times(1)).open(any(User.class));
     }
 
     @Test
@@ -114,23 +121,23 @@ class UserServiceImplTest {
 
     @Test
     void testLogout_Success() {
-        String authorizationHeader = "Bearer eydfghjhgfdfghjhgfdfghjhgf.dsfghgfdfgherttrtyuigfcvbh567865ev";
-        when(jwtService.parseTokenClaims(anyString())).thenReturn(Map.of("email", "ernest@charlancodes.org"));
+        Map<String, String> tokenClaims = Map.of("email", "ernest@charlancodes.org",
+                "jti", "3f1c2f1e-9a43-4c1e-8a5e-0d4f6d3b9a11", "exp", "4102444800000");
 
-        ApiResponse<String> response = userService.logout(authorizationHeader);
+        ApiResponse<String> response = userService.logout(tokenClaims);
 
         // Assertions
         assertNotNull(response);
         assertEquals("Successfully logged out", response.message());
         assertEquals(200, response.status());
+        verify(tokenRevocationService, times(1))
+                .revoke("3f1c2f1e-9a43-4c1e-8a5e-0d4f6d3b9a11", Instant.ofEpochMilli(4102444800000L));
+        verifyNoInteractions(jwtService);
     }
 
     @Test
     void testLogout_AlreadyLoggedOut() {
-        String authorizationHeader = "Bearer eydfghjhgfdfghjhgfdfghjhgf.dsfghgfdfgherttrtyuigfcvbh567865ev";
-        when(jwtService.parseTokenClaims(anyString())).thenReturn(null);
-
-        ApiResponse<String> response = userService.logout(authorizationHeader);
+        ApiResponse<String> response = userService.logout(null);
 
         // Assertions
         assertNotNull(response);
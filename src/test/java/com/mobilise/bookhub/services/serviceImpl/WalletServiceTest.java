@@ -0,0 +1,142 @@
+package com.mobilise.bookhub.services.serviceImpl;
+
+import com.mobilise.bookhub.entity.Book;
+import com.mobilise.bookhub.entity.User;
+import com.mobilise.bookhub.entity.WalletSnapshot;
+import com.mobilise.bookhub.enums.BookStatus;
+import com.mobilise.bookhub.enums.Gender;
+import com.mobilise.bookhub.enums.Genre;
+import com.mobilise.bookhub.enums.Role;
+import com.mobilise.bookhub.exception.InsufficientBalanceException;
+import com.mobilise.bookhub.repository.BookRepository;
+import com.mobilise.bookhub.repository.UserRepository;
+import com.mobilise.bookhub.repository.WalletEntryRepository;
+import com.mobilise.bookhub.repository.WalletSnapshotRepository;
+import com.mobilise.bookhub.services.BookService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class WalletServiceTest {
+    @Autowired
+    private WalletService walletService;
+    @Autowired
+    private BookService bookService;
+    @Autowired
+    private BookRepository bookRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private WalletEntryRepository walletEntryRepository;
+    @Autowired
+    private WalletSnapshotRepository walletSnapshotRepository;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private User openWallet(String email, long balance) {
+        return new TransactionTemplate(transactionManager).execute(status -> {
+            User user = userRepository.save(User.builder().fullName("Wallet").email(email).password("securePassword")
+                    .role(Role.USER).gender(Gender.FEMALE).balance(BigDecimal.valueOf(balance)).build());
+            walletService.open(user);
+            return user;
+        });
+    }
+
+    private Book saveBook(String title, long totalCopies) {
+        return bookRepository.save(Book.builder().title(title).isbn("978-0000000300").genre(Genre.FICTION)
+                .status(BookStatus.AVAILABLE).totalCopies(totalCopies).borrowedCopies(0L)
+                .unitPriceOfBook(BigDecimal.valueOf(1500)).build());
+    }
+
+    @Test
+    void testPurchaseBook_DebitsPriceOfAllCopiesAndSnapshotMatchesLedger() {
+        User user = openWallet("wallet-purchase@charlancodes.org", 45000);
+        Book book = saveBook("Wallet Purchase", 5);
+
+        bookService.purchaseBook(book.getId(), user.getEmail(), 3);
+        walletService.snapshot();
+        User updatedUser = userRepository.findById(user.getId()).orElseThrow();
+        WalletSnapshot snapshot = walletSnapshotRepository.findById(user.getId()).orElseThrow();
+
+        // Assertions
+        assertEquals(0, BigDecimal.valueOf(40500).compareTo(updatedUser.getBalance()));
+        assertEquals(1L, updatedUser.getWalletVersion());
+        assertEquals(0, BigDecimal.valueOf(40500).compareTo(snapshot.getBalance()));
+        assertEquals(1L, snapshot.getVersion());
+        assertEquals(0, BigDecimal.valueOf(-4500).compareTo(walletEntryRepository.sumAmounts(user.getId(), 0, 1)));
+    }
+
+    @Test
+    void testPurchaseBook_ConcurrentPurchasesNeverOverdraw() throws Exception {
+        User user = openWallet("wallet-concurrent@charlancodes.org", 6000);
+        Book book = saveBook("Wallet Concurrent", 20);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger purchases = new AtomicInteger();
+        AtomicInteger declined = new AtomicInteger();
+        try {
+            for (int i = 0; i < 10; i++) {
+                executor.submit(() -> {
+                    start.await();
+                    try {
+                        bookService.purchaseBook(book.getId(), user.getEmail(), 1);
+                        purchases.incrementAndGet();
+                    } catch (InsufficientBalanceException e) {
+                        declined.incrementAndGet();
+                    }
+                    return null;
+                });
+            }
+            start.countDown();
+        } finally {
+            executor.shutdown();
+            executor.awaitTermination(30, TimeUnit.SECONDS);
+        }
+        User updatedUser = userRepository.findById(user.getId()).orElseThrow();
+
+        // Assertions
+        assertEquals(4, purchases.get());
+        assertEquals(6, declined.get());
+        assertEquals(0, BigDecimal.ZERO.compareTo(updatedUser.getBalance()));
+        assertEquals(4L, updatedUser.getWalletVersion());
+        assertEquals(16L, bookRepository.findById(book.getId()).orElseThrow().getTotalCopies());
+        assertEquals(0, BigDecimal.ZERO.compareTo(walletEntryRepository.sumAmounts(user.getId(), -1, 4)));
+    }
+
+    @Test
+    void testSnapshot_OpensLedgerOfUserRegisteredBeforeIt() {
+        User user = userRepository.save(User.builder().fullName("Wallet").email("wallet-existing@charlancodes.org")
+                .password("securePassword").role(Role.USER).gender(Gender.FEMALE)
+                .balance(BigDecimal.valueOf(45000)).build());
+        Book book = saveBook("Wallet Existing", 5);
+        double driftBefore = meterRegistry.counter("bookhub.wallet.drift").count();
+
+        bookService.purchaseBook(book.getId(), user.getEmail(), 3);
+        walletService.snapshot();
+        User updatedUser = userRepository.findById(user.getId()).orElseThrow();
+        WalletSnapshot snapshot = walletSnapshotRepository.findById(user.getId()).orElseThrow();
+
+        // Assertions
+        assertEquals(0, BigDecimal.valueOf(40500).compareTo(updatedUser.getBalance()));
+        assertEquals(0, BigDecimal.valueOf(40500).compareTo(snapshot.getBalance()));
+        assertEquals(1L, snapshot.getVersion());
+        assertEquals(0, BigDecimal.valueOf(45000).compareTo(walletEntryRepository.sumAmounts(user.getId(), -1, 0)));
+        assertEquals(0, BigDecimal.valueOf(40500).compareTo(walletEntryRepository.sumAmounts(user.getId(), -1, 1)));
+        assertEquals(driftBefore, meterRegistry.counter("bookhub.wallet.drift").count());
+    }
+}
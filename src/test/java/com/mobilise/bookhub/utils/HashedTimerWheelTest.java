@@ -0,0 +1,66 @@
+package com.mobilise.bookhub.utils;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HashedTimerWheelTest {
+    private final HashedTimerWheel timerWheel = new HashedTimerWheel("test-timer", Duration.ofMillis(5), 8, Runnable::run);
+
+    @AfterEach
+    void tearDown() {
+        timerWheel.close();
+    }
+
+    @Test
+    void testSchedule_RunsAfterDelayAcrossRounds() throws InterruptedException {
+        CountDownLatch fired = new CountDownLatch(1);
+        AtomicLong firedAt = new AtomicLong();
+        long scheduledAt = System.nanoTime();
+
+        timerWheel.schedule(() -> {
+            firedAt.set(System.nanoTime());
+            fired.countDown();
+        }, Duration.ofMillis(120));
+
+        // Assertions
+        assertTrue(fired.await(5, TimeUnit.SECONDS));
+        assertTrue(firedAt.get() - scheduledAt >= TimeUnit.MILLISECONDS.toNanos(120));
+        assertEquals(0, timerWheel.pending());
+    }
+
+    @Test
+    void testCancel_TaskNeverRuns() throws InterruptedException {
+        AtomicInteger runs = new AtomicInteger();
+        CountDownLatch later = new CountDownLatch(1);
+
+        timerWheel.schedule(runs::incrementAndGet, Duration.ofMillis(20)).cancel();
+        timerWheel.schedule(later::countDown, Duration.ofMillis(60));
+
+        // Assertions
+        assertTrue(later.await(5, TimeUnit.SECONDS));
+        assertEquals(0, runs.get());
+        assertEquals(0, timerWheel.pending());
+    }
+
+    @Test
+    void testSchedule_ManyTimeouts() throws InterruptedException {
+        int timeouts = 100_000;
+        CountDownLatch fired = new CountDownLatch(timeouts);
+
+        for (int i = 0; i < timeouts; i++) {
+            timerWheel.schedule(fired::countDown, Duration.ofMillis(i % 200));
+        }
+
+        // Assertions
+        assertTrue(fired.await(10, TimeUnit.SECONDS));
+        assertEquals(0, timerWheel.pending());
+    }
+}
@@ -0,0 +1,28 @@
+package com.mobilise.bookhub.utils;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IsbnUtilsTest {
+
+    @Test
+    void testNormalize_ConvertsIsbn10AndStripsSeparators() {
+        // Assertions
+        assertEquals("9780306406157", IsbnUtils.normalize("0-306-40615-2"));
+        assertEquals("9780306406157", IsbnUtils.normalize("978-0-306-40615-7"));
+        assertEquals("9780306406157", IsbnUtils.normalize(" 978 0306406157 "));
+        assertEquals("9780439420891", IsbnUtils.normalize("0-439-42089-x"));
+    }
+
+    @Test
+    void testNormalize_RejectsWrongCheckDigitsAndOtherText() {
+        // Assertions
+        assertNull(IsbnUtils.normalize("0-306-40615-3"));
+        assertNull(IsbnUtils.normalize("978-0-306-40615-8"));
+        assertNull(IsbnUtils.normalize("123-0-306-40615-7"));
+        assertNull(IsbnUtils.normalize("0X06406152"));
+        assertNull(IsbnUtils.normalize("ISBN 0306406152"));
+        assertNull(IsbnUtils.normalize(null));
+    }
+}
@@ -0,0 +1,107 @@
+package com.mobilise.bookhub.utils.facet;
+
+import com.mobilise.bookhub.dto.request.BookFilterDto;
+import com.mobilise.bookhub.entity.Book;
+import com.mobilise.bookhub.entity.Publisher;
+import com.mobilise.bookhub.enums.BookStatus;
+import com.mobilise.bookhub.enums.Genre;
+import com.mobilise.bookhub.utils.inventory.BookAvailabilityChangedEvent;
+import com.mobilise.bookhub.utils.search.BookCatalog;
+import com.mobilise.bookhub.utils.search.BookChangedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class BookFacetIndexTest {
+    private final BookCatalog bookCatalog = mock(BookCatalog.class);
+    private final BookFacetIndex facetIndex = new BookFacetIndex(bookCatalog,
+            List.of(BigDecimal.TEN, BigDecimal.valueOf(25)), new SimpleMeterRegistry());
+
+    private static Book book(long id, Genre genre, BookStatus status, Long publisherId, Integer year, String price) {
+        Publisher publisher = publisherId == null ? null : Publisher.builder().id(publisherId).build();
+        return Book.builder().id(id).genre(genre).status(status).publisher(publisher).publicationYear(year)
+                .unitPriceOfBook(new BigDecimal(price)).build();
+    }
+
+    private static BookFilterDto filter(Set<Genre> genre, Set<BookStatus> status, Integer yearFrom, Integer yearTo,
+                                        String minPrice, String maxPrice) {
+        return new BookFilterDto(genre, status, null, yearFrom, yearTo,
+                minPrice == null ? null : new BigDecimal(minPrice), maxPrice == null ? null : new BigDecimal(maxPrice),
+                true);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void build(Book... books) {
+        when(bookCatalog.forEach(any())).thenAnswer(invocation -> {
+            for (Book book : books) {
+                ((Consumer<Book>) invocation.getArgument(0)).accept(book);
+            }
+            return (long) books.length;
+        });
+        facetIndex.rebuild();
+    }
+
+    @Test
+    void testCount_IntersectsFacetsAndCountsEachFacetWithoutItsOwnFilter() {
+        build(book(1L, Genre.FICTION, BookStatus.AVAILABLE, 7L, 1990, "9.99"),
+                book(2L, Genre.FICTION, BookStatus.BORROWED, 7L, 2005, "12.00"),
+                book(3L, Genre.MYSTERY, BookStatus.AVAILABLE, 8L, 2005, "30.00"),
+                book(4L, Genre.HISTORY, BookStatus.AVAILABLE, null, null, "10.00"));
+
+        BookFacetIndex.Counts counts = facetIndex.count(filter(Set.of(Genre.FICTION, Genre.MYSTERY),
+                Set.of(BookStatus.AVAILABLE), null, null, null, null));
+        Map<String, Long> genres = counts.facets().get(BookFacetIndex.GENRE);
+
+        // Assertions
+        assertTrue(facetIndex.isReady());
+        assertEquals(2, counts.total());
+        assertEquals(1L, genres.get("FICTION"));
+        assertEquals(1L, genres.get("HISTORY"));
+        assertEquals(0L, genres.get("ROMANCE"));
+        assertEquals(Map.of("AVAILABLE", 2L, "BORROWED", 1L, "SOLD_OUT", 0L), counts.facets().get(BookFacetIndex.STATUS));
+        assertEquals(Map.of("7", 1L, "8", 1L), counts.facets().get(BookFacetIndex.PUBLISHER));
+        assertEquals(Map.of("1990", 1L, "2005", 1L), counts.facets().get(BookFacetIndex.PUBLICATION_YEAR));
+        assertEquals(List.of("0-10", "10-25", "25+"), List.copyOf(counts.facets().get(BookFacetIndex.PRICE).keySet()));
+        assertEquals(1L, counts.facets().get(BookFacetIndex.PRICE).get("0-10"));
+    }
+
+    @Test
+    void testCount_ChecksPricesWithinBandsTheBoundsFallInto() {
+        build(book(1L, Genre.FICTION, BookStatus.AVAILABLE, 7L, 1990, "9.99"),
+                book(2L, Genre.FICTION, BookStatus.AVAILABLE, 7L, 2005, "12.00"),
+                book(3L, Genre.FICTION, BookStatus.AVAILABLE, 7L, 2010, "24.00"),
+                book(4L, Genre.FICTION, BookStatus.AVAILABLE, 7L, 2020, "40.00"));
+
+        // Assertions
+        assertEquals(2, facetIndex.count(filter(null, null, null, null, "9.99", "12.00")).total());
+        assertEquals(3, facetIndex.count(filter(null, null, null, null, "10", null)).total());
+        assertEquals(2, facetIndex.count(filter(null, null, 2000, 2010, null, null)).total());
+        assertEquals(1, facetIndex.count(filter(null, null, 2000, null, null, "20")).total());
+    }
+
+    @Test
+    void testOnChanges_FollowEditsDeletionsAndStatusChanges() {
+        build(book(1L, Genre.FICTION, BookStatus.AVAILABLE, 7L, 1990, "9.99"),
+                book(2L, Genre.FICTION, BookStatus.AVAILABLE, 7L, 2005, "12.00"));
+        facetIndex.onBookChanged(BookChangedEvent.saved(book(1L, Genre.MYSTERY, BookStatus.AVAILABLE, 7L, 1990, "9.99")));
+        facetIndex.onBookChanged(BookChangedEvent.saved(book(3L, Genre.FICTION, BookStatus.AVAILABLE, 8L, 2021, "5.00")));
+        facetIndex.onAvailabilityChanged(new BookAvailabilityChangedEvent(Map.of(2L, BookStatus.BORROWED)));
+        facetIndex.onBookChanged(BookChangedEvent.deleted(3L));
+        BookFacetIndex.Counts counts = facetIndex.count(filter(Set.of(Genre.FICTION), null, null, null, null, null));
+
+        // Assertions
+        assertEquals(1, counts.total());
+        assertEquals(Map.of("AVAILABLE", 0L, "BORROWED", 1L, "SOLD_OUT", 0L), counts.facets().get(BookFacetIndex.STATUS));
+        assertEquals(Map.of("7", 1L), counts.facets().get(BookFacetIndex.PUBLISHER));
+        assertEquals(1L, counts.facets().get(BookFacetIndex.GENRE).get("MYSTERY"));
+    }
+}
@@ -0,0 +1,90 @@
+package com.mobilise.bookhub.utils.facet;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompressedBitmapTest {
+
+    private static CompressedBitmap bitmap(Set<Integer> values) {
+        CompressedBitmap bitmap = new CompressedBitmap();
+        values.forEach(bitmap::add);
+        return bitmap;
+    }
+
+    private static List<Integer> values(CompressedBitmap bitmap) {
+        List<Integer> values = new ArrayList<>();
+        bitmap.forEach(values::add);
+        return values;
+    }
+
+    /**
+     * Draws values over a sparse chunk, a dense chunk and a chunk around the array limit.
+     */
+    private static Set<Integer> randomValues(Random random) {
+        Set<Integer> values = new TreeSet<>();
+        for (int i = 0; i < 100; i++) {
+            values.add(random.nextInt(65_536));
+        }
+        for (int i = 0; i < 30_000; i++) {
+            values.add(65_536 + random.nextInt(65_536));
+        }
+        for (int i = 0; i < 4_200; i++) {
+            values.add(5 * 65_536 + random.nextInt(8_192));
+        }
+        return values;
+    }
+
+    @Test
+    void testAddAndRemove_SwitchContainersAroundTheArrayLimit() {
+        CompressedBitmap bitmap = new CompressedBitmap();
+        for (int value = 0; value < 10_000; value += 2) {
+            assertTrue(bitmap.add(value));
+        }
+        assertFalse(bitmap.add(4));
+        long dense = bitmap.estimatedBytes();
+        for (int value = 0; value < 10_000; value += 4) {
+            assertTrue(bitmap.remove(value));
+        }
+        assertFalse(bitmap.remove(0));
+        assertEquals(2_500, bitmap.cardinality());
+        for (int value = 2_002; value < 10_000; value += 4) {
+            bitmap.remove(value);
+        }
+
+        // Assertions
+        assertEquals(500, bitmap.cardinality());
+        assertTrue(bitmap.contains(2));
+        assertFalse(bitmap.contains(4));
+        assertTrue(bitmap.estimatedBytes() < dense);
+        assertEquals(List.of(2, 6, 10), values(bitmap).subList(0, 3));
+        assertThrows(IllegalArgumentException.class, () -> bitmap.add(-1));
+    }
+
+    @Test
+    void testAndOr_MatchSetIntersectionAndUnion() {
+        Random random = new Random(24);
+        Set<Integer> left = randomValues(random);
+        Set<Integer> right = randomValues(random);
+        Set<Integer> intersection = new TreeSet<>(left);
+        intersection.retainAll(right);
+        Set<Integer> union = new TreeSet<>(left);
+        union.addAll(right);
+
+        CompressedBitmap leftBitmap = bitmap(left);
+        CompressedBitmap rightBitmap = bitmap(right);
+
+        // Assertions
+        assertEquals(List.copyOf(intersection), values(leftBitmap.and(rightBitmap)));
+        assertEquals(intersection.size(), leftBitmap.andCardinality(rightBitmap));
+        assertEquals(List.copyOf(union), values(leftBitmap.or(rightBitmap)));
+        assertEquals(left.size(), leftBitmap.cardinality());
+        assertTrue(new CompressedBitmap().and(leftBitmap).isEmpty());
+    }
+}
@@ -0,0 +1,182 @@
+package com.mobilise.bookhub.utils.inventory;
+
+import com.mobilise.bookhub.entity.Book;
+import com.mobilise.bookhub.enums.BookStatus;
+import com.mobilise.bookhub.enums.Genre;
+import com.mobilise.bookhub.repository.BookRepository;
+import com.mobilise.bookhub.repository.InventoryCheckpointRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.mobilise.bookhub.enums.TransactionType.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class InventoryLedgerTest {
+    @Autowired
+    private BookRepository bookRepository;
+    @Autowired
+    private InventoryCheckpointRepository checkpointRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @TempDir
+    private Path journalDirectory;
+
+    private InventoryLedger newLedger() {
+        InventoryLedger ledger = new InventoryLedger(checkpointRepository, jdbcTemplate, transactionManager,
+                journalDirectory, false, new SimpleMeterRegistry());
+        ledger.recover();
+        return ledger;
+    }
+
+    private Book saveBook(String title, long totalCopies) {
+        return bookRepository.save(Book.builder().title(title).isbn("978-0000000100")
+                .genre(Genre.FICTION).status(BookStatus.AVAILABLE).totalCopies(totalCopies).borrowedCopies(0L)
+                .unitPriceOfBook(BigDecimal.valueOf(1500)).build());
+    }
+
+    @Test
+    void testApply_ConcurrentBorrowersNeverOversell() throws Exception {
+        Book book = saveBook("Ledger Borrowers", 5);
+        InventoryLedger ledger = newLedger();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger successes = new AtomicInteger();
+        try {
+            for (int i = 0; i < 20; i++) {
+                executor.submit(() -> {
+                    start.await();
+                    if (ledger.apply(book.getId(), 1, BORROW)) {
+                        successes.incrementAndGet();
+                    }
+                    return null;
+                });
+            }
+            start.countDown();
+        } finally {
+            executor.shutdown();
+            executor.awaitTermination(30, TimeUnit.SECONDS);
+        }
+        ledger.shutdown();
+        Book updatedBook = bookRepository.findById(book.getId()).orElseThrow();
+
+        // Assertions
+        assertEquals(5, successes.get());
+        assertEquals(0L, updatedBook.getTotalCopies());
+        assertEquals(5L, updatedBook.getBorrowedCopies());
+        assertEquals(BookStatus.BORROWED, updatedBook.getStatus());
+    }
+
+    @Test
+    void testRecover_ReplaysUnflushedJournal() {
+        Book book = saveBook("Ledger Recovery", 4);
+        InventoryLedger crashedLedger = newLedger();
+        assertTrue(crashedLedger.apply(book.getId(), 3, PURCHASE));
+        assertTrue(crashedLedger.apply(book.getId(), 1, BORROW));
+        assertEquals(4L, bookRepository.findById(book.getId()).orElseThrow().getTotalCopies());
+
+        InventoryLedger recoveredLedger = newLedger();
+        Book recoveredBook = bookRepository.findById(book.getId()).orElseThrow();
+
+        // Assertions
+        assertEquals(0L, recoveredBook.getTotalCopies());
+        assertEquals(1L, recoveredBook.getBorrowedCopies());
+        assertEquals(BookStatus.BORROWED, recoveredBook.getStatus());
+        assertFalse(recoveredLedger.apply(book.getId(), 1, PURCHASE));
+        recoveredLedger.shutdown();
+    }
+
+    @Test
+    void testApply_RolledBackBorrowGivesCopiesBack() {
+        Book book = saveBook("Ledger Rollback", 1);
+        InventoryLedger ledger = newLedger();
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            assertTrue(ledger.apply(book.getId(), 1, BORROW));
+            assertFalse(ledger.apply(book.getId(), 1, BORROW));
+            status.setRollbackOnly();
+        });
+        assertFalse(ledger.apply(book.getId(), 1, RETURN));
+        ledger.evict(book.getId());
+        Book updatedBook = bookRepository.findById(book.getId()).orElseThrow();
+
+        // Assertions
+        assertEquals(1L, updatedBook.getTotalCopies());
+        assertEquals(0L, updatedBook.getBorrowedCopies());
+        assertEquals(BookStatus.AVAILABLE, updatedBook.getStatus());
+        ledger.shutdown();
+    }
+
+    @Test
+    void testRecover_IgnoresBorrowOfUncommittedTransaction() throws Exception {
+        Book book = saveBook("Ledger Crashed Borrow", 2);
+        InventoryLedger crashedLedger = newLedger();
+        CountDownLatch borrowed = new CountDownLatch(1);
+        CountDownLatch recovered = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        Future<?> borrow;
+        try {
+            borrow = executor.submit(() -> new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                assertTrue(crashedLedger.apply(book.getId(), 2, BORROW));
+                borrowed.countDown();
+                try {
+                    // the process dies before the borrow commits
+                    recovered.await(30, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                status.setRollbackOnly();
+            }));
+            assertTrue(borrowed.await(30, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdown();
+        }
+
+        InventoryLedger recoveredLedger = newLedger();
+        Book recoveredBook = bookRepository.findById(book.getId()).orElseThrow();
+        recovered.countDown();
+        borrow.get(30, TimeUnit.SECONDS);
+
+        // Assertions
+        assertEquals(2L, recoveredBook.getTotalCopies());
+        assertEquals(0L, recoveredBook.getBorrowedCopies());
+        assertEquals(BookStatus.AVAILABLE, recoveredBook.getStatus());
+        assertTrue(recoveredLedger.apply(book.getId(), 2, PURCHASE));
+        recoveredLedger.shutdown();
+    }
+
+    @Test
+    void testRecover_ReplaysCommittedTransactions() {
+        Book book = saveBook("Ledger Committed", 3);
+        InventoryLedger crashedLedger = newLedger();
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.executeWithoutResult(status -> assertTrue(crashedLedger.apply(book.getId(), 2, BORROW)));
+        transactionTemplate.executeWithoutResult(status -> assertTrue(crashedLedger.apply(book.getId(), 1, RETURN)));
+
+        InventoryLedger recoveredLedger = newLedger();
+        Book recoveredBook = bookRepository.findById(book.getId()).orElseThrow();
+
+        // Assertions
+        assertEquals(2L, recoveredBook.getTotalCopies());
+        assertEquals(1L, recoveredBook.getBorrowedCopies());
+        assertEquals(BookStatus.AVAILABLE, recoveredBook.getStatus());
+        recoveredLedger.shutdown();
+    }
+}
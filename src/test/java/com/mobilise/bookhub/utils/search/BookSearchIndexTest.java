@@ -0,0 +1,44 @@
+package com.mobilise.bookhub.utils.search;
+
+import com.mobilise.bookhub.entity.Author;
+import com.mobilise.bookhub.entity.Book;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class BookSearchIndexTest {
+    private final BookSearchIndex searchIndex = new BookSearchIndex(mock(BookCatalog.class), 1.2f, 0.75f, new SimpleMeterRegistry());
+
+    private void index(long id, String title, String author) {
+        searchIndex.onBookChanged(BookChangedEvent.saved(Book.builder().id(id).title(title)
+                .author(Author.builder().name(author).build()).build()));
+    }
+
+    @Test
+    void testFuzzySearch_MatchesMisspelledAuthorsAndTitles() {
+        index(1L, "The Hobbit", "J. R. R. Tolkien");
+        index(2L, "The Silmarillion", "J. R. R. Tolkien");
+        index(3L, "Pride and Prejudice", "Jane Austen");
+
+        // Assertions
+        assertEquals(0, searchIndex.search("Tolkein", 0, 10).totalHits());
+        assertEquals(List.of(1L, 2L), searchIndex.fuzzySearch("Tolkein", 0, 10).keys());
+        assertEquals(1L, searchIndex.fuzzySearch("hobit tolkien", 0, 10).keys().get(0));
+        assertEquals(List.of(3L), searchIndex.fuzzySearch("Prejudise", 0, 10).keys());
+    }
+
+    @Test
+    void testFuzzySearch_SkipsCorrectionsOfDeletedBooksAndShortTerms() {
+        index(1L, "Dune", "Frank Herbert");
+        index(2L, "Dane Law", "Some Historian");
+        searchIndex.onBookChanged(BookChangedEvent.deleted(2L));
+
+        // Assertions
+        assertEquals(List.of(1L), searchIndex.fuzzySearch("dane", 0, 10).keys());
+        assertEquals(0, searchIndex.fuzzySearch("la", 0, 10).totalHits());
+    }
+}
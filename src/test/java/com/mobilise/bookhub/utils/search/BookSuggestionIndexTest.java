@@ -0,0 +1,87 @@
+package com.mobilise.bookhub.utils.search;
+
+import com.mobilise.bookhub.dto.response.SuggestionResponseDto;
+import com.mobilise.bookhub.entity.Author;
+import com.mobilise.bookhub.entity.Book;
+import com.mobilise.bookhub.enums.SuggestionType;
+import com.mobilise.bookhub.repository.TransactionRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+class BookSuggestionIndexTest {
+    private final BookCatalog bookCatalog = mock(BookCatalog.class);
+    private final TransactionRepository transactionRepository = mock(TransactionRepository.class);
+    private final BookSuggestionIndex suggestionIndex = new BookSuggestionIndex(bookCatalog, transactionRepository, 5,
+            new SimpleMeterRegistry());
+    private final Author tolkien = Author.builder().id(1L).name("J. R. R. Tolkien").build();
+
+    private static Book book(long id, String title, Author author) {
+        return Book.builder().id(id).title(title).author(author).build();
+    }
+
+    private static TransactionRepository.BookTransactions loans(long bookId, long loans) {
+        return new TransactionRepository.BookTransactions() {
+            public Long getBookId() {
+                return bookId;
+            }
+
+            public long getTransactions() {
+                return loans;
+            }
+        };
+    }
+
+    @SuppressWarnings("unchecked")
+    private void build(Book... books) {
+        when(bookCatalog.forEach(any())).thenAnswer(invocation -> {
+            for (Book book : books) {
+                ((Consumer<Book>) invocation.getArgument(0)).accept(book);
+            }
+            return (long) books.length;
+        });
+        suggestionIndex.rebuild();
+    }
+
+    @Test
+    void testSuggest_RanksTitlesAndAuthorsByLoansFromAnyWord() {
+        when(transactionRepository.countByBook(anyCollection())).thenReturn(List.of(loans(1L, 9L), loans(2L, 3L)));
+        build(book(1L, "The Hobbit", tolkien), book(2L, "The Two Towers", tolkien), book(3L, "Holes", null));
+
+        // Assertions
+        assertTrue(suggestionIndex.isReady());
+        assertEquals(List.of(new SuggestionResponseDto("The Hobbit", SuggestionType.TITLE, 1L),
+                new SuggestionResponseDto("Holes", SuggestionType.TITLE, 3L)), suggestionIndex.suggest("ho", 5));
+        assertEquals(List.of(new SuggestionResponseDto("J. R. R. Tolkien", SuggestionType.AUTHOR, 1L)),
+                suggestionIndex.suggest("tolk", 5));
+        assertEquals(List.of(new SuggestionResponseDto("J. R. R. Tolkien", SuggestionType.AUTHOR, 1L),
+                new SuggestionResponseDto("The Hobbit", SuggestionType.TITLE, 1L)), suggestionIndex.suggest("T", 2));
+        assertEquals(List.of(new SuggestionResponseDto("The Two Towers", SuggestionType.TITLE, 2L)),
+                suggestionIndex.suggest("the tw", 5));
+        assertEquals(List.of(), suggestionIndex.suggest("holes ", 5));
+        assertEquals(List.of(), suggestionIndex.suggest(" !", 5));
+    }
+
+    @Test
+    void testOnBookChanged_FollowsEditsAndDeletesKeepingWeights() {
+        when(transactionRepository.countByBook(anyCollection())).thenReturn(List.of(loans(1L, 9L)));
+        build(book(1L, "The Hobbit", tolkien), book(2L, "Hobbies", null));
+
+        suggestionIndex.onBookChanged(BookChangedEvent.saved(book(1L, "The Hobbit, or There and Back Again", tolkien)));
+        List<SuggestionResponseDto> edited = suggestionIndex.suggest("hob", 5);
+        suggestionIndex.onBookChanged(BookChangedEvent.deleted(1L));
+
+        // Assertions
+        assertEquals(List.of(new SuggestionResponseDto("The Hobbit, or There and Back Again", SuggestionType.TITLE, 1L),
+                new SuggestionResponseDto("Hobbies", SuggestionType.TITLE, 2L)), edited);
+        assertEquals(List.of(new SuggestionResponseDto("Hobbies", SuggestionType.TITLE, 2L)), suggestionIndex.suggest("hob", 5));
+        assertEquals(List.of(), suggestionIndex.suggest("tolkien", 5));
+    }
+}
@@ -0,0 +1,81 @@
+package com.mobilise.bookhub.utils.search;
+
+import com.mobilise.bookhub.entity.Author;
+import com.mobilise.bookhub.entity.Book;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InvertedIndexTest {
+    private final InvertedIndex index = new InvertedIndex(1.2f, 0.75f);
+
+    private void put(long key, String text) {
+        index.put(key, BookSearchIndex.terms(Book.builder().title(text).build()));
+    }
+
+    @Test
+    void testSearch_RanksRarerAndRepeatedTermsFirst() {
+        put(1L, "The Hobbit");
+        put(2L, "The Hobbit and the Dragon of the Hobbit Hills");
+        put(3L, "Dragon Rider");
+        put(4L, "Dune");
+
+        InvertedIndex.Hits hits = index.search(List.of("hobbit", "rider"), 0, 10);
+
+        // Assertions
+        assertEquals(3, hits.totalHits());
+        assertEquals(List.of(3L, 1L, 2L), hits.keys());
+        assertEquals(List.of(1L), index.search(List.of("hobbit", "rider"), 1, 1).keys());
+        assertEquals(0, index.search(List.of("missing"), 0, 10).totalHits());
+    }
+
+    @Test
+    void testPutAndRemove_ReplaceAndDropDocuments() {
+        put(1L, "Dune");
+        put(1L, "Dune Messiah");
+        put(2L, "Children of Dune");
+        index.remove(2L);
+
+        // Assertions
+        assertEquals(1, index.size());
+        assertEquals(List.of(1L), index.search(List.of("dune"), 0, 10).keys());
+        assertEquals(List.of(1L), index.search(List.of("messiah"), 0, 10).keys());
+        assertEquals(0, index.search(List.of("children"), 0, 10).totalHits());
+        assertFalse(index.remove(2L));
+    }
+
+    @Test
+    void testRemove_CompactsAndKeepsLiveDocumentsSearchable() {
+        for (long key = 0; key < 4000; key++) {
+            index.put(key, Map.of("common", 1f, "book" + key, 1f));
+        }
+        for (long key = 0; key < 4000; key += 2) {
+            index.remove(key);
+        }
+
+        // Assertions
+        assertEquals(2000, index.size());
+        assertEquals(2000, index.search(List.of("common"), 0, 5).totalHits());
+        assertEquals(List.of(3999L), index.search(List.of("book3999"), 0, 5).keys());
+        assertEquals(0, index.search(List.of("book3998"), 0, 5).totalHits());
+    }
+
+    @Test
+    void testTerms_FoldDiacriticsWeighFieldsAndIndexIsbn() {
+        Book book = Book.builder().title("Les Misérables").isbn("978-0-14-044430-8")
+                .author(Author.builder().name("Victor Hugo").build()).description("Hugo's novel").build();
+
+        Map<String, Float> terms = BookSearchIndex.terms(book);
+
+        // Assertions
+        assertEquals(List.of("les", "miserables"), Tokenizer.tokenize("Les Misérables"));
+        assertEquals(3f, terms.get("miserables"));
+        assertEquals(3f, terms.get("hugo"));
+        assertEquals(1f, terms.get("9780140444308"));
+        assertEquals("9780140444308", Tokenizer.isbnTerm(" 978 0 14 044430 8 "));
+        assertNull(Tokenizer.isbnTerm("Victor Hugo"));
+    }
+}
@@ -0,0 +1,74 @@
+package com.mobilise.bookhub.utils.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RadixTrieTest {
+    private final RadixTrie<String> trie = new RadixTrie<>(3);
+
+    private List<String> top(String prefix) {
+        return trie.top(prefix, 10).stream().map(RadixTrie.Ranked::value).toList();
+    }
+
+    @Test
+    void testTop_RanksByWeightWithinPrefixAndSplitsEdges() {
+        trie.put("harry potter", "Harry Potter", 50);
+        trie.put("hard times", "Hard Times", 5);
+        trie.put("hamlet", "Hamlet", 20);
+        trie.put("hobbit", "The Hobbit", 40);
+        trie.put("dune", "Dune", 30);
+
+        // Assertions
+        assertEquals(List.of("Harry Potter", "The Hobbit", "Hamlet"), top("h"));
+        assertEquals(List.of("Harry Potter", "Hard Times"), top("har"));
+        assertEquals(List.of("Harry Potter"), top("harry p"));
+        assertEquals(List.of("Harry Potter", "The Hobbit", "Dune"), top(""));
+        assertEquals(List.of(), top("harz"));
+        assertEquals(List.of(), top("harry potter and"));
+        assertEquals(List.of("Harry Potter"), trie.top("h", 1).stream().map(RadixTrie.Ranked::value).toList());
+    }
+
+    @Test
+    void testPut_CountsValueUnderSeveralKeysOnceAndReranksOnNewWeight() {
+        trie.put("lord of the rings", "The Lord of the Rings", 10);
+        trie.put("rings", "The Lord of the Rings", 10);
+        trie.put("rebecca", "Rebecca", 15);
+        trie.put("roots", "Roots", 1);
+
+        List<String> before = top("r");
+        trie.put("rebecca", "Rebecca", 2);
+
+        // Assertions
+        assertEquals(List.of("Rebecca", "The Lord of the Rings", "Roots"), before);
+        assertEquals(List.of("The Lord of the Rings", "Rebecca", "Roots"), top("r"));
+        assertEquals(List.of("The Lord of the Rings", "Rebecca", "Roots"), top(""));
+        assertEquals(4, trie.size());
+    }
+
+    @Test
+    void testRemove_PromotesNextBestAndMergesEdges() {
+        trie.put("emma", "Emma", 9);
+        trie.put("emily", "Emily", 8);
+        trie.put("emil", "Emil", 7);
+        trie.put("ethan frome", "Ethan Frome", 6);
+        int nodes = trie.nodes();
+
+        trie.remove("emma", "Emma");
+        trie.remove("emily", "Emily");
+
+        // Assertions
+        assertEquals(List.of("Emil", "Ethan Frome"), top("e"));
+        assertEquals(List.of("Emil"), top("emi"));
+        assertTrue(trie.nodes() < nodes);
+        assertFalse(trie.remove("emily", "Emily"));
+        assertFalse(trie.remove("em", "Emil"));
+        trie.remove("emil", "Emil");
+        trie.remove("ethan frome", "Ethan Frome");
+        assertEquals(1, trie.nodes());
+        assertEquals(List.of(), top(""));
+        assertEquals(0, trie.size());
+    }
+}
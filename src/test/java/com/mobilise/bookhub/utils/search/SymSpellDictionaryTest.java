@@ -0,0 +1,48 @@
+package com.mobilise.bookhub.utils.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SymSpellDictionaryTest {
+    private final SymSpellDictionary dictionary = new SymSpellDictionary(2, 7);
+
+    @Test
+    void testLookup_FindsTermsWithinDistanceClosestFirst() {
+        List.of("tolkien", "tolkiens", "token", "hobbit", "silmarillion").forEach(dictionary::add);
+
+        List<SymSpellDictionary.Suggestion> suggestions = dictionary.lookup("tolkein", 2);
+
+        // Assertions
+        assertEquals(new SymSpellDictionary.Suggestion("tolkien", 1), suggestions.get(0));
+        assertEquals(Set.of("tolkien", "tolkiens", "token"), suggestions.stream().map(SymSpellDictionary.Suggestion::term).collect(Collectors.toSet()));
+        assertEquals(List.of(new SymSpellDictionary.Suggestion("tolkien", 1)), dictionary.lookup("tolkein", 1));
+        assertEquals(List.of(new SymSpellDictionary.Suggestion("hobbit", 0)), dictionary.lookup("hobbit", 2));
+        assertTrue(dictionary.lookup("dune", 2).isEmpty());
+    }
+
+    @Test
+    void testLookup_ComparesWholeTermsBeyondThePrefix() {
+        dictionary.add("silmarillion");
+        dictionary.add("silmaril");
+
+        // Assertions
+        assertEquals(List.of(new SymSpellDictionary.Suggestion("silmarillion", 1)), dictionary.lookup("silmarilion", 1));
+        assertTrue(dictionary.lookup("silmarxxxxxx", 2).isEmpty());
+        assertFalse(dictionary.add("silmaril"));
+        assertEquals(2, dictionary.size());
+    }
+
+    @Test
+    void testDistance_CountsTranspositionsAsOneEdit() {
+        // Assertions
+        assertEquals(1, SymSpellDictionary.distance("tolkein", "tolkien", 2));
+        assertEquals(2, SymSpellDictionary.distance("austen", "asuten ", 2));
+        assertEquals(3, SymSpellDictionary.distance("orwell", "dickens", 2));
+        assertEquals(0, SymSpellDictionary.distance("", "", 2));
+    }
+}